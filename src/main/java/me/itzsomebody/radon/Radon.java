@@ -19,27 +19,37 @@
 package me.itzsomebody.radon;
 
 import java.io.*;
-import java.lang.reflect.Field;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.stream.IntStream;
 import java.util.zip.*;
 
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.commons.JSRInlinerAdapter;
+import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.MethodNode;
 
-import me.itzsomebody.radon.asm.ClassTree;
+import me.itzsomebody.radon.asm.ClassHierarchy;
+import me.itzsomebody.radon.asm.ClassInfo;
+import me.itzsomebody.radon.asm.ClassRegistry;
 import me.itzsomebody.radon.asm.ClassWrapper;
+import me.itzsomebody.radon.classpath.LibraryClassSummary;
+import me.itzsomebody.radon.classpath.LibraryIndex;
+import me.itzsomebody.radon.classpath.PlatformClassPath;
 import me.itzsomebody.radon.config.ObfuscationConfiguration;
-import me.itzsomebody.radon.exceptions.MissingClassException;
 import me.itzsomebody.radon.exceptions.RadonException;
 import me.itzsomebody.radon.exclusions.ExclusionType;
+import me.itzsomebody.radon.io.MappedZipFile;
+import me.itzsomebody.radon.io.ParallelZipWriter;
+import me.itzsomebody.radon.io.ResourceStore;
 import me.itzsomebody.radon.transformers.Transformer;
 import me.itzsomebody.radon.transformers.miscellaneous.TrashClasses;
 import me.itzsomebody.radon.utils.FileUtils;
-import me.itzsomebody.radon.utils.IOUtils;
-import me.itzsomebody.radon.utils.RandomUtils;
 import me.itzsomebody.radon.utils.Strings;
 
 /**
@@ -110,10 +120,12 @@ import me.itzsomebody.radon.utils.Strings;
 public class Radon
 {
 	public final ObfuscationConfiguration config;
-	private final Map<String, ClassTree> hierarchy = new HashMap<>();
-	public final Map<String, ClassWrapper> classes = new HashMap<>();
-	public final Map<String, ClassWrapper> classPath = new HashMap<>();
-	public final Map<String, byte[]> resources = new HashMap<>();
+	public final ClassRegistry classes = new ClassRegistry();
+	public final Map<String, ClassWrapper> classPath = new ConcurrentHashMap<>();
+	public final ResourceStore resources = new ResourceStore();
+	public final LibraryIndex libraries = new LibraryIndex();
+	public final ClassHierarchy hierarchy = new ClassHierarchy(this::getClassInfo);
+	private MappedZipFile inputArchive;
 
 	public Radon(final ObfuscationConfiguration config)
 	{
@@ -182,9 +194,14 @@ public class Radon
 		Main.info(Strings.START_WRITING);
 		Main.infoNewline();
 		writeOutput();
+		closeInput();
 		Main.infoNewline();
 		Main.info(Strings.END_WRITING);
 		Main.infoNewline();
+
+		Main.info(String.format("+ Resolved %d library and platform classes on demand (%d library classes indexed).", libraries.resolvedCount(), libraries.size()));
+		Main.info(String.format("+ Computed %d common super classes for frames, %d more lookups were served from the cache.", hierarchy.getCommonSuperClassMisses(), hierarchy.getCommonSuperClassHits()));
+		libraries.close();
 	}
 
 	private void writeOutput()
@@ -196,60 +213,50 @@ public class Radon
 		if (output.exists())
 			Main.info(String.format("*** Output file already exists, renamed to %s.", FileUtils.renameExistingFile(output)));
 
-		try
+		try (final ParallelZipWriter zip = new ParallelZipWriter(new FileOutputStream(output), config.compressionLevel))
 		{
-			final ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(output));
-			zos.setLevel(config.compressionLevel);
 			Main.info(String.format("*** Output jar compression level is %d.", config.compressionLevel));
 
 			if (config.corruptCrc)
-				try
-				{
-					final Field crcField = ZipOutputStream.class.getDeclaredField("crc");
-					crcField.setAccessible(true);
-					crcField.set(zos, new CRC32Corrupter());
+			{
+				zip.setCorruptCrc(true);
+				Main.info("+ Corrupting CRC-32 of all entries.");
+			}
 
-					Main.info("+ Injected CRC corrupter.");
-				}
-				catch (final Exception e)
-				{
-					Main.severe("*** Failed to inject CRC corrupter.", e);
-				}
+			// Serialize the classes in parallel; the writer compresses them as they finish and writes them in entry name order
+			// Entries no transformer could have changed are copied from the input still compressed
+			int copied = 0;
 
-			classes.values().forEach(classWrapper ->
+			final List<ClassWrapper> sorted = new ArrayList<>(classes.values());
+			sorted.sort(Comparator.comparing(ClassWrapper::getEntryName));
+			for (final ClassWrapper classWrapper : sorted)
 			{
-				try
+				final Consumer<Throwable> onError = e -> Main.severe(String.format("*** Error writing class %s. Skipping.", classWrapper.getName() + ".class"), e);
+				if (classWrapper.originalEntry != null && isUnchanged(classWrapper))
 				{
-					final ZipEntry entry = new ZipEntry(classWrapper.getEntryName());
-
-					zos.putNextEntry(entry);
-					zos.write(classWrapper.toByteArray(this));
-					zos.closeEntry();
-				}
-				catch (final Throwable e)
-				{
-					Main.severe(String.format("*** Error writing class %s. Skipping.", classWrapper.getName() + ".class"), e);
+					zip.putRawEntry(classWrapper.getEntryName(), classWrapper.originalEntry, onError);
+					copied++;
 				}
-			});
+				else
+					zip.putEntry(classWrapper.getEntryName(), CompletableFuture.supplyAsync(() -> classWrapper.toByteArray(this)), onError);
+			}
 
-			resources.forEach((name, bytes) ->
+			for (final String name : new TreeSet<>(resources.keySet()))
 			{
-				try
+				final Consumer<Throwable> onError = e -> Main.severe(String.format("*** Error writing resource %s. Skipping.", name), e);
+				final MappedZipFile.Entry pristine = resources.getPristineEntry(name);
+				if (pristine != null)
 				{
-					final ZipEntry entry = new ZipEntry(name);
-
-					zos.putNextEntry(entry);
-					zos.write(bytes);
-					zos.closeEntry();
-				}
-				catch (final Throwable ioe)
-				{
-					Main.severe(String.format("*** Error writing resource %s. Skipping.", name), ioe);
+					zip.putRawEntry(name, pristine, onError);
+					copied++;
 				}
-			});
+				else
+					zip.putEntry(name, CompletableFuture.supplyAsync(() -> resources.get(name)), onError);
+			}
 
-			zos.setComment(Main.ATTRIBUTION);
-			zos.close();
+			Main.info(String.format("+ Copied %d unchanged entries without recompressing them.", copied));
+
+			zip.setComment(Main.ATTRIBUTION);
 		}
 		catch (final IOException ioe)
 		{
@@ -259,49 +266,57 @@ public class Radon
 		Main.info(Transformer.tookThisLong(nanoTime));
 	}
 
-	private void loadClassPath()
+	/**
+	 * @return true if the class is still exactly as it was loaded. No transformer may have declared that it may modify the class (see {@link Transformer#mayModify(ClassWrapper)}), which also covers the changes made in place, and the dirty tracking of {@link ClassWrapper#isModified()} must confirm that it wasn't modified.
+	 */
+	private boolean isUnchanged(final ClassWrapper classWrapper)
 	{
-		config.libraries.forEach(file ->
+		if (config.transformers.stream().anyMatch(transformer -> transformer.mayModify(classWrapper)))
+			return false;
+
+		if (classWrapper.isModified())
 		{
-			if (file.exists())
-			{
-				Main.info(String.format("+ Loading library \"%s\".", file.getAbsolutePath()));
+			Main.warn(String.format("*** Class %s was modified although no transformer declared that it may modify it.", classWrapper.getName()));
+			return false;
+		}
 
-				try (final ZipFile zipFile = new ZipFile(file))
-				{
-					final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+		return true;
+	}
 
-					while (entries.hasMoreElements())
-					{
-						final ZipEntry entry = entries.nextElement();
+	private void closeInput()
+	{
+		try
+		{
+			resources.close();
+			if (inputArchive != null)
+				inputArchive.close();
+		}
+		catch (final IOException e)
+		{
+			Main.warn(String.format("*** Failed to close input \"%s\".", inputArchive), e);
+		}
+	}
 
-						if (!entry.isDirectory() && entry.getName().endsWith(".class"))
-							try
-							{
-								final ClassWrapper cw = new ClassWrapper(new ClassReader(zipFile.getInputStream(entry)), true);
-								classPath.put(cw.getName(), cw);
-							}
-							catch (final Throwable t)
-							{
-								Main.severe(String.format("*** Error while loading library class \"%s\".", entry.getName()));
-								t.printStackTrace();
-							}
-					}
-				}
-				catch (final ZipException e)
-				{
-					Main.severe(String.format("*** Library \"%s\" could not be opened as a zip file.", file.getAbsolutePath()));
-					e.printStackTrace();
-				}
-				catch (final IOException e)
-				{
-					Main.severe(String.format("*** IOException happened while trying to load classes from \"%s\".", file.getAbsolutePath()));
-					e.printStackTrace();
-				}
+	private void loadClassPath()
+	{
+		final long nanoTime = System.nanoTime();
+		libraries.index(config.libraries, config.libraryCache);
+
+		if (config.platformClassPath)
+		{
+			try
+			{
+				final PlatformClassPath platform = PlatformClassPath.open(config.jdkHome);
+				libraries.setPlatform(platform);
+				Main.info(String.format("+ Resolving platform classes from \"%s\".", platform));
 			}
-			else
-				Main.warn(String.format("*** Library \"%s\" could not be found and will be ignored.", file.getAbsolutePath()));
-		});
+			catch (final IOException | RadonException e)
+			{
+				Main.severe("*** Could not open the platform classes; they must be provided as libraries.");
+				e.printStackTrace();
+			}
+		}
+		Main.info(String.format("+ Indexed %d library classes. [%s]", libraries.size(), decodeRate(libraries.size(), nanoTime)));
 	}
 
 	private void loadInput()
@@ -312,47 +327,85 @@ public class Radon
 		{
 			Main.info(String.format("+ Loading input \"%s\".", input.getAbsolutePath()));
 
-			try (final ZipFile zipFile = new ZipFile(input))
+			final long nanoTime = System.nanoTime();
+			final LongAdder decoded = new LongAdder();
+
+			try
 			{
-				final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+				// Kept open until the output is written, so unchanged entries can be copied from it
+				inputArchive = new MappedZipFile(input);
+				final List<MappedZipFile.Entry> entries = new ArrayList<>();
+				for (final MappedZipFile.Entry entry : inputArchive.entries())
+					if (!entry.isDirectory())
+						entries.add(entry);
 
-				while (entries.hasMoreElements())
+				// Entries are decoded in parallel but merged in central directory order, so that the last of several entries with the same name wins regardless of thread scheduling
+				final ClassWrapper[] loaded = new ClassWrapper[entries.size()];
+				IntStream.range(0, loaded.length).parallel().forEach(index ->
 				{
-					final ZipEntry entry = entries.nextElement();
-					final InputStream in = zipFile.getInputStream(entry);
+					final MappedZipFile.Entry entry = entries.get(index);
+					final String entryName = entry.getName();
+					if (!entryName.endsWith(".class"))
+						return;
 
-					if (!entry.isDirectory())
-						if (entry.getName().endsWith(".class"))
-							try
-							{
-								final ClassWrapper cw = new ClassWrapper(new ClassReader(in), false);
-
-								if (cw.getVersion() <= Opcodes.V1_5)
-								{
-									IntStream.range(0, cw.methods.size()).forEach(i ->
-									{
-										final MethodNode methodNode = cw.methods.get(i).methodNode;
-										final JSRInlinerAdapter adapter = new JSRInlinerAdapter(methodNode, methodNode.access, methodNode.name, methodNode.desc, methodNode.signature, methodNode.exceptions.toArray(new String[0]));
-										methodNode.accept(adapter);
-										cw.methods.get(i).methodNode = adapter;
-									});
-								}
-
-								classPath.put(cw.getName(), cw);
-								classes.put(cw.getName(), cw);
-
-								final String entryName = entry.getName();
-								final String wrapperEntryName = cw.getEntryName();
-								if (entryName.endsWith(wrapperEntryName) && !entryName.equals(wrapperEntryName))
-									cw.entryPrefix = entry.getName().substring(0, entryName.length() - wrapperEntryName.length());
-							}
-							catch (final Throwable t)
+					final byte[] bytes;
+
+					try
+					{
+						bytes = entry.read();
+					}
+					catch (final IOException e)
+					{
+						Main.severe(String.format("*** Could not read entry \"%s\".", entryName), e);
+						throw new RadonException(e);
+					}
+
+					decoded.increment();
+
+					try
+					{
+						final ClassWrapper cw = new ClassWrapper(new ClassReader(bytes), false);
+						cw.originalEntry = entry;
+
+						if (cw.getVersion() <= Opcodes.V1_5)
+						{
+							IntStream.range(0, cw.methods.size()).forEach(i ->
 							{
-								Main.warn(String.format("*** Could not load %s as a class and will be loaded as resource.", entry.getName()));
-								resources.put(entry.getName(), IOUtils.toByteArray(in));
-							}
-						else
-							resources.put(entry.getName(), IOUtils.toByteArray(in));
+								final MethodNode methodNode = cw.methods.get(i).methodNode;
+								if (!hasSubroutines(methodNode))
+									return;
+
+								final JSRInlinerAdapter adapter = new JSRInlinerAdapter(methodNode, methodNode.access, methodNode.name, methodNode.desc, methodNode.signature, methodNode.exceptions.toArray(new String[0]));
+								methodNode.accept(adapter);
+								cw.methods.get(i).methodNode = adapter;
+								cw.originalEntry = null;
+							});
+						}
+
+						final String wrapperEntryName = cw.getEntryName();
+						if (entryName.endsWith(wrapperEntryName) && !entryName.equals(wrapperEntryName))
+							cw.entryPrefix = entryName.substring(0, entryName.length() - wrapperEntryName.length());
+
+						loaded[index] = cw;
+					}
+					catch (final Throwable t)
+					{
+						Main.warn(String.format("*** Could not load %s as a class and will be loaded as resource.", entryName));
+					}
+				});
+
+				for (int i = 0, j = loaded.length; i < j; i++)
+				{
+					final ClassWrapper cw = loaded[i];
+					if (cw == null)
+					{
+						final MappedZipFile.Entry entry = entries.get(i);
+						resources.putPristine(entry.getName(), entry);
+						continue;
+					}
+
+					classPath.put(cw.getName(), cw);
+					classes.put(cw.getName(), cw);
 				}
 			}
 			catch (final ZipException e)
@@ -367,6 +420,8 @@ public class Radon
 				e.printStackTrace();
 				throw new RadonException(e);
 			}
+
+			Main.info(String.format("+ Decoded %d input classes, %d resources are read on demand. [%s]", decoded.sum(), resources.size(), decodeRate(decoded.sum(), nanoTime)));
 		}
 		else
 		{
@@ -375,6 +430,21 @@ public class Radon
 		}
 	}
 
+	private static boolean hasSubroutines(final MethodNode methodNode)
+	{
+		for (final AbstractInsnNode insn : methodNode.instructions)
+			if (insn.getOpcode() == Opcodes.JSR)
+				return true;
+
+		return false;
+	}
+
+	private static String decodeRate(final long entries, final long nanoTime)
+	{
+		final long nanoSeconds = Math.max(1, System.nanoTime() - nanoTime);
+		return String.format("Took %dms, %d entries/s", TimeUnit.NANOSECONDS.toMillis(nanoSeconds), entries * TimeUnit.SECONDS.toNanos(1) / nanoSeconds);
+	}
+
 	/**
 	 * Finds {@link ClassWrapper} with given name.
 	 *
@@ -385,61 +455,42 @@ public class Radon
 	 */
 	public ClassWrapper getClassWrapper(final String ref)
 	{
-		if (!classPath.containsKey(ref))
+		ClassWrapper wrapper = classPath.get(ref);
+		if (wrapper == null)
+			wrapper = libraries.resolve(ref);
+		if (wrapper == null)
 			throw new RadonException("Could not find " + ref);
 
-		return classPath.get(ref);
+		return wrapper;
 	}
 
 	/**
-	 * Finds {@link ClassTree} with given name.
+	 * Finds the hierarchy information of the class with given name. Unlike {@link #getClassWrapper(String)}, library classes are served from their compact {@link LibraryClassSummary}.
 	 *
-	 * @return                {@link ClassTree}.
+	 * @return                {@link ClassInfo}.
 	 *
 	 * @throws RadonException
-	 *                        if there are missing classes needed to build the inheritance tree.
+	 *                        if not found.
 	 */
-	public ClassTree getTree(final String ref)
+	public ClassInfo getClassInfo(final String ref)
 	{
-		if (!hierarchy.containsKey(ref))
-		{
-			final ClassWrapper wrapper = getClassWrapper(ref);
-			buildHierarchy(wrapper, null);
-		}
-
-		return hierarchy.get(ref);
-	}
-
-	private void buildHierarchy(final ClassWrapper wrapper, final ClassWrapper sub)
-	{
-		if (hierarchy.get(wrapper.getName()) == null)
-		{
-			final ClassTree tree = new ClassTree(wrapper);
-
-			if (wrapper.getSuperName() != null)
-			{
-				tree.parentClasses.add(wrapper.getSuperName());
-
-				buildHierarchy(getClassWrapper(wrapper.getSuperName()), wrapper);
-			}
-			if (wrapper.getInterfaces() != null)
-				wrapper.getInterfaces().forEach(s ->
-				{
-					tree.parentClasses.add(s);
-
-					buildHierarchy(getClassWrapper(s), wrapper);
-				});
-
-			hierarchy.put(wrapper.getName(), tree);
-		}
+		ClassInfo info = classPath.get(ref);
+		if (info == null)
+			info = classes.get(ref); // Generated by a transformer
+		if (info == null)
+			info = libraries.resolveSummary(ref);
+		if (info == null)
+			throw new RadonException("Could not find " + ref);
 
-		if (sub != null)
-			hierarchy.get(wrapper.getName()).subClasses.add(sub.getName());
+		return info;
 	}
 
+	/**
+	 * Adds all input classes and their ancestors to the class hierarchy at once.
+	 */
 	public void buildInheritance()
 	{
-		classes.values().forEach(classWrapper -> buildHierarchy(classWrapper, null));
+		hierarchy.build(classes.values());
 	}
 
 	/**
@@ -447,50 +498,6 @@ public class Radon
 	 */
 	public boolean isAssignableFrom(final String type1, final String type2)
 	{
-		if ("java/lang/Object".equals(type1))
-			return true;
-		if (type1.equals(type2))
-			return true;
-
-		getClassWrapper(type1);
-		getClassWrapper(type2);
-
-		final ClassTree firstTree = getTree(type1);
-		if (firstTree == null)
-			throw new MissingClassException("Could not find " + type1 + " in the built class hierarchy");
-
-		final Collection<String> allChildren = new HashSet<>();
-		final Deque<String> toProcess = new ArrayDeque<>(firstTree.subClasses);
-		while (!toProcess.isEmpty())
-		{
-			final String s = toProcess.poll();
-
-			if (allChildren.add(s))
-			{
-				getClassWrapper(s);
-				final ClassTree tempTree = getTree(s);
-				toProcess.addAll(tempTree.subClasses);
-			}
-		}
-		return allChildren.contains(type2);
-	}
-
-	private static class CRC32Corrupter extends CRC32
-	{
-		@Override
-		public void update(final byte[] b, final int off, final int len)
-		{
-			// Don't update the CRC
-		}
-
-		@Override
-		public final long getValue()
-		{
-			return RandomUtils.getRandomLong(0xFFFFFFFFL);
-		}
-
-		CRC32Corrupter()
-		{
-		}
+		return hierarchy.isAssignableFrom(type1, type2);
 	}
 }
@@ -0,0 +1,437 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.asm;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import me.itzsomebody.radon.exceptions.RadonException;
+
+/**
+ * Index of the class hierarchy. Class names are interned to int ids, and the direct parents and children of every class are kept as int arrays.
+ * <p>
+ * Subtype queries take constant time: classes are numbered in pre/post-order of the super class tree, so a class extends another one iff its interval lies within the other's, and every class keeps a bitset of all the interfaces it implements. Classes are added on demand (with all their ancestors); the ones added after the last numbering are answered by walking their super class chain up to a numbered ancestor, and the tree is renumbered once enough of them have accumulated.
+ * <p>
+ * Common super classes, as needed by every {@link CustomClassWriter} computing frames, are memoized per unordered pair of ids. Neither the ids nor the ancestors of an indexed class ever change (renaming only changes the name behind an id), so the memoized answers never have to be invalidated.
+ * <p>
+ * All operations are safe to call from any thread.
+ *
+ * @author hsheric0210
+ */
+public class ClassHierarchy
+{
+	private static final int NONE = -1;
+	private static final String OBJECT = "java/lang/Object";
+
+	private final Function<String, ClassInfo> resolver;
+	private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+	private final Set<String> resolving = new HashSet<>();
+	private volatile Node[] nodes = new Node[1024];
+	private volatile int size;
+	private int interfaceCount;
+	private volatile Numbering numbering = new Numbering(0, new int[0], new int[0]);
+	private final Map<Long, Integer> commonSuperClasses = new ConcurrentHashMap<>();
+	private final LongAdder commonSuperClassHits = new LongAdder();
+	private final LongAdder commonSuperClassMisses = new LongAdder();
+
+	/**
+	 * @param resolver
+	 *                 finds the {@link ClassInfo} of a class by its name; expected to throw if the class can't be found.
+	 */
+	public ClassHierarchy(final Function<String, ClassInfo> resolver)
+	{
+		this.resolver = resolver;
+	}
+
+	/**
+	 * Adds the given classes and all of their ancestors to the index, and numbers the resulting tree. The ancestors are resolved in parallel.
+	 */
+	public void build(final Collection<? extends ClassInfo> classes)
+	{
+		final Set<String> visited = ConcurrentHashMap.newKeySet();
+		classes.parallelStream().forEach(info -> resolveAncestors(info, visited));
+
+		synchronized (this)
+		{
+			classes.forEach(info -> idOf(info.getName(), info));
+			renumber();
+		}
+	}
+
+	private void resolveAncestors(final ClassInfo info, final Set<? super String> visited)
+	{
+		if (info.getSuperName() != null && visited.add(info.getSuperName()))
+			resolveAncestors(resolver.apply(info.getSuperName()), visited);
+
+		if (info.getInterfaces() != null)
+			info.getInterfaces().stream().filter(visited::add).forEach(name -> resolveAncestors(resolver.apply(name), visited));
+	}
+
+	/**
+	 * @return the id of the class with the given name, adding it (and its ancestors) to the index if needed.
+	 *
+	 * @throws RadonException
+	 *                        if the class or one of its ancestors can't be found.
+	 */
+	public int getId(final String name)
+	{
+		final Integer id = ids.get(name);
+		if (id != null)
+			return id;
+
+		final ClassInfo info = resolver.apply(name);
+		synchronized (this)
+		{
+			return idOf(name, info);
+		}
+	}
+
+	public String getName(final int id)
+	{
+		return nodes[id].name;
+	}
+
+	public ClassInfo getInfo(final int id)
+	{
+		return nodes[id].info;
+	}
+
+	/**
+	 * @return ids of the super class and the directly implemented interfaces.
+	 */
+	public int[] getParents(final int id)
+	{
+		final Node node = nodes[id];
+		if (node.superId == NONE)
+			return node.interfaceIds.clone();
+
+		final int[] parents = new int[node.interfaceIds.length + 1];
+		parents[0] = node.superId;
+		System.arraycopy(node.interfaceIds, 0, parents, 1, node.interfaceIds.length);
+		return parents;
+	}
+
+	/**
+	 * @return ids of the indexed classes which directly extend or implement the given class.
+	 */
+	public synchronized int[] getChildren(final int id)
+	{
+		final Node node = nodes[id];
+		return Arrays.copyOf(node.children, node.childCount);
+	}
+
+	/**
+	 * Updates the names of renamed classes. All old names are released before any new name is taken, so classes may swap or shift their names among each other.
+	 *
+	 * @param  renames
+	 *                        old names mapped to the new names. Classes which are not indexed are ignored.
+	 *
+	 * @throws RadonException if a new name is taken by a class which is not renamed, or by several renamed classes.
+	 */
+	public synchronized void rename(final Map<String, String> renames)
+	{
+		final Map<Integer, String> renamed = new HashMap<>(renames.size());
+		renames.forEach((oldName, newName) ->
+		{
+			final Integer id = ids.remove(oldName);
+			if (id != null)
+				renamed.put(id, newName);
+		});
+
+		renamed.forEach((id, newName) ->
+		{
+			final Integer existing = ids.putIfAbsent(newName, id);
+			if (existing != null)
+				throw new RadonException(String.format("Can't rename class %s to %s, the name is already taken by class %s", nodes[id].name, newName, nodes[existing].name));
+
+			nodes[id].name = newName;
+		});
+	}
+
+	/**
+	 * Equivalent to the following: Class clazz1 = something; Class class2 = somethingElse; return class1.isAssignableFrom(class2);
+	 */
+	public boolean isAssignableFrom(final String type1, final String type2)
+	{
+		if (OBJECT.equals(type1) || type1.equals(type2))
+			return true;
+
+		return isAssignableFrom(getId(type1), getId(type2));
+	}
+
+	/**
+	 * @see #isAssignableFrom(String, String)
+	 */
+	public boolean isAssignableFrom(final int ancestor, final int descendant)
+	{
+		if (ancestor == descendant)
+			return true;
+
+		final Numbering numbering = getNumbering();
+		final Node[] nodes = this.nodes;
+		final Node first = nodes[ancestor];
+		if (first.interfaceIndex != NONE)
+			return nodes[descendant].interfaces.get(first.interfaceIndex);
+		if (nodes[descendant].interfaceIndex != NONE)
+			return OBJECT.equals(first.name);
+
+		// Classes added after the numbering are leaves of the numbered tree, walk up until we reach it
+		int id = descendant;
+		while (id >= numbering.count)
+		{
+			id = nodes[id].superId;
+			if (id == ancestor)
+				return true;
+			if (id == NONE)
+				return false;
+		}
+
+		return ancestor < numbering.count && numbering.pre[ancestor] <= numbering.pre[id] && numbering.post[id] <= numbering.post[ancestor];
+	}
+
+	/**
+	 * Finds the common super class of the given types, the same way as {@link org.objectweb.asm.ClassWriter#getCommonSuperClass(String, String)}: one of them if it is assignable from the other, java/lang/Object if either is an interface, or else their closest common super class.
+	 */
+	public String getCommonSuperClass(final String type1, final String type2)
+	{
+		if (OBJECT.equals(type1) || OBJECT.equals(type2))
+			return OBJECT;
+
+		final int first = getId(type1);
+		final int second = getId(type2);
+		final Long key = first < second ? (long) first << 32 | second : (long) second << 32 | first;
+		final Integer cached = commonSuperClasses.get(key);
+		if (cached != null)
+		{
+			commonSuperClassHits.increment();
+			return getName(cached);
+		}
+
+		commonSuperClassMisses.increment();
+		final int common = computeCommonSuperClass(first, second);
+		commonSuperClasses.put(key, common);
+		return getName(common);
+	}
+
+	private int computeCommonSuperClass(final int first, final int second)
+	{
+		if (isAssignableFrom(first, second))
+			return first;
+		if (isAssignableFrom(second, first))
+			return second;
+
+		final Node[] nodes = this.nodes;
+		if (nodes[first].interfaceIndex != NONE || nodes[second].interfaceIndex != NONE)
+			return getId(OBJECT);
+
+		int id = first;
+		do
+			id = nodes[id].superId;
+		while (id != NONE && !isAssignableFrom(id, second));
+
+		return id == NONE ? getId(OBJECT) : id;
+	}
+
+	/**
+	 * @return the number of {@link #getCommonSuperClass(String, String)} calls answered from the memoized results.
+	 */
+	public long getCommonSuperClassHits()
+	{
+		return commonSuperClassHits.sum();
+	}
+
+	/**
+	 * @return the number of {@link #getCommonSuperClass(String, String)} calls which had to be computed.
+	 */
+	public long getCommonSuperClassMisses()
+	{
+		return commonSuperClassMisses.sum();
+	}
+
+	private Numbering getNumbering()
+	{
+		final Numbering current = numbering;
+		if (size - current.count <= (current.count >> 2) + 64)
+			return current;
+
+		synchronized (this)
+		{
+			if (numbering == current)
+				renumber();
+			return numbering;
+		}
+	}
+
+	// Callers hold the lock
+	private int idOf(final String name, final ClassInfo info)
+	{
+		final Integer existing = ids.get(name);
+		if (existing != null)
+			return existing;
+
+		if (!resolving.add(name))
+			throw new RadonException("Cyclic inheritance involving " + name);
+
+		try
+		{
+			final int superId = info.getSuperName() == null ? NONE : idOf(info.getSuperName());
+			final List<String> interfaces = info.getInterfaces() == null ? Collections.<String> emptyList() : info.getInterfaces();
+			final int[] interfaceIds = new int[interfaces.size()];
+			for (int i = 0, j = interfaceIds.length; i < j; i++)
+				interfaceIds[i] = idOf(interfaces.get(i));
+
+			final BitSet implemented = new BitSet();
+			if (superId != NONE)
+				implemented.or(nodes[superId].interfaces);
+			for (final int interfaceId : interfaceIds)
+				implemented.or(nodes[interfaceId].interfaces);
+
+			int interfaceIndex = NONE;
+			if (info.isInterface())
+			{
+				interfaceIndex = interfaceCount++;
+				implemented.set(interfaceIndex);
+			}
+
+			final int id = size;
+			if (id == nodes.length)
+				nodes = Arrays.copyOf(nodes, id << 1);
+			nodes[id] = new Node(name, info, superId, interfaceIds, interfaceIndex, implemented);
+			size = id + 1;
+
+			if (superId != NONE)
+				nodes[superId].addChild(id);
+			for (final int interfaceId : interfaceIds)
+				nodes[interfaceId].addChild(id);
+
+			// Publish only after the node is complete
+			ids.put(name, id);
+			return id;
+		}
+		finally
+		{
+			resolving.remove(name);
+		}
+	}
+
+	private int idOf(final String name)
+	{
+		final Integer existing = ids.get(name);
+		return existing != null ? existing : idOf(name, resolver.apply(name));
+	}
+
+	// Callers hold the lock
+	private void renumber()
+	{
+		final int count = size;
+		final Node[] nodes = this.nodes;
+		final int[] pre = new int[count];
+		final int[] post = new int[count];
+		final int[] stack = new int[count];
+		final int[] cursor = new int[count];
+		int counter = 0;
+
+		for (int root = 0; root < count; root++)
+		{
+			if (nodes[root].superId != NONE)
+				continue;
+
+			int depth = 0;
+			stack[0] = root;
+			cursor[0] = 0;
+			pre[root] = counter++;
+
+			while (depth >= 0)
+			{
+				final int parent = stack[depth];
+				final Node node = nodes[parent];
+				if (cursor[depth] < node.childCount)
+				{
+					final int child = node.children[cursor[depth]++];
+					if (nodes[child].superId != parent)
+						continue; // Implements the interface, but isn't a sub class of it
+
+					stack[++depth] = child;
+					cursor[depth] = 0;
+					pre[child] = counter++;
+				}
+				else
+				{
+					post[parent] = counter++;
+					depth--;
+				}
+			}
+		}
+
+		numbering = new Numbering(count, pre, post);
+	}
+
+	private static final class Node
+	{
+		volatile String name;
+		final ClassInfo info;
+		final int superId;
+		final int[] interfaceIds;
+		final int interfaceIndex;
+		final BitSet interfaces;
+		int[] children = new int[0];
+		int childCount;
+
+		Node(final String name, final ClassInfo info, final int superId, final int[] interfaceIds, final int interfaceIndex, final BitSet interfaces)
+		{
+			this.name = name;
+			this.info = info;
+			this.superId = superId;
+			this.interfaceIds = interfaceIds;
+			this.interfaceIndex = interfaceIndex;
+			this.interfaces = interfaces;
+		}
+
+		void addChild(final int id)
+		{
+			if (childCount == children.length)
+				children = Arrays.copyOf(children, Math.max(4, childCount << 1));
+			children[childCount++] = id;
+		}
+	}
+
+	private static final class Numbering
+	{
+		final int count;
+		final int[] pre;
+		final int[] post;
+
+		Numbering(final int count, final int[] pre, final int[] post)
+		{
+			this.count = count;
+			this.pre = pre;
+			this.post = post;
+		}
+	}
+}
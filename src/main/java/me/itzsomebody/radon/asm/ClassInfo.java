@@ -0,0 +1,70 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.asm;
+
+import java.util.List;
+
+import org.objectweb.asm.Opcodes;
+
+/**
+ * The hierarchy and member-signature view of a class, shared by {@link ClassWrapper} and the compact {@link me.itzsomebody.radon.classpath.LibraryClassSummary}.
+ *
+ * @author hsheric0210
+ */
+public interface ClassInfo
+{
+	/**
+	 * @return internal name of the class.
+	 */
+	String getName();
+
+	/**
+	 * @return internal name of the super class, or null for java/lang/Object and module-info.
+	 */
+	String getSuperName();
+
+	/**
+	 * @return internal names of the directly implemented interfaces.
+	 */
+	List<String> getInterfaces();
+
+	/**
+	 * @return raw access flags of the class.
+	 */
+	int getAccessFlags();
+
+	/**
+	 * @return true if the class was loaded from the libraries.
+	 */
+	boolean isLibraryNode();
+
+	boolean isMethodPresent(String name, String desc);
+
+	boolean isFieldPresent(String name, String desc);
+
+	default boolean isInterface()
+	{
+		return (getAccessFlags() & Opcodes.ACC_INTERFACE) != 0;
+	}
+
+	default boolean isEnum()
+	{
+		return (getAccessFlags() & Opcodes.ACC_ENUM) != 0;
+	}
+}
@@ -0,0 +1,226 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.asm;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import me.itzsomebody.radon.utils.RandomUtils;
+
+/**
+ * The input (and generated) classes by their current name.
+ * <p>
+ * Besides being a map, it keeps pools of the classes matching a filter (e.g. the classes a transformer may use as the host of generated code), from which a random class is picked in constant time. A pool is built on the first request for it and kept up to date as classes are put and removed, so the filter must always give the same result for the same class. All operations are safe to call from any thread.
+ *
+ * @author hsheric0210
+ */
+public final class ClassRegistry extends AbstractMap<String, ClassWrapper>
+{
+	private final Map<String, ClassWrapper> classes = new ConcurrentHashMap<>();
+	private final Set<Map.Entry<String, ClassWrapper>> entrySet = new EntrySet();
+
+	/**
+	 * Guarded by {@code this}.
+	 */
+	private final Map<Object, Pool> pools = new HashMap<>();
+
+	/**
+	 * @param  key
+	 *                identifies the pool; the same key must always be passed with the same filter.
+	 * @param  filter
+	 *                the classes to pick from.
+	 * @return        a random class matching the filter.
+	 * @throws IllegalArgumentException
+	 *                                  if no class matches the filter.
+	 */
+	public synchronized ClassWrapper getRandom(final Object key, final Predicate<? super ClassWrapper> filter)
+	{
+		return pools.computeIfAbsent(key, k ->
+		{
+			final Pool pool = new Pool(filter);
+			classes.values().forEach(pool::add);
+			return pool;
+		}).getRandom();
+	}
+
+	@Override
+	public ClassWrapper get(final Object key)
+	{
+		return classes.get(key);
+	}
+
+	@Override
+	public boolean containsKey(final Object key)
+	{
+		return classes.containsKey(key);
+	}
+
+	@Override
+	public ClassWrapper put(final String key, final ClassWrapper value)
+	{
+		final ClassWrapper previous = classes.put(key, Objects.requireNonNull(value));
+		if (previous != value)
+			synchronized (this)
+			{
+				pools.values().forEach(pool ->
+				{
+					if (previous != null)
+						pool.remove(previous);
+					pool.add(value);
+				});
+			}
+		return previous;
+	}
+
+	@Override
+	public ClassWrapper remove(final Object key)
+	{
+		final ClassWrapper previous = classes.remove(key);
+		if (previous != null)
+			synchronized (this)
+			{
+				pools.values().forEach(pool -> pool.remove(previous));
+			}
+		return previous;
+	}
+
+	@Override
+	public synchronized void clear()
+	{
+		classes.clear();
+		pools.values().forEach(Pool::clear);
+	}
+
+	@Override
+	public int size()
+	{
+		return classes.size();
+	}
+
+	@Override
+	public Set<String> keySet()
+	{
+		return Collections.unmodifiableSet(classes.keySet());
+	}
+
+	@Override
+	public Collection<ClassWrapper> values()
+	{
+		return Collections.unmodifiableCollection(classes.values());
+	}
+
+	@Override
+	public Set<Map.Entry<String, ClassWrapper>> entrySet()
+	{
+		return entrySet;
+	}
+
+	/**
+	 * The classes matching a filter, in an array for picking a random one and indexed for removing one in constant time.
+	 */
+	private static final class Pool
+	{
+		private final Predicate<? super ClassWrapper> filter;
+		private final List<ClassWrapper> elements = new ArrayList<>();
+		private final Map<ClassWrapper, Integer> indices = new IdentityHashMap<>();
+
+		Pool(final Predicate<? super ClassWrapper> filter)
+		{
+			this.filter = filter;
+		}
+
+		void add(final ClassWrapper classWrapper)
+		{
+			if (!indices.containsKey(classWrapper) && filter.test(classWrapper))
+			{
+				indices.put(classWrapper, elements.size());
+				elements.add(classWrapper);
+			}
+		}
+
+		void remove(final ClassWrapper classWrapper)
+		{
+			final Integer index = indices.remove(classWrapper);
+			if (index == null)
+				return;
+
+			// Move the last element into the gap
+			final ClassWrapper last = elements.remove(elements.size() - 1);
+			if (last != classWrapper)
+			{
+				elements.set(index, last);
+				indices.put(last, index);
+			}
+		}
+
+		void clear()
+		{
+			elements.clear();
+			indices.clear();
+		}
+
+		ClassWrapper getRandom()
+		{
+			return RandomUtils.getRandomElement(elements);
+		}
+	}
+
+	private final class EntrySet extends AbstractSet<Map.Entry<String, ClassWrapper>>
+	{
+		@Override
+		public Iterator<Map.Entry<String, ClassWrapper>> iterator()
+		{
+			final Iterator<Map.Entry<String, ClassWrapper>> iterator = classes.entrySet().iterator();
+			return new Iterator<Map.Entry<String, ClassWrapper>>()
+			{
+				private Map.Entry<String, ClassWrapper> current;
+
+				@Override
+				public boolean hasNext()
+				{
+					return iterator.hasNext();
+				}
+
+				@Override
+				public Map.Entry<String, ClassWrapper> next()
+				{
+					current = iterator.next();
+					return new SimpleImmutableEntry<>(current);
+				}
+
+				@Override
+				public void remove()
+				{
+					if (current == null)
+						throw new IllegalStateException();
+
+					ClassRegistry.this.remove(current.getKey());
+					current = null;
+				}
+			};
+		}
+
+		@Override
+		public int size()
+		{
+			return classes.size();
+		}
+	}
+}
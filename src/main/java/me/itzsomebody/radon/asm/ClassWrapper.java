@@ -19,10 +19,19 @@
 package me.itzsomebody.radon.asm;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.tree.ClassNode;
 import org.objectweb.asm.tree.FieldNode;
@@ -33,16 +42,18 @@ import me.itzsomebody.radon.Main;
 import me.itzsomebody.radon.Radon;
 import me.itzsomebody.radon.asm.accesses.Access;
 import me.itzsomebody.radon.asm.accesses.ClassAccess;
+import me.itzsomebody.radon.exclusions.ExclusionManager;
+import me.itzsomebody.radon.io.MappedZipFile;
 
 /**
  * Wrapper for ClassNodes.
  *
  * @author ItzSomebody
  */
-public class ClassWrapper
+public class ClassWrapper implements ClassInfo
 {
 	private static final int LIB_FLAGS = ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES | ClassReader.SKIP_CODE;
-	private static final int INPUT_FLAGS = ClassReader.SKIP_FRAMES;
+	private static final int INPUT_FLAGS = ClassReader.EXPAND_FRAMES;
 	private static final String DEFAULT_ENTRY_PREFIX = "";
 
 	public ClassNode classNode;
@@ -50,11 +61,19 @@ public class ClassWrapper
 	public final boolean libraryNode;
 
 	public String entryPrefix;
+	/**
+	 * The input entry this class was loaded from, or null if the class was generated or already modified while loading.
+	 */
+	public MappedZipFile.Entry originalEntry;
 	public final Access access;
+
+	private volatile long excludedTypes = -1L;
 	public final List<MethodWrapper> methods = new ArrayList<>();
 	public final List<FieldWrapper> fields = new ArrayList<>();
 	public final List<String> strConsts = new ArrayList<>();
 
+	private Object[] unmodifiedHeaders;
+
 	public ClassWrapper(final ClassReader cr, final boolean libraryNode)
 	{
 		final ClassNode classNode = new ClassNode();
@@ -68,6 +87,10 @@ public class ClassWrapper
 		access = new ClassAccess(this);
 		classNode.methods.forEach(methodNode -> methods.add(new MethodWrapper(methodNode, this)));
 		classNode.fields.forEach(fieldNode -> fields.add(new FieldWrapper(fieldNode, this)));
+
+		// Frames read from the input are valid as long as the code isn't touched
+		if (!libraryNode)
+			markUnmodified();
 	}
 
 	public ClassWrapper(final ClassNode classNode, final boolean libraryNode)
@@ -82,6 +105,53 @@ public class ClassWrapper
 		classNode.fields.forEach(fieldNode -> fields.add(new FieldWrapper(fieldNode, this)));
 	}
 
+	/**
+	 * Records the current state of the wrapped {@link ClassNode} as unmodified, see {@link #isModified()}.
+	 */
+	public void markUnmodified()
+	{
+		unmodifiedHeaders = snapshotHeaders();
+		methods.forEach(MethodWrapper::markUnmodified);
+	}
+
+	/**
+	 * Tracks the changes to the header of the class, to the list and the headers of its members, to the lists of annotations and attributes of either, and to the code of its methods (see {@link MethodWrapper#isModified()}). Changes made in place to an instruction, an annotation or an attribute are not tracked.
+	 *
+	 * @return true if the wrapped {@link ClassNode} may have changed since {@link #markUnmodified()} was called.
+	 */
+	public boolean isModified()
+	{
+		return unmodifiedHeaders == null || !Arrays.equals(unmodifiedHeaders, snapshotHeaders()) || methods.stream().anyMatch(MethodWrapper::isModified);
+	}
+
+	private Object[] snapshotHeaders()
+	{
+		final List<Object> snapshot = new ArrayList<>();
+		final ClassNode classNode = this.classNode;
+		Collections.addAll(snapshot, classNode, classNode.version, classNode.access, classNode.name, classNode.signature, classNode.superName, copy(classNode.interfaces), classNode.sourceFile, classNode.sourceDebug, classNode.module, classNode.outerClass, classNode.outerMethod, classNode.outerMethodDesc);
+		Collections.addAll(snapshot, copy(classNode.visibleAnnotations), copy(classNode.invisibleAnnotations), copy(classNode.visibleTypeAnnotations), copy(classNode.invisibleTypeAnnotations), copy(classNode.attrs), copy(classNode.innerClasses), classNode.nestHostClass, copy(classNode.nestMembers), copy(classNode.permittedSubclasses), copy(classNode.recordComponents), strConsts.size());
+
+		for (final MethodNode methodNode : classNode.methods)
+		{
+			Collections.addAll(snapshot, methodNode, methodNode.access, methodNode.name, methodNode.desc, methodNode.signature, copy(methodNode.exceptions), copy(methodNode.parameters), methodNode.annotationDefault, copy(methodNode.localVariables));
+			Collections.addAll(snapshot, copy(methodNode.visibleAnnotations), copy(methodNode.invisibleAnnotations), copy(methodNode.visibleTypeAnnotations), copy(methodNode.invisibleTypeAnnotations), copy(methodNode.attrs), methodNode.visibleParameterAnnotations, methodNode.invisibleParameterAnnotations);
+		}
+
+		for (final FieldNode fieldNode : classNode.fields)
+		{
+			Collections.addAll(snapshot, fieldNode, fieldNode.access, fieldNode.name, fieldNode.desc, fieldNode.signature, fieldNode.value);
+			Collections.addAll(snapshot, copy(fieldNode.visibleAnnotations), copy(fieldNode.invisibleAnnotations), copy(fieldNode.visibleTypeAnnotations), copy(fieldNode.invisibleTypeAnnotations), copy(fieldNode.attrs));
+		}
+
+		return snapshot.toArray();
+	}
+
+	private static List<?> copy(final List<?> list)
+	{
+		// The nodes in the lists are compared by identity
+		return list == null ? null : new ArrayList<>(list);
+	}
+
 	public void addMethod(final MethodNode methodNode)
 	{
 		classNode.methods.add(methodNode);
@@ -122,11 +192,13 @@ public class ClassWrapper
 		return clinit;
 	}
 
+	@Override
 	public boolean isMethodPresent(final String name, final String desc)
 	{
 		return classNode.methods.stream().anyMatch(methodNode -> methodNode.name.equals(name) && methodNode.desc.equals(desc));
 	}
 
+	@Override
 	public boolean isFieldPresent(final String name, final String desc)
 	{
 		return classNode.fields.stream().anyMatch(fieldNode -> fieldNode.name.equals(name) && fieldNode.desc.equals(desc));
@@ -135,6 +207,7 @@ public class ClassWrapper
 	/**
 	 * @return current name of wrapped {@link ClassNode}.
 	 */
+	@Override
 	public String getName()
 	{
 		return classNode.name;
@@ -156,6 +229,7 @@ public class ClassWrapper
 	/**
 	 * @return current super class name of wrapped {@link ClassNode}.
 	 */
+	@Override
 	public String getSuperName()
 	{
 		return classNode.superName;
@@ -164,6 +238,7 @@ public class ClassWrapper
 	/**
 	 * @return current interfaces of wrapped {@link ClassNode}.
 	 */
+	@Override
 	public List<String> getInterfaces()
 	{
 		return classNode.interfaces;
@@ -172,6 +247,7 @@ public class ClassWrapper
 	/**
 	 * @return raw access flags of wrapped {@link ClassNode}.
 	 */
+	@Override
 	public int getAccessFlags()
 	{
 		return classNode.access;
@@ -186,6 +262,12 @@ public class ClassWrapper
 		classNode.access = access;
 	}
 
+	@Override
+	public boolean isLibraryNode()
+	{
+		return libraryNode;
+	}
+
 	/**
 	 * @return the current class version of the wrapped {@link ClassNode}.
 	 */
@@ -222,35 +304,124 @@ public class ClassWrapper
 		return new ClassReader(toByteArray(radon)).getItemCount();
 	}
 
+	/**
+	 * Writes the wrapped {@link ClassNode}. Stack map frames are only computed for the methods which were modified (or added) since the class was loaded; all the other methods keep the frames they were read with, which saves most of the class hierarchy lookups.
+	 *
+	 * @return the bytes of the wrapped {@link ClassNode}.
+	 */
 	public byte[] toByteArray(final Radon radon)
 	{
-		// Construct byte writer
-		ClassWriter writer = new CustomClassWriter(ClassWriter.COMPUTE_FRAMES, radon);
-
-		try
+		// Classes older than J6 may contain no frames at all, let ASM compute the frames for the whole class
+		if ((classNode.version & 0xFFFF) < Opcodes.V1_6)
+			return toByteArray(radon, null);
+
+		final Set<MethodNode> modified = Collections.newSetFromMap(new IdentityHashMap<>());
+		final Map<MethodNode, MethodWrapper> wrappers = new IdentityHashMap<>();
+		methods.forEach(methodWrapper -> wrappers.put(methodWrapper.methodNode, methodWrapper));
+		classNode.methods.stream().filter(methodNode -> methodNode.instructions != null && methodNode.instructions.size() > 0).filter(methodNode ->
 		{
-			writer.newUTF8(Main.WATERMARK);
+			final MethodWrapper methodWrapper = wrappers.get(methodNode);
+			return methodWrapper == null || methodWrapper.isModified();
+		}).forEach(modified::add);
 
-			// Populate writer with class info
-			classNode.accept(writer);
+		return toByteArray(radon, modified);
+	}
 
-			// Insert manually-specified constant pool strings
-			strConsts.forEach(writer::newUTF8);
+	private byte[] toByteArray(final Radon radon, final Set<MethodNode> modified)
+	{
+		try
+		{
+			if (modified == null)
+				return write(new CustomClassWriter(ClassWriter.COMPUTE_FRAMES, radon), Collections.emptyMap(), Collections.emptySet());
 
-			return writer.toByteArray();
+			return write(new ClassWriter(0), computeFrames(radon, modified), Collections.emptySet());
 		}
 		catch (final Throwable e)
 		{
 			Main.warn(String.format("*** Error writing class %s. Skipping frames (might cause runtime errors).", getName() + ".class"), e);
 
-			writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
-			writer.newUTF8(Main.WATERMARK);
+			return write(new ClassWriter(ClassWriter.COMPUTE_MAXS), Collections.emptyMap(), modified == null ? new HashSet<>(classNode.methods) : modified);
+		}
+	}
 
+	/**
+	 * Computes the frames of the given methods by writing them into a class with the same header and reading them back.
+	 *
+	 * @return the recomputed methods, keyed by their name and descriptor.
+	 */
+	private Map<String, MethodNode> computeFrames(final Radon radon, final Set<MethodNode> modified)
+	{
+		if (modified.isEmpty())
+			return Collections.emptyMap();
+
+		final ClassWriter writer = new CustomClassWriter(ClassWriter.COMPUTE_FRAMES, radon);
+		writer.visit(classNode.version, classNode.access, classNode.name, classNode.signature, classNode.superName, classNode.interfaces.toArray(new String[0]));
+		modified.forEach(methodNode -> methodNode.accept(writer));
+		writer.visitEnd();
+
+		final ClassNode computed = new ClassNode();
+		new ClassReader(writer.toByteArray()).accept(computed, 0);
+
+		final Map<String, MethodNode> computedMethods = new HashMap<>();
+		computed.methods.forEach(methodNode -> computedMethods.put(methodNode.name + methodNode.desc, methodNode));
+		return computedMethods;
+	}
+
+	/**
+	 * @param replacements
+	 *                     methods to write instead of the ones with the same name and descriptor.
+	 * @param frameless
+	 *                     methods to write without their frames.
+	 */
+	private byte[] write(final ClassWriter writer, final Map<String, MethodNode> replacements, final Set<MethodNode> frameless)
+	{
+		writer.newUTF8(Main.WATERMARK);
+
+		// Populate writer with class info
+		if (replacements.isEmpty() && frameless.isEmpty())
 			classNode.accept(writer);
-			strConsts.forEach(writer::newUTF8);
+		else
+			classNode.accept(new ClassVisitor(Opcodes.ASM9, writer)
+			{
+				@Override
+				public MethodVisitor visitMethod(final int access, final String name, final String descriptor, final String signature, final String[] exceptions)
+				{
+					final MethodNode replacement = replacements.get(name + descriptor);
+					if (replacement != null)
+					{
+						replacement.accept(cv);
+						return null; // Drop the original method
+					}
+
+					final MethodVisitor mv = super.visitMethod(access, name, descriptor, signature, exceptions);
+					final boolean dropFrames = frameless.stream().anyMatch(methodNode -> methodNode.name.equals(name) && methodNode.desc.equals(descriptor));
+					return dropFrames ? new MethodVisitor(Opcodes.ASM9, mv)
+					{
+						@Override
+						public void visitFrame(final int type, final int numLocal, final Object[] local, final int numStack, final Object[] stack)
+						{
+							// Stale frames
+						}
+					} : mv;
+				}
+			});
+
+		// Insert manually-specified constant pool strings
+		strConsts.forEach(writer::newUTF8);
+
+		return writer.toByteArray();
+	}
 
-			return writer.toByteArray();
-		}
+	/**
+	 * @return mask of the {@link me.itzsomebody.radon.exclusions.ExclusionType}s excluding this class. Computed once, as exclusions always match the original names.
+	 */
+	public long getExcludedTypes(final ExclusionManager exclusionManager)
+	{
+		long mask = excludedTypes;
+		if (mask == -1L)
+			excludedTypes = mask = exclusionManager.getExcludedTypes(originalName);
+
+		return mask;
 	}
 
 	public String getEntryName()
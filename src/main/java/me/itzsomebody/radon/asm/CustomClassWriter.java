@@ -40,40 +40,6 @@ public class CustomClassWriter extends ClassWriter
 	@Override
 	protected String getCommonSuperClass(final String type1, final String type2)
 	{
-		if ("java/lang/Object".equals(type1) || "java/lang/Object".equals(type2))
-			return "java/lang/Object";
-
-		final String first = deriveCommonSuperName(type1, type2);
-		final String second = deriveCommonSuperName(type2, type1);
-		if (!"java/lang/Object".equals(first))
-			return first;
-
-		if (!"java/lang/Object".equals(second))
-			return second;
-
-		return getCommonSuperClass(radon.getClassWrapper(type1).getSuperName(), radon.getClassWrapper(type2).getSuperName());
-	}
-
-	private String deriveCommonSuperName(final String type1, final String type2)
-	{
-		ClassWrapper first = radon.getClassWrapper(type1);
-		final ClassWrapper second = radon.getClassWrapper(type2);
-		if (radon.isAssignableFrom(type1, type2))
-			return type1;
-
-		if (radon.isAssignableFrom(type2, type1))
-			return type2;
-
-		if (first.access.isInterface() || second.access.isInterface())
-			return "java/lang/Object";
-
-		String temp;
-		do
-		{
-			temp = first.getSuperName();
-			first = radon.getClassWrapper(temp);
-		}
-		while (!radon.isAssignableFrom(temp, type2));
-		return temp;
+		return radon.hierarchy.getCommonSuperClass(type1, type2);
 	}
 }
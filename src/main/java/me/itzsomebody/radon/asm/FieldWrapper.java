@@ -22,6 +22,7 @@ import org.objectweb.asm.tree.FieldNode;
 
 import me.itzsomebody.radon.asm.accesses.Access;
 import me.itzsomebody.radon.asm.accesses.FieldAccess;
+import me.itzsomebody.radon.exclusions.ExclusionManager;
 
 /**
  * Wrapper for FieldNodes.
@@ -37,6 +38,8 @@ public class FieldWrapper
 	public final Access access;
 	public final ClassWrapper owner;
 
+	private volatile long excludedTypes = -1L;
+
 	/**
 	 * Creates a FieldWrapper object.
 	 *
@@ -54,6 +57,18 @@ public class FieldWrapper
 		this.owner = owner;
 	}
 
+	/**
+	 * @return mask of the {@link me.itzsomebody.radon.exclusions.ExclusionType}s excluding this field. Computed once, as exclusions always match the original names.
+	 */
+	public long getExcludedTypes(final ExclusionManager exclusionManager)
+	{
+		long mask = excludedTypes;
+		if (mask == -1L)
+			excludedTypes = mask = exclusionManager.getExcludedTypes(owner.originalName + '.' + originalName + '.' + originalDescription);
+
+		return mask;
+	}
+
 	/**
 	 * @return the current name of the wrapped {@link FieldNode}.
 	 */
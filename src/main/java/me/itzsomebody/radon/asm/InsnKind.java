@@ -0,0 +1,124 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.asm;
+
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+
+/**
+ * Kinds of instructions which are counted by an {@link OpcodeSummary}, so transformers looking for them can skip the methods which don't contain any.
+ *
+ * @author hsheric0210
+ */
+public enum InsnKind implements Opcodes
+{
+	/**
+	 * LDC of a {@link String}.
+	 */
+	STRING_CONSTANT,
+	/**
+	 * ICONST_*, BIPUSH, SIPUSH and LDC of an {@link Integer}, like {@link me.itzsomebody.radon.utils.ASMUtils#isIntInsn(AbstractInsnNode)}.
+	 */
+	INT_CONSTANT,
+	/**
+	 * LCONST_* and LDC of a {@link Long}.
+	 */
+	LONG_CONSTANT,
+	/**
+	 * FCONST_* and LDC of a {@link Float}.
+	 */
+	FLOAT_CONSTANT,
+	/**
+	 * DCONST_* and LDC of a {@link Double}.
+	 */
+	DOUBLE_CONSTANT,
+	/**
+	 * INVOKEVIRTUAL, INVOKESPECIAL, INVOKESTATIC and INVOKEINTERFACE.
+	 */
+	METHOD_INVOCATION,
+	/**
+	 * GETSTATIC, PUTSTATIC, GETFIELD and PUTFIELD.
+	 */
+	FIELD_ACCESS,
+	/**
+	 * TABLESWITCH and LOOKUPSWITCH.
+	 */
+	SWITCH;
+
+	/**
+	 * @param  insn
+	 *              the instruction to classify.
+	 * @return      the kind of the instruction, or null if it isn't one of the counted kinds.
+	 */
+	public static InsnKind of(final AbstractInsnNode insn)
+	{
+		switch (insn.getOpcode())
+		{
+			case ICONST_M1:
+			case ICONST_0:
+			case ICONST_1:
+			case ICONST_2:
+			case ICONST_3:
+			case ICONST_4:
+			case ICONST_5:
+			case BIPUSH:
+			case SIPUSH:
+				return INT_CONSTANT;
+			case LCONST_0:
+			case LCONST_1:
+				return LONG_CONSTANT;
+			case FCONST_0:
+			case FCONST_1:
+			case FCONST_2:
+				return FLOAT_CONSTANT;
+			case DCONST_0:
+			case DCONST_1:
+				return DOUBLE_CONSTANT;
+			case LDC:
+				final Object cst = ((LdcInsnNode) insn).cst;
+				if (cst instanceof String)
+					return STRING_CONSTANT;
+				if (cst instanceof Integer)
+					return INT_CONSTANT;
+				if (cst instanceof Long)
+					return LONG_CONSTANT;
+				if (cst instanceof Float)
+					return FLOAT_CONSTANT;
+				if (cst instanceof Double)
+					return DOUBLE_CONSTANT;
+				return null;
+			case INVOKEVIRTUAL:
+			case INVOKESPECIAL:
+			case INVOKESTATIC:
+			case INVOKEINTERFACE:
+				return METHOD_INVOCATION;
+			case GETSTATIC:
+			case PUTSTATIC:
+			case GETFIELD:
+			case PUTFIELD:
+				return FIELD_ACCESS;
+			case TABLESWITCH:
+			case LOOKUPSWITCH:
+				return SWITCH;
+			default:
+				return null;
+		}
+	}
+}
@@ -0,0 +1,353 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.asm;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+/**
+ * Groups the methods (or fields) of a set of classes into families of members which have to keep the same name: the members which override, hide or implement each other, along with every class through which one of them can be referenced.
+ * <p>
+ * The families are built in a single pass over the classes in hierarchy order (parents first). Every class inherits the signature table of its parents, merging the families of equal signatures which meet in it (union-find), and adds its own members. A family is fixed if any of its members is, or if a library class which one of the classes inherits from declares the signature.
+ *
+ * @param <M>
+ *            {@link MethodWrapper} or {@link FieldWrapper}.
+ *
+ * @author hsheric0210
+ */
+public class MemberFamilies<M>
+{
+	private final ClassHierarchy hierarchy;
+	private final Function<? super M, String> signature;
+	private final Function<? super M, String> descriptor;
+	private final BiPredicate<? super ClassInfo, ? super M> libraryDeclares;
+
+	private final Map<M, Integer> nodes = new IdentityHashMap<>();
+	private final List<M> members = new ArrayList<>();
+	private int[] parents = new int[64];
+	private boolean[] fixed = new boolean[64];
+	private String[] names = new String[64];
+
+	private final List<String> owners = new ArrayList<>();
+	private final Map<String, Integer> ownerIndices = new HashMap<>();
+	private final List<Map<String, Integer>> signatures = new ArrayList<>();
+	private final Map<Integer, Map<String, Boolean>> libraryDeclarations = new HashMap<>();
+
+	private List<Set<String>> usedSignatures;
+	private Map<Integer, List<Integer>> familyOwners;
+
+	/**
+	 * @param signature
+	 *                   name and descriptor of a member; members with equal signatures collide.
+	 * @param descriptor
+	 *                   the part of the signature following the name.
+	 */
+	private MemberFamilies(final ClassHierarchy hierarchy, final Function<? super M, String> signature, final Function<? super M, String> descriptor, final BiPredicate<? super ClassInfo, ? super M> libraryDeclares)
+	{
+		this.hierarchy = hierarchy;
+		this.signature = signature;
+		this.descriptor = descriptor;
+		this.libraryDeclares = libraryDeclares;
+	}
+
+	/**
+	 * @param fixed
+	 *              methods which must not be renamed.
+	 */
+	public static MemberFamilies<MethodWrapper> ofMethods(final ClassHierarchy hierarchy, final Collection<ClassWrapper> classes, final Predicate<? super MethodWrapper> fixed)
+	{
+		final MemberFamilies<MethodWrapper> families = new MemberFamilies<>(hierarchy, mw -> mw.originalName + mw.originalDescription, mw -> mw.originalDescription, (info, mw) -> info.isMethodPresent(mw.originalName, mw.originalDescription));
+		families.build(classes, cw -> cw.methods, fixed);
+		return families;
+	}
+
+	/**
+	 * @param fixed
+	 *              fields which must not be renamed.
+	 */
+	public static MemberFamilies<FieldWrapper> ofFields(final ClassHierarchy hierarchy, final Collection<ClassWrapper> classes, final Predicate<? super FieldWrapper> fixed)
+	{
+		final MemberFamilies<FieldWrapper> families = new MemberFamilies<>(hierarchy, fw -> fw.originalName + '.' + fw.originalDescription, fw -> '.' + fw.originalDescription, (info, fw) -> info.isFieldPresent(fw.originalName, fw.originalDescription));
+		families.build(classes, cw -> cw.fields, fixed);
+		return families;
+	}
+
+	private void build(final Collection<ClassWrapper> classes, final Function<? super ClassWrapper, ? extends List<M>> membersOf, final Predicate<? super M> fixedMember)
+	{
+		// Ids are assigned to ancestors first, so this is a topological order
+		final List<ClassWrapper> ordered = new ArrayList<>(classes);
+		final Map<ClassWrapper, Integer> ids = new IdentityHashMap<>();
+		ordered.forEach(cw -> ids.put(cw, hierarchy.getId(cw.originalName)));
+		ordered.sort(Comparator.comparingInt(ids::get));
+
+		final Map<Integer, Integer> indices = new HashMap<>();
+		final List<Set<Integer>> nearestLibraries = new ArrayList<>();
+
+		for (final ClassWrapper classWrapper : ordered)
+		{
+			final int id = ids.get(classWrapper);
+			final Map<String, Integer> table = new HashMap<>();
+			final Set<Integer> libraries = new LinkedHashSet<>();
+
+			for (final int parent : hierarchy.getParents(id))
+			{
+				final Integer index = indices.get(parent);
+				if (index == null)
+				{
+					// Library classes only contribute by fixing the families of the signatures they declare
+					libraries.add(parent);
+					continue;
+				}
+
+				signatures.get(index).forEach((signature, node) -> table.merge(signature, node, this::union));
+				libraries.addAll(nearestLibraries.get(index));
+			}
+
+			for (final M member : membersOf.apply(classWrapper))
+			{
+				final int node = addNode(member, fixedMember.test(member));
+				table.merge(signature.apply(member), node, this::union);
+			}
+
+			table.values().forEach(node ->
+			{
+				final int root = find(node);
+				if (!fixed[root] && libraries.stream().anyMatch(library -> declaresInHierarchy(library, members.get(node))))
+					fixed[root] = true;
+			});
+
+			indices.put(id, owners.size());
+			ownerIndices.put(classWrapper.originalName, owners.size());
+			owners.add(classWrapper.originalName);
+			signatures.add(table);
+			nearestLibraries.add(libraries);
+		}
+	}
+
+	/**
+	 * @return true if the given library class or one of its ancestors declares the signature of the given member.
+	 */
+	private boolean declaresInHierarchy(final int library, final M member)
+	{
+		return libraryDeclarations.computeIfAbsent(library, i -> new HashMap<>()).computeIfAbsent(signature.apply(member), s ->
+		{
+			final Set<Integer> visited = new HashSet<>();
+			final Deque<Integer> toProcess = new ArrayDeque<>();
+			toProcess.add(library);
+
+			while (!toProcess.isEmpty())
+			{
+				final int current = toProcess.poll();
+				if (!visited.add(current))
+					continue;
+
+				if (libraryDeclares.test(hierarchy.getInfo(current), member))
+					return true;
+
+				for (final int parent : hierarchy.getParents(current))
+					toProcess.add(parent);
+			}
+
+			return false;
+		});
+	}
+
+	private int addNode(final M member, final boolean fixedMember)
+	{
+		final int node = members.size();
+		if (node == parents.length)
+		{
+			parents = Arrays.copyOf(parents, node << 1);
+			fixed = Arrays.copyOf(fixed, node << 1);
+			names = Arrays.copyOf(names, node << 1);
+		}
+
+		parents[node] = node;
+		fixed[node] = fixedMember;
+		members.add(member);
+		nodes.put(member, node);
+		return node;
+	}
+
+	private int find(final int node)
+	{
+		int root = node;
+		while (parents[root] != root)
+			root = parents[root];
+
+		// Path compression
+		int current = node;
+		while (parents[current] != root)
+		{
+			final int next = parents[current];
+			parents[current] = root;
+			current = next;
+		}
+
+		return root;
+	}
+
+	private int union(final int first, final int second)
+	{
+		final int firstRoot = find(first);
+		final int secondRoot = find(second);
+		if (firstRoot != secondRoot)
+		{
+			parents[secondRoot] = firstRoot;
+			fixed[firstRoot] |= fixed[secondRoot];
+		}
+
+		return firstRoot;
+	}
+
+	/**
+	 * @return true if the family of the given member must not be renamed.
+	 */
+	public boolean isFixed(final M member)
+	{
+		return fixed[find(nodes.get(member))];
+	}
+
+	/**
+	 * @return the new name of the family of the given member, or null if it wasn't named yet.
+	 */
+	public String getName(final M member)
+	{
+		return names[find(nodes.get(member))];
+	}
+
+	/**
+	 * @return the member representing the family of the given member; the same for all members of a family.
+	 */
+	public M getFamily(final M member)
+	{
+		return members.get(find(nodes.get(member)));
+	}
+
+	/**
+	 * @param  owner
+	 *                   original name of the class through which the member is referenced.
+	 * @param  signature
+	 *                   original name and descriptor of the member, as it is keyed in the mappings ({@code name + desc} for methods, {@code name + '.' + desc} for fields).
+	 * @return           the member representing the family of the referenced member, or null if the member isn't declared in or inherited by one of the classes.
+	 */
+	public M getFamily(final String owner, final String signature)
+	{
+		final Integer index = ownerIndices.get(owner);
+		if (index == null)
+			return null;
+
+		final Integer node = signatures.get(index).get(signature);
+		return node == null ? null : members.get(find(node));
+	}
+
+	/**
+	 * Names the family of the given member.
+	 */
+	public void setName(final M member, final String name)
+	{
+		names[find(nodes.get(member))] = name;
+	}
+
+	/**
+	 * Names the family of the given member with the first of the given names which doesn't collide with another member in any class through which the family can be referenced, so that members with different descriptors can share a name.
+	 * <p>
+	 * Unnamed families don't collide with anything, so all non-fixed families must be named through this method.
+	 *
+	 * @param  candidates
+	 *                    candidate names by index; an index must always yield the same name.
+	 * @return            the chosen name.
+	 */
+	public String setFirstFreeName(final M member, final IntFunction<String> candidates)
+	{
+		if (usedSignatures == null)
+			indexFamilyOwners();
+
+		final int root = find(nodes.get(member));
+		final List<Integer> ownerIndices = familyOwners.get(root);
+		final String desc = descriptor.apply(member);
+
+		for (int i = 0;; i++)
+		{
+			final String name = candidates.apply(i);
+			final String newSignature = name + desc;
+			if (ownerIndices.stream().noneMatch(index -> usedSignatures.get(index).contains(newSignature)))
+			{
+				ownerIndices.forEach(index -> usedSignatures.get(index).add(newSignature));
+				names[root] = name;
+				return name;
+			}
+		}
+	}
+
+	/**
+	 * Indexes the classes through which each family can be referenced, and the signatures the fixed families keep in them.
+	 */
+	private void indexFamilyOwners()
+	{
+		usedSignatures = new ArrayList<>(owners.size());
+		familyOwners = new HashMap<>();
+		for (int i = 0, j = owners.size(); i < j; i++)
+		{
+			final int index = i;
+			final Set<String> used = new HashSet<>();
+			signatures.get(i).forEach((signature, node) ->
+			{
+				final int root = find(node);
+				if (fixed[root])
+					used.add(signature);
+				familyOwners.computeIfAbsent(root, r -> new ArrayList<>()).add(index);
+			});
+			usedSignatures.add(used);
+		}
+	}
+
+	/**
+	 * Passes the mapping key (owner + '.' + signature, as used by {@link MemberRemapper}) and new name for every class through which a named family can be referenced.
+	 */
+	public void forEachMapping(final BiConsumer<? super String, ? super String> consumer)
+	{
+		for (int i = 0, j = owners.size(); i < j; i++)
+		{
+			final String owner = owners.get(i);
+			signatures.get(i).forEach((signature, node) ->
+			{
+				final String name = names[find(node)];
+				if (name != null)
+					consumer.accept(owner + '.' + signature, name);
+			});
+		}
+	}
+}
@@ -18,27 +18,70 @@
 
 package me.itzsomebody.radon.asm;
 
+import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
 
-import org.objectweb.asm.commons.SimpleRemapper;
+import org.objectweb.asm.commons.Remapper;
 
 /**
  * Custom implementation of ASM's SimpleRemapper taking in account for field descriptions.
+ * <p>
+ * Takes the same mappings as SimpleRemapper (internal class names, owner.name+desc for methods and owner.name.desc for fields), but indexes the member mappings by owner, name and descriptor, so lookups don't have to concatenate a key. Read-only after construction, so it can be used by multiple threads at once.
  *
  * @author ItzSomebody
  */
-public class MemberRemapper extends SimpleRemapper
+public class MemberRemapper extends Remapper
 {
+	private final Map<String, String> classMappings = new HashMap<>();
+	private final Map<String, Map<String, Map<String, String>>> memberMappings = new HashMap<>();
+
 	public MemberRemapper(final Map<String, String> mappings)
 	{
-		super(mappings);
+		mappings.forEach((key, newName) ->
+		{
+			// Internal names and member names can't contain '.'
+			final int ownerEnd = key.indexOf('.');
+			if (ownerEnd < 0)
+			{
+				classMappings.put(key, newName);
+				return;
+			}
+
+			final int methodDescStart = key.indexOf('(', ownerEnd);
+			final int nameEnd = methodDescStart >= 0 ? methodDescStart : key.indexOf('.', ownerEnd + 1);
+			final String desc = methodDescStart >= 0 ? key.substring(nameEnd) : key.substring(nameEnd + 1);
+			memberMappings.computeIfAbsent(key.substring(0, ownerEnd), owner -> new HashMap<>()).computeIfAbsent(key.substring(ownerEnd + 1, nameEnd), name -> new HashMap<>()).put(desc, newName);
+		});
+	}
+
+	@Override
+	public String mapMethodName(final String owner, final String name, final String descriptor)
+	{
+		return mapMemberName(owner, name, descriptor);
+	}
+
+	@Override
+	public String mapFieldName(final String owner, final String name, final String descriptor)
+	{
+		return mapMemberName(owner, name, descriptor);
+	}
+
+	private String mapMemberName(final String owner, final String name, final String descriptor)
+	{
+		final Map<String, Map<String, String>> ownerMappings = memberMappings.get(owner);
+		if (ownerMappings == null)
+			return name;
+
+		final Map<String, String> nameMappings = ownerMappings.get(name);
+		if (nameMappings == null)
+			return name;
+
+		return nameMappings.getOrDefault(descriptor, name);
 	}
 
 	@Override
-	public String mapFieldName(final String owner, final String name, final String desc)
+	public String map(final String internalName)
 	{
-		final String remappedName = map(String.join(".", owner, name, desc));
-		return Optional.ofNullable(remappedName).orElse(name);
+		return classMappings.get(internalName);
 	}
 }
@@ -0,0 +1,215 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.asm;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.analysis.*;
+
+import me.itzsomebody.radon.analysis.constant.ConstantAnalyzer;
+import me.itzsomebody.radon.analysis.constant.values.AbstractValue;
+import me.itzsomebody.radon.exceptions.StackEmulationException;
+import me.itzsomebody.radon.utils.ASMUtils;
+
+/**
+ * The analyses of the code of a {@link MethodWrapper}, computed on the first request and reused until the code changes.
+ * <p>
+ * The results are dropped whenever the {@link InsnList} (see {@link TrackedInsnList}) or the try-catch blocks of the method have changed since they were computed, or when {@link MethodWrapper#markModified()} reports an in-place change. The results themselves must not be modified. Like the rest of the method, the cache may only be used by one thread at a time.
+ * </p>
+ *
+ * @author hsheric0210
+ */
+public final class MethodAnalysisCache
+{
+	private final MethodWrapper methodWrapper;
+
+	private InsnList instructions;
+	private int modCount = -1;
+	private int size;
+	private Object[] tryCatchBlocks;
+
+	private Frame<BasicValue>[] basicFrames;
+	private int[][] successors;
+	private Frame<AbstractValue>[] constantFrames;
+	private Set<AbstractInsnNode> stackHeightZero;
+
+	MethodAnalysisCache(final MethodWrapper methodWrapper)
+	{
+		this.methodWrapper = methodWrapper;
+	}
+
+	/**
+	 * @return the frames computed by a {@link BasicInterpreter}, indexed like the instructions; null for unreachable instructions.
+	 * @throws AnalyzerException
+	 *                           if the code is invalid.
+	 */
+	public Frame<BasicValue>[] getBasicFrames() throws AnalyzerException
+	{
+		validate();
+		if (basicFrames == null)
+			analyzeBasic();
+		return basicFrames;
+	}
+
+	/**
+	 * @return for each instruction index, the indexes of the instructions control may flow to from it, including the exception handlers which cover it.
+	 * @throws AnalyzerException
+	 *                           if the code is invalid.
+	 */
+	public int[][] getSuccessors() throws AnalyzerException
+	{
+		validate();
+		if (successors == null)
+			analyzeBasic();
+		return successors;
+	}
+
+	/**
+	 * @return the frames computed by a {@link ConstantAnalyzer}, indexed like the instructions; null for unreachable instructions.
+	 * @throws AnalyzerException
+	 *                           if the code is invalid.
+	 */
+	public Frame<AbstractValue>[] getConstantFrames() throws AnalyzerException
+	{
+		validate();
+		if (constantFrames == null)
+			constantFrames = analyze(ConstantAnalyzer::new);
+		return constantFrames;
+	}
+
+	/**
+	 * @return the instructions before which the stack is empty, as found by a {@link StackHeightZeroFinder} run over the whole method.
+	 * @throws StackEmulationException
+	 *                                 if the stack can't be emulated.
+	 */
+	public Set<AbstractInsnNode> getStackHeightZero() throws StackEmulationException
+	{
+		validate();
+		if (stackHeightZero == null)
+		{
+			final MethodNode methodNode = methodWrapper.methodNode;
+			final StackHeightZeroFinder shzf = new StackHeightZeroFinder(methodNode, methodNode.instructions.getLast());
+			shzf.execute();
+			stackHeightZero = Collections.unmodifiableSet(shzf.getEmptyAt());
+		}
+		return stackHeightZero;
+	}
+
+	/**
+	 * Drops the results if the code changed since they were computed.
+	 */
+	private void validate()
+	{
+		final InsnList current = methodWrapper.methodNode.instructions;
+		final int currentModCount = current instanceof TrackedInsnList ? ((TrackedInsnList) current).getModCount() : -1;
+		final Object[] currentTryCatchBlocks = methodWrapper.snapshotTryCatchBlocks();
+		if (current == instructions && currentModCount >= 0 && currentModCount == modCount && current.size() == size && Arrays.equals(currentTryCatchBlocks, tryCatchBlocks))
+			return;
+
+		instructions = current;
+		modCount = currentModCount;
+		size = current.size();
+		tryCatchBlocks = currentTryCatchBlocks;
+
+		basicFrames = null;
+		successors = null;
+		constantFrames = null;
+		stackHeightZero = null;
+	}
+
+	private void analyzeBasic() throws AnalyzerException
+	{
+		// A failed first attempt only records edges which exist, and addEdge skips those already known, so the retry may reuse the array
+		final int[][] edges = new int[instructions.size()][];
+		basicFrames = analyze(() -> new Analyzer<BasicValue>(new BasicInterpreter())
+		{
+			@Override
+			protected void newControlFlowEdge(final int insnIndex, final int successorIndex)
+			{
+				addEdge(edges, insnIndex, successorIndex);
+			}
+
+			@Override
+			protected boolean newControlFlowExceptionEdge(final int insnIndex, final int successorIndex)
+			{
+				addEdge(edges, insnIndex, successorIndex);
+				return true;
+			}
+		});
+
+		for (int i = 0; i < edges.length; i++)
+			if (edges[i] == null)
+				edges[i] = new int[0];
+		successors = edges;
+	}
+
+	/**
+	 * Analyzes the method with frames of its own maxLocals and maxStack. If those turn out to be out of date, e.g. because a transformer inserted code without updating them, the method is analyzed again with frames of the max values its code actually needs, or with oversized frames if those can't be computed.
+	 */
+	private <V extends Value> Frame<V>[] analyze(final Supplier<? extends Analyzer<V>> analyzer) throws AnalyzerException
+	{
+		final String owner = methodWrapper.owner.getName();
+		final MethodNode methodNode = methodWrapper.methodNode;
+		try
+		{
+			return ASMUtils.runAnalyzer(analyzer.get(), owner, methodNode, false);
+		}
+		catch (final AnalyzerException | IndexOutOfBoundsException e)
+		{
+			final int[] maxs = ASMUtils.computeMaxs(owner, methodNode);
+			if (maxs != null)
+				try
+				{
+					return ASMUtils.runAnalyzer(analyzer.get(), owner, methodNode, maxs[0], maxs[1]);
+				}
+				catch (final AnalyzerException | IndexOutOfBoundsException e2)
+				{
+					// Fall back to the oversized frames below
+				}
+			return ASMUtils.runAnalyzer(analyzer.get(), owner, methodNode, true);
+		}
+	}
+
+	private static void addEdge(final int[][] edges, final int insnIndex, final int successorIndex)
+	{
+		final int[] successors = edges[insnIndex];
+		if (successors == null)
+		{
+			edges[insnIndex] = new int[]
+			{
+					successorIndex
+			};
+			return;
+		}
+
+		for (final int successor : successors)
+			if (successor == successorIndex)
+				return;
+
+		final int[] grown = Arrays.copyOf(successors, successors.length + 1);
+		grown[successors.length] = successorIndex;
+		edges[insnIndex] = grown;
+	}
+}
@@ -18,8 +18,15 @@
 
 package me.itzsomebody.radon.asm;
 
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.InsnList;
 import org.objectweb.asm.tree.LocalVariableNode;
 import org.objectweb.asm.tree.MethodNode;
@@ -27,7 +34,7 @@ import org.objectweb.asm.tree.TryCatchBlockNode;
 
 import me.itzsomebody.radon.asm.accesses.Access;
 import me.itzsomebody.radon.asm.accesses.MethodAccess;
-import me.itzsomebody.radon.utils.ASMUtils;
+import me.itzsomebody.radon.exclusions.ExclusionManager;
 import me.itzsomebody.radon.utils.Constants;
 
 /**
@@ -45,6 +52,14 @@ public class MethodWrapper
 	public final Access access;
 	public final ClassWrapper owner;
 
+	private volatile long excludedTypes = -1L;
+
+	private TrackedInsnList trackedInstructions;
+	private int unmodifiedModCount = -1;
+	private Object[] unmodifiedTryCatchBlocks;
+
+	private SoftReference<MethodAnalysisCache> analysis;
+
 	/**
 	 * Creates a MethodWrapper object.
 	 *
@@ -61,6 +76,108 @@ public class MethodWrapper
 		originalLocals = methodNode.localVariables;
 		access = new MethodAccess(this);
 		this.owner = owner;
+		trackInstructions();
+	}
+
+	/**
+	 * Replaces the wrapped {@link MethodNode} with a remapped copy of it. Remapping renames the types in the frames along with the code, so an unmodified method stays unmodified.
+	 *
+	 * @param remapped
+	 *                 the remapped copy of the wrapped {@link MethodNode}.
+	 */
+	public void setRemappedMethodNode(final MethodNode remapped)
+	{
+		final boolean modified = isModified();
+		methodNode = remapped;
+		trackInstructions();
+		if (!modified)
+			markUnmodified();
+	}
+
+	/**
+	 * Records the current code of the wrapped {@link MethodNode} as unmodified, meaning that its stack map frames are up to date.
+	 */
+	public void markUnmodified()
+	{
+		unmodifiedModCount = trackedInstructions.getModCount();
+		unmodifiedTryCatchBlocks = snapshotTryCatchBlocks();
+	}
+
+	/**
+	 * Marks the wrapped {@link MethodNode} as modified and drops its cached analyses (see {@link #getAnalysis()}). Only needed for changes made to an instruction in place, as changes made through the {@link InsnList} are tracked.
+	 */
+	public void markModified()
+	{
+		unmodifiedModCount = -1;
+		trackedInstructions.touch();
+	}
+
+	/**
+	 * @return true if the code of the wrapped {@link MethodNode} may have changed since {@link #markUnmodified()} was called, so its stack map frames have to be recomputed.
+	 */
+	public boolean isModified()
+	{
+		return unmodifiedModCount < 0 || methodNode.instructions != trackedInstructions || trackedInstructions.getModCount() != unmodifiedModCount || !Arrays.equals(unmodifiedTryCatchBlocks, snapshotTryCatchBlocks());
+	}
+
+	private void trackInstructions()
+	{
+		unmodifiedModCount = -1;
+		if (methodNode.instructions instanceof TrackedInsnList)
+		{
+			trackedInstructions = (TrackedInsnList) methodNode.instructions;
+			return;
+		}
+
+		trackedInstructions = new TrackedInsnList();
+		if (methodNode.instructions != null)
+			trackedInstructions.add(methodNode.instructions);
+		methodNode.instructions = trackedInstructions;
+	}
+
+	Object[] snapshotTryCatchBlocks()
+	{
+		final List<TryCatchBlockNode> tryCatchBlocks = methodNode.tryCatchBlocks;
+		if (tryCatchBlocks == null)
+			return new Object[0];
+
+		final Object[] snapshot = new Object[tryCatchBlocks.size() * 4];
+		for (int i = 0, j = tryCatchBlocks.size(); i < j; i++)
+		{
+			final TryCatchBlockNode tryCatchBlock = tryCatchBlocks.get(i);
+			snapshot[i * 4] = tryCatchBlock.start;
+			snapshot[i * 4 + 1] = tryCatchBlock.end;
+			snapshot[i * 4 + 2] = tryCatchBlock.handler;
+			snapshot[i * 4 + 3] = tryCatchBlock.type;
+		}
+		return snapshot;
+	}
+
+	/**
+	 * @return the analyses of the current code of the wrapped {@link MethodNode}, shared by all transformers. Only softly reachable from this wrapper, so they are recomputed if the heap ran short in the meantime.
+	 */
+	public MethodAnalysisCache getAnalysis()
+	{
+		final SoftReference<MethodAnalysisCache> reference = analysis;
+		MethodAnalysisCache cache = reference == null ? null : reference.get();
+		if (cache == null)
+		{
+			cache = new MethodAnalysisCache(this);
+			analysis = new SoftReference<>(cache);
+		}
+		return cache;
+	}
+
+	/**
+	 * @return mask of the {@link me.itzsomebody.radon.exclusions.ExclusionType}s excluding this method. Computed once, as exclusions always match the original names.
+	 */
+	public long getExcludedTypes(final ExclusionManager exclusionManager)
+	{
+		long mask = excludedTypes;
+		if (mask == -1L)
+			excludedTypes = mask = exclusionManager.getExcludedTypes(owner.originalName + '.' + originalName + originalDescription);
+
+		return mask;
 	}
 
 	/**
@@ -84,12 +201,63 @@ public class MethodWrapper
 	 */
 	public InsnList getInstructions()
 	{
-		return methodNode.instructions;
+		return getTrackedInstructions();
 	}
 
+	/**
+	 * Replaces the instructions of the wrapped {@link MethodNode}. They are moved into a new {@link TrackedInsnList}, so the given list is left empty.
+	 */
 	public void setInstructions(final InsnList instructions)
 	{
 		methodNode.instructions = instructions;
+		trackInstructions();
+	}
+
+	/**
+	 * @return the {@link OpcodeSummary} of the current instructions of the wrapped {@link MethodNode}, to check whether it contains any of the instructions a transformer is looking for.
+	 */
+	public OpcodeSummary getOpcodeSummary()
+	{
+		return getTrackedInstructions().getSummary();
+	}
+
+	/**
+	 * @return the instructions of the given kind in the wrapped {@link MethodNode}; see {@link TrackedInsnList#iterate(java.util.function.Predicate, int)} for which changes are allowed while iterating.
+	 */
+	public Iterable<AbstractInsnNode> getInstructions(final InsnKind kind)
+	{
+		return getTrackedInstructions().iterate(kind);
+	}
+
+	/**
+	 * @return stream of {@link #getInstructions(InsnKind)}.
+	 */
+	public Stream<AbstractInsnNode> streamInstructions(final InsnKind kind)
+	{
+		return stream(getInstructions(kind));
+	}
+
+	/**
+	 * @return stream of the instructions with any of the given opcodes in the wrapped {@link MethodNode}; see {@link TrackedInsnList#iterate(java.util.function.Predicate, int)} for which changes are allowed while streaming.
+	 */
+	public Stream<AbstractInsnNode> streamInstructions(final int... opcodes)
+	{
+		return stream(getTrackedInstructions().iterate(opcodes));
+	}
+
+	private static Stream<AbstractInsnNode> stream(final Iterable<AbstractInsnNode> insns)
+	{
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(insns.iterator(), Spliterator.ORDERED | Spliterator.NONNULL), false);
+	}
+
+	/**
+	 * Instructions replaced directly on the {@link MethodNode} are moved into a new {@link TrackedInsnList} first.
+	 */
+	private TrackedInsnList getTrackedInstructions()
+	{
+		if (methodNode.instructions != trackedInstructions)
+			trackInstructions();
+		return trackedInstructions;
 	}
 
 	/**
@@ -159,15 +327,15 @@ public class MethodWrapper
 	}
 
 	/**
-	 * @return computes and returns the size of the wrapped {@link MethodNode}.
+	 * @return the maximum size of the code of the wrapped {@link MethodNode}. Kept up to date by its {@link TrackedInsnList}, so this is cheap to call after every insertion.
 	 */
 	public int getCodeSize()
 	{
-		return ASMUtils.evaluateMaxSize(methodNode);
+		return getTrackedInstructions().getCodeSize();
 	}
 
 	/**
-	 * @return the leeway between the current size of the wrapped {@link MethodNode} and the max allowed size.
+	 * @return the leeway between the current size of the wrapped {@link MethodNode} and the max allowed size. Transformers share it as their budget for inserting code: check it before each insertion instead of keeping a count of their own, so that the code added by earlier transformers is taken into account.
 	 */
 	public int getLeewaySize()
 	{
@@ -0,0 +1,131 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.asm;
+
+import java.util.Arrays;
+
+import org.objectweb.asm.tree.AbstractInsnNode;
+
+/**
+ * Counts of the opcodes and the {@link InsnKind}s of the instructions in a {@link TrackedInsnList}, kept up to date as instructions are added and removed. Lets a transformer find out whether a method contains the instructions it is looking for without walking the code.
+ *
+ * @author hsheric0210
+ */
+public final class OpcodeSummary
+{
+	private static final InsnKind[] KINDS = InsnKind.values();
+
+	private final int[] opcodeCounts = new int[256];
+	private final long[] opcodes = new long[4];
+	private final int[] kindCounts = new int[KINDS.length];
+	private int kinds;
+
+	OpcodeSummary()
+	{
+	}
+
+	/**
+	 * @return true if an instruction with the given opcode is present.
+	 */
+	public boolean contains(final int opcode)
+	{
+		return (opcodes[opcode >>> 6] & 1L << opcode) != 0;
+	}
+
+	/**
+	 * @return true if an instruction with any of the given opcodes is present.
+	 */
+	public boolean containsAny(final int... opcodes)
+	{
+		for (final int opcode : opcodes)
+			if (contains(opcode))
+				return true;
+		return false;
+	}
+
+	/**
+	 * @return the number of instructions with the given opcode.
+	 */
+	public int count(final int opcode)
+	{
+		return opcodeCounts[opcode];
+	}
+
+	/**
+	 * @return true if an instruction of the given kind is present.
+	 */
+	public boolean contains(final InsnKind kind)
+	{
+		return (kinds & 1 << kind.ordinal()) != 0;
+	}
+
+	/**
+	 * @return the number of instructions of the given kind.
+	 */
+	public int count(final InsnKind kind)
+	{
+		return kindCounts[kind.ordinal()];
+	}
+
+	void add(final AbstractInsnNode insn)
+	{
+		final int opcode = insn.getOpcode();
+		if (opcode < 0) // Labels, line numbers and frames
+			return;
+
+		if (opcodeCounts[opcode]++ == 0)
+			opcodes[opcode >>> 6] |= 1L << opcode;
+
+		final InsnKind kind = InsnKind.of(insn);
+		if (kind != null && kindCounts[kind.ordinal()]++ == 0)
+			kinds |= 1 << kind.ordinal();
+	}
+
+	/**
+	 * @return false if the instruction wasn't counted, which happens when it was changed in place after it was added. The summary has to be rebuilt then.
+	 */
+	boolean remove(final AbstractInsnNode insn)
+	{
+		final int opcode = insn.getOpcode();
+		if (opcode < 0)
+			return true;
+
+		if (opcodeCounts[opcode] == 0)
+			return false;
+		if (--opcodeCounts[opcode] == 0)
+			opcodes[opcode >>> 6] &= ~(1L << opcode);
+
+		final InsnKind kind = InsnKind.of(insn);
+		if (kind == null)
+			return true;
+		if (kindCounts[kind.ordinal()] == 0)
+			return false;
+		if (--kindCounts[kind.ordinal()] == 0)
+			kinds &= ~(1 << kind.ordinal());
+		return true;
+	}
+
+	void clear()
+	{
+		Arrays.fill(opcodeCounts, 0);
+		Arrays.fill(opcodes, 0L);
+		Arrays.fill(kindCounts, 0);
+		kinds = 0;
+	}
+}
@@ -0,0 +1,311 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.asm;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+import org.objectweb.asm.commons.CodeSizeEvaluator;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.InsnList;
+import org.objectweb.asm.tree.LineNumberNode;
+
+/**
+ * {@link InsnList} which counts its structural modifications, so a {@link MethodWrapper} can tell whether its code was changed since it was loaded. It also keeps an {@link OpcodeSummary} and the maximum code size of its instructions.
+ * <p>
+ * Both are computed on the first request and then updated as instructions are added and removed. An instruction changed in place has to be reported through {@link #touch()} to have them recomputed.
+ * </p>
+ *
+ * @author hsheric0210
+ */
+public class TrackedInsnList extends InsnList
+{
+	private int modCount;
+
+	private final OpcodeSummary summary = new OpcodeSummary();
+	private final CodeSizeEvaluator sizeEvaluator = new CodeSizeEvaluator(null);
+	private int codeSize;
+	private boolean stale = true;
+
+	/**
+	 * @return the number of modifications made to this list so far.
+	 */
+	public int getModCount()
+	{
+		return modCount;
+	}
+
+	/**
+	 * Records a modification which was made to one of the instructions in place (e.g. a changed jump target) rather than through this list.
+	 */
+	public void touch()
+	{
+		modCount++;
+		stale = true;
+	}
+
+	/**
+	 * @return the summary of the instructions currently in this list.
+	 */
+	public OpcodeSummary getSummary()
+	{
+		refresh();
+		return summary;
+	}
+
+	/**
+	 * @return the maximum size of the bytecode of the instructions currently in this list, as estimated by {@link CodeSizeEvaluator}.
+	 */
+	public int getCodeSize()
+	{
+		refresh();
+		return codeSize;
+	}
+
+	private void refresh()
+	{
+		if (!stale)
+			return;
+
+		summary.clear();
+		codeSize = 0;
+		stale = false;
+		for (AbstractInsnNode insn = getFirst(); insn != null; insn = insn.getNext())
+			count(insn);
+	}
+
+	private int sizeOf(final AbstractInsnNode insn)
+	{
+		final int sizeBefore = sizeEvaluator.getMaxSize();
+		insn.accept(sizeEvaluator);
+		return sizeEvaluator.getMaxSize() - sizeBefore;
+	}
+
+	private void count(final AbstractInsnNode insn)
+	{
+		if (stale)
+			return;
+
+		summary.add(insn);
+		codeSize += sizeOf(insn);
+	}
+
+	private void uncount(final AbstractInsnNode insn)
+	{
+		if (stale)
+			return;
+
+		if (summary.remove(insn))
+			codeSize -= sizeOf(insn);
+		else
+			stale = true;
+	}
+
+	/**
+	 * Iterates over the instructions of the given kind without walking the list at all if there are none. See {@link #iterate(Predicate, int)}.
+	 */
+	public Iterable<AbstractInsnNode> iterate(final InsnKind kind)
+	{
+		return () -> new MatchingIterator(getFirst(), insn -> InsnKind.of(insn) == kind, getSummary().count(kind));
+	}
+
+	/**
+	 * Iterates over the instructions with any of the given opcodes without walking the list at all if there are none. See {@link #iterate(Predicate, int)}.
+	 */
+	public Iterable<AbstractInsnNode> iterate(final int... opcodes)
+	{
+		final long[] mask = new long[4];
+		for (final int opcode : opcodes)
+			mask[opcode >>> 6] |= 1L << opcode;
+
+		return () ->
+		{
+			final OpcodeSummary summary = getSummary();
+			int count = 0;
+			for (final int opcode : opcodes)
+				count += summary.count(opcode);
+			return new MatchingIterator(getFirst(), insn -> insn.getOpcode() >= 0 && (mask[insn.getOpcode() >>> 6] & 1L << insn.getOpcode()) != 0, count);
+		};
+	}
+
+	/**
+	 * Iterates over the instructions which match the filter, stopping as soon as the expected number of them was found.
+	 * <p>
+	 * The next matching instruction is looked up before the current one is returned, so the current one may be removed or replaced, and instructions may be inserted around it, without disturbing the iteration. Instructions inserted after the current one are not visited.
+	 * </p>
+	 *
+	 * @param  filter
+	 *                the instructions to return.
+	 * @param  count
+	 *                the number of instructions in this list which match the filter.
+	 */
+	public Iterable<AbstractInsnNode> iterate(final Predicate<AbstractInsnNode> filter, final int count)
+	{
+		return () -> new MatchingIterator(getFirst(), filter, count);
+	}
+
+	private void countAll(final InsnList insnList)
+	{
+		if (insnList instanceof TrackedInsnList)
+			((TrackedInsnList) insnList).stale = true; // Its instructions are moved to this list
+
+		if (stale)
+			return;
+
+		for (AbstractInsnNode insn = insnList.getFirst(); insn != null; insn = insn.getNext())
+			count(insn);
+	}
+
+	@Override
+	public void set(final AbstractInsnNode oldInsnNode, final AbstractInsnNode newInsnNode)
+	{
+		super.set(oldInsnNode, newInsnNode);
+		uncount(oldInsnNode);
+		count(newInsnNode);
+		modCount++;
+	}
+
+	@Override
+	public void add(final AbstractInsnNode insnNode)
+	{
+		super.add(insnNode);
+		count(insnNode);
+		modCount++;
+	}
+
+	@Override
+	public void add(final InsnList insnList)
+	{
+		countAll(insnList);
+		super.add(insnList);
+		modCount++;
+	}
+
+	@Override
+	public void insert(final AbstractInsnNode insnNode)
+	{
+		super.insert(insnNode);
+		count(insnNode);
+		modCount++;
+	}
+
+	@Override
+	public void insert(final InsnList insnList)
+	{
+		countAll(insnList);
+		super.insert(insnList);
+		modCount++;
+	}
+
+	@Override
+	public void insert(final AbstractInsnNode previousInsn, final AbstractInsnNode insnNode)
+	{
+		super.insert(previousInsn, insnNode);
+		count(insnNode);
+		modCount++;
+	}
+
+	@Override
+	public void insert(final AbstractInsnNode previousInsn, final InsnList insnList)
+	{
+		countAll(insnList);
+		super.insert(previousInsn, insnList);
+		modCount++;
+	}
+
+	@Override
+	public void insertBefore(final AbstractInsnNode nextInsn, final AbstractInsnNode insnNode)
+	{
+		super.insertBefore(nextInsn, insnNode);
+		count(insnNode);
+		modCount++;
+	}
+
+	@Override
+	public void insertBefore(final AbstractInsnNode nextInsn, final InsnList insnList)
+	{
+		countAll(insnList);
+		super.insertBefore(nextInsn, insnList);
+		modCount++;
+	}
+
+	@Override
+	public void remove(final AbstractInsnNode insnNode)
+	{
+		super.remove(insnNode);
+		uncount(insnNode);
+
+		// Line numbers don't affect the frames
+		if (!(insnNode instanceof LineNumberNode))
+			modCount++;
+	}
+
+	@Override
+	public void clear()
+	{
+		super.clear();
+		modCount++;
+		summary.clear();
+		codeSize = 0;
+		stale = false;
+	}
+
+	private static final class MatchingIterator implements Iterator<AbstractInsnNode>
+	{
+		private final Predicate<AbstractInsnNode> filter;
+		private int remaining;
+		private AbstractInsnNode next;
+
+		MatchingIterator(final AbstractInsnNode first, final Predicate<AbstractInsnNode> filter, final int count)
+		{
+			this.filter = filter;
+			remaining = count;
+			next = find(first);
+		}
+
+		private AbstractInsnNode find(AbstractInsnNode insn)
+		{
+			if (remaining <= 0)
+				return null;
+
+			while (insn != null && !filter.test(insn))
+				insn = insn.getNext();
+			return insn;
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			return next != null;
+		}
+
+		@Override
+		public AbstractInsnNode next()
+		{
+			final AbstractInsnNode current = next;
+			if (current == null)
+				throw new NoSuchElementException();
+
+			remaining--;
+			next = find(current.getNext());
+			return current;
+		}
+	}
+}
@@ -0,0 +1,383 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.classpath;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+import me.itzsomebody.radon.Main;
+import me.itzsomebody.radon.io.MappedZipFile;
+
+/**
+ * Persistent cache of {@link LibraryClassSummary}s, one file per library.
+ * <p>
+ * Cache files are named after the SHA-256 hash of the central directory of the library, which carries the CRC-32 and sizes of every entry, so a changed library simply misses the cache; the header also records the Radon version the file was written by. On a hit the file is memory-mapped, and strings and summaries are decoded from the mapping only when they are requested.
+ * </p>
+ * <p>
+ * Layout (big-endian):
+ *
+ * <pre>
+ * int    magic, int format version, UTF radon version, int length of the rest of the file
+ * int    string count, int[] string offsets, int string bytes, UTF[] strings
+ * int    class count, (int name, int record offset)[] classes, sorted by name
+ * byte[] records: int super (-1 = none), int access,
+ *                 int interface count, int[] interfaces,
+ *                 int method count, (int name, int desc, int access)[] methods,
+ *                 int field count, (int name, int desc, int access)[] fields
+ * </pre>
+ * </p>
+ *
+ * @author hsheric0210
+ */
+public final class LibraryCache
+{
+	private static final int MAGIC = 0x52444C43; // "RDLC"
+	private static final int FORMAT_VERSION = 2;
+	private static final String EXTENSION = ".rlc";
+
+	private final File directory;
+
+	public LibraryCache(final File directory)
+	{
+		this.directory = directory;
+	}
+
+	/**
+	 * @param  library
+	 *                 opened library archive.
+	 *
+	 * @return         the cache file for the current contents of the given library.
+	 */
+	public File getCacheFile(final MappedZipFile library)
+	{
+		try
+		{
+			final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(library.getCentralDirectory());
+
+			final StringBuilder sb = new StringBuilder(64 + EXTENSION.length());
+			for (final byte b : digest.digest())
+				sb.append(Character.forDigit(b >> 4 & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			return new File(directory, sb.append(EXTENSION).toString());
+		}
+		catch (final NoSuchAlgorithmException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Maps a cache file.
+	 *
+	 * @param  cacheFile
+	 *                   the cache file.
+	 *
+	 * @return           the mapped cache, or null if the file does not exist, was written by another version of Radon or is truncated, so it has to be rebuilt.
+	 */
+	public static CachedLibrary load(final File cacheFile) throws IOException
+	{
+		if (!cacheFile.isFile())
+			return null;
+
+		final ByteBuffer buffer;
+		try (final FileChannel channel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.READ))
+		{
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+
+		try
+		{
+			// A file cut short (e.g. by a crash or a full disk while copying the cache around) only misses the cache
+			if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION || !Main.VERSION.equals(readUTF(buffer)) || buffer.getInt() != buffer.remaining())
+				return null;
+		}
+		catch (final BufferUnderflowException e)
+		{
+			return null;
+		}
+
+		final int stringCount = buffer.getInt();
+		final int stringOffsets = buffer.position();
+		final int stringsLength = buffer.getInt(stringOffsets + stringCount * 4);
+		final int stringsStart = stringOffsets + stringCount * 4 + 4;
+		buffer.position(stringsStart + stringsLength);
+
+		final int classCount = buffer.getInt();
+		final int classesStart = buffer.position();
+
+		return new CachedLibrary(buffer, stringCount, stringOffsets, stringsStart, classCount, classesStart);
+	}
+
+	/**
+	 * Writes the summaries of a library to a cache file. The file is written to a temporary file first and then moved into place, so concurrent runs never observe a partially written cache.
+	 */
+	public static void write(final File cacheFile, final Collection<LibraryClassSummary> summaries) throws IOException
+	{
+		final Map<String, Integer> stringIndices = new HashMap<>();
+		final List<String> strings = new ArrayList<>();
+		final ByteArrayOutputStream records = new ByteArrayOutputStream();
+		final DataOutputStream recordOut = new DataOutputStream(records);
+		final List<int[]> classes = new ArrayList<>(summaries.size());
+
+		final List<LibraryClassSummary> sorted = new ArrayList<>(summaries);
+		sorted.sort(Comparator.comparing(LibraryClassSummary::getName));
+		for (final LibraryClassSummary summary : sorted)
+		{
+			classes.add(new int[]
+			{
+					indexOf(summary.getName(), stringIndices, strings), recordOut.size()
+			});
+
+			recordOut.writeInt(summary.getSuperName() == null ? -1 : indexOf(summary.getSuperName(), stringIndices, strings));
+			recordOut.writeInt(summary.getAccessFlags());
+
+			final List<String> interfaces = summary.getInterfaces();
+			recordOut.writeInt(interfaces.size());
+			for (final String itf : interfaces)
+				recordOut.writeInt(indexOf(itf, stringIndices, strings));
+
+			recordOut.writeInt(summary.getMethodCount());
+			for (int i = 0, j = summary.getMethodCount(); i < j; i++)
+			{
+				recordOut.writeInt(indexOf(summary.getMethodName(i), stringIndices, strings));
+				recordOut.writeInt(indexOf(summary.getMethodDescriptor(i), stringIndices, strings));
+				recordOut.writeInt(summary.getMethodAccess(i));
+			}
+
+			recordOut.writeInt(summary.getFieldCount());
+			for (int i = 0, j = summary.getFieldCount(); i < j; i++)
+			{
+				recordOut.writeInt(indexOf(summary.getFieldName(i), stringIndices, strings));
+				recordOut.writeInt(indexOf(summary.getFieldDescriptor(i), stringIndices, strings));
+				recordOut.writeInt(summary.getFieldAccess(i));
+			}
+		}
+
+		final File directory = cacheFile.getAbsoluteFile().getParentFile();
+		if (!directory.isDirectory() && !directory.mkdirs())
+			throw new IOException("Could not create cache directory " + directory);
+
+		final ByteArrayOutputStream stringBytes = new ByteArrayOutputStream();
+		final DataOutputStream stringOut = new DataOutputStream(stringBytes);
+		final int[] stringOffsets = new int[strings.size()];
+		for (int i = 0, j = strings.size(); i < j; i++)
+		{
+			stringOffsets[i] = stringOut.size();
+			stringOut.writeUTF(strings.get(i));
+		}
+
+		final File temp = File.createTempFile(cacheFile.getName(), ".tmp", directory);
+		try
+		{
+			try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp))))
+			{
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				out.writeUTF(Main.VERSION);
+				out.writeInt(4 + stringOffsets.length * 4 + 4 + stringBytes.size() + 4 + classes.size() * 8 + records.size());
+
+				out.writeInt(stringOffsets.length);
+				for (final int offset : stringOffsets)
+					out.writeInt(offset);
+				out.writeInt(stringBytes.size());
+				stringBytes.writeTo(out);
+
+				out.writeInt(classes.size());
+				for (final int[] entry : classes)
+				{
+					out.writeInt(entry[0]);
+					out.writeInt(entry[1]);
+				}
+
+				records.writeTo(out);
+			}
+
+			try
+			{
+				Files.move(temp.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (final IOException e)
+			{
+				Files.move(temp.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		finally
+		{
+			Files.deleteIfExists(temp.toPath());
+		}
+	}
+
+	private static int indexOf(final String s, final Map<String, Integer> indices, final List<String> strings)
+	{
+		return indices.computeIfAbsent(s, k ->
+		{
+			strings.add(k);
+			return strings.size() - 1;
+		});
+	}
+
+	private static String readUTF(final ByteBuffer buffer)
+	{
+		final int length = buffer.getShort() & 0xFFFF;
+		final byte[] bytes = new byte[length];
+		buffer.get(bytes);
+
+		// DataOutput.writeUTF() uses modified UTF-8, which only differs from standard UTF-8 for NUL and supplementary characters
+		boolean modified = false;
+		for (final byte b : bytes)
+			if ((b & 0xFF) == 0xC0 || (b & 0xFF) == 0xED)
+			{
+				modified = true;
+				break;
+			}
+
+		if (!modified)
+			return new String(bytes, StandardCharsets.UTF_8);
+
+		try
+		{
+			final ByteArrayOutputStream bos = new ByteArrayOutputStream(length + 2);
+			final DataOutputStream dos = new DataOutputStream(bos);
+			dos.writeShort(length);
+			dos.write(bytes);
+			return new DataInputStream(new ByteArrayInputStream(bos.toByteArray())).readUTF();
+		}
+		catch (final IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Memory-mapped cache file of a single library.
+	 */
+	public static final class CachedLibrary
+	{
+		private final ByteBuffer buffer;
+		private final String[] strings;
+		private final int stringOffsets;
+		private final int stringsStart;
+		private final int classCount;
+		private final int classesStart;
+
+		CachedLibrary(final ByteBuffer buffer, final int stringCount, final int stringOffsets, final int stringsStart, final int classCount, final int classesStart)
+		{
+			this.buffer = buffer;
+			strings = new String[stringCount];
+			this.stringOffsets = stringOffsets;
+			this.stringsStart = stringsStart;
+			this.classCount = classCount;
+			this.classesStart = classesStart;
+		}
+
+		/**
+		 * @return the number of classes in this cache.
+		 */
+		public int size()
+		{
+			return classCount;
+		}
+
+		private String string(final int index)
+		{
+			// Racing threads decode the same interned string, so the unsynchronized write is harmless
+			String s = strings[index];
+			if (s == null)
+			{
+				final ByteBuffer in = buffer.duplicate();
+				in.position(stringsStart + buffer.getInt(stringOffsets + index * 4));
+				strings[index] = s = readUTF(in).intern();
+			}
+			return s;
+		}
+
+		private int findRecord(final String name)
+		{
+			int low = 0;
+			int high = classCount - 1;
+			while (low <= high)
+			{
+				final int mid = low + high >>> 1;
+				final int entry = classesStart + mid * 8;
+				final int cmp = string(buffer.getInt(entry)).compareTo(name);
+				if (cmp < 0)
+					low = mid + 1;
+				else if (cmp > 0)
+					high = mid - 1;
+				else
+					return buffer.getInt(entry + 4);
+			}
+			return -1;
+		}
+
+		/**
+		 * Decodes the summary of the given class from the mapped file.
+		 *
+		 * @return the summary, or null if the class is not part of this cache.
+		 */
+		public LibraryClassSummary read(final String name)
+		{
+			final int record = findRecord(name);
+			if (record < 0)
+				return null;
+
+			final int offset = classesStart + classCount * 8 + record;
+			final ByteBuffer in = buffer.duplicate();
+			in.position(offset);
+
+			final int superIndex = in.getInt();
+			final int access = in.getInt();
+
+			final String[] interfaces = new String[in.getInt()];
+			for (int i = 0, j = interfaces.length; i < j; i++)
+				interfaces[i] = string(in.getInt());
+
+			final int methodCount = in.getInt();
+			final String[] methods = new String[methodCount << 1];
+			final int[] methodAccesses = new int[methodCount];
+			for (int i = 0; i < methodCount; i++)
+			{
+				methods[i << 1] = string(in.getInt());
+				methods[(i << 1) + 1] = string(in.getInt());
+				methodAccesses[i] = in.getInt();
+			}
+
+			final int fieldCount = in.getInt();
+			final String[] fields = new String[fieldCount << 1];
+			final int[] fieldAccesses = new int[fieldCount];
+			for (int i = 0; i < fieldCount; i++)
+			{
+				fields[i << 1] = string(in.getInt());
+				fields[(i << 1) + 1] = string(in.getInt());
+				fieldAccesses[i] = in.getInt();
+			}
+
+			return new LibraryClassSummary(name, superIndex < 0 ? null : string(superIndex), interfaces, access, methods, methodAccesses, fields, fieldAccesses);
+		}
+	}
+}
@@ -0,0 +1,265 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.classpath;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import me.itzsomebody.radon.asm.ClassInfo;
+
+/**
+ * Compact, read-only summary of a library class.
+ * <p>
+ * Only the information needed for hierarchy and member-signature lookups is kept: the class header and the name/descriptor/access of every member, packed into parallel arrays. All strings are interned, so names shared between classes (java/lang/Object, common descriptors, ...) are stored once.
+ * </p>
+ *
+ * @author hsheric0210
+ */
+public final class LibraryClassSummary implements ClassInfo
+{
+	private static final int READ_FLAGS = ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES;
+	private static final String[] EMPTY = new String[0];
+
+	private final String name;
+	private final String superName;
+	private final String[] interfaces;
+	private final int access;
+
+	// [name0, desc0, name1, desc1, ...]
+	private final String[] methods;
+	private final int[] methodAccesses;
+	private final String[] fields;
+	private final int[] fieldAccesses;
+
+	LibraryClassSummary(final String name, final String superName, final String[] interfaces, final int access, final String[] methods, final int[] methodAccesses, final String[] fields, final int[] fieldAccesses)
+	{
+		this.name = name;
+		this.superName = superName;
+		this.interfaces = interfaces;
+		this.access = access;
+		this.methods = methods;
+		this.methodAccesses = methodAccesses;
+		this.fields = fields;
+		this.fieldAccesses = fieldAccesses;
+	}
+
+	/**
+	 * Summarizes a class file without building any tree nodes.
+	 *
+	 * @param  bytes
+	 *               the class file.
+	 *
+	 * @return       the summary of the class.
+	 */
+	public static LibraryClassSummary read(final byte[] bytes)
+	{
+		final ClassReader reader = new ClassReader(bytes);
+		final SummaryBuilder builder = new SummaryBuilder();
+		reader.accept(builder, READ_FLAGS);
+		return builder.build();
+	}
+
+	private static String intern(final String s)
+	{
+		return s == null ? null : s.intern();
+	}
+
+	private static String[] intern(final String[] array)
+	{
+		if (array == null || array.length == 0)
+			return EMPTY;
+
+		final String[] interned = new String[array.length];
+		for (int i = 0, j = array.length; i < j; i++)
+			interned[i] = array[i].intern();
+		return interned;
+	}
+
+	private static int indexOf(final String[] members, final String name, final String desc)
+	{
+		for (int i = 0, j = members.length; i < j; i += 2)
+			if (members[i].equals(name) && members[i + 1].equals(desc))
+				return i >> 1;
+
+		return -1;
+	}
+
+	@Override
+	public String getName()
+	{
+		return name;
+	}
+
+	@Override
+	public String getSuperName()
+	{
+		return superName;
+	}
+
+	@Override
+	public List<String> getInterfaces()
+	{
+		return Collections.unmodifiableList(Arrays.asList(interfaces));
+	}
+
+	@Override
+	public int getAccessFlags()
+	{
+		return access;
+	}
+
+	@Override
+	public boolean isLibraryNode()
+	{
+		return true;
+	}
+
+	@Override
+	public boolean isMethodPresent(final String name, final String desc)
+	{
+		return indexOf(methods, name, desc) >= 0;
+	}
+
+	@Override
+	public boolean isFieldPresent(final String name, final String desc)
+	{
+		return indexOf(fields, name, desc) >= 0;
+	}
+
+	/**
+	 * @return the access flags of the given method, or -1 if the method is not declared by this class.
+	 */
+	public int getMethodAccess(final String name, final String desc)
+	{
+		final int index = indexOf(methods, name, desc);
+		return index < 0 ? -1 : methodAccesses[index];
+	}
+
+	/**
+	 * @return the access flags of the given field, or -1 if the field is not declared by this class.
+	 */
+	public int getFieldAccess(final String name, final String desc)
+	{
+		final int index = indexOf(fields, name, desc);
+		return index < 0 ? -1 : fieldAccesses[index];
+	}
+
+	public int getMethodCount()
+	{
+		return methodAccesses.length;
+	}
+
+	public String getMethodName(final int index)
+	{
+		return methods[index << 1];
+	}
+
+	public String getMethodDescriptor(final int index)
+	{
+		return methods[(index << 1) + 1];
+	}
+
+	public int getMethodAccess(final int index)
+	{
+		return methodAccesses[index];
+	}
+
+	public int getFieldCount()
+	{
+		return fieldAccesses.length;
+	}
+
+	public String getFieldName(final int index)
+	{
+		return fields[index << 1];
+	}
+
+	public String getFieldDescriptor(final int index)
+	{
+		return fields[(index << 1) + 1];
+	}
+
+	public int getFieldAccess(final int index)
+	{
+		return fieldAccesses[index];
+	}
+
+	@Override
+	public String toString()
+	{
+		return name;
+	}
+
+	private static final class SummaryBuilder extends ClassVisitor
+	{
+		private String name;
+		private String superName;
+		private String[] interfaces;
+		private int access;
+		private final List<String> methods = new ArrayList<>();
+		private final List<Integer> methodAccesses = new ArrayList<>();
+		private final List<String> fields = new ArrayList<>();
+		private final List<Integer> fieldAccesses = new ArrayList<>();
+
+		SummaryBuilder()
+		{
+			super(Opcodes.ASM9);
+		}
+
+		@Override
+		public void visit(final int version, final int access, final String name, final String signature, final String superName, final String[] interfaces)
+		{
+			this.access = access;
+			this.name = intern(name);
+			this.superName = intern(superName);
+			this.interfaces = intern(interfaces);
+		}
+
+		@Override
+		public FieldVisitor visitField(final int access, final String name, final String descriptor, final String signature, final Object value)
+		{
+			fields.add(name.intern());
+			fields.add(descriptor.intern());
+			fieldAccesses.add(access);
+			return null;
+		}
+
+		@Override
+		public MethodVisitor visitMethod(final int access, final String name, final String descriptor, final String signature, final String[] exceptions)
+		{
+			methods.add(name.intern());
+			methods.add(descriptor.intern());
+			methodAccesses.add(access);
+			return null;
+		}
+
+		LibraryClassSummary build()
+		{
+			return new LibraryClassSummary(name, superName, interfaces, access, methods.toArray(EMPTY), methodAccesses.stream().mapToInt(Integer::intValue).toArray(), fields.toArray(EMPTY), fieldAccesses.stream().mapToInt(Integer::intValue).toArray());
+		}
+	}
+}
@@ -0,0 +1,410 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.classpath;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+import java.util.zip.ZipException;
+
+import org.objectweb.asm.ClassReader;
+
+import me.itzsomebody.radon.Main;
+import me.itzsomebody.radon.asm.ClassWrapper;
+import me.itzsomebody.radon.exceptions.RadonException;
+import me.itzsomebody.radon.io.MappedZipFile;
+
+/**
+ * Name-only index of the library classes.
+ * <p>
+ * Classes are indexed by their entry names, without the class roots of web applications and Spring Boot archives. Versioned entries of multi-release archives are not indexed, and a class found under an entry name which does not match its own name is reported as unresolvable.
+ * </p>
+ * <p>
+ * Opening a library only reads its central directory (and, if enabled, maps its {@link LibraryCache} file); a class is parsed the first time it is requested, either into a compact {@link LibraryClassSummary} for hierarchy and member lookups or into a full {@link ClassWrapper} for callers which really need the tree. Classes which are not present in any library are looked up in the {@link PlatformClassPath}, if one is set. Both are memoized, and all operations are safe to call from any thread.
+ * </p>
+ *
+ * @author hsheric0210
+ */
+public class LibraryIndex implements Closeable
+{
+	private static final String[] CLASS_ROOTS = {"BOOT-INF/classes/", "WEB-INF/classes/"};
+	private static final String VERSIONS_ROOT = "META-INF/versions/";
+
+	private final List<MappedZipFile> archives = new ArrayList<>();
+	private final Map<String, MappedZipFile.Entry> entries = new HashMap<>();
+	private final Map<String, ClassWrapper> resolved = new ConcurrentHashMap<>();
+	private final Map<String, LibraryClassSummary> summaries = new ConcurrentHashMap<>();
+	private final Map<String, LibraryCache.CachedLibrary> cached = new HashMap<>();
+	private final Set<String> unresolvable = ConcurrentHashMap.newKeySet();
+	private PlatformClassPath platform;
+
+	/**
+	 * Indexes the given libraries. When the same class is present in multiple libraries, the last one wins.
+	 *
+	 * @param libraries
+	 *                  library archives, in configuration order.
+	 */
+	public void index(final List<File> libraries)
+	{
+		index(libraries, null);
+	}
+
+	/**
+	 * Indexes the given libraries. When the same class is present in multiple libraries, the last one wins.
+	 * <p>
+	 * If a cache directory is given, the summaries of each library are served from its {@link LibraryCache} file. Libraries without a valid cache file are summarized eagerly and written to the cache, which then serves them like a hit; the summaries are not kept on the heap.
+	 * </p>
+	 *
+	 * @param libraries
+	 *                       library archives, in configuration order.
+	 * @param cacheDirectory
+	 *                       directory of the persistent summary cache, or null to disable it.
+	 */
+	public void index(final List<File> libraries, final File cacheDirectory)
+	{
+		final LibraryCache cache = cacheDirectory == null ? null : new LibraryCache(cacheDirectory);
+
+		final List<IndexedLibrary> opened = libraries.parallelStream().map(file ->
+		{
+			if (!file.exists())
+			{
+				Main.warn(String.format("*** Library \"%s\" could not be found and will be ignored.", file.getAbsolutePath()));
+				return null;
+			}
+
+			Main.info(String.format("+ Indexing library \"%s\".", file.getAbsolutePath()));
+
+			final MappedZipFile archive;
+			try
+			{
+				archive = new MappedZipFile(file);
+			}
+			catch (final ZipException e)
+			{
+				Main.severe(String.format("*** Library \"%s\" could not be opened as a zip file.", file.getAbsolutePath()));
+				e.printStackTrace();
+				return null;
+			}
+			catch (final IOException e)
+			{
+				Main.severe(String.format("*** IOException happened while trying to load classes from \"%s\".", file.getAbsolutePath()));
+				e.printStackTrace();
+				return null;
+			}
+
+			return cache == null ? new IndexedLibrary(archive, null) : loadCached(archive, cache);
+		}).collect(Collectors.toList());
+
+		opened.stream().filter(Objects::nonNull).forEach(library ->
+		{
+			archives.add(library.archive);
+
+			final long versioned = library.archive.entries().stream().filter(entry -> entry.getName().startsWith(VERSIONS_ROOT) && entry.getName().endsWith(".class")).count();
+			if (versioned > 0)
+				Main.warn(String.format("*** %d versioned class entries of multi-release library \"%s\" are not indexed, their base versions are used instead.", versioned, library.archive.getFile().getAbsolutePath()));
+
+			library.archive.entries().stream().filter(LibraryIndex::isIndexed).forEach(entry ->
+			{
+				final String name = toClassName(entry.getName());
+				entries.put(name, entry);
+
+				// Summaries of classes shadowed by a later library must not survive the merge
+				if (library.cached != null)
+					cached.put(name, library.cached);
+				else
+					cached.remove(name);
+			});
+		});
+	}
+
+	private static IndexedLibrary loadCached(final MappedZipFile archive, final LibraryCache cache)
+	{
+		final File cacheFile = cache.getCacheFile(archive);
+		try
+		{
+			final LibraryCache.CachedLibrary cached = LibraryCache.load(cacheFile);
+			if (cached != null)
+			{
+				Main.info(String.format("+ Loaded %d cached library class summaries of \"%s\".", cached.size(), archive.getFile().getAbsolutePath()));
+				return new IndexedLibrary(archive, cached);
+			}
+		}
+		catch (final Throwable t)
+		{
+			Main.warn(String.format("*** Library cache \"%s\" is unreadable and will be rebuilt.", cacheFile.getAbsolutePath()), t);
+		}
+
+		// Keyed by the entry name like the index itself; classes stored under another name would be cached under a key the index never looks up
+		final Queue<String> misplaced = new ConcurrentLinkedQueue<>();
+		final Map<String, LibraryClassSummary> summaries = archive.entries().parallelStream().filter(LibraryIndex::isIndexed).map(entry ->
+		{
+			final String name = toClassName(entry.getName());
+			try
+			{
+				final LibraryClassSummary summary = LibraryClassSummary.read(entry.read());
+				if (summary.getName().equals(name))
+					return summary;
+
+				misplaced.add(entry.getName());
+			}
+			catch (final Throwable t)
+			{
+				// Left out of the cache; resolveSummary() reports the failure if the class is ever requested
+			}
+			return null;
+		}).filter(Objects::nonNull).collect(Collectors.toMap(LibraryClassSummary::getName, summary -> summary, (a, b) -> b));
+
+		if (!misplaced.isEmpty())
+			Main.warn(String.format("*** %d class entries of \"%s\" are not stored under the name of their class (e.g. \"%s\") and can not be indexed.", misplaced.size(), archive.getFile().getAbsolutePath(), misplaced.peek()));
+
+		try
+		{
+			LibraryCache.write(cacheFile, summaries.values());
+			Main.info(String.format("+ Cached %d library class summaries of \"%s\".", summaries.size(), archive.getFile().getAbsolutePath()));
+
+			// Served from the mapped file from now on, so the summaries don't stay on the heap for the whole run
+			final LibraryCache.CachedLibrary cached = LibraryCache.load(cacheFile);
+			if (cached != null)
+				return new IndexedLibrary(archive, cached);
+		}
+		catch (final IOException e)
+		{
+			Main.warn(String.format("*** Failed to write library cache \"%s\".", cacheFile.getAbsolutePath()), e);
+		}
+
+		// Summarized on demand instead
+		return new IndexedLibrary(archive, null);
+	}
+
+	/**
+	 * Sets the provider of the platform classes which are not present in any library. Must be called before the index is used.
+	 */
+	public void setPlatform(final PlatformClassPath platform)
+	{
+		this.platform = platform;
+	}
+
+	/**
+	 * @return true if a library class with the given internal name is indexed.
+	 */
+	public boolean contains(final String name)
+	{
+		return entries.containsKey(name);
+	}
+
+	/**
+	 * Resolves a library class, parsing it on first access.
+	 *
+	 * @param  name
+	 *              internal name of the class.
+	 *
+	 * @return      the resolved {@link ClassWrapper}, or null if the class is not indexed or could not be parsed.
+	 */
+	public ClassWrapper resolve(final String name)
+	{
+		final ClassWrapper cw = resolved.get(name);
+		if (cw != null)
+			return cw;
+
+		final MappedZipFile.Entry entry = entries.get(name);
+		if (entry == null && platform == null || unresolvable.contains(name))
+			return null;
+
+		return resolved.computeIfAbsent(name, n ->
+		{
+			try
+			{
+				final byte[] bytes = read(n, entry);
+				if (bytes == null)
+					return null;
+
+				final ClassWrapper wrapper = new ClassWrapper(new ClassReader(bytes), true);
+				checkName(n, wrapper.getName(), entry);
+				return wrapper;
+			}
+			catch (final Throwable t)
+			{
+				reportError(n, entry, t);
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Resolves the summary of a library class, parsing it on first access.
+	 *
+	 * @param  name
+	 *              internal name of the class.
+	 *
+	 * @return      the {@link LibraryClassSummary}, or null if the class is not indexed or could not be parsed.
+	 */
+	public LibraryClassSummary resolveSummary(final String name)
+	{
+		final LibraryClassSummary summary = summaries.get(name);
+		if (summary != null)
+			return summary;
+
+		final MappedZipFile.Entry entry = entries.get(name);
+		if (entry == null && platform == null || unresolvable.contains(name))
+			return null;
+
+		final LibraryCache.CachedLibrary cachedLibrary = cached.get(name);
+		return summaries.computeIfAbsent(name, n ->
+		{
+			try
+			{
+				if (cachedLibrary != null)
+				{
+					final LibraryClassSummary cachedSummary = cachedLibrary.read(n);
+					if (cachedSummary != null)
+						return cachedSummary;
+
+					// Left out of the cache because it failed to parse, so the failure is reported below
+				}
+
+				final byte[] bytes = read(n, entry);
+				if (bytes == null)
+					return null;
+
+				final LibraryClassSummary readSummary = LibraryClassSummary.read(bytes);
+				checkName(n, readSummary.getName(), entry);
+				return readSummary;
+			}
+			catch (final Throwable t)
+			{
+				reportError(n, entry, t);
+				return null;
+			}
+		});
+	}
+
+	private byte[] read(final String name, final MappedZipFile.Entry entry) throws IOException
+	{
+		if (entry != null)
+			return entry.read();
+
+		final byte[] bytes = platform.read(name);
+		if (bytes == null)
+			unresolvable.add(name); // Don't look up missing classes on the platform again
+		return bytes;
+	}
+
+	private static void checkName(final String name, final String actualName, final MappedZipFile.Entry entry)
+	{
+		// The entry name is all the index knows about a class, a mismatch means it lies below an unknown class root
+		if (!name.equals(actualName))
+			throw new RadonException(String.format("Entry \"%s\" contains class %s and can not be indexed", entry, actualName));
+	}
+
+	private void reportError(final String name, final MappedZipFile.Entry entry, final Throwable t)
+	{
+		if (unresolvable.add(name))
+		{
+			Main.severe(String.format("*** Error while loading library class \"%s\" from \"%s\".", name, entry == null ? platform : entry.getArchive()));
+			t.printStackTrace();
+		}
+	}
+
+	/**
+	 * @return the internal names of all indexed library classes.
+	 */
+	public Set<String> names()
+	{
+		return Collections.unmodifiableSet(entries.keySet());
+	}
+
+	/**
+	 * @return the number of indexed library classes.
+	 */
+	public int size()
+	{
+		return entries.size();
+	}
+
+	/**
+	 * @return the number of library classes resolved so far.
+	 */
+	public int resolvedCount()
+	{
+		return resolved.size() + summaries.size();
+	}
+
+	private static final class IndexedLibrary
+	{
+		final MappedZipFile archive;
+		final LibraryCache.CachedLibrary cached;
+
+		IndexedLibrary(final MappedZipFile archive, final LibraryCache.CachedLibrary cached)
+		{
+			this.archive = archive;
+			this.cached = cached;
+		}
+	}
+
+	private static boolean isIndexed(final MappedZipFile.Entry entry)
+	{
+		final String entryName = entry.getName();
+		return !entry.isDirectory() && entryName.endsWith(".class") && !entryName.startsWith(VERSIONS_ROOT);
+	}
+
+	private static String toClassName(final String entryName)
+	{
+		int start = 0;
+		for (final String root : CLASS_ROOTS)
+			if (entryName.startsWith(root))
+			{
+				start = root.length();
+				break;
+			}
+
+		return entryName.substring(start, entryName.length() - /* ".class".length() */ 6);
+	}
+
+	@Override
+	public void close()
+	{
+		if (platform != null)
+		{
+			try
+			{
+				platform.close();
+			}
+			catch (final IOException e)
+			{
+				Main.warn(String.format("*** Failed to close platform class path \"%s\".", platform), e);
+			}
+		}
+
+		archives.forEach(archive ->
+		{
+			try
+			{
+				archive.close();
+			}
+			catch (final IOException e)
+			{
+				Main.warn(String.format("*** Failed to close library \"%s\".", archive), e);
+			}
+		});
+	}
+}
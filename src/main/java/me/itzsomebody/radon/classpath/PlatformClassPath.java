@@ -0,0 +1,203 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.classpath;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.*;
+import java.nio.file.spi.FileSystemProvider;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import me.itzsomebody.radon.exceptions.RadonException;
+import me.itzsomebody.radon.io.MappedZipFile;
+
+/**
+ * Built-in provider of the Java platform classes, so that {@code rt.jar} or extracted jmods don't have to be listed in the libraries.
+ * <p>
+ * On JDK 9 and above, classes are read from the {@code jrt:/} file system, either the one of the running JVM or the one of a configured JDK home's {@code lib/modules} image. A JDK 8 home is served from its {@code rt.jar}. Nothing is enumerated up front: the modules containing a package are looked up the first time a class of that package is requested.
+ * </p>
+ *
+ * @author hsheric0210
+ */
+public final class PlatformClassPath implements Closeable
+{
+	private static final URI JRT_URI = URI.create("jrt:/");
+
+	private final String description;
+	private final FileSystem jrt;
+	private final boolean ownsFileSystem;
+	private final MappedZipFile runtimeArchive;
+	private final Map<String, MappedZipFile.Entry> runtimeEntries;
+	private final Map<String, List<Path>> packageRoots = new ConcurrentHashMap<>();
+
+	private PlatformClassPath(final String description, final FileSystem jrt, final boolean ownsFileSystem)
+	{
+		this.description = description;
+		this.jrt = jrt;
+		this.ownsFileSystem = ownsFileSystem;
+		runtimeArchive = null;
+		runtimeEntries = null;
+	}
+
+	private PlatformClassPath(final MappedZipFile runtimeArchive)
+	{
+		description = runtimeArchive.getFile().getAbsolutePath();
+		jrt = null;
+		ownsFileSystem = false;
+		this.runtimeArchive = runtimeArchive;
+		runtimeEntries = new HashMap<>(runtimeArchive.size() * 4 / 3 + 1);
+		runtimeArchive.entries().stream().filter(entry -> !entry.isDirectory() && entry.getName().endsWith(".class")).forEach(entry -> runtimeEntries.put(entry.getName(), entry));
+	}
+
+	/**
+	 * Opens the platform classes of the given JDK home, or of the running JVM if none is given.
+	 *
+	 * @param  jdkHome
+	 *                 JDK (or JRE) home directory, or null for the running JVM.
+	 *
+	 * @return         the platform class path.
+	 */
+	public static PlatformClassPath open(final File jdkHome) throws IOException
+	{
+		if (jdkHome == null)
+		{
+			try
+			{
+				return new PlatformClassPath(JRT_URI.toString(), FileSystems.getFileSystem(JRT_URI), false);
+			}
+			catch (final ProviderNotFoundException | FileSystemNotFoundException e)
+			{
+				// JDK 8 and below
+				return openRuntimeArchive(new File(System.getProperty("java.home")));
+			}
+		}
+
+		final File modules = new File(jdkHome, "lib/modules");
+		if (!modules.isFile())
+			return openRuntimeArchive(jdkHome);
+
+		final Map<String, String> env = Collections.singletonMap("java.home", jdkHome.getAbsolutePath());
+		final FileSystem fs;
+		if (isJrtProviderInstalled())
+			fs = FileSystems.newFileSystem(JRT_URI, env);
+		else
+		{
+			// The running JVM predates jrt:/, so load the provider shipped with the target JDK
+			final URL provider = new File(jdkHome, "lib/jrt-fs.jar").toURI().toURL();
+			fs = FileSystems.newFileSystem(JRT_URI, env, new URLClassLoader(new URL[]
+			{
+					provider
+			}));
+		}
+
+		return new PlatformClassPath(modules.getAbsolutePath(), fs, true);
+	}
+
+	private static boolean isJrtProviderInstalled()
+	{
+		return FileSystemProvider.installedProviders().stream().anyMatch(provider -> "jrt".equalsIgnoreCase(provider.getScheme()));
+	}
+
+	private static PlatformClassPath openRuntimeArchive(final File javaHome) throws IOException
+	{
+		for (final String candidate : new String[]
+		{
+				"lib/rt.jar", "jre/lib/rt.jar"
+		})
+		{
+			final File rt = new File(javaHome, candidate);
+			if (rt.isFile())
+				return new PlatformClassPath(new MappedZipFile(rt));
+		}
+
+		throw new RadonException(String.format("Could not find the platform classes of \"%s\": neither lib/modules nor lib/rt.jar exists", javaHome.getAbsolutePath()));
+	}
+
+	/**
+	 * Reads a platform class.
+	 *
+	 * @param  name
+	 *              internal name of the class.
+	 *
+	 * @return      the class file bytes, or null if the platform has no such class.
+	 */
+	public byte[] read(final String name) throws IOException
+	{
+		if (runtimeEntries != null)
+		{
+			final MappedZipFile.Entry entry = runtimeEntries.get(name + ".class");
+			return entry == null ? null : entry.read();
+		}
+
+		final int separator = name.lastIndexOf('/');
+		if (separator < 0)
+			return null;
+
+		for (final Path root : getPackageRoots(name.substring(0, separator)))
+		{
+			final Path path = root.resolve(name + ".class");
+			if (Files.isRegularFile(path))
+				return Files.readAllBytes(path);
+		}
+
+		return null;
+	}
+
+	private List<Path> getPackageRoots(final String packageName)
+	{
+		return packageRoots.computeIfAbsent(packageName, pkg ->
+		{
+			// /packages/<package>/ contains a link for each module which contains the package
+			final Path packageDirectory = jrt.getPath("/packages", pkg.replace('/', '.'));
+			if (!Files.isDirectory(packageDirectory))
+				return Collections.emptyList();
+
+			final List<Path> roots = new ArrayList<>(1);
+			try (final DirectoryStream<Path> modules = Files.newDirectoryStream(packageDirectory))
+			{
+				modules.forEach(module -> roots.add(jrt.getPath("/modules", module.getFileName().toString())));
+			}
+			catch (final IOException e)
+			{
+				throw new RadonException(e);
+			}
+			return roots;
+		});
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		if (runtimeArchive != null)
+			runtimeArchive.close();
+		if (ownsFileSystem)
+			jrt.close();
+	}
+
+	@Override
+	public String toString()
+	{
+		return description;
+	}
+}
@@ -48,6 +48,9 @@ public enum ConfigurationSetting
 	INPUT(String.class, null),
 	OUTPUT(String.class, null),
 	LIBRARIES(List.class, null),
+	LIBRARY_CACHE(String.class, null),
+	PLATFORM_CLASSPATH(Boolean.class, null),
+	JDK_HOME(String.class, null),
 	EXCLUSIONS(List.class, null),
 	COMPRESSION_LEVEL(Integer.class, null),
 	VERIFY(Boolean.class, null),
@@ -66,6 +66,17 @@ public final class ObfuscationConfiguration
 		});
 		obfConfig.libraries = libraries;
 
+		// LIBRARY_CACHE
+
+		if (config.contains(LIBRARY_CACHE))
+			obfConfig.libraryCache = new File((String) config.get(LIBRARY_CACHE));
+
+		// PLATFORM CLASSPATH
+
+		obfConfig.platformClassPath = config.getOrDefault(PLATFORM_CLASSPATH, true);
+		if (config.contains(JDK_HOME))
+			obfConfig.jdkHome = new File((String) config.get(JDK_HOME));
+
 		// EXCLUSIONS
 
 		final ExclusionManager manager = new ExclusionManager();
@@ -181,6 +192,9 @@ public final class ObfuscationConfiguration
 	public File input;
 	public File output;
 	public List<File> libraries;
+	public File libraryCache;
+	public boolean platformClassPath;
+	public File jdkHome;
 	public ExclusionManager exclusionManager;
 	public int compressionLevel;
 	public boolean verify;
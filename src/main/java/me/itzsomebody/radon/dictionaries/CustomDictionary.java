@@ -36,6 +36,11 @@ import me.itzsomebody.radon.utils.StrSequence;
 public class CustomDictionary implements Dictionary
 {
 	private final StrSequence CHARSET;
+
+	/**
+	 * Generates the unique names if every name can only be made of one sequence of words, else null.
+	 */
+	private final UniqueNameSequence uniqueSequence;
 	private final Collection<String> cache = new HashSet<>();
 	private String lastGenerated;
 
@@ -53,6 +58,22 @@ public class CustomDictionary implements Dictionary
 	private CustomDictionary(final StrSequence strSequence)
 	{
 		CHARSET = strSequence;
+		uniqueSequence = CHARSET.length() > 0 && isPrefixFree(strSequence) ? new UniqueNameSequence(CHARSET.length()) : null;
+	}
+
+	/**
+	 * If no word is a prefix of another one (nor a duplicate), names of the same number of words are equal only if their words are.
+	 */
+	private static boolean isPrefixFree(final StrSequence words)
+	{
+		final String[] sorted = IntStream.range(0, words.length()).mapToObj(words::strAt).sorted().toArray(String[]::new);
+
+		// A word which is a prefix of another one sorts right before it (or before another word with the same prefix)
+		for (int i = 0, j = sorted.length; i < j; i++)
+			if (sorted[i].isEmpty() || i + 1 < j && sorted[i + 1].startsWith(sorted[i]))
+				return false;
+
+		return true;
 	}
 
 	public CustomDictionary(final File dictionaryFile) throws IOException
@@ -69,6 +90,14 @@ public class CustomDictionary implements Dictionary
 	@Override
 	public final String uniqueRandomString(int length)
 	{
+		if (uniqueSequence != null)
+		{
+			final StringBuilder sb = new StringBuilder();
+			for (final int index : uniqueSequence.next(length))
+				sb.append(CHARSET.strAt(index));
+			return lastGenerated = sb.toString();
+		}
+
 		int count = 0;
 		final int arrLen = CHARSET.length();
 		String s;
@@ -115,6 +144,8 @@ public class CustomDictionary implements Dictionary
 	@Override
 	public final void reset()
 	{
+		if (uniqueSequence != null)
+			uniqueSequence.reset();
 		cache.clear();
 		lastGenerated = null;
 	}
@@ -19,8 +19,6 @@
 package me.itzsomebody.radon.dictionaries;
 
 import java.util.Arrays;
-import java.util.Collection;
-import java.util.HashSet;
 
 import me.itzsomebody.radon.utils.RandomUtils;
 
@@ -33,16 +31,28 @@ public class SimpleDictionary implements Dictionary
 	private final char[] charset;
 	private final int charsetLength;
 
-	private final Collection<String> cache = new HashSet<>();
+	private final UniqueNameSequence uniqueSequence;
 	private int index;
-	private int cachedLength;
 	private String lastGenerated;
 
 	public SimpleDictionary(final String name, final char[] charset)
 	{
 		this.name = name;
-		this.charset = charset;
-		charsetLength = charset.length;
+		this.charset = distinct(charset);
+		charsetLength = this.charset.length;
+		uniqueSequence = new UniqueNameSequence(charsetLength);
+	}
+
+	/**
+	 * Names are unique as long as the characters are.
+	 */
+	private static char[] distinct(final char[] charset)
+	{
+		final StringBuilder sb = new StringBuilder(charset.length);
+		for (final char c : charset)
+			if (sb.indexOf(String.valueOf(c)) < 0)
+				sb.append(c);
+		return sb.toString().toCharArray();
 	}
 
 	@Override
@@ -57,74 +67,27 @@ public class SimpleDictionary implements Dictionary
 	}
 
 	@Override
-	public String uniqueRandomString(int length)
+	public String uniqueRandomString(final int length)
 	{
-		if (cachedLength > length)
-			length = cachedLength;
-
-		int tryCount = 0;
-		String s;
-
-		do
-		{
-			s = randomString(length);
-
-			if (tryCount++ >= charsetLength)
-			{
-				length++;
-				tryCount = 0;
-			}
-		}
-		while (!cache.add(s));
-
-		cachedLength = length;
-		return s;
+		final int[] indices = uniqueSequence.next(length);
+		final char[] chars = new char[indices.length];
+		for (int i = 0, j = indices.length; i < j; i++)
+			chars[i] = charset[indices[i]];
+		return new String(chars);
 	}
 
-	// FIXME
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] p
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] q
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] r
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] s
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] t
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] u
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] v
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] w
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] x
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] y
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] z
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] 1
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] 2
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] 3
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] 4
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] 5
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] 6
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] 7
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] 8
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] 9
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] 0
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] BA <- FIXME: Expected 'AA' but got 'BA' // Cause: A = 0, B = 1, C = 2 ...
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] BB
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] BC
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] BD
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] BE
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] BF
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] BG
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] BH
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] BI
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] BJ
-	// [10/08/2021-10:24:07] INFO: [VERBOSE] [Renamer] BK
-	// Original code: https://github.com/Guardsquare/proguard/blob/master/base/src/main/java/proguard/obfuscate/SimpleNameFactory.java
-
+	/**
+	 * Numbers the names in bijective base-n, so all names of a length come before the longer ones: a, b, ..., 0, aa, ab, ...
+	 * <p>
+	 * Original code: https://github.com/Guardsquare/proguard/blob/master/base/src/main/java/proguard/obfuscate/SimpleNameFactory.java
+	 */
 	@Override
 	public String nextUniqueString(final int index, final int length)
 	{
-		final int baseIndex = index / charsetLength;
-		final int offset = index % charsetLength;
-
-		final char newChar = charset[offset];
-
-		return baseIndex == 0 ? String.valueOf(newChar) : nextUniqueString(baseIndex - 1, length) + newChar;
+		final StringBuilder sb = new StringBuilder();
+		for (int remaining = index + 1; remaining > 0; remaining = (remaining - 1) / charsetLength)
+			sb.append(charset[(remaining - 1) % charsetLength]);
+		return sb.reverse().toString();
 	}
 
 	@Override
@@ -148,7 +111,7 @@ public class SimpleDictionary implements Dictionary
 	@Override
 	public void reset()
 	{
-		cache.clear();
+		uniqueSequence.reset();
 		index = 0;
 		lastGenerated = null;
 	}
@@ -0,0 +1,160 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.dictionaries;
+
+import me.itzsomebody.radon.utils.RandomUtils;
+
+/**
+ * Generates unique, random looking names without remembering the names it generated.
+ * <p>
+ * Names of a given length are numbered by a counter, which is mapped through a keyed permutation of all names of that length (a Feistel network with cycle walking, i.e. format-preserving encryption). As the permutation is a bijection, every counter value yields another name, so no set of the generated names has to be kept and no name has to be generated twice. Once all names of a length were generated, the next length is used.
+ * <p>
+ * Names are generated as the indices of their characters (or words) within the dictionary's charset.
+ *
+ * @author hsheric0210
+ */
+final class UniqueNameSequence
+{
+	private static final int ROUNDS = 6;
+
+	/**
+	 * Up to this many names per length are numbered by the counter. Characters beyond it are derived from the counter, which keeps the names unique, as the numbered characters already are.
+	 */
+	private static final long MAX_DOMAIN = 1L << 62;
+
+	private final int charsetLength;
+	private final long[] keys = new long[ROUNDS];
+
+	private int length;
+	private int permutedLength;
+	private long domain;
+	private long counter;
+
+	private int halfBits;
+	private long halfMask;
+
+	UniqueNameSequence(final int charsetLength)
+	{
+		if (charsetLength <= 0)
+			throw new IllegalArgumentException("Empty charset");
+
+		this.charsetLength = charsetLength;
+		for (int i = 0; i < ROUNDS; i++)
+			keys[i] = RandomUtils.getRandomLong();
+	}
+
+	/**
+	 * @param  minLength
+	 *                   the minimum length of the name. Names never get shorter than the names generated before.
+	 * @return           the indices of the characters of the next name.
+	 */
+	int[] next(final int minLength)
+	{
+		if (minLength > length || counter >= domain)
+			setLength(Math.max(minLength, counter >= domain ? length + 1 : length));
+
+		final long index = counter++;
+		long value = permute(index);
+
+		final int[] chars = new int[length];
+		for (int i = length - 1, j = length - permutedLength; i >= j; i--)
+		{
+			chars[i] = (int) (value % charsetLength);
+			value /= charsetLength;
+		}
+
+		// Characters which aren't numbered only have to look random
+		long state = index;
+		for (int i = 0, j = length - permutedLength; i < j; i++)
+		{
+			state = mix(state ^ keys[i % ROUNDS]);
+			chars[i] = (int) Long.remainderUnsigned(state, charsetLength);
+		}
+
+		return chars;
+	}
+
+	void reset()
+	{
+		length = 0;
+		permutedLength = 0;
+		domain = 0;
+		counter = 0;
+	}
+
+	private void setLength(final int newLength)
+	{
+		length = Math.max(newLength, 1);
+		counter = 0;
+
+		// Number as many trailing characters as fit in MAX_DOMAIN
+		permutedLength = 0;
+		domain = 1;
+		while (permutedLength < length && domain <= MAX_DOMAIN / charsetLength)
+		{
+			domain *= charsetLength;
+			permutedLength++;
+		}
+
+		// The Feistel network permutes the smallest even power of two no less than the domain, which is less than four times the domain, so cycle walking takes less than four rounds on average
+		final int bits = Math.max(2, 64 - Long.numberOfLeadingZeros(domain - 1));
+		halfBits = bits + 1 >>> 1;
+		halfMask = (1L << halfBits) - 1;
+	}
+
+	/**
+	 * @return the value the given value in [0, domain) is mapped to, also in [0, domain).
+	 */
+	private long permute(long value)
+	{
+		if (domain == 1)
+			return 0;
+
+		do
+			value = encrypt(value);
+		while (value >= domain);
+
+		return value;
+	}
+
+	private long encrypt(final long value)
+	{
+		long left = value >>> halfBits;
+		long right = value & halfMask;
+
+		for (int i = 0; i < ROUNDS; i++)
+		{
+			final long newRight = left ^ mix(right ^ keys[i]) & halfMask;
+			left = right;
+			right = newRight;
+		}
+
+		return left << halfBits | right;
+	}
+
+	/**
+	 * SplitMix64 finalizer.
+	 */
+	private static long mix(long z)
+	{
+		z = (z ^ z >>> 30) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ z >>> 27) * 0x94D049BB133111EBL;
+		return z ^ z >>> 31;
+	}
+}
@@ -1,22 +1,34 @@
 package me.itzsomebody.radon.dictionaries;
 
+import java.util.function.Predicate;
+
 import me.itzsomebody.radon.utils.RandomUtils;
 
+/**
+ * Wraps a {@link Dictionary} with the preferred name lengths. The methods which depend on the state of the dictionary are synchronized, as transformers running class by class (see {@link me.itzsomebody.radon.transformers.Transformer#transformClass(me.itzsomebody.radon.asm.ClassWrapper)}) share the dictionaries across threads.
+ */
 public class WrappedDictionary
 {
 	private final Dictionary dictionary;
 	private final int minLength;
 	private final int maxLength;
+	private final Predicate<String> taken;
 
 	public WrappedDictionary(final Dictionary dictionary, final int minLength, final int maxLength)
+	{
+		this(dictionary, minLength, maxLength, name -> false);
+	}
+
+	private WrappedDictionary(final Dictionary dictionary, final int minLength, final int maxLength, final Predicate<String> taken)
 	{
 		this.dictionary = dictionary;
 		this.minLength = minLength;
 		this.maxLength = maxLength;
+		this.taken = taken;
 	}
 
 	@SuppressWarnings("unused")
-	public final String getLastGeneratedString()
+	public final synchronized String getLastGeneratedString()
 	{
 		return dictionary.lastUniqueString();
 	}
@@ -31,34 +43,49 @@ public class WrappedDictionary
 		return dictionary.randomString(length);
 	}
 
-	public final String uniqueRandomString()
+	public final synchronized String uniqueRandomString()
 	{
 		return dictionary.uniqueRandomString(RandomUtils.getRandomInt(minLength, maxLength));
 	}
 
-	public final String nextUniqueString(final int index)
+	public final synchronized String nextUniqueString(final int index)
 	{
 		return dictionary.nextUniqueString(index, RandomUtils.getRandomInt(minLength, maxLength));
 	}
 
-	public final String nextUniqueString()
+	public final synchronized String nextUniqueString()
 	{
-		final String s = dictionary.nextUniqueString(RandomUtils.getRandomInt(minLength, maxLength));
-		if (s == null || s.isEmpty())
-			throw new IllegalStateException("Dictionary " + dictionary + ".nextUniqueString() thrown an empty string!!!");
+		String s;
+		do
+		{
+			s = dictionary.nextUniqueString(RandomUtils.getRandomInt(minLength, maxLength));
+			if (s == null || s.isEmpty())
+				throw new IllegalStateException("Dictionary " + dictionary + ".nextUniqueString() thrown an empty string!!!");
+		}
+		while (taken.test(s));
 		return s;
 	}
 
-	public final void reset()
+	public final synchronized void reset()
 	{
 		dictionary.reset();
 	}
 
-	public final WrappedDictionary copy()
+	public final synchronized WrappedDictionary copy()
 	{
 		return new WrappedDictionary(dictionary.copy(), minLength, maxLength);
 	}
 
+	/**
+	 * @param  taken
+	 *               tells if a name is already in use; such names are skipped by {@link #nextUniqueString()}.
+	 * @return       a copy of this dictionary which skips the names already in use.
+	 */
+	public final synchronized WrappedDictionary copy(final Predicate<String> taken)
+	{
+		return new WrappedDictionary(dictionary.copy(), minLength, maxLength, taken);
+	}
+
 	public final String toString()
 	{
 		return String.format("WrappedDictionary[dictionary=\"%s\",preferredLength=%d ~ %d]", dictionary.getDictionaryName(), minLength, maxLength);
@@ -0,0 +1,188 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.exclusions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The exclusions of an {@link ExclusionManager}, compiled for matching a name against all {@link ExclusionType}s at once.
+ * <p>
+ * Patterns which are plain literals (e.g. {@code com/example/Main}) are looked up in a hash map, and literal prefixes (e.g. {@code com/example/.*}) are merged into a trie, so neither runs a regex. Only the remaining patterns are matched as regexes, and only if they could still exclude a type which isn't excluded already.
+ *
+ * @author hsheric0210
+ */
+final class CompiledExclusions
+{
+	/**
+	 * Mask of all {@link ExclusionType}s; what a {@link ExclusionType#GLOBAL} exclusion excludes.
+	 */
+	static final long ALL_TYPES = (1L << ExclusionType.values().length) - 1;
+
+	private final Map<String, Long> literals = new HashMap<>();
+	private final TrieNode prefixes = new TrieNode();
+	private final List<Exclusion> regexes = new ArrayList<>();
+	private final List<Long> regexMasks = new ArrayList<>();
+
+	CompiledExclusions(final Iterable<Exclusion> exclusions)
+	{
+		for (final Exclusion exclusion : exclusions)
+		{
+			final long mask = exclusion.getExclusionType() == ExclusionType.GLOBAL ? ALL_TYPES : exclusion.getExclusionType().getMask();
+			final String pattern = exclusion.getPattern().pattern();
+
+			if (!exclusion.isInverted() && pattern.endsWith(".*"))
+			{
+				final String prefix = unescapeLiteral(pattern.substring(0, pattern.length() - 2));
+				if (prefix != null)
+				{
+					prefixes.insert(prefix, mask);
+					continue;
+				}
+			}
+
+			if (!exclusion.isInverted())
+			{
+				final String literal = unescapeLiteral(pattern);
+				if (literal != null)
+				{
+					literals.merge(literal, mask, (a, b) -> a | b);
+					continue;
+				}
+			}
+
+			regexes.add(exclusion);
+			regexMasks.add(mask);
+		}
+	}
+
+	/**
+	 * @return mask of the {@link ExclusionType}s excluding the given name.
+	 */
+	long match(final String name)
+	{
+		long mask = literals.getOrDefault(name, 0L) | prefixes.match(name);
+
+		for (int i = 0, j = regexes.size(); i < j && mask != ALL_TYPES; i++)
+		{
+			final long regexMask = regexMasks.get(i);
+			if ((regexMask & ~mask) != 0 && regexes.get(i).matches(name))
+				mask |= regexMask;
+		}
+
+		return mask;
+	}
+
+	/**
+	 * @return the string matched by the given regex if it matches exactly one string, or null if it contains any construct other than plain and escaped characters.
+	 */
+	private static String unescapeLiteral(final String regex)
+	{
+		final StringBuilder sb = new StringBuilder(regex.length());
+
+		for (int i = 0, j = regex.length(); i < j; i++)
+		{
+			final char c = regex.charAt(i);
+
+			if (c == '\\')
+			{
+				// Escaped letters and digits are character classes, back references, \Q...\E, etc.
+				if (i + 1 >= j || Character.isLetterOrDigit(regex.charAt(i + 1)))
+					return null;
+
+				sb.append(regex.charAt(++i));
+			}
+			else if ("^$.|?*+()[]{}".indexOf(c) >= 0)
+				return null;
+			else
+				sb.append(c);
+		}
+
+		return sb.toString();
+	}
+
+	private static final class TrieNode
+	{
+		private char[] keys = new char[0];
+		private TrieNode[] children = new TrieNode[0];
+		private long mask;
+
+		void insert(final String prefix, final long mask)
+		{
+			TrieNode node = this;
+			for (int i = 0, j = prefix.length(); i < j; i++)
+				node = node.getOrCreateChild(prefix.charAt(i));
+
+			node.mask |= mask;
+		}
+
+		long match(final String name)
+		{
+			// The trailing .* doesn't match line terminators, so only prefixes which cover all of them count
+			int lastTerminator = -1;
+			for (int i = 0, j = name.length(); i < j; i++)
+				if (isLineTerminator(name.charAt(i)))
+					lastTerminator = i;
+
+			long mask = lastTerminator < 0 ? this.mask : 0;
+			TrieNode node = this;
+
+			for (int i = 0, j = name.length(); i < j && node != null; i++)
+			{
+				node = node.getChild(name.charAt(i));
+				if (node != null && i >= lastTerminator)
+					mask |= node.mask;
+			}
+
+			return mask;
+		}
+
+		private static boolean isLineTerminator(final char c)
+		{
+			return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+		}
+
+		private TrieNode getChild(final char key)
+		{
+			for (int i = 0, j = keys.length; i < j; i++)
+				if (keys[i] == key)
+					return children[i];
+
+			return null;
+		}
+
+		private TrieNode getOrCreateChild(final char key)
+		{
+			TrieNode child = getChild(key);
+			if (child == null)
+			{
+				child = new TrieNode();
+				keys = Arrays.copyOf(keys, keys.length + 1);
+				children = Arrays.copyOf(children, children.length + 1);
+				keys[keys.length - 1] = key;
+				children[children.length - 1] = child;
+			}
+
+			return child;
+		}
+	}
+}
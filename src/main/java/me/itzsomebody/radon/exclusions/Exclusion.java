@@ -85,6 +85,14 @@ public class Exclusion
 		return exclusionType;
 	}
 
+	/**
+	 * @return true if this exclusion matches everything its pattern does not match.
+	 */
+	public boolean isInverted()
+	{
+		return shouldInclude;
+	}
+
 	public boolean matches(final CharSequence other)
 	{
 		return shouldInclude != exclusion.matcher(other).matches();
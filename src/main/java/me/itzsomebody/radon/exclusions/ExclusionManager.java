@@ -20,28 +20,74 @@ package me.itzsomebody.radon.exclusions;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Class containing a {@link List<Exclusion>} of all the created exclusions.
+ * <p>
+ * The exclusions are compiled into {@link CompiledExclusions} on first use, which matches a name against all {@link ExclusionType}s at once. The resulting masks are memoized per name, so checking the same class or member again for another type (or in another transformer) is a single lookup.
  *
  * @author ItzSomebody
  */
 public class ExclusionManager
 {
 	private final List<Exclusion> exclusions = new ArrayList<>();
+	private final Map<String, Long> excludedTypes = new ConcurrentHashMap<>();
+	private volatile CompiledExclusions compiled;
 
 	public List<Exclusion> getExclusions()
 	{
 		return exclusions;
 	}
 
-	public void addExclusion(final Exclusion exclusion)
+	public synchronized void addExclusion(final Exclusion exclusion)
 	{
 		exclusions.add(exclusion);
+		compiled = null;
+		excludedTypes.clear();
 	}
 
 	public boolean isExcluded(final CharSequence pattern, final ExclusionType type)
 	{
-		return exclusions.stream().anyMatch(exclusion -> (exclusion.getExclusionType() == type || exclusion.getExclusionType() == ExclusionType.GLOBAL) && exclusion.matches(pattern));
+		return isExcluded(getExcludedTypes(pattern), type);
+	}
+
+	/**
+	 * @param excludedTypes
+	 *                      mask as returned by {@link #getExcludedTypes(CharSequence)}.
+	 */
+	public static boolean isExcluded(final long excludedTypes, final ExclusionType type)
+	{
+		return (excludedTypes & type.getMask()) != 0;
+	}
+
+	/**
+	 * @return mask of the {@link ExclusionType#getMask()}s of all the types which exclude the given name.
+	 */
+	public long getExcludedTypes(final CharSequence name)
+	{
+		final String key = name.toString();
+		final Long cached = excludedTypes.get(key);
+		if (cached != null)
+			return cached;
+
+		final long mask = getCompiled().match(key);
+		excludedTypes.put(key, mask);
+		return mask;
+	}
+
+	private CompiledExclusions getCompiled()
+	{
+		CompiledExclusions compiled = this.compiled;
+		if (compiled == null)
+			synchronized (this)
+			{
+				compiled = this.compiled;
+				if (compiled == null)
+					this.compiled = compiled = new CompiledExclusions(exclusions);
+			}
+
+		return compiled;
 	}
 }
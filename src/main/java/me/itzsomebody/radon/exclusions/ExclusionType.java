@@ -60,4 +60,12 @@ public enum ExclusionType
 	{
 		return name().toLowerCase(Locale.ENGLISH);
 	}
+
+	/**
+	 * @return the bit of this type in the exclusion masks of {@link ExclusionManager#getExcludedTypes(CharSequence)}.
+	 */
+	public long getMask()
+	{
+		return 1L << ordinal();
+	}
 }
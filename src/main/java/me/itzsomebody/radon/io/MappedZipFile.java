@@ -0,0 +1,585 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.io;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Read-only zip archive backed by a memory-mapped file.
+ * <p>
+ * The central directory is parsed exactly once when the archive is opened. Unlike {@link java.util.zip.ZipFile}, every {@link Entry} can be read concurrently from any number of threads without contending on a shared lock, because all reads are absolute reads from the shared mapping.
+ * </p>
+ * <p>
+ * A single mapping is limited to 2 GiB, so the archive is mapped in windows of {@value #WINDOW_SIZE} bytes. Each window also maps the first {@value #WINDOW_OVERLAP} bytes of the next one, so every header record lies entirely within one window. Entry data crossing a window boundary gets a mapping of its own, which requires the archive to be still open.
+ * </p>
+ *
+ * @author hsheric0210
+ */
+public final class MappedZipFile implements Closeable
+{
+	private static final int LOCAL_HEADER_SIGNATURE = 0x04034B50;
+	private static final int CENTRAL_HEADER_SIGNATURE = 0x02014B50;
+	private static final int END_HEADER_SIGNATURE = 0x06054B50;
+	private static final int ZIP64_END_HEADER_SIGNATURE = 0x06064B50;
+	private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064B50;
+
+	private static final int LOCAL_HEADER_SIZE = 30;
+	private static final int CENTRAL_HEADER_SIZE = 46;
+	private static final int END_HEADER_SIZE = 22;
+	private static final int ZIP64_LOCATOR_SIZE = 20;
+	private static final int ZIP64_EXTRA_ID = 0x0001;
+	private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+	private static final long WINDOW_SIZE = 1L << 30;
+	// Larger than any central or local header including its variable-length fields
+	private static final int WINDOW_OVERLAP = 1 << 18;
+
+	public static final int STORED = 0;
+	public static final int DEFLATED = 8;
+
+	private final File file;
+	private final FileChannel channel;
+	private final long size;
+	private final ByteBuffer[] windows;
+	private final List<Entry> entries;
+	private ByteBuffer centralDirectory;
+
+	public MappedZipFile(final File file) throws IOException
+	{
+		this.file = file;
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+
+		try
+		{
+			size = channel.size();
+			windows = new ByteBuffer[(int) Math.max(1, (size + WINDOW_SIZE - 1) / WINDOW_SIZE)];
+			for (int i = 0, j = windows.length; i < j; i++)
+			{
+				final long start = i * WINDOW_SIZE;
+				windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size - start, WINDOW_SIZE + WINDOW_OVERLAP));
+			}
+
+			entries = Collections.unmodifiableList(readCentralDirectory());
+		}
+		catch (final IOException | RuntimeException e)
+		{
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return the archive file this instance was opened from.
+	 */
+	public File getFile()
+	{
+		return file;
+	}
+
+	/**
+	 * @return a read-only view of the central directory and the end records following it. As the central directory carries the name, CRC-32 and sizes of every entry, it identifies the archive contents without reading the entries themselves.
+	 */
+	public ByteBuffer getCentralDirectory()
+	{
+		return centralDirectory.asReadOnlyBuffer();
+	}
+
+	/**
+	 * @return all entries of the archive, in central directory order.
+	 */
+	public List<Entry> entries()
+	{
+		return entries;
+	}
+
+	/**
+	 * @return the number of entries in the archive.
+	 */
+	public int size()
+	{
+		return entries.size();
+	}
+
+	private List<Entry> readCentralDirectory() throws IOException
+	{
+		final long endOffset = findEndHeader();
+		final ByteBuffer endHeader = view(endOffset, END_HEADER_SIZE);
+
+		long count = u16(endHeader, 10);
+		long directorySize = u32(endHeader, 12);
+		long directoryOffset = u32(endHeader, 16);
+		long directoryEnd = endOffset;
+
+		if (count == 0xFFFF || directorySize == 0xFFFFFFFFL || directoryOffset == 0xFFFFFFFFL)
+		{
+			// Both values are merely hints for a ZIP64 end of central directory record, archives which just happen to hit them carry none
+			final long locatorOffset = endOffset - ZIP64_LOCATOR_SIZE;
+			if (locatorOffset >= 0)
+			{
+				final ByteBuffer locator = view(locatorOffset, ZIP64_LOCATOR_SIZE);
+				final long zip64EndOffset = locator.getLong(8);
+				if (locator.getInt(0) == ZIP64_LOCATOR_SIGNATURE && zip64EndOffset >= 0 && zip64EndOffset <= locatorOffset - 56)
+				{
+					final ByteBuffer zip64EndHeader = view(zip64EndOffset, 56);
+					if (zip64EndHeader.getInt(0) == ZIP64_END_HEADER_SIGNATURE)
+					{
+						count = zip64EndHeader.getLong(32);
+						directorySize = zip64EndHeader.getLong(40);
+						directoryOffset = zip64EndHeader.getLong(48);
+						directoryEnd = zip64EndOffset;
+					}
+				}
+			}
+		}
+
+		// The recorded offsets are relative to the start of the archive, which is preceded by e.g. a launcher script in self-executing jars
+		final long start = directoryEnd - directorySize - directoryOffset;
+		if (directorySize < 0 || directoryOffset < 0 || start < 0)
+			throw new ZipException(String.format("Invalid central directory offset %d or size %d in \"%s\"", directoryOffset, directorySize, file.getAbsolutePath()));
+
+		directoryOffset += start;
+
+		centralDirectory = view(directoryOffset, checkedSize(size - directoryOffset));
+
+		// The entry count is only used as a hint as well, the headers are read up to the end of the central directory like java.util.zip does
+		final List<Entry> result = new ArrayList<>((int) Math.min(count, 0xFFFF));
+		long offset = directoryOffset;
+		while (offset + CENTRAL_HEADER_SIZE <= directoryEnd)
+		{
+			final ByteBuffer header = view(offset, CENTRAL_HEADER_SIZE);
+			if (header.getInt(0) != CENTRAL_HEADER_SIGNATURE)
+			{
+				// Digital signature or other trailing records
+				if (result.size() >= count)
+					break;
+
+				throw new ZipException(String.format("Invalid central directory header at offset %d", offset));
+			}
+
+			final int flags = u16(header, 8);
+			final int method = u16(header, 10);
+			final int dosTime = header.getInt(12);
+			final int crc = header.getInt(16);
+			long compressedSize = u32(header, 20);
+			long size = u32(header, 24);
+			final int nameLength = u16(header, 28);
+			final int extraLength = u16(header, 30);
+			final int commentLength = u16(header, 32);
+			long localHeaderOffset = u32(header, 42);
+
+			final int recordLength = CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+			final ByteBuffer record = view(offset, recordLength);
+
+			final byte[] nameBytes = new byte[nameLength];
+			record.position(CENTRAL_HEADER_SIZE);
+			record.get(nameBytes);
+			final String name = new String(nameBytes, StandardCharsets.UTF_8);
+
+			// ZIP64 extended information extra field
+			if (size == 0xFFFFFFFFL || compressedSize == 0xFFFFFFFFL || localHeaderOffset == 0xFFFFFFFFL)
+			{
+				int extraOffset = CENTRAL_HEADER_SIZE + nameLength;
+				final int extraEnd = extraOffset + extraLength;
+				while (extraOffset + 4 <= extraEnd)
+				{
+					final int id = u16(record, extraOffset);
+					final int length = u16(record, extraOffset + 2);
+					int position = extraOffset + 4;
+
+					if (id == ZIP64_EXTRA_ID)
+					{
+						if (size == 0xFFFFFFFFL)
+						{
+							size = record.getLong(position);
+							position += 8;
+						}
+						if (compressedSize == 0xFFFFFFFFL)
+						{
+							compressedSize = record.getLong(position);
+							position += 8;
+						}
+						if (localHeaderOffset == 0xFFFFFFFFL)
+							localHeaderOffset = record.getLong(position);
+						break;
+					}
+
+					extraOffset += 4 + length;
+				}
+			}
+
+			if (size < 0)
+				throw new ZipException(String.format("Invalid entry size %d in \"%s\"", size, file.getAbsolutePath()));
+
+			result.add(new Entry(name, flags, method, dosTime, crc, checkedOffset(compressedSize), size, checkedOffset(start + localHeaderOffset)));
+			offset += recordLength;
+		}
+
+		return result;
+	}
+
+	private long findEndHeader() throws IOException
+	{
+		final long tailOffset = Math.max(0, size - END_HEADER_SIZE - MAX_COMMENT_SIZE);
+		final ByteBuffer tail = view(tailOffset, (int) (size - tailOffset));
+		for (int offset = tail.capacity() - END_HEADER_SIZE; offset >= 0; offset--)
+			if (tail.getInt(offset) == END_HEADER_SIGNATURE)
+				return tailOffset + offset;
+
+		throw new ZipException("End of central directory record not found");
+	}
+
+	/**
+	 * @return a little-endian view of the given range of the archive, starting at position 0.
+	 */
+	private ByteBuffer view(final long offset, final int length) throws IOException
+	{
+		if (offset < 0 || length < 0 || offset + length > size)
+			throw new ZipException(String.format("Invalid offset %d or length %d in \"%s\"", offset, length, file.getAbsolutePath()));
+
+		final int index = (int) Math.min(offset / WINDOW_SIZE, windows.length - 1);
+		final ByteBuffer window = windows[index];
+		final int position = (int) (offset - index * WINDOW_SIZE);
+		if ((long) position + length <= window.capacity())
+		{
+			final ByteBuffer view = window.duplicate();
+			view.limit(position + length);
+			view.position(position);
+			return view.slice().order(ByteOrder.LITTLE_ENDIAN);
+		}
+
+		// Only entry data larger than the window overlap can cross a window boundary
+		return channel.map(FileChannel.MapMode.READ_ONLY, offset, length).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	private long checkedOffset(final long value) throws ZipException
+	{
+		if (value < 0 || value > size)
+			throw new ZipException(String.format("Invalid offset %d in \"%s\"", value, file.getAbsolutePath()));
+
+		return value;
+	}
+
+	private int checkedSize(final long value) throws ZipException
+	{
+		if (value < 0 || value > Integer.MAX_VALUE - 8)
+			throw new ZipException(String.format("Invalid size %d in \"%s\"", value, file.getAbsolutePath()));
+
+		return (int) value;
+	}
+
+	private static int u16(final ByteBuffer buffer, final int offset)
+	{
+		return buffer.getShort(offset) & 0xFFFF;
+	}
+
+	private static long u32(final ByteBuffer buffer, final int offset)
+	{
+		return buffer.getInt(offset) & 0xFFFFFFFFL;
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		// The mapping itself is released by the garbage collector once all entries become unreachable
+		channel.close();
+	}
+
+	@Override
+	public String toString()
+	{
+		return file.getAbsolutePath();
+	}
+
+	/**
+	 * Single entry of a {@link MappedZipFile}.
+	 */
+	public final class Entry
+	{
+		private final String name;
+		private final int flags;
+		private final int method;
+		private final int dosTime;
+		private final int crc;
+		private final long compressedSize;
+		private final long size;
+		private final long localHeaderOffset;
+		private volatile long dataOffset = -1;
+
+		Entry(final String name, final int flags, final int method, final int dosTime, final int crc, final long compressedSize, final long size, final long localHeaderOffset)
+		{
+			this.name = name;
+			this.flags = flags;
+			this.method = method;
+			this.dosTime = dosTime;
+			this.crc = crc;
+			this.compressedSize = compressedSize;
+			this.size = size;
+			this.localHeaderOffset = localHeaderOffset;
+		}
+
+		public String getName()
+		{
+			return name;
+		}
+
+		public boolean isDirectory()
+		{
+			return !name.isEmpty() && name.charAt(name.length() - 1) == '/';
+		}
+
+		public int getMethod()
+		{
+			return method;
+		}
+
+		/**
+		 * @return the last modification time in MS-DOS format, exactly as stored in the archive.
+		 */
+		public int getDosTime()
+		{
+			return dosTime;
+		}
+
+		public int getCrc()
+		{
+			return crc;
+		}
+
+		public long getCompressedSize()
+		{
+			return compressedSize;
+		}
+
+		public long getSize()
+		{
+			return size;
+		}
+
+		public boolean isEncrypted()
+		{
+			return (flags & 1) != 0;
+		}
+
+		/**
+		 * @return the archive this entry belongs to.
+		 */
+		public MappedZipFile getArchive()
+		{
+			return MappedZipFile.this;
+		}
+
+		/**
+		 * @return a read-only view of the (possibly compressed) entry data, exactly as stored in the archive.
+		 */
+		public ByteBuffer getRawData() throws IOException
+		{
+			return view(getDataOffset(), arrayLength(compressedSize)).asReadOnlyBuffer();
+		}
+
+		/**
+		 * Reads and decompresses the entry data, and checks it against the size and CRC-32 recorded in the central directory.
+		 *
+		 * @return the uncompressed entry data.
+		 * @throws ZipException
+		 *                      if the data doesn't match its size or CRC-32, or is corrupted otherwise.
+		 */
+		public byte[] read() throws IOException
+		{
+			checkReadable();
+
+			final ByteBuffer raw = getRawData();
+			if (method == STORED)
+			{
+				final byte[] data = new byte[raw.remaining()];
+				raw.get(data);
+				return checkCrc(data);
+			}
+
+			// One extra dummy byte is required by the inflater in nowrap mode
+			final int compressedSize = raw.remaining();
+			final byte[] compressed = new byte[compressedSize + 1];
+			raw.get(compressed, 0, compressedSize);
+
+			final int size = arrayLength(this.size);
+			final byte[] data = new byte[size];
+			final Inflater inflater = new Inflater(true);
+			try
+			{
+				inflater.setInput(compressed);
+
+				int read = 0;
+				while (read < size)
+				{
+					final int n = inflater.inflate(data, read, size - read);
+					if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary()))
+						break;
+					read += n;
+				}
+
+				if (read != size)
+					throw new ZipException(String.format("Entry \"%s\" is truncated (expected %d bytes, got %d)", name, size, read));
+
+				// The declared size is reached, so the compressed stream must end here as well
+				if (!inflater.finished() && inflater.inflate(new byte[1]) != 0)
+					throw new ZipException(String.format("Entry \"%s\" is larger than its declared size of %d bytes", name, size));
+				if (!inflater.finished())
+					throw new ZipException(String.format("Entry \"%s\" is truncated (compressed data ends early)", name));
+			}
+			catch (final DataFormatException e)
+			{
+				throw new ZipException(String.format("Entry \"%s\" is corrupted: %s", name, e.getMessage()));
+			}
+			finally
+			{
+				inflater.end();
+			}
+
+			return checkCrc(data);
+		}
+
+		/**
+		 * @return a stream which decompresses the entry data on the fly.
+		 */
+		public InputStream open() throws IOException
+		{
+			checkReadable();
+
+			final InputStream raw = new ByteBufferInputStream(getRawData());
+			if (method == STORED)
+				return raw;
+
+			final Inflater inflater = new Inflater(true);
+			return new InflaterInputStream(new SequenceInputStream(raw, new ByteArrayInputStream(new byte[1])), inflater)
+			{
+				private boolean closed;
+
+				@Override
+				public void close() throws IOException
+				{
+					if (!closed)
+					{
+						closed = true;
+						inflater.end();
+						super.close();
+					}
+				}
+			};
+		}
+
+		private int arrayLength(final long length) throws ZipException
+		{
+			// Archives larger than 2 GiB can be opened, but their entries are still read into arrays
+			if (length > Integer.MAX_VALUE - 8)
+				throw new ZipException(String.format("Entry \"%s\" is too large to be read (%d bytes)", name, length));
+
+			return (int) length;
+		}
+
+		private byte[] checkCrc(final byte[] data) throws ZipException
+		{
+			final CRC32 crc32 = new CRC32();
+			crc32.update(data, 0, data.length);
+			if ((int) crc32.getValue() != crc)
+				throw new ZipException(String.format("Entry \"%s\" has an invalid CRC-32 (expected %08x, got %08x)", name, crc, (int) crc32.getValue()));
+
+			return data;
+		}
+
+		private void checkReadable() throws ZipException
+		{
+			if (isEncrypted())
+				throw new ZipException(String.format("Entry \"%s\" is encrypted", name));
+			if (method != STORED && method != DEFLATED)
+				throw new ZipException(String.format("Entry \"%s\" uses unsupported compression method %d", name, method));
+		}
+
+		private long getDataOffset() throws IOException
+		{
+			long offset = dataOffset;
+			if (offset < 0)
+			{
+				final ByteBuffer header = view(localHeaderOffset, LOCAL_HEADER_SIZE);
+				if (header.getInt(0) != LOCAL_HEADER_SIGNATURE)
+					throw new ZipException(String.format("Invalid local header for entry \"%s\"", name));
+
+				offset = checkedOffset(localHeaderOffset + LOCAL_HEADER_SIZE + u16(header, 26) + u16(header, 28));
+				if (offset + compressedSize > MappedZipFile.this.size)
+					throw new ZipException(String.format("Entry \"%s\" exceeds the archive bounds", name));
+
+				dataOffset = offset;
+			}
+
+			return offset;
+		}
+
+		@Override
+		public String toString()
+		{
+			return name;
+		}
+	}
+
+	private static final class ByteBufferInputStream extends InputStream
+	{
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream(final ByteBuffer buffer)
+		{
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read()
+		{
+			return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(final byte[] b, final int off, final int len)
+		{
+			if (len == 0)
+				return 0;
+			if (!buffer.hasRemaining())
+				return -1;
+
+			final int n = Math.min(len, buffer.remaining());
+			buffer.get(b, off, n);
+			return n;
+		}
+
+		@Override
+		public int available()
+		{
+			return buffer.remaining();
+		}
+	}
+}
@@ -0,0 +1,540 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.io;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipException;
+
+import me.itzsomebody.radon.utils.RandomUtils;
+
+/**
+ * Zip archive writer which deflates entries on the common pool.
+ * <p>
+ * Every entry is compressed by a worker with its own {@link Deflater}. Entries larger than {@link #CHUNK_SIZE} are split into chunks which are deflated independently, each primed with the last 32 KiB of the previous chunk as preset dictionary, and joined with sync flushes into a single DEFLATE stream. The CRC-32 is computed alongside. The writing thread only splices the finished entries into the archive, in the order they were added, as soon as the head of the queue is done.
+ * </p>
+ * <p>
+ * Entries of another archive can also be copied as they are with {@link #putRawEntry(String, MappedZipFile.Entry, Consumer)}, without inflating and deflating them again.
+ * </p>
+ *
+ * @author hsheric0210
+ */
+public final class ParallelZipWriter implements Closeable
+{
+	/**
+	 * Entries larger than this are compressed in chunks of this size.
+	 */
+	public static final int CHUNK_SIZE = 128 * 1024;
+
+	private static final int DICTIONARY_SIZE = 32 * 1024;
+
+	/**
+	 * Upper bound of the entries waiting to be written, so lazily supplied contents are not all materialized at once.
+	 */
+	private static final int MAX_PENDING = Math.max(16, Runtime.getRuntime().availableProcessors() * 4);
+
+	private static final int LOCAL_HEADER_SIGNATURE = 0x04034B50;
+	private static final int CENTRAL_HEADER_SIGNATURE = 0x02014B50;
+	private static final int END_HEADER_SIGNATURE = 0x06054B50;
+	private static final int ZIP64_END_HEADER_SIGNATURE = 0x06064B50;
+	private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064B50;
+
+	private static final int VERSION = 20;
+	private static final int VERSION_ZIP64 = 45;
+	private static final int FLAG_UTF8 = 0x0800;
+	private static final int ZIP64_EXTRA_ID = 0x0001;
+	private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+
+	private final CountingOutputStream out;
+	private final int level;
+	private final int dosTime;
+	private final Queue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+	private final Set<String> names = new HashSet<>();
+	private final Deque<PendingEntry> pending = new ArrayDeque<>();
+	private final List<WrittenEntry> written = new ArrayList<>();
+	private final ByteBuffer header = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+	private final byte[] transferBuffer = new byte[1 << 16];
+
+	private boolean corruptCrc;
+	private byte[] comment = new byte[0];
+	private boolean closed;
+
+	/**
+	 * @param out
+	 *              stream to write the archive to. It is closed along with this writer.
+	 * @param level
+	 *              the {@link Deflater} compression level.
+	 */
+	public ParallelZipWriter(final OutputStream out, final int level)
+	{
+		this.out = new CountingOutputStream(new BufferedOutputStream(out, 1 << 16));
+		this.level = level;
+		dosTime = toDosTime(System.currentTimeMillis());
+	}
+
+	/**
+	 * Replaces the CRC-32 of every entry with a random value.
+	 */
+	public void setCorruptCrc(final boolean corruptCrc)
+	{
+		this.corruptCrc = corruptCrc;
+	}
+
+	public void setComment(final String comment)
+	{
+		final byte[] bytes = comment == null ? new byte[0] : comment.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length > 0xFFFF)
+			throw new IllegalArgumentException("ZIP file comment too long.");
+
+		this.comment = bytes;
+	}
+
+	/**
+	 * Adds an entry. It is compressed once its content completes, and written after all previously added entries.
+	 *
+	 * @param name
+	 *                entry name.
+	 * @param content
+	 *                the uncompressed entry content.
+	 * @param onError
+	 *                called on the writing thread, instead of writing the entry, if computing or compressing the content failed.
+	 */
+	public void putEntry(final String name, final CompletableFuture<byte[]> content, final Consumer<Throwable> onError) throws IOException
+	{
+		ensureOpen();
+
+		if (!names.add(name))
+		{
+			onError.accept(new ZipException("duplicate entry: " + name));
+			return;
+		}
+
+		pending.add(new PendingEntry(name, content.thenCompose(this::compress), onError));
+		drain(MAX_PENDING);
+	}
+
+	/**
+	 * Adds an entry whose content is already known.
+	 *
+	 * @see #putEntry(String, CompletableFuture, Consumer)
+	 */
+	public void putEntry(final String name, final byte[] content, final Consumer<Throwable> onError) throws IOException
+	{
+		putEntry(name, CompletableFuture.completedFuture(content), onError);
+	}
+
+	/**
+	 * Adds an entry by copying the still compressed data of an entry of another archive.
+	 *
+	 * @param name
+	 *              entry name.
+	 * @param entry
+	 *                the entry to copy.
+	 * @param onError
+	 *                called instead of writing the entry if it can not be copied.
+	 */
+	public void putRawEntry(final String name, final MappedZipFile.Entry entry, final Consumer<Throwable> onError) throws IOException
+	{
+		ensureOpen();
+
+		if (entry.isEncrypted())
+		{
+			onError.accept(new ZipException("encrypted entry: " + entry.getName()));
+			return;
+		}
+		if (entry.getSize() > Integer.MAX_VALUE)
+		{
+			onError.accept(new ZipException("entry too large: " + entry.getName()));
+			return;
+		}
+		if (!names.add(name))
+		{
+			onError.accept(new ZipException("duplicate entry: " + name));
+			return;
+		}
+
+		final ByteBuffer data;
+		try
+		{
+			data = entry.getRawData();
+		}
+		catch (final IOException e)
+		{
+			onError.accept(e);
+			return;
+		}
+
+		pending.add(new PendingEntry(name, CompletableFuture.completedFuture(new CompressedEntry(entry.getMethod(), Collections.singletonList(data), entry.getCrc(), (int) entry.getSize())), onError));
+		drain(MAX_PENDING);
+	}
+
+	private CompletableFuture<CompressedEntry> compress(final byte[] data)
+	{
+		if (data.length <= CHUNK_SIZE)
+			return CompletableFuture.supplyAsync(() ->
+			{
+				final CRC32 crc = new CRC32();
+				crc.update(data, 0, data.length);
+				return new CompressedEntry(MappedZipFile.DEFLATED, Collections.singletonList(ByteBuffer.wrap(deflate(data, 0, data.length))), (int) crc.getValue(), data.length);
+			});
+
+		final CompletableFuture<Integer> crc = CompletableFuture.supplyAsync(() ->
+		{
+			final CRC32 crc32 = new CRC32();
+			crc32.update(data, 0, data.length);
+			return (int) crc32.getValue();
+		});
+
+		final List<CompletableFuture<byte[]>> chunks = new ArrayList<>(data.length / CHUNK_SIZE + 1);
+		for (int offset = 0; offset < data.length; offset += CHUNK_SIZE)
+		{
+			final int chunkOffset = offset;
+			chunks.add(CompletableFuture.supplyAsync(() -> deflate(data, chunkOffset, Math.min(CHUNK_SIZE, data.length - chunkOffset))));
+		}
+
+		return CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0])).thenCombine(crc, (ignored, value) ->
+		{
+			final List<ByteBuffer> compressed = new ArrayList<>(chunks.size());
+			chunks.forEach(chunk -> compressed.add(ByteBuffer.wrap(chunk.join())));
+			return new CompressedEntry(MappedZipFile.DEFLATED, compressed, value, data.length);
+		});
+	}
+
+	/**
+	 * Deflates one chunk of an entry. All but the last chunk end with a sync flush, so the chunks can be concatenated into one stream.
+	 */
+	private byte[] deflate(final byte[] data, final int offset, final int length)
+	{
+		final boolean last = offset + length == data.length;
+
+		Deflater deflater = deflaters.poll();
+		if (deflater == null)
+			deflater = new Deflater(level, true);
+
+		try
+		{
+			if (offset > 0)
+			{
+				final int dictionaryLength = Math.min(offset, DICTIONARY_SIZE);
+				deflater.setDictionary(data, offset - dictionaryLength, dictionaryLength);
+			}
+			deflater.setInput(data, offset, length);
+
+			final ByteArrayOutputStream result = new ByteArrayOutputStream(length / 2 + 64);
+			final byte[] buffer = new byte[Math.min(CHUNK_SIZE, length + 64)];
+			if (last)
+			{
+				deflater.finish();
+				while (!deflater.finished())
+					result.write(buffer, 0, deflater.deflate(buffer));
+			}
+			else
+			{
+				int n;
+				do
+					result.write(buffer, 0, n = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH));
+				while (n == buffer.length);
+			}
+
+			return result.toByteArray();
+		}
+		finally
+		{
+			deflater.reset();
+			deflaters.add(deflater);
+		}
+	}
+
+	/**
+	 * Writes the finished entries at the head of the queue, waiting for unfinished ones while more than the given number of entries are queued.
+	 */
+	private void drain(final int maxPending) throws IOException
+	{
+		while (!pending.isEmpty() && (pending.size() > maxPending || pending.peek().compressed.isDone()))
+		{
+			final PendingEntry entry = pending.poll();
+
+			final CompressedEntry compressed;
+			try
+			{
+				compressed = entry.compressed.join();
+			}
+			catch (final CompletionException e)
+			{
+				entry.onError.accept(e.getCause() != null ? e.getCause() : e);
+				continue;
+			}
+
+			writeEntry(entry.name, compressed);
+		}
+	}
+
+	private void writeEntry(final String name, final CompressedEntry entry) throws IOException
+	{
+		final byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+		final int crc = corruptCrc ? (int) RandomUtils.getRandomLong(0x100000000L) : entry.crc;
+		final long compressedSize = entry.compressedSize();
+		if (compressedSize > ZIP64_MAGIC - 1 || entry.size > ZIP64_MAGIC - 1)
+			throw new ZipException("Entry too large: " + name);
+
+		final WrittenEntry record = new WrittenEntry(nameBytes, entry.method, crc, compressedSize, entry.size, out.count);
+
+		header.clear();
+		header.putInt(LOCAL_HEADER_SIGNATURE);
+		header.putShort((short) VERSION);
+		header.putShort((short) FLAG_UTF8);
+		header.putShort((short) entry.method);
+		header.putInt(dosTime);
+		header.putInt(crc);
+		header.putInt((int) compressedSize);
+		header.putInt(entry.size);
+		header.putShort((short) nameBytes.length);
+		header.putShort((short) 0);
+		out.write(header.array(), 0, header.position());
+		out.write(nameBytes);
+		for (final ByteBuffer chunk : entry.chunks)
+			write(chunk);
+
+		written.add(record);
+	}
+
+	private void write(final ByteBuffer data) throws IOException
+	{
+		if (data.hasArray())
+		{
+			out.write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+			return;
+		}
+
+		final ByteBuffer view = data.duplicate();
+		while (view.hasRemaining())
+		{
+			final int n = Math.min(transferBuffer.length, view.remaining());
+			view.get(transferBuffer, 0, n);
+			out.write(transferBuffer, 0, n);
+		}
+	}
+
+	private void ensureOpen() throws IOException
+	{
+		if (closed)
+			throw new IOException("Stream closed");
+	}
+
+	/**
+	 * Waits for the remaining entries, writes the central directory and closes the underlying stream.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		if (closed)
+			return;
+
+		closed = true;
+		try
+		{
+			drain(0);
+
+			final long directoryOffset = out.count;
+			for (final WrittenEntry entry : written)
+			{
+				final boolean zip64 = entry.offset >= ZIP64_MAGIC;
+
+				header.clear();
+				header.putInt(CENTRAL_HEADER_SIGNATURE);
+				header.putShort((short) (zip64 ? VERSION_ZIP64 : VERSION));
+				header.putShort((short) (zip64 ? VERSION_ZIP64 : VERSION));
+				header.putShort((short) FLAG_UTF8);
+				header.putShort((short) entry.method);
+				header.putInt(dosTime);
+				header.putInt(entry.crc);
+				header.putInt((int) entry.compressedSize);
+				header.putInt((int) entry.size);
+				header.putShort((short) entry.name.length);
+				header.putShort((short) (zip64 ? 12 : 0));
+				header.putShort((short) 0); // comment length
+				header.putShort((short) 0); // disk number
+				header.putShort((short) 0); // internal attributes
+				header.putInt(0); // external attributes
+				header.putInt((int) (zip64 ? ZIP64_MAGIC : entry.offset));
+				out.write(header.array(), 0, header.position());
+				out.write(entry.name);
+
+				if (zip64)
+				{
+					header.clear();
+					header.putShort((short) ZIP64_EXTRA_ID);
+					header.putShort((short) 8);
+					header.putLong(entry.offset);
+					out.write(header.array(), 0, header.position());
+				}
+			}
+
+			final long directorySize = out.count - directoryOffset;
+			final int count = written.size();
+			if (count >= 0xFFFF || directoryOffset >= ZIP64_MAGIC || directorySize >= ZIP64_MAGIC)
+			{
+				final long zip64EndOffset = out.count;
+
+				header.clear();
+				header.putInt(ZIP64_END_HEADER_SIGNATURE);
+				header.putLong(44); // size of the remaining record
+				header.putShort((short) VERSION_ZIP64);
+				header.putShort((short) VERSION_ZIP64);
+				header.putInt(0); // disk number
+				header.putInt(0); // disk of the central directory
+				header.putLong(count);
+				header.putLong(count);
+				header.putLong(directorySize);
+				header.putLong(directoryOffset);
+				out.write(header.array(), 0, header.position());
+
+				header.clear();
+				header.putInt(ZIP64_LOCATOR_SIGNATURE);
+				header.putInt(0); // disk of the ZIP64 end record
+				header.putLong(zip64EndOffset);
+				header.putInt(1); // total number of disks
+				out.write(header.array(), 0, header.position());
+			}
+
+			header.clear();
+			header.putInt(END_HEADER_SIGNATURE);
+			header.putShort((short) 0); // disk number
+			header.putShort((short) 0); // disk of the central directory
+			header.putShort((short) Math.min(count, 0xFFFF));
+			header.putShort((short) Math.min(count, 0xFFFF));
+			header.putInt((int) Math.min(directorySize, ZIP64_MAGIC));
+			header.putInt((int) Math.min(directoryOffset, ZIP64_MAGIC));
+			header.putShort((short) comment.length);
+			out.write(header.array(), 0, header.position());
+			out.write(comment);
+		}
+		finally
+		{
+			out.close();
+
+			Deflater deflater;
+			while ((deflater = deflaters.poll()) != null)
+				deflater.end();
+		}
+	}
+
+	private static int toDosTime(final long millis)
+	{
+		final Calendar calendar = Calendar.getInstance();
+		calendar.setTimeInMillis(millis);
+
+		final int year = calendar.get(Calendar.YEAR);
+		if (year < 1980)
+			return 1 << 21 | 1 << 16;
+
+		return year - 1980 << 25 | calendar.get(Calendar.MONTH) + 1 << 21 | calendar.get(Calendar.DAY_OF_MONTH) << 16 | calendar.get(Calendar.HOUR_OF_DAY) << 11 | calendar.get(Calendar.MINUTE) << 5 | calendar.get(Calendar.SECOND) >> 1;
+	}
+
+	private static final class PendingEntry
+	{
+		final String name;
+		final CompletableFuture<CompressedEntry> compressed;
+		final Consumer<Throwable> onError;
+
+		PendingEntry(final String name, final CompletableFuture<CompressedEntry> compressed, final Consumer<Throwable> onError)
+		{
+			this.name = name;
+			this.compressed = compressed;
+			this.onError = onError;
+		}
+	}
+
+	private static final class CompressedEntry
+	{
+		final int method;
+		final List<ByteBuffer> chunks;
+		final int crc;
+		final int size;
+
+		CompressedEntry(final int method, final List<ByteBuffer> chunks, final int crc, final int size)
+		{
+			this.method = method;
+			this.chunks = chunks;
+			this.crc = crc;
+			this.size = size;
+		}
+
+		long compressedSize()
+		{
+			long size = 0;
+			for (final ByteBuffer chunk : chunks)
+				size += chunk.remaining();
+			return size;
+		}
+	}
+
+	private static final class WrittenEntry
+	{
+		final byte[] name;
+		final int method;
+		final int crc;
+		final long compressedSize;
+		final long size;
+		final long offset;
+
+		WrittenEntry(final byte[] name, final int method, final int crc, final long compressedSize, final long size, final long offset)
+		{
+			this.name = name;
+			this.method = method;
+			this.crc = crc;
+			this.compressedSize = compressedSize;
+			this.size = size;
+			this.offset = offset;
+		}
+	}
+
+	private static final class CountingOutputStream extends FilterOutputStream
+	{
+		long count;
+
+		CountingOutputStream(final OutputStream out)
+		{
+			super(out);
+		}
+
+		@Override
+		public void write(final int b) throws IOException
+		{
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) throws IOException
+		{
+			out.write(b, off, len);
+			count += len;
+		}
+	}
+}
@@ -0,0 +1,333 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import me.itzsomebody.radon.exceptions.RadonException;
+
+/**
+ * Resources of the obfuscated jar.
+ * <p>
+ * No resource content is held on the heap. Resources loaded from the input stay in the input archive, and resources which are {@link #put(String, byte[]) put} are appended to a temporary spill file. Their content is read back (and inflated) on every {@link #get(Object)} and never cached. Resources which were never put can be copied into the output still compressed, see {@link #getPristineEntry(String)}. All operations are safe to call from any thread.
+ * </p>
+ * <p>
+ * The spill file is append-only: space of replaced or removed resources is never reclaimed, so it grows by the full content of every put until the store is {@link #close() closed}. Unlike other maps, {@link #put(String, byte[])} and {@link #remove(Object)} always return null instead of the previous content, which would have to be read back and inflated just to be discarded.
+ * </p>
+ *
+ * @author hsheric0210
+ */
+public final class ResourceStore extends AbstractMap<String, byte[]> implements Closeable
+{
+	/**
+	 * Values are either the pristine {@link MappedZipFile.Entry} or the {@link SpilledResource}.
+	 */
+	private final Map<String, Object> resources = new ConcurrentHashMap<>();
+	private final Set<Map.Entry<String, byte[]>> entrySet = new EntrySet();
+
+	private final AtomicLong spillSize = new AtomicLong();
+	private volatile Path spillPath;
+	private volatile FileChannel spill;
+
+	/**
+	 * Adds a resource of the input archive, which is read only when requested.
+	 */
+	public void putPristine(final String name, final MappedZipFile.Entry entry)
+	{
+		resources.put(name, entry);
+	}
+
+	/**
+	 * @return the input archive entry the resource was loaded from, or null if the resource was modified, added or does not exist.
+	 */
+	public MappedZipFile.Entry getPristineEntry(final String name)
+	{
+		final Object value = resources.get(name);
+		return value instanceof MappedZipFile.Entry ? (MappedZipFile.Entry) value : null;
+	}
+
+	/**
+	 * Moves a resource to another name without reading it, so a pristine resource stays pristine.
+	 *
+	 * @return true if the resource existed.
+	 */
+	public boolean rename(final String from, final String to)
+	{
+		final Object value = resources.remove(from);
+		if (value == null)
+			return false;
+
+		resources.put(to, value);
+		return true;
+	}
+
+	@Override
+	public byte[] get(final Object key)
+	{
+		return read(resources.get(key));
+	}
+
+	/**
+	 * @return always null, the previous content is not read.
+	 */
+	@Override
+	public byte[] put(final String key, final byte[] value)
+	{
+		resources.put(key, spill(Objects.requireNonNull(value)));
+		return null;
+	}
+
+	/**
+	 * @return always null, the previous content is not read.
+	 */
+	@Override
+	public byte[] remove(final Object key)
+	{
+		resources.remove(key);
+		return null;
+	}
+
+	@Override
+	public boolean containsKey(final Object key)
+	{
+		return resources.containsKey(key);
+	}
+
+	@Override
+	public int size()
+	{
+		return resources.size();
+	}
+
+	@Override
+	public void clear()
+	{
+		resources.clear();
+	}
+
+	@Override
+	public Set<String> keySet()
+	{
+		return resources.keySet();
+	}
+
+	@Override
+	public void forEach(final BiConsumer<? super String, ? super byte[]> action)
+	{
+		resources.forEach((name, value) -> action.accept(name, read(value)));
+	}
+
+	@Override
+	public Set<Map.Entry<String, byte[]>> entrySet()
+	{
+		return entrySet;
+	}
+
+	private SpilledResource spill(final byte[] bytes)
+	{
+		final long offset = spillSize.getAndAdd(bytes.length);
+		try
+		{
+			final FileChannel channel = getSpill();
+			final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+			while (buffer.hasRemaining())
+				channel.write(buffer, offset + buffer.position());
+		}
+		catch (final IOException e)
+		{
+			throw new RadonException("Could not write to the resource spill file", e);
+		}
+
+		return new SpilledResource(offset, bytes.length);
+	}
+
+	private FileChannel getSpill() throws IOException
+	{
+		FileChannel channel = spill;
+		if (channel == null)
+			synchronized (this)
+			{
+				channel = spill;
+				if (channel == null)
+				{
+					spillPath = Files.createTempFile("radon-resources", ".tmp");
+					spillPath.toFile().deleteOnExit();
+					spill = channel = FileChannel.open(spillPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+				}
+			}
+
+		return channel;
+	}
+
+	private byte[] read(final Object value)
+	{
+		if (value == null)
+			return null;
+
+		if (value instanceof SpilledResource)
+		{
+			final SpilledResource spilled = (SpilledResource) value;
+			final ByteBuffer buffer = ByteBuffer.allocate(spilled.length);
+			try
+			{
+				while (buffer.hasRemaining())
+					if (spill.read(buffer, spilled.offset + buffer.position()) < 0)
+						throw new IOException("Unexpected end of the resource spill file");
+			}
+			catch (final IOException e)
+			{
+				throw new RadonException("Could not read from the resource spill file", e);
+			}
+			return buffer.array();
+		}
+
+		final MappedZipFile.Entry entry = (MappedZipFile.Entry) value;
+		try
+		{
+			return entry.read();
+		}
+		catch (final IOException e)
+		{
+			throw new RadonException(String.format("Could not read resource \"%s\" from \"%s\"", entry.getName(), entry.getArchive()), e);
+		}
+	}
+
+	/**
+	 * Deletes the spill file. The store must not be used afterwards.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		if (spill != null)
+		{
+			spill.close();
+			Files.deleteIfExists(spillPath);
+		}
+	}
+
+	private static final class SpilledResource
+	{
+		final long offset;
+		final int length;
+
+		SpilledResource(final long offset, final int length)
+		{
+			this.offset = offset;
+			this.length = length;
+		}
+	}
+
+	private final class EntrySet extends AbstractSet<Map.Entry<String, byte[]>>
+	{
+		@Override
+		public Iterator<Map.Entry<String, byte[]>> iterator()
+		{
+			final Iterator<Map.Entry<String, Object>> iterator = resources.entrySet().iterator();
+			return new Iterator<Map.Entry<String, byte[]>>()
+			{
+				@Override
+				public boolean hasNext()
+				{
+					return iterator.hasNext();
+				}
+
+				@Override
+				public Map.Entry<String, byte[]> next()
+				{
+					return new LazyEntry(iterator.next().getKey());
+				}
+
+				@Override
+				public void remove()
+				{
+					iterator.remove();
+				}
+			};
+		}
+
+		@Override
+		public int size()
+		{
+			return resources.size();
+		}
+	}
+
+	private final class LazyEntry implements Map.Entry<String, byte[]>
+	{
+		private final String name;
+
+		LazyEntry(final String name)
+		{
+			this.name = name;
+		}
+
+		@Override
+		public String getKey()
+		{
+			return name;
+		}
+
+		@Override
+		public byte[] getValue()
+		{
+			return get(name);
+		}
+
+		@Override
+		public byte[] setValue(final byte[] value)
+		{
+			return put(name, value);
+		}
+
+		@Override
+		public boolean equals(final Object obj)
+		{
+			if (!(obj instanceof Map.Entry))
+				return false;
+
+			// The contents are compared like Map.Entry requires, every getValue() returns a fresh array
+			final Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+			final byte[] value = getValue();
+			final Object otherValue = other.getValue();
+			return name.equals(other.getKey()) && (value == null ? otherValue == null : otherValue instanceof byte[] && Arrays.equals(value, (byte[]) otherValue));
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return name.hashCode() ^ Arrays.hashCode(getValue());
+		}
+
+		@Override
+		public String toString()
+		{
+			return name;
+		}
+	}
+}
@@ -0,0 +1,42 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.transformers;
+
+import org.objectweb.asm.tree.AbstractInsnNode;
+
+import me.itzsomebody.radon.asm.MethodWrapper;
+
+/**
+ * A transformer which works on one instruction at a time, so that a {@link PassManager} may run it together with the other such transformers in a single walk of each method.
+ *
+ * @author hsheric0210
+ */
+public interface InstructionPass
+{
+	/**
+	 * Called for every instruction of every included method with instructions, in order. The instruction may be replaced ({@link org.objectweb.asm.tree.InsnList#set(AbstractInsnNode, AbstractInsnNode)}) or removed, but no other instruction of the method may be added, moved or removed.
+	 *
+	 * @param  methodWrapper
+	 *                       the method the instruction belongs to.
+	 * @param  insn
+	 *                       the instruction.
+	 * @return               the instruction now standing in its place, or null if it was removed.
+	 */
+	AbstractInsnNode transformInsn(MethodWrapper methodWrapper, AbstractInsnNode insn);
+}
@@ -0,0 +1,100 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.transformers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.objectweb.asm.tree.AbstractInsnNode;
+
+import me.itzsomebody.radon.asm.ClassWrapper;
+import me.itzsomebody.radon.asm.MethodWrapper;
+
+/**
+ * Runs several class-local transformers (see {@link Transformer#transformClass(ClassWrapper)}) in a single traversal of the classes rather than one traversal per transformer.
+ * <p>
+ * Each class is transformed by the {@link Transformer#transformClass(ClassWrapper)} of every pass which includes it, in order, and then every method of it is walked once, running the {@link InstructionPass}es which include the method on each instruction. As the passes only touch the class they are given, the result is the same as running them one after another; each pass still keeps its own counters and reports them in its {@link Transformer#afterClasses()}.
+ * </p>
+ *
+ * @author hsheric0210
+ */
+public final class PassManager
+{
+	private final List<? extends Transformer> passes;
+	private final List<Transformer> instructionPasses;
+
+	/**
+	 * @param passes
+	 *               the initialized transformers to run, in order. None of them may override {@link Transformer#transformClasses()}.
+	 */
+	public PassManager(final List<? extends Transformer> passes)
+	{
+		this.passes = passes;
+		instructionPasses = passes.stream().filter(pass -> pass instanceof InstructionPass).collect(Collectors.toList());
+	}
+
+	public void run()
+	{
+		if (passes.isEmpty())
+			return;
+
+		passes.forEach(Transformer::beforeClasses);
+		passes.get(0).getClassWrappers().parallelStream().forEach(this::transformClass);
+		passes.forEach(Transformer::afterClasses);
+	}
+
+	private void transformClass(final ClassWrapper classWrapper)
+	{
+		for (final Transformer pass : passes)
+			if (pass.included(classWrapper))
+				pass.transformClass(classWrapper);
+
+		final List<Transformer> classPasses = instructionPasses.stream().filter(pass -> pass.included(classWrapper)).collect(Collectors.toList());
+		if (classPasses.isEmpty())
+			return;
+
+		for (final MethodWrapper methodWrapper : classWrapper.methods)
+			if (methodWrapper.hasInstructions())
+				transformInstructions(methodWrapper, classPasses);
+	}
+
+	private static void transformInstructions(final MethodWrapper methodWrapper, final List<Transformer> classPasses)
+	{
+		final List<InstructionPass> methodPasses = new ArrayList<>(classPasses.size());
+		for (final Transformer pass : classPasses)
+			if (pass.included(methodWrapper))
+				methodPasses.add((InstructionPass) pass);
+
+		if (methodPasses.isEmpty())
+			return;
+
+		AbstractInsnNode insn = methodWrapper.getInstructions().getFirst();
+		while (insn != null)
+		{
+			final AbstractInsnNode next = insn.getNext();
+
+			AbstractInsnNode current = insn;
+			for (int i = 0, j = methodPasses.size(); i < j && current != null; i++)
+				current = methodPasses.get(i).transformInsn(methodWrapper, current);
+
+			insn = next;
+		}
+	}
+}
@@ -19,11 +19,10 @@
 package me.itzsomebody.radon.transformers;
 
 import java.util.*;
-import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 import org.objectweb.asm.Opcodes;
 
@@ -34,8 +33,9 @@ import me.itzsomebody.radon.asm.FieldWrapper;
 import me.itzsomebody.radon.asm.MethodWrapper;
 import me.itzsomebody.radon.config.Configuration;
 import me.itzsomebody.radon.dictionaries.WrappedDictionary;
+import me.itzsomebody.radon.exclusions.ExclusionManager;
 import me.itzsomebody.radon.exclusions.ExclusionType;
-import me.itzsomebody.radon.utils.RandomUtils;
+import me.itzsomebody.radon.io.ResourceStore;
 
 /**
  * Abstract transformer for all the transformers. \o/
@@ -46,10 +46,10 @@ public abstract class Transformer implements Opcodes
 {
 	protected Radon radon;
 
-	private static Map<String, WrappedDictionary> packageDictionaries;
-	private static Map<String, WrappedDictionary> classDictionaries;
-	private static Map<String, WrappedDictionary> methodDictionaries;
-	private static Map<String, WrappedDictionary> fieldDictionaries;
+	private static final Map<String, WrappedDictionary> packageDictionaries = new ConcurrentHashMap<>();
+	private static final Map<String, WrappedDictionary> classDictionaries = new ConcurrentHashMap<>();
+	private static final Map<String, WrappedDictionary> methodDictionaries = new ConcurrentHashMap<>();
+	private static final Map<String, WrappedDictionary> fieldDictionaries = new ConcurrentHashMap<>();
 
 	public final void init(final Radon radon)
 	{
@@ -63,17 +63,27 @@ public abstract class Transformer implements Opcodes
 
 	protected final boolean included(final ClassWrapper classWrapper)
 	{
-		return included(classWrapper.originalName);
+		return !ExclusionManager.isExcluded(classWrapper.getExcludedTypes(radon.config.exclusionManager), getExclusionType());
 	}
 
 	protected final boolean included(final MethodWrapper methodWrapper)
 	{
-		return included(methodWrapper.owner.originalName + '.' + methodWrapper.originalName + methodWrapper.originalDescription);
+		return !ExclusionManager.isExcluded(methodWrapper.getExcludedTypes(radon.config.exclusionManager), getExclusionType());
 	}
 
 	protected final boolean included(final FieldWrapper fieldWrapper)
 	{
-		return included(fieldWrapper.owner.originalName + '.' + fieldWrapper.originalName + '.' + fieldWrapper.originalDescription);
+		return !ExclusionManager.isExcluded(fieldWrapper.getExcludedTypes(radon.config.exclusionManager), getExclusionType());
+	}
+
+	/**
+	 * Declares the classes this transformer may modify. Classes which no transformer may modify are copied from the input as they are, provided the dirty tracking of {@link ClassWrapper#isModified()} confirms it. The default covers the included classes only, so transformers which also modify (or embed code into) excluded classes must override this.
+	 *
+	 * @return false if this transformer leaves the given class as it is, so it may be copied from the input unchanged.
+	 */
+	public boolean mayModify(final ClassWrapper classWrapper)
+	{
+		return included(classWrapper);
 	}
 
 	public static String tookThisLong(final long nanoTime)
@@ -89,26 +99,24 @@ public abstract class Transformer implements Opcodes
 		if (radon.config.renamerPresent)
 			return getClassDictionary(randomExistingClass().getPackageName()).nextUniqueString(); // FIXME: The generated class always located on the last entry in a package
 
-		final List<String> list = getClasses().entrySet().stream().filter(e -> included(e.getValue())).map(Entry::getKey).distinct().collect(Collectors.toList());
-
-		final String first = RandomUtils.getRandomElement(list);
+		final String first = radon.classes.getRandom(getExclusionType(), this::included).getName();
 		String result;
 		do
 		{
-			final String second = RandomUtils.getRandomElement(list);
+			final String second = radon.classes.getRandom(getExclusionType(), this::included).getName();
 
 			String secondName = second.substring(second.lastIndexOf('/') + 1);
 			if (secondName.contains("$"))
 				secondName = secondName.substring(0, secondName.indexOf('$'));
 			result = first + '$' + secondName;
 		}
-		while (list.contains(result));
+		while (getClasses().containsKey(result));
 		return result;
 	}
 
 	public ClassWrapper randomExistingClass()
 	{
-		return RandomUtils.getRandomElement(getClasses().values().stream().filter(cw -> included(cw) && !cw.access.isInterface()).collect(Collectors.toCollection(() -> new ArrayList<>(getClasses().size()))));
+		return radon.classes.getRandom(Arrays.asList(getExclusionType(), "non-interface"), cw -> included(cw) && !cw.access.isInterface());
 	}
 
 	protected final Map<String, ClassWrapper> getClasses()
@@ -126,7 +134,7 @@ public abstract class Transformer implements Opcodes
 		return radon.classPath;
 	}
 
-	protected final Map<String, byte[]> getResources()
+	protected final ResourceStore getResources()
 	{
 		return radon.resources;
 	}
@@ -187,7 +195,50 @@ public abstract class Transformer implements Opcodes
 		Main.severe(String.format("[%1$s] %2$s", getName(), message), thrown);
 	}
 
-	public abstract void transform();
+	/**
+	 * Runs this transformer. By default this is {@link #transformClasses()}; transformers which don't work class by class override it.
+	 */
+	public void transform()
+	{
+		transformClasses();
+	}
+
+	/**
+	 * Runs {@link #beforeClasses()}, then {@link #transformClass(ClassWrapper)} on every included class in parallel on the common fork-join pool, then {@link #afterClasses()}.
+	 * <p>
+	 * The flow and number obfuscators are run by their parent transformer through this method, so those which don't work class by class override it rather than {@link #transform()}. The shrinkers and the optimizers are run together by a {@link PassManager} instead, so they must work class by class.
+	 * </p>
+	 */
+	protected void transformClasses()
+	{
+		beforeClasses();
+		getClassWrappers().parallelStream().filter(this::included).forEach(this::transformClass);
+		afterClasses();
+	}
+
+	/**
+	 * Runs serially before any {@link #transformClass(ClassWrapper)}, e.g. to reset the counters or to create the classes the transformed ones refer to.
+	 */
+	protected void beforeClasses()
+	{
+	}
+
+	/**
+	 * Transforms a single included class. This may run concurrently with the other classes, so it may only modify the given class and must only share thread-safe state (atomic counters, concurrent collections, the dictionaries, {@link me.itzsomebody.radon.utils.RandomUtils}) with them; adding or looking up other classes belongs in {@link #beforeClasses()} or {@link #afterClasses()}.
+	 *
+	 * @param classWrapper
+	 *                     the class to transform.
+	 */
+	protected void transformClass(final ClassWrapper classWrapper)
+	{
+	}
+
+	/**
+	 * Runs serially after every {@link #transformClass(ClassWrapper)} has finished, e.g. to report the counters.
+	 */
+	protected void afterClasses()
+	{
+	}
 
 	public abstract String getName();
 
@@ -205,8 +256,6 @@ public abstract class Transformer implements Opcodes
 		if (parentPackagePath == null)
 			return packageDictionary;
 
-		if (packageDictionaries == null)
-			packageDictionaries = new HashMap<>();
 		return packageDictionaries.computeIfAbsent(parentPackagePath, s -> packageDictionary.copy());
 	}
 
@@ -216,9 +265,6 @@ public abstract class Transformer implements Opcodes
 		if (packagePath == null)
 			return classDictionary;
 
-		if (classDictionaries == null)
-			classDictionaries = new HashMap<>();
-
 		return classDictionaries.computeIfAbsent(packagePath, s -> classDictionary.copy());
 	}
 
@@ -228,9 +274,12 @@ public abstract class Transformer implements Opcodes
 		if (className == null)
 			return methodDictionary;
 
-		if (methodDictionaries == null)
-			methodDictionaries = new HashMap<>();
-		return methodDictionaries.computeIfAbsent(className, s -> methodDictionary.copy());
+		// Skip the names of the members the class already has, as the Renamer names members from the shared dictionary (and may give many members the same name)
+		return methodDictionaries.computeIfAbsent(className, s ->
+		{
+			final ClassWrapper owner = findClass(className);
+			return owner == null ? methodDictionary.copy() : methodDictionary.copy(name -> owner.classNode.methods.stream().anyMatch(methodNode -> methodNode.name.equals(name)));
+		});
 	}
 
 	protected WrappedDictionary getFieldDictionary(final String className)
@@ -239,9 +288,26 @@ public abstract class Transformer implements Opcodes
 		if (className == null)
 			return fieldDictionary;
 
-		if (fieldDictionaries == null)
-			fieldDictionaries = new HashMap<>();
-		return fieldDictionaries.computeIfAbsent(className, s -> fieldDictionary.copy());
+		// Skip the names of the members the class already has, as the Renamer names members from the shared dictionary (and may give many members the same name)
+		return fieldDictionaries.computeIfAbsent(className, s ->
+		{
+			final ClassWrapper owner = findClass(className);
+			return owner == null ? fieldDictionary.copy() : fieldDictionary.copy(name -> owner.classNode.fields.stream().anyMatch(fieldNode -> fieldNode.name.equals(name)));
+		});
+	}
+
+	/**
+	 * @param  className
+	 *                   current or original name of the class.
+	 * @return           the class, or null if it isn't (yet) one of the input classes.
+	 */
+	private ClassWrapper findClass(final String className)
+	{
+		final ClassWrapper classWrapper = getClasses().get(className);
+		if (classWrapper != null)
+			return classWrapper;
+
+		return getClassWrappers().stream().filter(cw -> cw.originalName.equals(className)).findAny().orElse(null);
 	}
 
 	public WrappedDictionary getGenericDictionary()
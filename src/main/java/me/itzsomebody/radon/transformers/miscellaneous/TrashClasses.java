@@ -61,6 +61,7 @@ public class TrashClasses extends Transformer
 	public void transform()
 	{
 		final ArrayList<String> classNames = new ArrayList<>(getClassPath().keySet());
+		classNames.addAll(radon.libraries.names());
 		for (int i = 0, j = classNames.size() % 20; i < j; i++)
 			DESCRIPTORS.add("L" + classNames.get(RandomUtils.getRandomInt(classNames.size())) + ";");
 
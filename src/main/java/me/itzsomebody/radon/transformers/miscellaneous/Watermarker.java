@@ -117,6 +117,13 @@ public class Watermarker extends Transformer
 		return returnThis;
 	}
 
+	@Override
+	public boolean mayModify(final ClassWrapper classWrapper)
+	{
+		// The watermark is embedded in random classes regardless of exclusions
+		return true;
+	}
+
 	@Override
 	public ExclusionType getExclusionType()
 	{
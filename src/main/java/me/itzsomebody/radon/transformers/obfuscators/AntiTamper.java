@@ -21,7 +21,6 @@ package me.itzsomebody.radon.transformers.obfuscators;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Stream;
 
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
@@ -31,6 +30,7 @@ import org.objectweb.asm.tree.LdcInsnNode;
 import org.objectweb.asm.tree.MethodInsnNode;
 
 import me.itzsomebody.radon.asm.ClassWrapper;
+import me.itzsomebody.radon.asm.InsnKind;
 import me.itzsomebody.radon.asm.MethodWrapper;
 import me.itzsomebody.radon.config.Configuration;
 import me.itzsomebody.radon.exceptions.RadonException;
@@ -58,7 +58,7 @@ public class AntiTamper extends Transformer
 		{
 			final Collection<MethodWrapper> toProcess = new HashSet<>();
 
-			cw.methods.stream().filter(this::included).forEach(mw -> Stream.of(mw.getInstructions().toArray()).filter(insn -> insn instanceof LdcInsnNode && ((LdcInsnNode) insn).cst instanceof String).forEach(insn ->
+			cw.methods.stream().filter(this::included).forEach(mw -> mw.streamInstructions(InsnKind.STRING_CONSTANT).forEach(insn ->
 			{
 				toProcess.add(mw);
 
@@ -74,7 +74,7 @@ public class AntiTamper extends Transformer
 
 				final int cpSize = cw.computeConstantPoolSize(radon);
 
-				toProcess.forEach(mw -> Stream.of(mw.getInstructions().toArray()).filter(insn -> insn instanceof LdcInsnNode && ((LdcInsnNode) insn).cst instanceof String).forEach(insn ->
+				toProcess.forEach(mw -> mw.streamInstructions(InsnKind.STRING_CONSTANT).forEach(insn ->
 				{
 					final LdcInsnNode ldc = (LdcInsnNode) insn;
 					final String s = (String) ldc.cst;
@@ -29,10 +29,15 @@ import me.itzsomebody.radon.transformers.Transformer;
  */
 public class InstructionSetReducer extends Transformer
 {
+	private static final int[] REDUCED_OPCODES =
+	{
+			TABLESWITCH, ICONST_M1, ICONST_0, ICONST_1, ICONST_2, ICONST_3, ICONST_4, ICONST_5, LCONST_0, LCONST_1, FCONST_0, FCONST_1, FCONST_2, DCONST_0, DCONST_1
+	};
+
 	@Override
 	public void transform()
 	{
-		getClassWrappers().stream().filter(this::included).forEach(cw -> cw.methods.stream().filter(this::included).forEach(mw ->
+		getClassWrappers().stream().filter(this::included).forEach(cw -> cw.methods.stream().filter(mw -> included(mw) && mw.getOpcodeSummary().containsAny(REDUCED_OPCODES)).forEach(mw ->
 		{
 			final InsnList newInsns = new InsnList();
 			insn:
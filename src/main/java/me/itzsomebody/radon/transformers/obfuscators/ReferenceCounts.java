@@ -0,0 +1,298 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.transformers.obfuscators;
+
+import java.util.*;
+
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.*;
+
+import me.itzsomebody.radon.asm.ClassWrapper;
+import me.itzsomebody.radon.asm.FieldWrapper;
+import me.itzsomebody.radon.asm.MemberFamilies;
+import me.itzsomebody.radon.asm.MethodWrapper;
+
+/**
+ * Counts for every class and member family of the {@link Renamer} how many constant pools will hold its name, i.e. how many classes declare or reference it, so the shortest names can be given to the most referenced symbols.
+ * <p>
+ * Also keeps track of the names given out, to report how many constant pool bytes were saved compared to naming the symbols in the order they are declared.
+ *
+ * @author hsheric0210
+ */
+final class ReferenceCounts
+{
+	private final Map<String, ClassWrapper> classes;
+	private final MemberFamilies<MethodWrapper> methodFamilies;
+	private final MemberFamilies<FieldWrapper> fieldFamilies;
+
+	private final Map<Object, Integer> counts = new IdentityHashMap<>();
+	private final Map<Object, Integer> declarationIndices = new IdentityHashMap<>();
+	private final Map<Object, List<Object>> assignedSymbols = new HashMap<>();
+	private final Map<Object, List<String>> assignedNames = new HashMap<>();
+
+	/**
+	 * @param classes
+	 *                the classes to rename, by their original names.
+	 */
+	ReferenceCounts(final Map<String, ClassWrapper> classes, final MemberFamilies<MethodWrapper> methodFamilies, final MemberFamilies<FieldWrapper> fieldFamilies)
+	{
+		this.classes = classes;
+		this.methodFamilies = methodFamilies;
+		this.fieldFamilies = fieldFamilies;
+
+		classes.values().forEach(classWrapper ->
+		{
+			final Set<Object> referenced = Collections.newSetFromMap(new IdentityHashMap<>());
+			scan(classWrapper, referenced);
+			referenced.forEach(symbol -> counts.merge(symbol, 1, Integer::sum));
+		});
+	}
+
+	private void scan(final ClassWrapper classWrapper, final Set<Object> referenced)
+	{
+		final ClassNode classNode = classWrapper.classNode;
+		addInternalName(classNode.name, referenced);
+		addInternalName(classNode.superName, referenced);
+		classNode.interfaces.forEach(itf -> addInternalName(itf, referenced));
+		if (classNode.innerClasses != null)
+			classNode.innerClasses.forEach(innerClass ->
+			{
+				addInternalName(innerClass.name, referenced);
+				addInternalName(innerClass.outerName, referenced);
+			});
+
+		classWrapper.fields.forEach(fieldWrapper ->
+		{
+			referenced.add(fieldFamilies.getFamily(fieldWrapper));
+			addDescriptor(fieldWrapper.fieldNode.desc, referenced);
+		});
+
+		classWrapper.methods.forEach(methodWrapper ->
+		{
+			final MethodNode methodNode = methodWrapper.methodNode;
+			referenced.add(methodFamilies.getFamily(methodWrapper));
+			addDescriptor(methodNode.desc, referenced);
+			if (methodNode.exceptions != null)
+				methodNode.exceptions.forEach(exception -> addInternalName(exception, referenced));
+			if (methodNode.tryCatchBlocks != null)
+				methodNode.tryCatchBlocks.forEach(tryCatchBlock -> addInternalName(tryCatchBlock.type, referenced));
+			if (methodNode.localVariables != null)
+				methodNode.localVariables.forEach(localVariable -> addDescriptor(localVariable.desc, referenced));
+
+			for (final AbstractInsnNode insn : methodNode.instructions)
+				switch (insn.getType())
+				{
+					case AbstractInsnNode.FIELD_INSN:
+					{
+						final FieldInsnNode fieldInsn = (FieldInsnNode) insn;
+						addInternalName(fieldInsn.owner, referenced);
+						addField(fieldInsn.owner, fieldInsn.name, fieldInsn.desc, referenced);
+						break;
+					}
+					case AbstractInsnNode.METHOD_INSN:
+					{
+						final MethodInsnNode methodInsn = (MethodInsnNode) insn;
+						addInternalName(methodInsn.owner, referenced);
+						addMethod(methodInsn.owner, methodInsn.name, methodInsn.desc, referenced);
+						break;
+					}
+					case AbstractInsnNode.TYPE_INSN:
+						addInternalName(((TypeInsnNode) insn).desc, referenced);
+						break;
+					case AbstractInsnNode.MULTIANEWARRAY_INSN:
+						addDescriptor(((MultiANewArrayInsnNode) insn).desc, referenced);
+						break;
+					case AbstractInsnNode.LDC_INSN:
+						addConstant(((LdcInsnNode) insn).cst, referenced);
+						break;
+					case AbstractInsnNode.INVOKE_DYNAMIC_INSN:
+					{
+						final InvokeDynamicInsnNode indy = (InvokeDynamicInsnNode) insn;
+						addDescriptor(indy.desc, referenced);
+						addHandle(indy.bsm, referenced);
+						for (final Object bsmArg : indy.bsmArgs)
+							addConstant(bsmArg, referenced);
+						break;
+					}
+					case AbstractInsnNode.FRAME:
+					{
+						// The verification types of the StackMapTable refer to classes as well
+						final FrameNode frame = (FrameNode) insn;
+						if (frame.local != null)
+							frame.local.forEach(local -> addVerificationType(local, referenced));
+						if (frame.stack != null)
+							frame.stack.forEach(stack -> addVerificationType(stack, referenced));
+						break;
+					}
+				}
+		});
+	}
+
+	private void addInternalName(final String internalName, final Set<Object> referenced)
+	{
+		if (internalName == null)
+			return;
+
+		if (!internalName.isEmpty() && internalName.charAt(0) == '[')
+			addType(Type.getType(internalName), referenced);
+		else
+		{
+			final ClassWrapper classWrapper = classes.get(internalName);
+			if (classWrapper != null)
+				referenced.add(classWrapper);
+		}
+	}
+
+	private void addDescriptor(final String descriptor, final Set<Object> referenced)
+	{
+		if (descriptor != null)
+			addType(Type.getType(descriptor), referenced);
+	}
+
+	private void addType(final Type type, final Set<Object> referenced)
+	{
+		switch (type.getSort())
+		{
+			case Type.METHOD:
+				for (final Type argumentType : type.getArgumentTypes())
+					addType(argumentType, referenced);
+				addType(type.getReturnType(), referenced);
+				break;
+			case Type.ARRAY:
+				addType(type.getElementType(), referenced);
+				break;
+			case Type.OBJECT:
+				addInternalName(type.getInternalName(), referenced);
+				break;
+		}
+	}
+
+	private void addField(final String owner, final String name, final String descriptor, final Set<Object> referenced)
+	{
+		final FieldWrapper family = fieldFamilies.getFamily(owner, name + '.' + descriptor);
+		if (family != null)
+			referenced.add(family);
+		addDescriptor(descriptor, referenced);
+	}
+
+	private void addMethod(final String owner, final String name, final String descriptor, final Set<Object> referenced)
+	{
+		final MethodWrapper family = methodFamilies.getFamily(owner, name + descriptor);
+		if (family != null)
+			referenced.add(family);
+		addDescriptor(descriptor, referenced);
+	}
+
+	private void addHandle(final Handle handle, final Set<Object> referenced)
+	{
+		addInternalName(handle.getOwner(), referenced);
+		if (handle.getTag() <= Opcodes.H_PUTSTATIC)
+			addField(handle.getOwner(), handle.getName(), handle.getDesc(), referenced);
+		else
+			addMethod(handle.getOwner(), handle.getName(), handle.getDesc(), referenced);
+	}
+
+	private void addConstant(final Object constant, final Set<Object> referenced)
+	{
+		if (constant instanceof Type)
+			addType((Type) constant, referenced);
+		else if (constant instanceof Handle)
+			addHandle((Handle) constant, referenced);
+	}
+
+	private void addVerificationType(final Object verificationType, final Set<Object> referenced)
+	{
+		if (verificationType instanceof String)
+			addInternalName((String) verificationType, referenced);
+	}
+
+	/**
+	 * @param  symbol
+	 *                {@link ClassWrapper} or member family as returned by {@link MemberFamilies#getFamily(Object)}.
+	 * @return        the number of constant pools which will hold the name of the symbol.
+	 */
+	int get(final Object symbol)
+	{
+		return counts.getOrDefault(symbol, 0);
+	}
+
+	/**
+	 * @param  declared
+	 *                  symbols in the order they are declared.
+	 * @return          the symbols from the most to the least referenced, keeping the declaration order among equally referenced ones.
+	 */
+	<T> List<T> sortByReferences(final List<T> declared)
+	{
+		declared.forEach(symbol -> declarationIndices.putIfAbsent(symbol, declarationIndices.size()));
+
+		final List<T> sorted = new ArrayList<>(declared);
+		sorted.sort(Comparator.comparingInt(symbol -> -get(symbol)));
+		return sorted;
+	}
+
+	/**
+	 * Records that the given symbol was named next by the dictionary identified by the given key.
+	 */
+	void assigned(final Object dictionary, final Object symbol, final String name)
+	{
+		assignedSymbols.computeIfAbsent(dictionary, d -> new ArrayList<>()).add(symbol);
+		assignedNames.computeIfAbsent(dictionary, d -> new ArrayList<>()).add(name);
+	}
+
+	/**
+	 * @return the constant pool bytes saved by the recorded names, compared to handing out the same names of each dictionary in declaration order.
+	 */
+	long getSavedBytes()
+	{
+		long saved = 0;
+		for (final Map.Entry<Object, List<Object>> entry : assignedSymbols.entrySet())
+		{
+			final List<Object> symbols = entry.getValue();
+			final List<String> names = assignedNames.get(entry.getKey());
+
+			final List<Object> declared = new ArrayList<>(symbols);
+			declared.sort(Comparator.comparingInt(declarationIndices::get));
+
+			for (int i = 0, j = symbols.size(); i < j; i++)
+				saved += (long) (get(declared.get(i)) - get(symbols.get(i))) * modifiedUtf8Length(names.get(i));
+		}
+		return saved;
+	}
+
+	/**
+	 * @return the length of the given string in the modified UTF-8 encoding of the constant pool.
+	 */
+	private static int modifiedUtf8Length(final String string)
+	{
+		int length = 0;
+		for (int i = 0, j = string.length(); i < j; i++)
+		{
+			final char c = string.charAt(i);
+			if (c >= 0x0001 && c <= 0x007F)
+				length++;
+			else if (c <= 0x07FF)
+				length += 2;
+			else
+				length += 3;
+		}
+		return length;
+	}
+}
@@ -22,8 +22,9 @@ import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import org.objectweb.asm.commons.ClassRemapper;
@@ -32,10 +33,12 @@ import org.objectweb.asm.tree.ClassNode;
 
 import me.itzsomebody.radon.asm.*;
 import me.itzsomebody.radon.config.Configuration;
+import me.itzsomebody.radon.dictionaries.WrappedDictionary;
 import me.itzsomebody.radon.exclusions.ExclusionType;
 import me.itzsomebody.radon.transformers.Transformer;
 import me.itzsomebody.radon.utils.Constants;
 import me.itzsomebody.radon.utils.FileUtils;
+import me.itzsomebody.radon.utils.NameRewriter;
 
 import static me.itzsomebody.radon.config.ConfigurationSetting.RENAMER;
 
@@ -49,8 +52,9 @@ public class Renamer extends Transformer
 	private List<String> adaptTheseResources;
 	private boolean dumpMappings;
 	private String repackageName;
+	private boolean frequencyWeightedNames;
+	private boolean aggressiveOverloading;
 	private Map<String, String> mappings;
-	private Map<String, String> reverseMappings; // To check member duplications
 	private List<String> mappingsToDump;
 
 	private static boolean methodCanBeRenamed(final MethodWrapper wrapper)
@@ -58,12 +62,31 @@ public class Renamer extends Transformer
 		return !wrapper.access.isNative() && !"main".equals(wrapper.originalName) && !"premain".equals(wrapper.originalName) && !(!wrapper.originalName.isEmpty() && wrapper.originalName.charAt(0) == '<');
 	}
 
+	// Enum.valueOf() and Enum.values() are must not be renamed
+	private static boolean isEnumMethod(final MethodWrapper wrapper)
+	{
+		return wrapper.owner.isEnum() && wrapper.access.isStatic() && ("valueOf".equals(wrapper.originalName) || "values".equals(wrapper.originalName));
+	}
+
+	/**
+	 * @return the names of the given dictionary by the index they were generated at, generating them as needed.
+	 */
+	private static IntFunction<String> indexed(final WrappedDictionary dictionary)
+	{
+		final List<String> names = new ArrayList<>();
+		return index ->
+		{
+			while (names.size() <= index)
+				names.add(dictionary.nextUniqueString());
+			return names.get(index);
+		};
+	}
+
 	@Override
 	public void transform()
 	{
 		radon.buildInheritance();
 		mappings = new HashMap<>();
-		reverseMappings = new HashMap<>();
 
 		if (dumpMappings)
 			mappingsToDump = new ArrayList<>();
@@ -73,23 +96,50 @@ public class Renamer extends Transformer
 		info("Generating mappings.");
 		long current = System.nanoTime();
 
-		getClassWrappers().forEach(classWrapper ->
+		// Members which override, hide or implement each other have to share the same name
+		final MemberFamilies<MethodWrapper> methodFamilies = MemberFamilies.ofMethods(radon.hierarchy, getClassWrappers(), methodWrapper -> !methodCanBeRenamed(methodWrapper) || !included(methodWrapper) || isEnumMethod(methodWrapper));
+		final MemberFamilies<FieldWrapper> fieldFamilies = MemberFamilies.ofFields(radon.hierarchy, getClassWrappers(), fieldWrapper -> !included(fieldWrapper));
+
+		final ReferenceCounts referenceCounts = frequencyWeightedNames ? new ReferenceCounts(getClasses(), methodFamilies, fieldFamilies) : null;
+
+		final List<MethodWrapper> methodFamilyOrder = getClassWrappers().stream().flatMap(classWrapper -> classWrapper.methods.stream()).filter(methodWrapper -> !methodFamilies.isFixed(methodWrapper)).map(methodFamilies::getFamily).distinct().collect(Collectors.toList());
+		final IntFunction<String> methodNames = aggressiveOverloading ? indexed(getMethodDictionary(null)) : null;
+		(referenceCounts == null ? methodFamilyOrder : referenceCounts.sortByReferences(methodFamilyOrder)).forEach(methodWrapper ->
 		{
-			classWrapper.methods.stream().filter(Renamer::methodCanBeRenamed).forEach(methodWrapper ->
+			if (aggressiveOverloading)
+				methodFamilies.setFirstFreeName(methodWrapper, methodNames);
+			else
 			{
-				final Set<String> visited = new HashSet<>();
-
-				if (!cannotRenameMethod(radon.getTree(classWrapper.originalName), methodWrapper, visited))
-					genMethodMappings(methodWrapper, methodWrapper.owner.originalName, getMethodDictionary(null /* TODO: Override methods agressively */).nextUniqueString());
-			});
+				final String newName = getMethodDictionary(null).nextUniqueString();
+				methodFamilies.setName(methodWrapper, newName);
+				if (referenceCounts != null)
+					referenceCounts.assigned(MethodWrapper.class, methodWrapper, newName);
+			}
+		});
 
-			classWrapper.fields.forEach(fieldWrapper ->
+		final List<FieldWrapper> fieldFamilyOrder = getClassWrappers().stream().flatMap(classWrapper -> classWrapper.fields.stream()).filter(fieldWrapper -> !fieldFamilies.isFixed(fieldWrapper)).map(fieldFamilies::getFamily).distinct().collect(Collectors.toList());
+		final IntFunction<String> fieldNames = aggressiveOverloading ? indexed(getFieldDictionary(null)) : null;
+		(referenceCounts == null ? fieldFamilyOrder : referenceCounts.sortByReferences(fieldFamilyOrder)).forEach(fieldWrapper ->
+		{
+			if (aggressiveOverloading)
+				fieldFamilies.setFirstFreeName(fieldWrapper, fieldNames);
+			else
 			{
-				final Set<String> visited = new HashSet<>();
+				final String newName = getFieldDictionary(null).nextUniqueString();
+				fieldFamilies.setName(fieldWrapper, newName);
+				if (referenceCounts != null)
+					referenceCounts.assigned(FieldWrapper.class, fieldWrapper, newName);
+			}
+		});
 
-				if (!cannotRenameField(radon.getTree(classWrapper.originalName), fieldWrapper, visited))
-					genFieldMappings(fieldWrapper, fieldWrapper.owner.originalName, getFieldDictionary(null /* TODO: Override fields agressively */).nextUniqueString());
-			});
+		final List<ClassWrapper> classOrder = new ArrayList<>(getClassWrappers());
+		(referenceCounts == null ? classOrder : referenceCounts.sortByReferences(classOrder)).forEach(classWrapper ->
+		{
+			if (dumpMappings && included(classWrapper))
+			{
+				classWrapper.methods.stream().filter(methodWrapper -> methodFamilies.getName(methodWrapper) != null).forEach(methodWrapper -> mappingsToDump.add(String.format("Method: %1$s.%2$s%3$s -> %4$s", classWrapper.originalName, methodWrapper.originalName, methodWrapper.originalDescription, methodFamilies.getName(methodWrapper))));
+				classWrapper.fields.stream().filter(fieldWrapper -> fieldFamilies.getName(fieldWrapper) != null).forEach(fieldWrapper -> mappingsToDump.add(String.format("Field: %1$s.%2$s.%3$s -> %4$s", classWrapper.originalName, fieldWrapper.originalName, fieldWrapper.originalDescription, fieldFamilies.getName(fieldWrapper))));
+			}
 
 			if (included(classWrapper))
 			{
@@ -132,10 +182,14 @@ public class Renamer extends Transformer
 				else
 					newName = repackageName;
 
+				final String simpleName = getClassDictionary(newName).nextUniqueString();
+				if (referenceCounts != null)
+					referenceCounts.assigned(newName, classWrapper, simpleName);
+
 				if (newName.isEmpty())
-					newName = getClassDictionary(newName).nextUniqueString();
+					newName = simpleName;
 				else
-					newName += '/' + getClassDictionary(newName).nextUniqueString();
+					newName += '/' + simpleName;
 
 				mappings.put(classWrapper.originalName, newName);
 				if (dumpMappings)
@@ -143,26 +197,47 @@ public class Renamer extends Transformer
 			}
 		});
 
+		methodFamilies.forEachMapping(mappings::put);
+		fieldFamilies.forEachMapping(mappings::put);
+
 		info(String.format("Finished generated mappings. [%s]", tookThisLong(current)));
+		// Aggressive overloading gives each member family the first name which is free in it, not the next name of a shared sequence, so the names of the members can't be compared against handing them out in declaration order; only the classes are reported then
+		if (referenceCounts != null)
+			info(String.format("Gave the shortest names to the most referenced %s, saving %d bytes across all constant pools.", aggressiveOverloading ? "classes" : "classes and members", referenceCounts.getSavedBytes()));
 		info("Applying mappings.");
 		current = System.nanoTime();
 
 		// Apply mappings
+		// Remapping only reads the original nodes and the (immutable) remapper, so the copies are built in parallel; the swap itself touches the shared class maps and hierarchy and stays sequential.
 		final Remapper simpleRemapper = new MemberRemapper(mappings);
-		new ArrayList<>(getClassWrappers()).forEach(classWrapper ->
+		final List<Map.Entry<ClassWrapper, ClassNode>> remapped = getClassWrappers().parallelStream().map(classWrapper ->
 		{
-			final ClassNode classNode = classWrapper.classNode;
-
 			final ClassNode copy = new ClassNode();
-			classNode.accept(new ClassRemapper(copy, simpleRemapper));
+			classWrapper.classNode.accept(new ClassRemapper(copy, simpleRemapper));
+			return new AbstractMap.SimpleImmutableEntry<>(classWrapper, copy);
+		}).collect(Collectors.toList());
+
+		// Renamed classes may swap names among each other, so every old name is released before the new names are taken.
+		final Map<String, String> renames = new HashMap<>();
+		remapped.forEach(entry ->
+		{
+			final ClassWrapper classWrapper = entry.getKey();
+			final ClassNode copy = entry.getValue();
+			if (!classWrapper.classNode.name.equals(copy.name))
+				renames.put(classWrapper.classNode.name, copy.name);
 
 			// In order to preserve the original names to prevent exclusions from breaking, we update the MethodNode/FieldNode/ClassNode each wrapper wraps instead.
-			IntStream.range(0, copy.methods.size()).forEach(i -> classWrapper.methods.get(i).methodNode = copy.methods.get(i));
+			IntStream.range(0, copy.methods.size()).forEach(i -> classWrapper.methods.get(i).setRemappedMethodNode(copy.methods.get(i)));
 			IntStream.range(0, copy.fields.size()).forEach(i -> classWrapper.fields.get(i).fieldNode = copy.fields.get(i));
 
 			classWrapper.classNode = copy;
-
 			getClasses().remove(classWrapper.originalName);
+		});
+		radon.hierarchy.rename(renames);
+
+		remapped.forEach(entry ->
+		{
+			final ClassWrapper classWrapper = entry.getKey();
 			getClasses().put(classWrapper.getName(), classWrapper);
 			getClassPath().put(classWrapper.getName(), classWrapper);
 		});
@@ -172,34 +247,33 @@ public class Renamer extends Transformer
 
 		// Now we gotta fix those resources because we probably screwed up random files.
 		info("Attempting to map class names in resources");
-		final AtomicInteger fixed = new AtomicInteger();
-		getResources().forEach((name, byteArray) -> adaptTheseResources.forEach(s ->
+		final List<Pattern> resourcePatterns = adaptTheseResources.stream().map(Pattern::compile).collect(Collectors.toList());
+		final Map<String, String> dottedClassMappings = new HashMap<>();
+		mappings.forEach((original, newName) ->
 		{
-			final Pattern pattern = Pattern.compile(s);
+			// Member mappings map to a bare name, so they can't be told apart from text in a resource
+			if (original.indexOf('.') < 0)
+				dottedClassMappings.put(original.replace('/', '.'), newName.replace('/', '.'));
+		});
+		final NameRewriter rewriter = new NameRewriter(dottedClassMappings);
 
-			if (pattern.matcher(name).matches())
+		final AtomicInteger fixed = new AtomicInteger();
+		new ArrayList<>(getResources().keySet()).parallelStream().filter(name -> resourcePatterns.stream().anyMatch(pattern -> pattern.matcher(name).matches())).forEach(name ->
+		{
+			// Only replace class names that follow a ':' or ' ', so that class names which match words in the manifest don't break the manifest.
+			// Example: name == Main
+			final boolean afterSeparatorOnly = "META-INF/MANIFEST.MF".equals(name) // Manifest
+					|| "plugin.yml".equals(name) // Spigot plugin
+					|| "bungee.yml".equals(name); // Bungeecord plugin
+
+			final byte[] original = getResources().get(name);
+			final byte[] rewritten = rewriter.rewrite(original, afterSeparatorOnly);
+			if (rewritten != original)
 			{
-				String stringVer = new String(byteArray, StandardCharsets.UTF_8);
-
-				for (final String mapping : mappings.keySet())
-				{
-					final String original = mapping.replace("/", ".");
-					// Regex that ensures that class names that match words in the manifest don't break the
-					// manifest.
-					// Example: name == Main
-					if (stringVer.contains(original))
-						if ("META-INF/MANIFEST.MF".equals(name) // Manifest
-								|| "plugin.yml".equals(name) // Spigot plugin
-								|| "bungee.yml".equals(name)) // Bungeecord plugin
-							stringVer = stringVer.replaceAll("(?<=[: ])" + original, Matcher.quoteReplacement(mappings.get(mapping).replace("/", ".")));
-						else
-							stringVer = stringVer.replace(original, mappings.get(mapping).replace("/", "."));
-				}
-
-				getResources().put(name, stringVer.getBytes(StandardCharsets.UTF_8));
+				getResources().put(name, rewritten);
 				fixed.incrementAndGet();
 			}
-		}));
+		});
 
 		info(String.format("Mapped %d names in resources. [%s]", fixed.get(), tookThisLong(current)));
 
@@ -207,115 +281,6 @@ public class Renamer extends Transformer
 			dumpMappings();
 	}
 
-	private void genMethodMappings(final MethodWrapper mw, final String owner, final String newName)
-	{
-		final String originalName = mw.originalName;
-		final String originalDesc = mw.originalDescription;
-		final String key = owner + '.' + originalName + originalDesc;
-		final String reverseKey = owner + '.' + newName + originalDesc;
-
-		// This (supposedly) will always stop the recursion because the tree was already renamed
-		if (mappings.containsKey(key))
-			return;
-
-		mappings.put(key, newName);
-		reverseMappings.put(reverseKey, originalName);
-
-		final ClassTree tree = radon.getTree(owner);
-
-		if (dumpMappings)
-		{
-			final ClassWrapper cw = tree.classWrapper;
-			if (included(cw) && cw.methods.stream().filter(this::included).anyMatch(m -> originalName.equals(m.originalName) && originalDesc.equals(m.originalDescription)))
-				mappingsToDump.add(String.format("Method: %1$s.%2$s%3$s -> %4$s", owner, originalName, originalDesc, newName));
-		}
-
-		// Static methods can't be overridden, BUT sometimes it can be accessed via instance.
-		tree.parentClasses.forEach(parentClass -> genMethodMappings(mw, parentClass, newName));
-		tree.subClasses.forEach(subClass -> genMethodMappings(mw, subClass, newName));
-	}
-
-	private boolean cannotRenameMethod(final ClassTree tree, final MethodWrapper wrapper, final Set<? super String> visited)
-	{
-		final ClassWrapper cw = tree.classWrapper;
-		final String originalClassName = cw.originalName;
-		final String originalName = wrapper.originalName;
-		final String originalDesc = wrapper.originalDescription;
-
-		final String check = originalClassName + '.' + originalName + originalDesc;
-
-		// Don't check these
-		if (visited.contains(check))
-			return false;
-
-		visited.add(check);
-
-		// If excluded, we don't want to rename.
-		if (!included(check) && cw.methods.stream().anyMatch(m -> originalName.equals(m.originalName) && originalDesc.equals(m.originalDescription)) || mappings.containsKey(check))
-			return true;
-
-		// Methods which are static don't need to be checked for inheritance
-		if (!wrapper.access.isStatic())
-		// We can't rename members which inherit methods from external libraries
-		{
-			return cw != wrapper.owner && cw.libraryNode && cw.methods.stream().anyMatch(mw -> mw.originalName.equals(originalName) && mw.originalDescription.equals(originalDesc)) || tree.parentClasses.stream().anyMatch(parent -> cannotRenameMethod(radon.getTree(parent), wrapper, visited)) || tree.subClasses.stream().anyMatch(sub -> cannotRenameMethod(radon.getTree(sub), wrapper, visited));
-		}
-
-		// Enum.valueOf() and Enum.values() are must not be renamed
-		return cw.access.isEnum() && ("valueOf".equals(originalName) || "values".equals(originalName));
-	}
-
-	private void genFieldMappings(final FieldWrapper fw, final String owner, final String newName)
-	{
-		final String originalName = fw.originalName;
-		final String originalDesc = fw.originalDescription;
-		final String check = String.join(".", owner, originalName, originalDesc);
-
-		// This (supposedly) will always stop the recursion because the tree was already renamed
-		if (mappings.containsKey(check))
-			return;
-
-		mappings.put(check, newName);
-
-		final ClassTree tree = radon.getTree(owner);
-
-		if (dumpMappings)
-		{
-			final ClassWrapper cw = tree.classWrapper;
-			if (included(cw) && cw.fields.stream().filter(this::included).anyMatch(f -> originalName.equals(f.originalName) && originalDesc.equals(f.originalDescription)))
-				mappingsToDump.add(String.format("Field: %1$s.%2$s.%3$s -> %4$s", owner, originalName, originalDesc, newName));
-		}
-
-		// Static fields can't be inherited, BUT sometimes it can be accessed via instance.
-		tree.parentClasses.forEach(parentClass -> genFieldMappings(fw, parentClass, newName));
-		tree.subClasses.forEach(subClass -> genFieldMappings(fw, subClass, newName));
-	}
-
-	private boolean cannotRenameField(final ClassTree tree, final FieldWrapper wrapper, final Set<? super String> visited)
-	{
-		final ClassWrapper cw = tree.classWrapper;
-		final String originalName = wrapper.originalName;
-		final String originalDesc = wrapper.originalDescription;
-		final String check = cw.originalName + '.' + originalName + '.' + originalDesc;
-
-		// Don't check these
-		if (visited.contains(check))
-			return false;
-
-		visited.add(check);
-
-		// If excluded, we don't want to rename.
-		return !included(check) && cw.fields.stream().anyMatch(f -> originalName.equals(f.originalName) && originalDesc.equals(f.originalDescription))
-				// If we already mapped the tree, we don't want to waste time doing it again.
-				|| mappings.containsKey(check)
-				// Fields which are static don't need to be checked for inheritance
-				|| !wrapper.access.isStatic()
-						// We can't rename members which inherit methods from external libraries
-						&& (cw != wrapper.owner && cw.libraryNode && cw.fields.stream().anyMatch(fw -> fw.originalName.equals(originalName) && fw.originalDescription.equals(originalDesc))
-								// Recursively check parents and sub-fields
-								|| tree.parentClasses.stream().anyMatch(parent -> cannotRenameField(radon.getTree(parent), wrapper, visited)) || tree.subClasses.stream().anyMatch(sub -> cannotRenameField(radon.getTree(sub), wrapper, visited)));
-	}
-
 	private void dumpMappings()
 	{
 		final long current = System.currentTimeMillis();
@@ -350,6 +315,13 @@ public class Renamer extends Transformer
 		}
 	}
 
+	@Override
+	public boolean mayModify(final ClassWrapper classWrapper)
+	{
+		// References to renamed classes and members are remapped in every class
+		return true;
+	}
+
 	@Override
 	public ExclusionType getExclusionType()
 	{
@@ -368,5 +340,7 @@ public class Renamer extends Transformer
 		adaptTheseResources = config.getOrDefault(RENAMER + ".adapt_these_resources", Collections.emptyList());
 		dumpMappings = config.getOrDefault(RENAMER + ".dump_mappings", false);
 		repackageName = config.getOrDefault(RENAMER + ".repackage_name", null);
+		frequencyWeightedNames = config.getOrDefault(RENAMER + ".frequency_weighted_names", false);
+		aggressiveOverloading = config.getOrDefault(RENAMER + ".aggressive_overloading", false);
 	}
 }
@@ -22,11 +22,10 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Stream;
 
 import org.objectweb.asm.tree.LdcInsnNode;
-import org.objectweb.asm.tree.MethodNode;
 
+import me.itzsomebody.radon.asm.InsnKind;
 import me.itzsomebody.radon.config.Configuration;
 import me.itzsomebody.radon.exclusions.ExclusionType;
 import me.itzsomebody.radon.transformers.Transformer;
@@ -49,9 +48,7 @@ public class ResourceRenamer extends Transformer
 
 		getClassWrappers().stream().filter(this::included).forEach(classWrapper -> classWrapper.methods.stream().filter(methodWrapper -> included(methodWrapper) && methodWrapper.hasInstructions()).forEach(methodWrapper ->
 		{
-			final MethodNode methodNode = methodWrapper.methodNode;
-
-			Stream.of(methodNode.instructions.toArray()).filter(insn -> insn instanceof LdcInsnNode && ((LdcInsnNode) insn).cst instanceof String).forEach(insn ->
+			methodWrapper.streamInstructions(InsnKind.STRING_CONSTANT).forEach(insn ->
 			{
 				final String s = (String) ((LdcInsnNode) insn).cst;
 				final String resourceName;
@@ -73,15 +70,10 @@ public class ResourceRenamer extends Transformer
 			});
 		}));
 
-		new HashMap<>(getResources()).forEach((name, b) ->
+		mappings.forEach((name, newName) ->
 		{
-			if (mappings.containsKey(name))
-			{
-				getResources().remove(name);
-				getResources().put(mappings.get(name).substring(1), b);
-
+			if (getResources().rename(name, newName.substring(1)))
 				counter.incrementAndGet();
-			}
 		});
 
 		info("+ Renamed " + counter.get() + " resources");
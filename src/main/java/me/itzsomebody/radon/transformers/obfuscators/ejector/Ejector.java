@@ -27,7 +27,6 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.objectweb.asm.tree.analysis.AnalyzerException;
 import org.objectweb.asm.tree.analysis.Frame;
 
-import me.itzsomebody.radon.analysis.constant.ConstantAnalyzer;
 import me.itzsomebody.radon.analysis.constant.values.AbstractValue;
 import me.itzsomebody.radon.asm.ClassWrapper;
 import me.itzsomebody.radon.config.Configuration;
@@ -49,15 +48,7 @@ public class Ejector extends Transformer
 	private boolean junkArguments;
 	private int junkArgumentStrength;
 
-	@Override
-	public void transform()
-	{
-		final AtomicInteger counter = new AtomicInteger();
-
-		getClassWrappers().stream().filter(this::included).forEach(classWrapper -> processClass(classWrapper, counter));
-
-		info(String.format("+ Ejected %d regions.", counter.get()));
-	}
+	private final AtomicInteger counter = new AtomicInteger();
 
 	private List<AbstractEjectPhase> getPhases(final EjectorContext ejectorContext)
 	{
@@ -69,7 +60,8 @@ public class Ejector extends Transformer
 		return phases;
 	}
 
-	private void processClass(final ClassWrapper classWrapper, final AtomicInteger counter)
+	@Override
+	protected void transformClass(final ClassWrapper classWrapper)
 	{
 		if (classWrapper.access.isInterface())
 			return;
@@ -79,30 +71,29 @@ public class Ejector extends Transformer
 			final EjectorContext ejectorContext = new EjectorContext(counter, classWrapper, junkArguments, junkArgumentStrength);
 			getPhases(ejectorContext).forEach(ejectPhase ->
 			{
-				// Original author of this workaround: superblaubeere27
-				// https://github.com/superblaubeere27/obfuscator/blob/master/obfuscator-core/src/main/java/me/superblaubeere27/jobf/processors/flowObfuscation/LocalVariableMangler.java
-				final int maxStack = methodWrapper.getMaxStack();
-				final int maxLocals = methodWrapper.getMaxLocals();
-				methodWrapper.setMaxStack(1000);
-				methodWrapper.setMaxLocals(1000);
-
+				// The frames are reused by the next phase if this one leaves the method as it is
+				final Frame<AbstractValue>[] frames;
 				try
 				{
-					final Frame<AbstractValue>[] frames = new ConstantAnalyzer().analyze(classWrapper.getName(), methodWrapper.methodNode);
-
-					ejectPhase.process(methodWrapper, frames);
+					frames = methodWrapper.getAnalysis().getConstantFrames();
 				}
 				catch (final AnalyzerException e)
 				{
 					warn("Can't analyze method: " + classWrapper.originalName + "::" + methodWrapper.originalName + methodWrapper.originalDescription, e);
+					return;
 				}
 
-				methodWrapper.setMaxStack(maxStack);
-				methodWrapper.setMaxLocals(maxLocals);
+				ejectPhase.process(methodWrapper, frames);
 			});
 		});
 	}
 
+	@Override
+	protected void afterClasses()
+	{
+		info(String.format("+ Ejected %d regions.", counter.getAndSet(0)));
+	}
+
 	@Override
 	public ExclusionType getExclusionType()
 	{
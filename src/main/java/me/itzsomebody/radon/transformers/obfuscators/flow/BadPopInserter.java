@@ -32,6 +32,7 @@ import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.*;
 
 import me.itzsomebody.radon.Main;
+import me.itzsomebody.radon.asm.ClassWrapper;
 import me.itzsomebody.radon.asm.LocalVariableProvider;
 import me.itzsomebody.radon.asm.LocalVariableProvider.Local;
 import me.itzsomebody.radon.config.Configuration;
@@ -59,26 +60,24 @@ public class BadPopInserter extends FlowObfuscation
 {
 	private WrappedDictionary ldcStringDictionary;
 
+	private final AtomicInteger insertedBeforeGOTOs = new AtomicInteger();
+	private final AtomicInteger mutilatedPOPs = new AtomicInteger();
+	private final AtomicInteger insertedBeforeLOADs = new AtomicInteger();
+
 	@Override
-	public void transform()
+	protected void transformClass(final ClassWrapper cw)
 	{
-		final AtomicInteger insertedBeforeGOTOs = new AtomicInteger();
-		final AtomicInteger mutilatedPOPs = new AtomicInteger();
-		final AtomicInteger insertedBeforeLOADs = new AtomicInteger();
-
 		final WrappedDictionary ldcStringDictionary = Optional.ofNullable(this.ldcStringDictionary).orElseGet(this::getGenericDictionary);
 
-		getClassWrappers().stream().filter(this::included).forEach(cw -> cw.methods.stream().filter(mw -> included(mw) && mw.hasInstructions()).forEach(mw ->
+		cw.methods.stream().filter(mw -> included(mw) && mw.hasInstructions()).forEach(mw ->
 		{
-			int leeway = mw.getLeewaySize();
-
 			final LocalVariableProvider varProvider = mw.getVarProvider();
 			final List<? extends Local> validLocals = Optional.ofNullable(varProvider.localVariables).map(locals -> locals.stream().filter(local -> local.typeSort != Type.LONG && local.typeSort != Type.DOUBLE).collect(Collectors.toList())).orElseGet(ArrayList::new);
 
 			final InsnList insns = mw.getInstructions();
 			for (final AbstractInsnNode insn : insns.toArray())
 			{
-				if (leeway < 10000)
+				if (mw.getLeewaySize() < 10000)
 					break;
 
 				final Supplier<List<? extends Local>> availableLocals = () -> validLocals.stream().filter(local -> local.isAvailableOn(insn)).collect(Collectors.toList());
@@ -91,7 +90,6 @@ public class BadPopInserter extends FlowObfuscation
 					badPop.add(new InsnNode(DUP));
 					badPop.add(new InsnNode(POP2));
 					insns.insert(insn, badPop);
-					leeway -= ASMUtils.evaluateMaxSize(badPop);
 				}
 				else if (ASMUtils.isFloatInsn(insn))
 				{
@@ -101,7 +99,6 @@ public class BadPopInserter extends FlowObfuscation
 					badPop.add(new InsnNode(DUP));
 					badPop.add(new InsnNode(POP2));
 					insns.insert(insn, badPop);
-					leeway -= ASMUtils.evaluateMaxSize(badPop);
 				}
 				else
 				{
@@ -112,7 +109,6 @@ public class BadPopInserter extends FlowObfuscation
 						{
 							final InsnList badPop = createBadPOP(POP, availableLocals, ldcStringDictionary, varProvider);
 							insns.insertBefore(insn, badPop);
-							leeway -= ASMUtils.evaluateMaxSize(badPop);
 
 							insertedBeforeGOTOs.incrementAndGet();
 							break;
@@ -123,7 +119,6 @@ public class BadPopInserter extends FlowObfuscation
 							final InsnList badPop = createBadPOP(POP2, availableLocals, ldcStringDictionary, varProvider);
 							insns.insert(insn, badPop);
 							insns.remove(insn);
-							leeway -= ASMUtils.evaluateMaxSize(badPop);
 
 							mutilatedPOPs.incrementAndGet();
 							break;
@@ -145,18 +140,21 @@ public class BadPopInserter extends FlowObfuscation
 							insns.insert(varInsn, after);
 
 							before.add(after);
-							leeway -= ASMUtils.evaluateMaxSize(before);
 							insertedBeforeLOADs.incrementAndGet();
 							break;
 						}
 					}
 				}
 			}
-		}));
+		});
+	}
 
-		info("+ Inserted " + insertedBeforeGOTOs.get() + " bad POP instructions before GOTOs.");
-		info("+ Mutilated POP instructions with " + mutilatedPOPs.get() + " bad POP instructions.");
-		info("+ Inserted " + insertedBeforeLOADs.get() + " bad POP instructions before local variable load instructions.");
+	@Override
+	protected void afterClasses()
+	{
+		info("+ Inserted " + insertedBeforeGOTOs.getAndSet(0) + " bad POP instructions before GOTOs.");
+		info("+ Mutilated POP instructions with " + mutilatedPOPs.getAndSet(0) + " bad POP instructions.");
+		info("+ Inserted " + insertedBeforeLOADs.getAndSet(0) + " bad POP instructions before local variable load instructions.");
 	}
 
 	private static InsnList createBadPOP(final int popOpcode, final Supplier<? extends List<? extends Local>> availableLocals, final WrappedDictionary ldcStringDictionary, final LocalVariableProvider varProvider /* TEMPORARY */)
@@ -25,6 +25,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.objectweb.asm.tree.*;
 
+import me.itzsomebody.radon.asm.ClassWrapper;
 import me.itzsomebody.radon.config.Configuration;
 
 /**
@@ -40,14 +41,18 @@ public class BlockSplitter extends FlowObfuscation
 {
 	private int recursiveLimit;
 
+	private final AtomicInteger counter = new AtomicInteger();
+
 	@Override
-	public void transform()
+	protected void transformClass(final ClassWrapper cw)
 	{
-		final AtomicInteger counter = new AtomicInteger();
-
-		getClassWrappers().stream().filter(this::included).forEach(cw -> cw.methods.stream().filter(this::included).forEach(mw -> doSplit(mw.methodNode, counter, 0)));
+		cw.methods.stream().filter(this::included).forEach(mw -> doSplit(mw.methodNode, counter, 0));
+	}
 
-		info("+ Split " + counter.get() + " blocks");
+	@Override
+	protected void afterClasses()
+	{
+		info("+ Split " + counter.getAndSet(0) + " blocks");
 	}
 
 	@Override
@@ -25,8 +25,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.*;
 
+import me.itzsomebody.radon.asm.ClassWrapper;
 import me.itzsomebody.radon.asm.MethodWrapper;
-import me.itzsomebody.radon.asm.StackHeightZeroFinder;
 import me.itzsomebody.radon.config.Configuration;
 import me.itzsomebody.radon.exceptions.RadonException;
 import me.itzsomebody.radon.exceptions.StackEmulationException;
@@ -105,182 +105,178 @@ public class BogusJumpInserter extends FlowObfuscation
 	private boolean insertAlwaysSucceedingLoop;
 	private boolean insertAlwaysFailingLoop;
 
+	private final AtomicInteger bogusSucceedingPredicates = new AtomicInteger();
+	private final AtomicInteger bogusFailingPredicates = new AtomicInteger();
+	private final AtomicInteger bogusSucceedingLoops = new AtomicInteger();
+	private final AtomicInteger bogusFailingLoops = new AtomicInteger();
+
 	@Override
-	public void transform()
+	protected void transformClass(final ClassWrapper cw)
 	{
-		final AtomicInteger bogusSucceedingPredicates = new AtomicInteger();
-		final AtomicInteger bogusFailingPredicates = new AtomicInteger();
-		final AtomicInteger bogusSucceedingLoops = new AtomicInteger();
-		final AtomicInteger bogusFailingLoops = new AtomicInteger();
+		final AtomicBoolean shouldAdd = new AtomicBoolean();
+
+		final Type predicateType = ASMUtils.getRandomType();
+		final String predicateDescriptor = predicateType.getDescriptor();
+		final Object predicateInitialValue = RandomUtils.getRandomFloat() > 0.2F ? RandomUtils.getRandomValue(predicateType) : null;
+
+		final FieldNode predicate = new FieldNode(cw.access.isInterface() ? INTERFACE_PRED_ACCESS : CLASS_PRED_ACCESS, getFieldDictionary(cw.originalName).nextUniqueString(), predicateDescriptor, null, predicateInitialValue);
 
-		getClassWrappers().stream().filter(this::included).forEach(cw ->
-		{
-			final AtomicBoolean shouldAdd = new AtomicBoolean();
+		for (final MethodWrapper mw : cw.methods)
+			if (included(mw) && mw.hasInstructions())
+			{
+				final MethodNode methodNode = mw.methodNode;
 
-			final Type predicateType = ASMUtils.getRandomType();
-			final String predicateDescriptor = predicateType.getDescriptor();
-			final Object predicateInitialValue = RandomUtils.getRandomFloat() > 0.2F ? RandomUtils.getRandomValue(predicateType) : null;
+				final int varIndex = mw.getMaxLocals();
+				methodNode.maxLocals += predicateType.getSize(); // Prevents breaking of other transformers which rely on this field.
 
-			final FieldNode predicate = new FieldNode(cw.access.isInterface() ? INTERFACE_PRED_ACCESS : CLASS_PRED_ACCESS, getFieldDictionary(cw.originalName).nextUniqueString(), predicateDescriptor, null, predicateInitialValue);
+				final InsnList insns = mw.getInstructions();
+				final AbstractInsnNode[] untouchedList = insns.toArray();
+				final LabelNode predefinedTrapLabel = createTrap(methodNode);
 
-			for (final MethodWrapper mw : cw.methods)
-				if (included(mw) && mw.hasInstructions())
+				final Set<AbstractInsnNode> emptyAt;
+				try
+				{
+					emptyAt = mw.getAnalysis().getStackHeightZero();
+				}
+				catch (final StackEmulationException e)
 				{
-					final MethodNode methodNode = mw.methodNode;
+					e.printStackTrace();
+					throw new RadonException(String.format("Error happened while trying to emulate the stack of %s.%s%s", cw.getName(), mw.getName(), mw.getDescription()));
+				}
 
-					int leeway = mw.getLeewaySize();
-					final int varIndex = mw.getMaxLocals();
-					methodNode.maxLocals += predicateType.getSize(); // Prevents breaking of other transformers which rely on this field.
+				final boolean isCtor = "<init>".equals(mw.getName());
+				boolean calledSuper = false;
+				for (final AbstractInsnNode insn : untouchedList)
+				{
+					if (mw.getLeewaySize() < 15000)
+						break;
 
-					final InsnList insns = mw.getInstructions();
-					final AbstractInsnNode[] untouchedList = insns.toArray();
-					final LabelNode predefinedTrapLabel = createTrap(methodNode);
+					// Bad way of detecting if this class was instantiated
+					if (isCtor && !calledSuper)
+						calledSuper = ASMUtils.isSuperInitializerCall(insn);
 
-					final StackHeightZeroFinder shzf = new StackHeightZeroFinder(methodNode, insns.getLast());
-					try
+					if (insn != insns.getFirst() && !(insn instanceof LineNumberNode))
 					{
-						shzf.execute();
-					}
-					catch (final StackEmulationException e)
-					{
-						e.printStackTrace();
-						throw new RadonException(String.format("Error happened while trying to emulate the stack of %s.%s%s", cw.getName(), mw.getName(), mw.getDescription()));
-					}
-					final Set<AbstractInsnNode> emptyAt = shzf.getEmptyAt();
+						// We need to make sure stack is empty before making jumps
+						if (isCtor && !calledSuper || !emptyAt.contains(insn))
+							continue;
 
-					final boolean isCtor = "<init>".equals(mw.getName());
-					boolean calledSuper = false;
-					for (final AbstractInsnNode insn : untouchedList)
-					{
-						if (leeway < 15000)
-							break;
+						// Insert bogus opaque conditional expressions
+						if (RandomUtils.getRandomBoolean())
+						{
+							final InsnList insertBefore = new InsnList();
+							final InsnList insert = new InsnList();
 
-						// Bad way of detecting if this class was instantiated
-						if (isCtor && !calledSuper)
-							calledSuper = ASMUtils.isSuperInitializerCall(insn);
+							final LabelNode loopStartLabel = new LabelNode();
+							final LabelNode originalCodeStartLabel = new LabelNode();
 
-						if (insn != insns.getFirst() && !(insn instanceof LineNumberNode))
-						{
-							// We need to make sure stack is empty before making jumps
-							if (isCtor && !calledSuper || !emptyAt.contains(insn))
-								continue;
+							insertBefore.add(loopStartLabel); // Label that indicates 'start of loop'
 
-							// Insert bogus opaque conditional expressions
 							if (RandomUtils.getRandomBoolean())
 							{
-								final InsnList insertBefore = new InsnList();
-								final InsnList insert = new InsnList();
-
-								final LabelNode loopStartLabel = new LabelNode();
-								final LabelNode originalCodeStartLabel = new LabelNode();
-
-								insertBefore.add(loopStartLabel); // Label that indicates 'start of loop'
-
-								if (RandomUtils.getRandomBoolean())
-								{
-									// do-while with false-predicate trap and continue
-									final LabelNode trapLabel = new LabelNode();
-
-									insert.add(new LabelNode());
-									insert.add(BogusJumps.createBogusJump(varIndex, predicateType, predicateInitialValue, trapLabel, false));
-									insert.add(new LabelNode());
-									insert.add(new JumpInsnNode(GOTO, originalCodeStartLabel));
-									insert.add(trapLabel);
-									insert.add(CodeGenerator.generateTrapInstructions(methodNode));
-									insert.add(new JumpInsnNode(GOTO, loopStartLabel)); // Loop
-									insert.add(originalCodeStartLabel);
-
-									bogusFailingLoops.incrementAndGet();
-								}
-								else
-								{
-									// while with true-condition trap and continue
-									final LabelNode firstAfterLoopEndLabel = new LabelNode();
-
-									insertBefore.add(BogusJumps.createBogusJump(varIndex, predicateType, predicateInitialValue, originalCodeStartLabel, true));
-									insertBefore.add(new LabelNode());
-									insertBefore.add(CodeGenerator.generateTrapInstructions(methodNode));
-									insertBefore.add(new LabelNode());
-									insertBefore.add(new JumpInsnNode(GOTO, loopStartLabel));
-									insertBefore.add(originalCodeStartLabel);
-
-									insert.add(new LabelNode());
-									insert.add(new JumpInsnNode(GOTO, firstAfterLoopEndLabel));
-									insert.add(firstAfterLoopEndLabel);
-
-									bogusSucceedingLoops.incrementAndGet();
-								}
-
-								insns.insertBefore(insn, insertBefore);
-								insns.insert(insn, insert);
-								leeway -= ASMUtils.evaluateMaxSize(insertBefore) + ASMUtils.evaluateMaxSize(insert);
+								// do-while with false-predicate trap and continue
+								final LabelNode trapLabel = new LabelNode();
+
+								insert.add(new LabelNode());
+								insert.add(BogusJumps.createBogusJump(varIndex, predicateType, predicateInitialValue, trapLabel, false));
+								insert.add(new LabelNode());
+								insert.add(new JumpInsnNode(GOTO, originalCodeStartLabel));
+								insert.add(trapLabel);
+								insert.add(CodeGenerator.generateTrapInstructions(methodNode));
+								insert.add(new JumpInsnNode(GOTO, loopStartLabel)); // Loop
+								insert.add(originalCodeStartLabel);
+
+								bogusFailingLoops.incrementAndGet();
 							}
-							else if (RandomUtils.getRandomBoolean())
+							else
 							{
-								// if (false) throw null;
-								// original code...
+								// while with true-condition trap and continue
+								final LabelNode firstAfterLoopEndLabel = new LabelNode();
 
-								final InsnList bogusJump = BogusJumps.createBogusJump(varIndex, predicateType, predicateInitialValue, predefinedTrapLabel, false);
-								insns.insertBefore(insn, bogusJump);
-								leeway -= ASMUtils.evaluateMaxSize(bogusJump);
+								insertBefore.add(BogusJumps.createBogusJump(varIndex, predicateType, predicateInitialValue, originalCodeStartLabel, true));
+								insertBefore.add(new LabelNode());
+								insertBefore.add(CodeGenerator.generateTrapInstructions(methodNode));
+								insertBefore.add(new LabelNode());
+								insertBefore.add(new JumpInsnNode(GOTO, loopStartLabel));
+								insertBefore.add(originalCodeStartLabel);
 
-								bogusFailingPredicates.incrementAndGet();
-							}
-							else
-							{
-								// if (true) goto labelSkip
-								// - throw null;
-								// labelSkip:
-								// - original code...
-								final InsnList insnList = new InsnList();
-								final LabelNode originalCodeStartLabel = new LabelNode();
-								final InsnList bogusJump = BogusJumps.createBogusJump(varIndex, predicateType, predicateInitialValue, originalCodeStartLabel, true);
-								insnList.add(bogusJump);
-								insnList.add(new JumpInsnNode(GOTO, predefinedTrapLabel));
-								insnList.add(originalCodeStartLabel);
-
-								insns.insertBefore(insn, insnList);
-								leeway -= ASMUtils.evaluateMaxSize(insnList);
-
-								bogusSucceedingPredicates.incrementAndGet();
+								insert.add(new LabelNode());
+								insert.add(new JumpInsnNode(GOTO, firstAfterLoopEndLabel));
+								insert.add(firstAfterLoopEndLabel);
+
+								bogusSucceedingLoops.incrementAndGet();
 							}
 
-							shouldAdd.set(true);
+							insns.insertBefore(insn, insertBefore);
+							insns.insert(insn, insert);
 						}
-					}
+						else if (RandomUtils.getRandomBoolean())
+						{
+							// if (false) throw null;
+							// original code...
 
-					if (shouldAdd.get())
-					{
-						final InsnList initializer = new InsnList();
-						initializer.add(new FieldInsnNode(GETSTATIC, cw.getName(), predicate.name, predicateDescriptor));
-						switch (predicateType.getSort())
+							final InsnList bogusJump = BogusJumps.createBogusJump(varIndex, predicateType, predicateInitialValue, predefinedTrapLabel, false);
+							insns.insertBefore(insn, bogusJump);
+
+							bogusFailingPredicates.incrementAndGet();
+						}
+						else
 						{
-							case Type.FLOAT:
-								initializer.add(new VarInsnNode(FSTORE, varIndex));
-								break;
-							case Type.LONG:
-								initializer.add(new VarInsnNode(LSTORE, varIndex));
-								break;
-							case Type.DOUBLE:
-								initializer.add(new VarInsnNode(DSTORE, varIndex));
-								break;
-							default:
-								initializer.add(new VarInsnNode(ISTORE, varIndex));
-								break;
+							// if (true) goto labelSkip
+							// - throw null;
+							// labelSkip:
+							// - original code...
+							final InsnList insnList = new InsnList();
+							final LabelNode originalCodeStartLabel = new LabelNode();
+							final InsnList bogusJump = BogusJumps.createBogusJump(varIndex, predicateType, predicateInitialValue, originalCodeStartLabel, true);
+							insnList.add(bogusJump);
+							insnList.add(new JumpInsnNode(GOTO, predefinedTrapLabel));
+							insnList.add(originalCodeStartLabel);
+
+							insns.insertBefore(insn, insnList);
+
+							bogusSucceedingPredicates.incrementAndGet();
 						}
 
-						ASMUtils.insertAfterConstructorCall(methodNode, initializer);
+						shouldAdd.set(true);
+					}
+				}
+
+				if (shouldAdd.get())
+				{
+					final InsnList initializer = new InsnList();
+					initializer.add(new FieldInsnNode(GETSTATIC, cw.getName(), predicate.name, predicateDescriptor));
+					switch (predicateType.getSort())
+					{
+						case Type.FLOAT:
+							initializer.add(new VarInsnNode(FSTORE, varIndex));
+							break;
+						case Type.LONG:
+							initializer.add(new VarInsnNode(LSTORE, varIndex));
+							break;
+						case Type.DOUBLE:
+							initializer.add(new VarInsnNode(DSTORE, varIndex));
+							break;
+						default:
+							initializer.add(new VarInsnNode(ISTORE, varIndex));
+							break;
 					}
+
+					ASMUtils.insertAfterConstructorCall(methodNode, initializer);
 				}
+			}
 
-			if (shouldAdd.get())
-				cw.addField(predicate);
-		});
+		if (shouldAdd.get())
+			cw.addField(predicate);
+	}
 
-		info("+ Inserted " + bogusSucceedingPredicates.get() + " always-succeeding bogus predicates." + (insertAlwaysSucceedingPredicate ? "" : " (Disabled in config)"));
-		info("+ Inserted " + bogusFailingPredicates.get() + " always-failing bogus predicates." + (insertAlwaysFailingPredicate ? "" : " (Disabled in config)"));
-		info("+ Inserted " + bogusSucceedingLoops.get() + " always-succeeding bogus loops." + (insertAlwaysSucceedingLoop ? "" : " (Disabled in config)"));
-		info("+ Inserted " + bogusFailingLoops.get() + " always-failing bogus loops." + (insertAlwaysFailingLoop ? "" : " (Disabled in config)"));
+	@Override
+	protected void afterClasses()
+	{
+		info("+ Inserted " + bogusSucceedingPredicates.getAndSet(0) + " always-succeeding bogus predicates." + (insertAlwaysSucceedingPredicate ? "" : " (Disabled in config)"));
+		info("+ Inserted " + bogusFailingPredicates.getAndSet(0) + " always-failing bogus predicates." + (insertAlwaysFailingPredicate ? "" : " (Disabled in config)"));
+		info("+ Inserted " + bogusSucceedingLoops.getAndSet(0) + " always-succeeding bogus loops." + (insertAlwaysSucceedingLoop ? "" : " (Disabled in config)"));
+		info("+ Inserted " + bogusFailingLoops.getAndSet(0) + " always-failing bogus loops." + (insertAlwaysFailingLoop ? "" : " (Disabled in config)"));
 	}
 
 	@Override
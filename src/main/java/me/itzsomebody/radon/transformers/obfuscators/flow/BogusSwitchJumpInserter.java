@@ -27,7 +27,7 @@ import java.util.stream.IntStream;
 
 import org.objectweb.asm.tree.*;
 
-import me.itzsomebody.radon.asm.StackHeightZeroFinder;
+import me.itzsomebody.radon.asm.ClassWrapper;
 import me.itzsomebody.radon.config.Configuration;
 import me.itzsomebody.radon.exceptions.RadonException;
 import me.itzsomebody.radon.exceptions.StackEmulationException;
@@ -46,85 +46,84 @@ public class BogusSwitchJumpInserter extends FlowObfuscation
 	private static final int CLASS_PRED_ACCESS = ACC_PRIVATE | ACC_STATIC | ACC_SYNTHETIC;
 	private static final int INTERFACE_PRED_ACCESS = ACC_PUBLIC | ACC_STATIC | ACC_FINAL;
 
+	private final AtomicInteger counter = new AtomicInteger();
+
 	@Override
-	public void transform()
+	protected void transformClass(final ClassWrapper cw)
 	{
-		final AtomicInteger counter = new AtomicInteger();
+		final AtomicBoolean shouldAdd = new AtomicBoolean();
+		final FieldNode predicate = new FieldNode(cw.access.isInterface() ? INTERFACE_PRED_ACCESS : CLASS_PRED_ACCESS, getFieldDictionary(cw.originalName).nextUniqueString(), "I", null, null);
 
-		getClassWrappers().stream().filter(this::included).forEach(cw ->
+		cw.methods.stream().filter(mw -> included(mw) && mw.hasInstructions()).forEach(mw ->
 		{
-			final AtomicBoolean shouldAdd = new AtomicBoolean();
-			final FieldNode predicate = new FieldNode(cw.access.isInterface() ? INTERFACE_PRED_ACCESS : CLASS_PRED_ACCESS, getFieldDictionary(cw.originalName).nextUniqueString(), "I", null, null);
-
-			cw.methods.stream().filter(mw -> included(mw) && mw.hasInstructions()).forEach(mw ->
-			{
-				final InsnList insns = mw.getInstructions();
+			final InsnList insns = mw.getInstructions();
 
-				final int leeway = mw.getLeewaySize();
-				final int varIndex = mw.getMaxLocals();
-				mw.methodNode.maxLocals++; // Prevents breaking of other transformers which rely on this field.
+			final int leeway = mw.getLeewaySize();
+			final int varIndex = mw.getMaxLocals();
+			mw.methodNode.maxLocals++; // Prevents breaking of other transformers which rely on this field.
 
-				final StackHeightZeroFinder shzf = new StackHeightZeroFinder(mw.methodNode, insns.getLast());
-				try
-				{
-					shzf.execute();
-				}
-				catch (final StackEmulationException e)
-				{
-					e.printStackTrace();
-					throw new RadonException(String.format("Error happened while trying to emulate the stack of %s.%s%s", cw.getName(), mw.getName(), mw.getDescription()));
-				}
-
-				final List<AbstractInsnNode> emptyAt = new ArrayList<>(shzf.getEmptyAt());
-
-				if (emptyAt.size() <= 5 || leeway <= 30000)
-					return;
+			final List<AbstractInsnNode> emptyAt;
+			try
+			{
+				emptyAt = new ArrayList<>(mw.getAnalysis().getStackHeightZero());
+			}
+			catch (final StackEmulationException e)
+			{
+				e.printStackTrace();
+				throw new RadonException(String.format("Error happened while trying to emulate the stack of %s.%s%s", cw.getName(), mw.getName(), mw.getDescription()));
+			}
 
-				final int nTargets = emptyAt.size() / 2;
+			if (emptyAt.size() <= 5 || leeway <= 30000)
+				return;
 
-				final List<LabelNode> targets = IntStream.range(0, nTargets).mapToObj(i -> new LabelNode()).collect(Collectors.toList());
+			final int nTargets = emptyAt.size() / 2;
 
-				final LabelNode back = new LabelNode();
-				final LabelNode dflt = new LabelNode();
-				final TableSwitchInsnNode tsin = new TableSwitchInsnNode(0, targets.size() - 1, dflt, targets.toArray(Constants.EMPTY_LABEL_NODE_ARRAY));
+			final List<LabelNode> targets = IntStream.range(0, nTargets).mapToObj(i -> new LabelNode()).collect(Collectors.toList());
 
-				final InsnList block = new InsnList();
-				block.add(new VarInsnNode(ILOAD, varIndex));
-				block.add(new JumpInsnNode(IFEQ, dflt));
-				block.add(back);
-				block.add(new VarInsnNode(ILOAD, varIndex));
-				block.add(tsin);
-				block.add(dflt);
+			final LabelNode back = new LabelNode();
+			final LabelNode dflt = new LabelNode();
+			final TableSwitchInsnNode tsin = new TableSwitchInsnNode(0, targets.size() - 1, dflt, targets.toArray(Constants.EMPTY_LABEL_NODE_ARRAY));
 
-				final AbstractInsnNode switchTarget = emptyAt.get(RandomUtils.getRandomInt(emptyAt.size()));
+			final InsnList block = new InsnList();
+			block.add(new VarInsnNode(ILOAD, varIndex));
+			block.add(new JumpInsnNode(IFEQ, dflt));
+			block.add(back);
+			block.add(new VarInsnNode(ILOAD, varIndex));
+			block.add(tsin);
+			block.add(dflt);
 
-				insns.insertBefore(switchTarget, block);
+			final AbstractInsnNode switchTarget = emptyAt.get(RandomUtils.getRandomInt(emptyAt.size()));
 
-				for (final LabelNode target : targets)
-				{
-					final AbstractInsnNode here = insns.getLast();
+			insns.insertBefore(switchTarget, block);
 
-					final InsnList landing = new InsnList();
-					landing.add(target);
-					landing.add(ASMUtils.getNumberInsn(RandomUtils.getRandomInt(nTargets)));
-					landing.add(new VarInsnNode(ISTORE, varIndex));
-					landing.add(new JumpInsnNode(GOTO, targets.get(RandomUtils.getRandomInt(targets.size()))));
+			for (final LabelNode target : targets)
+			{
+				final AbstractInsnNode here = insns.getLast();
 
-					insns.insert(here, landing);
-				}
+				final InsnList landing = new InsnList();
+				landing.add(target);
+				landing.add(ASMUtils.getNumberInsn(RandomUtils.getRandomInt(nTargets)));
+				landing.add(new VarInsnNode(ISTORE, varIndex));
+				landing.add(new JumpInsnNode(GOTO, targets.get(RandomUtils.getRandomInt(targets.size()))));
 
-				insns.insert(new VarInsnNode(ISTORE, varIndex));
-				insns.insert(new FieldInsnNode(GETSTATIC, cw.getName(), predicate.name, "I"));
+				insns.insert(here, landing);
+			}
 
-				counter.addAndGet(targets.size());
-				shouldAdd.set(true);
-			});
+			insns.insert(new VarInsnNode(ISTORE, varIndex));
+			insns.insert(new FieldInsnNode(GETSTATIC, cw.getName(), predicate.name, "I"));
 
-			if (shouldAdd.get())
-				cw.addField(predicate);
+			counter.addAndGet(targets.size());
+			shouldAdd.set(true);
 		});
 
-		info("+ Inserted " + counter.get() + " bogus switch jumps");
+		if (shouldAdd.get())
+			cw.addField(predicate);
+	}
+
+	@Override
+	protected void afterClasses()
+	{
+		info("+ Inserted " + counter.getAndSet(0) + " bogus switch jumps");
 	}
 
 	@Override
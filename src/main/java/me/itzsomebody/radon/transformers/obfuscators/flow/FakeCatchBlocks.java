@@ -38,27 +38,33 @@ import me.itzsomebody.radon.utils.Throwables;
  */
 public class FakeCatchBlocks extends FlowObfuscation
 {
+	private final AtomicInteger counter = new AtomicInteger();
+
+	private ClassNode fakeHandler;
+	private String methodName;
+
 	@Override
-	public void transform()
+	protected void beforeClasses()
 	{
-		final AtomicInteger counter = new AtomicInteger();
-
-		final ClassNode fakeHandler = new ClassNode();
+		fakeHandler = new ClassNode();
 		fakeHandler.superName = RandomUtils.getRandomElement(Throwables.getRandomThrowable());
 		fakeHandler.name = randomClassName();
 		fakeHandler.access = ACC_PUBLIC | ACC_SUPER;
 		fakeHandler.version = V1_5;
 
-		final String methodName = getMethodDictionary(fakeHandler.name).nextUniqueString();
+		methodName = getMethodDictionary(fakeHandler.name).nextUniqueString();
+	}
 
-		getClassWrappers().stream().filter(this::included).forEach(classWrapper -> classWrapper.methods.stream().filter(mw -> included(mw) && mw.hasInstructions() && !"<init>".equals(mw.originalName)).forEach(methodWrapper ->
+	@Override
+	protected void transformClass(final ClassWrapper classWrapper)
+	{
+		classWrapper.methods.stream().filter(mw -> included(mw) && mw.hasInstructions() && !"<init>".equals(mw.originalName)).forEach(methodWrapper ->
 		{
-			int leeway = methodWrapper.getLeewaySize();
 			final InsnList insns = methodWrapper.getInstructions();
 
 			for (final AbstractInsnNode insn : insns.toArray())
 			{
-				if (leeway < 10000)
+				if (methodWrapper.getLeewaySize() < 10000)
 					return;
 				if (!ASMUtils.isInstruction(insn))
 					continue;
@@ -84,16 +90,20 @@ public class FakeCatchBlocks extends FlowObfuscation
 
 					methodWrapper.getTryCatchBlocks().add(new TryCatchBlockNode(trapStart, trapEnd, catchStart, fakeHandler.name));
 
-					leeway -= ASMUtils.evaluateMaxSize(inserted);
 					counter.incrementAndGet();
 				}
 			}
-		}));
+		});
+	}
+
+	@Override
+	protected void afterClasses()
+	{
 		final ClassWrapper newWrapper = new ClassWrapper(fakeHandler, false);
 		getClasses().put(fakeHandler.name, newWrapper);
 		getClassPath().put(fakeHandler.name, newWrapper);
 
-		info("+ Inserted " + counter.get() + " fake try catches");
+		info("+ Inserted " + counter.getAndSet(0) + " fake try catches");
 	}
 
 	@Override
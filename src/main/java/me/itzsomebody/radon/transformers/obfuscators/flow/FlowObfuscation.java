@@ -45,7 +45,7 @@ public class FlowObfuscation extends Transformer
 		flowObfuscators.forEach(flowObfuscator ->
 		{
 			flowObfuscator.init(radon);
-			flowObfuscator.transform();
+			flowObfuscator.transformClasses();
 		});
 	}
 
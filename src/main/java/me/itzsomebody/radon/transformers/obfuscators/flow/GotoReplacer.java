@@ -24,6 +24,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.*;
 
+import me.itzsomebody.radon.asm.ClassWrapper;
 import me.itzsomebody.radon.config.Configuration;
 import me.itzsomebody.radon.utils.ASMUtils;
 import me.itzsomebody.radon.utils.BogusJumps;
@@ -45,84 +46,83 @@ public class GotoReplacer extends FlowObfuscation
 	private static final int CLASS_PRED_ACCESS = ACC_PRIVATE | ACC_STATIC | ACC_SYNTHETIC;
 	private static final int INTERFACE_PRED_ACCESS = ACC_PUBLIC | ACC_STATIC | ACC_FINAL;
 
+	private final AtomicInteger counter = new AtomicInteger();
+
 	@Override
-	public void transform()
+	protected void transformClass(final ClassWrapper cw)
 	{
-		final AtomicInteger counter = new AtomicInteger();
+		final AtomicBoolean shouldAdd = new AtomicBoolean();
 
-		getClassWrappers().stream().filter(this::included).forEach(cw ->
-		{
-			final AtomicBoolean shouldAdd = new AtomicBoolean();
+		final Type predicateType = ASMUtils.getRandomType();
+		final String predicateDescriptor = predicateType.getDescriptor();
+		final Object predicateInitialValue = RandomUtils.getRandomFloat() > 0.2F ? RandomUtils.getRandomValue(predicateType) : null;
 
-			final Type predicateType = ASMUtils.getRandomType();
-			final String predicateDescriptor = predicateType.getDescriptor();
-			final Object predicateInitialValue = RandomUtils.getRandomFloat() > 0.2F ? RandomUtils.getRandomValue(predicateType) : null;
+		final FieldNode predicate = new FieldNode(cw.access.isInterface() ? INTERFACE_PRED_ACCESS : CLASS_PRED_ACCESS, getFieldDictionary(cw.originalName).nextUniqueString(), predicateDescriptor, null, predicateInitialValue);
 
-			final FieldNode predicate = new FieldNode(cw.access.isInterface() ? INTERFACE_PRED_ACCESS : CLASS_PRED_ACCESS, getFieldDictionary(cw.originalName).nextUniqueString(), predicateDescriptor, null, predicateInitialValue);
+		cw.methods.stream().filter(mw -> included(mw) && mw.hasInstructions()).forEach(mw ->
+		{
+			final InsnList insns = mw.getInstructions();
 
-			cw.methods.stream().filter(mw -> included(mw) && mw.hasInstructions()).forEach(mw ->
+			final int varIndex = mw.getMaxLocals();
+			mw.methodNode.maxLocals += predicateType.getSize(); // Prevents breaking of other transformers which rely on this field.
+
+			final boolean isCtor = "<init>".equals(mw.getName());
+			boolean calledSuper = false;
+			for (final AbstractInsnNode insn : insns.toArray())
 			{
-				final InsnList insns = mw.getInstructions();
+				if (mw.getLeewaySize() < 10000)
+					break;
 
-				int leeway = mw.getLeewaySize();
-				final int varIndex = mw.getMaxLocals();
-				mw.methodNode.maxLocals += predicateType.getSize(); // Prevents breaking of other transformers which rely on this field.
+				// Bad way of detecting if this class was instantiated
+				if (isCtor && !calledSuper)
+					calledSuper = ASMUtils.isSuperInitializerCall(insn);
 
-				final boolean isCtor = "<init>".equals(mw.getName());
-				boolean calledSuper = false;
-				for (final AbstractInsnNode insn : insns.toArray())
+				if (insn.getOpcode() == GOTO && !(isCtor && !calledSuper))
 				{
-					if (leeway < 10000)
-						break;
+					final InsnList bogusJump = new InsnList();
+					bogusJump.add(BogusJumps.createBogusJump(varIndex, predicateType, predicateInitialValue, ((JumpInsnNode) insn).label, true));
+					bogusJump.add(CodeGenerator.generateTrapInstructions(mw.methodNode));
 
-					// Bad way of detecting if this class was instantiated
-					if (isCtor && !calledSuper)
-						calledSuper = ASMUtils.isSuperInitializerCall(insn);
+					insns.insert(insn, bogusJump);
+					insns.remove(insn);
 
-					if (insn.getOpcode() == GOTO && !(isCtor && !calledSuper))
-					{
-						final InsnList bogusJump = new InsnList();
-						bogusJump.add(BogusJumps.createBogusJump(varIndex, predicateType, predicateInitialValue, ((JumpInsnNode) insn).label, true));
-						bogusJump.add(CodeGenerator.generateTrapInstructions(mw.methodNode));
-						leeway -= ASMUtils.evaluateMaxSize(bogusJump);
-
-						insns.insert(insn, bogusJump);
-						insns.remove(insn);
-
-						counter.incrementAndGet();
-						shouldAdd.set(true);
-					}
+					counter.incrementAndGet();
+					shouldAdd.set(true);
 				}
+			}
 
-				if (shouldAdd.get())
+			if (shouldAdd.get())
+			{
+				final InsnList initializer = new InsnList();
+				initializer.add(new FieldInsnNode(GETSTATIC, cw.getName(), predicate.name, predicateDescriptor));
+				switch (predicateType.getSort())
 				{
-					final InsnList initializer = new InsnList();
-					initializer.add(new FieldInsnNode(GETSTATIC, cw.getName(), predicate.name, predicateDescriptor));
-					switch (predicateType.getSort())
-					{
-						case Type.FLOAT:
-							initializer.add(new VarInsnNode(FSTORE, varIndex));
-							break;
-						case Type.LONG:
-							initializer.add(new VarInsnNode(LSTORE, varIndex));
-							break;
-						case Type.DOUBLE:
-							initializer.add(new VarInsnNode(DSTORE, varIndex));
-							break;
-						default:
-							initializer.add(new VarInsnNode(ISTORE, varIndex));
-							break;
-					}
-
-					ASMUtils.insertAfterConstructorCall(mw.methodNode, initializer);
+					case Type.FLOAT:
+						initializer.add(new VarInsnNode(FSTORE, varIndex));
+						break;
+					case Type.LONG:
+						initializer.add(new VarInsnNode(LSTORE, varIndex));
+						break;
+					case Type.DOUBLE:
+						initializer.add(new VarInsnNode(DSTORE, varIndex));
+						break;
+					default:
+						initializer.add(new VarInsnNode(ISTORE, varIndex));
+						break;
 				}
-			});
 
-			if (shouldAdd.get())
-				cw.addField(predicate);
+				ASMUtils.insertAfterConstructorCall(mw.methodNode, initializer);
+			}
 		});
 
-		info("+ Swapped " + counter.get() + " GOTO instructions");
+		if (shouldAdd.get())
+			cw.addField(predicate);
+	}
+
+	@Override
+	protected void afterClasses()
+	{
+		info("+ Swapped " + counter.getAndSet(0) + " GOTO instructions");
 	}
 
 	@Override
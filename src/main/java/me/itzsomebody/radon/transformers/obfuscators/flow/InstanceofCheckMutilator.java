@@ -23,11 +23,10 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.objectweb.asm.tree.*;
 
-import me.itzsomebody.radon.asm.StackHeightZeroFinder;
+import me.itzsomebody.radon.asm.ClassWrapper;
 import me.itzsomebody.radon.config.Configuration;
 import me.itzsomebody.radon.exceptions.RadonException;
 import me.itzsomebody.radon.exceptions.StackEmulationException;
-import me.itzsomebody.radon.utils.ASMUtils;
 import me.itzsomebody.radon.utils.Throwables;
 
 /**
@@ -41,32 +40,30 @@ import me.itzsomebody.radon.utils.Throwables;
  */
 public class InstanceofCheckMutilator extends FlowObfuscation
 {
+	private final AtomicInteger counter = new AtomicInteger();
+
 	@Override
-	public void transform()
+	protected void transformClass(final ClassWrapper cw)
 	{
-		final AtomicInteger counter = new AtomicInteger();
-
-		getClassWrappers().stream().filter(this::included).forEach(cw -> cw.methods.stream().filter(mw -> included(mw) && mw.hasInstructions()).forEach(mw ->
+		cw.methods.stream().filter(mw -> included(mw) && mw.hasInstructions()).forEach(mw ->
 		{
 			final MethodNode methodNode = mw.methodNode;
 
-			final StackHeightZeroFinder shzf = new StackHeightZeroFinder(methodNode, mw.getInstructions().getLast());
+			final Set<AbstractInsnNode> emptyAt;
 			try
 			{
-				shzf.execute();
+				emptyAt = mw.getAnalysis().getStackHeightZero();
 			}
 			catch (final StackEmulationException e)
 			{
 				e.printStackTrace();
 				throw new RadonException(String.format("Error happened while trying to emulate the stack of %s.%s%s", cw.getName(), mw.getName(), mw.getDescription()));
 			}
-			final Set<AbstractInsnNode> emptyAt = shzf.getEmptyAt();
-			int leeway = mw.getLeewaySize();
 
 			final InsnList insns = methodNode.instructions;
 			for (final AbstractInsnNode insn : insns.toArray())
 			{
-				if (leeway < 10000)
+				if (mw.getLeewaySize() < 10000)
 					break;
 
 				if (insn.getOpcode() == INSTANCEOF && insn.getNext() != null)
@@ -106,13 +103,16 @@ public class InstanceofCheckMutilator extends FlowObfuscation
 						methodNode.tryCatchBlocks.add(0, new TryCatchBlockNode(trapStart, trapEnd, catchStart, Throwables.ClassCastException));
 
 						counter.incrementAndGet();
-						leeway -= ASMUtils.evaluateMaxSize(tcInsns);
 					}
 				}
 			}
-		}));
+		});
+	}
 
-		info("+ Mutilated " + counter.get() + " instanceof checks");
+	@Override
+	protected void afterClasses()
+	{
+		info("+ Mutilated " + counter.getAndSet(0) + " instanceof checks");
 	}
 
 	@Override
@@ -26,6 +26,7 @@ import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.*;
 import org.objectweb.asm.tree.analysis.*;
 
+import me.itzsomebody.radon.asm.ClassWrapper;
 import me.itzsomebody.radon.asm.LocalVariableProvider;
 import me.itzsomebody.radon.config.Configuration;
 import me.itzsomebody.radon.utils.ASMUtils;
@@ -42,19 +43,19 @@ import me.itzsomebody.radon.utils.RandomUtils;
  */
 public class LocalVariableMutilator extends FlowObfuscation
 {
+	private final AtomicInteger counter = new AtomicInteger();
+
 	@Override
-	public void transform()
+	protected void transformClass(final ClassWrapper cw)
 	{
-		final AtomicInteger counter = new AtomicInteger();
-
-		getClassWrappers().stream().filter(this::included).forEach(cw -> cw.methods.stream().filter(mw -> included(mw) && mw.hasInstructions()).forEach(mw ->
+		cw.methods.stream().filter(mw -> included(mw) && mw.hasInstructions()).forEach(mw ->
 		{
 			final MethodNode mn = mw.methodNode;
 
 			final Frame<BasicValue>[] frames;
 			try
 			{
-				frames = ASMUtils.runAnalyzer(new Analyzer<>(new BasicInterpreter()), mn, true);
+				frames = mw.getAnalysis().getBasicFrames();
 			}
 			catch (final AnalyzerException e)
 			{
@@ -121,6 +122,9 @@ public class LocalVariableMutilator extends FlowObfuscation
 					if (opcode >= ISTORE && opcode <= DSTORE)
 					{
 						final Frame<BasicValue> currentFrame = frames[insns.indexOf(varInsn)];
+						if (currentFrame == null) // Unreachable code
+							continue;
+
 						final Type operandType = currentFrame.getStack(currentFrame.getStackSize() - 1).getType();
 						if (operandType != null)
 						{
@@ -293,9 +297,13 @@ public class LocalVariableMutilator extends FlowObfuscation
 
 			if (!localVarMap.isEmpty())
 				ASMUtils.insertAfterConstructorCall(mn, initialize);
-		}));
+		});
+	}
 
-		info("+ Mutilated " + counter.get() + " local variables");
+	@Override
+	protected void afterClasses()
+	{
+		info("+ Mutilated " + counter.getAndSet(0) + " local variables");
 	}
 
 	@Override
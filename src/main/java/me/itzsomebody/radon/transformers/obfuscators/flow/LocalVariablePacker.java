@@ -24,6 +24,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.*;
 
+import me.itzsomebody.radon.asm.ClassWrapper;
 import me.itzsomebody.radon.asm.LocalVariableProvider;
 import me.itzsomebody.radon.asm.LocalVariableProvider.Local;
 import me.itzsomebody.radon.config.Configuration;
@@ -43,13 +44,13 @@ import me.itzsomebody.radon.utils.RandomUtils;
  */
 public class LocalVariablePacker extends FlowObfuscation
 {
+	private final AtomicInteger affected = new AtomicInteger();
+	private final AtomicInteger generated = new AtomicInteger();
+
 	@Override
-	public void transform()
+	protected void transformClass(final ClassWrapper cw)
 	{
-		final AtomicInteger affected = new AtomicInteger();
-		final AtomicInteger generated = new AtomicInteger();
-
-		getClassWrappers().stream().filter(this::included).forEach(cw -> cw.methods.stream().filter(mw -> included(mw) && mw.hasInstructions()).forEach(mw ->
+		cw.methods.stream().filter(mw -> included(mw) && mw.hasInstructions()).forEach(mw ->
 		{
 			final InsnList insns = mw.getInstructions();
 
@@ -298,9 +299,13 @@ public class LocalVariablePacker extends FlowObfuscation
 
 			if (initializer != null)
 				ASMUtils.insertAfterConstructorCall(mw.methodNode, initializer);
-		}));
+		});
+	}
 
-		info("+ Packed " + affected.get() + " number local variables into " + generated.get() + " long local variables");
+	@Override
+	protected void afterClasses()
+	{
+		info("+ Packed " + affected.getAndSet(0) + " number local variables into " + generated.getAndSet(0) + " long local variables");
 	}
 
 	@Override
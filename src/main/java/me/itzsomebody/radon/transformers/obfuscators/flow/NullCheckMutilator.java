@@ -23,11 +23,10 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.objectweb.asm.tree.*;
 
-import me.itzsomebody.radon.asm.StackHeightZeroFinder;
+import me.itzsomebody.radon.asm.ClassWrapper;
 import me.itzsomebody.radon.config.Configuration;
 import me.itzsomebody.radon.exceptions.RadonException;
 import me.itzsomebody.radon.exceptions.StackEmulationException;
-import me.itzsomebody.radon.utils.ASMUtils;
 import me.itzsomebody.radon.utils.RandomUtils;
 import me.itzsomebody.radon.utils.Throwables;
 
@@ -40,31 +39,29 @@ import me.itzsomebody.radon.utils.Throwables;
  */
 public class NullCheckMutilator extends FlowObfuscation
 {
+	private final AtomicInteger counter = new AtomicInteger();
+
 	@Override
-	public void transform()
+	protected void transformClass(final ClassWrapper cw)
 	{
-		final AtomicInteger counter = new AtomicInteger();
-
-		getClassWrappers().stream().filter(this::included).forEach(cw -> cw.methods.stream().filter(mw -> included(mw) && mw.hasInstructions()).forEach(mw ->
+		cw.methods.stream().filter(mw -> included(mw) && mw.hasInstructions()).forEach(mw ->
 		{
 			final MethodNode methodNode = mw.methodNode;
 
-			final StackHeightZeroFinder shzf = new StackHeightZeroFinder(methodNode, mw.getInstructions().getLast());
+			final Set<AbstractInsnNode> emptyAt;
 			try
 			{
-				shzf.execute();
+				emptyAt = mw.getAnalysis().getStackHeightZero();
 			}
 			catch (final StackEmulationException e)
 			{
 				throw new RadonException(String.format("Error happened while trying to emulate the stack of %s.%s%s", cw.getName(), mw.getName(), mw.getDescription()), e);
 			}
-			final Set<AbstractInsnNode> emptyAt = shzf.getEmptyAt();
-			int leeway = mw.getLeewaySize();
 
 			final InsnList insns = methodNode.instructions;
 			for (final AbstractInsnNode insn : insns.toArray())
 			{
-				if (leeway < 10000)
+				if (mw.getLeewaySize() < 10000)
 					break;
 
 				if (insn.getOpcode() == IFNULL || insn.getOpcode() == IFNONNULL)
@@ -102,12 +99,15 @@ public class NullCheckMutilator extends FlowObfuscation
 					methodNode.tryCatchBlocks.add(0, new TryCatchBlockNode(trapStart, trapEnd, catchStart, Throwables.NullPointerException));
 
 					counter.incrementAndGet();
-					leeway -= ASMUtils.evaluateMaxSize(tcInsns);
 				}
 			}
-		}));
+		});
+	}
 
-		info("+ Mutilated " + counter.get() + " null checks");
+	@Override
+	protected void afterClasses()
+	{
+		info("+ Mutilated " + counter.getAndSet(0) + " null checks");
 	}
 
 	@Override
@@ -23,6 +23,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.*;
 
+import me.itzsomebody.radon.asm.ClassWrapper;
 import me.itzsomebody.radon.config.Configuration;
 
 /**
@@ -33,12 +34,12 @@ import me.itzsomebody.radon.config.Configuration;
  */
 public class ReturnMutilator extends FlowObfuscation
 {
+	private final AtomicInteger counter = new AtomicInteger();
+
 	@Override
-	public void transform()
+	protected void transformClass(final ClassWrapper cw)
 	{
-		final AtomicInteger counter = new AtomicInteger();
-
-		getClassWrappers().stream().filter(this::included).forEach(cw -> cw.methods.stream().filter(mw -> included(mw) && mw.hasInstructions()).forEach(mw ->
+		cw.methods.stream().filter(mw -> included(mw) && mw.hasInstructions()).forEach(mw ->
 		{
 			final MethodNode mn = mw.methodNode;
 
@@ -75,9 +76,13 @@ public class ReturnMutilator extends FlowObfuscation
 				insns.add(new VarInsnNode(returnType.getOpcode(ILOAD), returnSlot));
 				insns.add(new InsnNode(returnType.getOpcode(IRETURN)));
 			}
-		}));
+		});
+	}
 
-		info("+ Mutilated " + counter.get() + " returns");
+	@Override
+	protected void afterClasses()
+	{
+		info("+ Mutilated " + counter.getAndSet(0) + " returns");
 	}
 
 	@Override
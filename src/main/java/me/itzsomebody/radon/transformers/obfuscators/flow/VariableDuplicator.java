@@ -25,8 +25,8 @@ import org.objectweb.asm.tree.InsnList;
 import org.objectweb.asm.tree.InsnNode;
 import org.objectweb.asm.tree.VarInsnNode;
 
+import me.itzsomebody.radon.asm.ClassWrapper;
 import me.itzsomebody.radon.config.Configuration;
-import me.itzsomebody.radon.utils.ASMUtils;
 
 /**
  * Duplicates vars. Uglifies opcodes / stack
@@ -40,18 +40,16 @@ import me.itzsomebody.radon.utils.ASMUtils;
  */
 public class VariableDuplicator extends FlowObfuscation
 {
+	private final AtomicInteger counter = new AtomicInteger();
+
 	@Override
-	public void transform()
+	protected void transformClass(final ClassWrapper cw)
 	{
-		final AtomicInteger counter = new AtomicInteger();
-
-		getClassWrappers().stream().filter(this::included).forEach(cw -> cw.methods.stream().filter(mw -> included(mw) && !mw.access.isAbstract() && mw.hasInstructions()).forEach(mw ->
+		cw.methods.stream().filter(mw -> included(mw) && !mw.access.isAbstract() && mw.hasInstructions()).forEach(mw ->
 		{
-			int leeway = mw.getLeewaySize();
-
 			for (final AbstractInsnNode insn : mw.getInstructions().toArray())
 			{
-				if (leeway < 10000)
+				if (mw.getLeewaySize() < 10000)
 					break;
 
 				if (insn instanceof VarInsnNode && insn.getOpcode() == ASTORE)
@@ -65,13 +63,15 @@ public class VariableDuplicator extends FlowObfuscation
 
 					insertAfter.add(new InsnNode(POP));
 					insertAfter.add(new VarInsnNode(ASTORE, ((VarInsnNode) insn).var));
-
-					leeway -= ASMUtils.evaluateMaxSize(insertBefore) + ASMUtils.evaluateMaxSize(insertAfter);
 				}
 			}
-		}));
+		});
+	}
 
-		info("+ Duplicated " + counter.get() + " local variable stores");
+	@Override
+	protected void afterClasses()
+	{
+		info("+ Duplicated " + counter.getAndSet(0) + " local variable stores");
 	}
 
 	@Override
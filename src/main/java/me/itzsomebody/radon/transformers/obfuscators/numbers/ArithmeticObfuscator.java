@@ -22,6 +22,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.objectweb.asm.tree.*;
 
+import me.itzsomebody.radon.asm.ClassWrapper;
 import me.itzsomebody.radon.utils.ASMUtils;
 import me.itzsomebody.radon.utils.RandomUtils;
 
@@ -32,19 +33,18 @@ import me.itzsomebody.radon.utils.RandomUtils;
  */
 public class ArithmeticObfuscator extends NumberObfuscation
 {
+	private final AtomicInteger counter = new AtomicInteger();
+
 	@Override
-	public void transform()
+	protected void transformClass(final ClassWrapper cw)
 	{
-		final AtomicInteger counter = new AtomicInteger();
-
-		getClassWrappers().stream().filter(this::included).forEach(cw -> cw.methods.stream().filter(this::included).forEach(mw ->
+		cw.methods.stream().filter(this::included).forEach(mw ->
 		{
-			int leeway = mw.getLeewaySize();
 			final InsnList methodInstructions = mw.getInstructions();
 
 			for (final AbstractInsnNode insn : methodInstructions.toArray())
 			{
-				if (leeway < 10000)
+				if (mw.getLeewaySize() < 10000)
 				{
 					verboseWarn(() -> "Number obfuscation in method '" + cw.getName() + "." + mw.getName() + mw.getDescription() + "' might not be finished due leeway limit (Try to reduce number-obfuscation iteration count in configuration)");
 					break;
@@ -53,50 +53,46 @@ public class ArithmeticObfuscator extends NumberObfuscation
 				if (ASMUtils.isIntInsn(insn) && master.integerTamperingEnabled)
 				{
 					final int originalNum = ASMUtils.getIntegerFromInsn(insn);
-					final InsnList insns = obfuscateNumber(originalNum, leeway);
+					final InsnList insns = obfuscateNumber(originalNum, mw.getLeewaySize());
 
 					methodInstructions.insert(insn, insns);
 					methodInstructions.remove(insn);
 
 					counter.incrementAndGet();
-					leeway -= ASMUtils.evaluateMaxSize(insns);
 				}
 				else if (ASMUtils.isLongInsn(insn) && master.longTamperingEnabled)
 				{
 					final long originalNum = ASMUtils.getLongFromInsn(insn);
-					final InsnList insns = obfuscateNumber(originalNum, leeway);
+					final InsnList insns = obfuscateNumber(originalNum, mw.getLeewaySize());
 
 					methodInstructions.insert(insn, insns);
 					methodInstructions.remove(insn);
 
 					counter.incrementAndGet();
-					leeway -= ASMUtils.evaluateMaxSize(insns);
 				}
 				else if (ASMUtils.isFloatInsn(insn) && master.floatTamperingEnabled)
 				{
 					final float originalNum = ASMUtils.getFloatFromInsn(insn);
 					if (originalNum == Float.MIN_VALUE || Float.isNaN(originalNum) || Float.isInfinite(originalNum)) // Cannot support these cases
 						continue;
-					final InsnList insns = obfuscateNumber(originalNum, leeway);
+					final InsnList insns = obfuscateNumber(originalNum, mw.getLeewaySize());
 
 					methodInstructions.insert(insn, insns);
 					methodInstructions.remove(insn);
 
 					counter.incrementAndGet();
-					leeway -= ASMUtils.evaluateMaxSize(insns);
 				}
 				else if (ASMUtils.isDoubleInsn(insn) && master.doubleTamperingEnabled)
 				{
 					final double originalNum = ASMUtils.getDoubleFromInsn(insn);
 					if (originalNum == Double.MAX_VALUE || Double.isNaN(originalNum) || Double.isInfinite(originalNum)) // Cannot support these cases
 						continue;
-					final InsnList insns = obfuscateNumber(originalNum, leeway);
+					final InsnList insns = obfuscateNumber(originalNum, mw.getLeewaySize());
 
 					methodInstructions.insert(insn, insns);
 					methodInstructions.remove(insn);
 
 					counter.incrementAndGet();
-					leeway -= ASMUtils.evaluateMaxSize(insns);
 				}
 				else if (insn.getOpcode() == IINC && master.integerTamperingEnabled)
 				{
@@ -106,19 +102,22 @@ public class ArithmeticObfuscator extends NumberObfuscation
 
 					final InsnList insns = new InsnList();
 					insns.add(new VarInsnNode(ILOAD, var));
-					insns.add(obfuscateNumber(originalNum, leeway));
+					insns.add(obfuscateNumber(originalNum, mw.getLeewaySize()));
 					insns.add(new InsnNode(IADD));
 					insns.add(new VarInsnNode(ISTORE, var));
 					methodInstructions.insert(insn, insns);
 					methodInstructions.remove(insn);
 
 					counter.incrementAndGet();
-					leeway -= ASMUtils.evaluateMaxSize(insns);
 				}
 			}
-		}));
+		});
+	}
 
-		info("+ Split " + counter.get() + " number constants into arithmetic instructions (minIteration: " + master.minIteration + ", maxIteration: " + master.maxIteration + ")");
+	@Override
+	protected void afterClasses()
+	{
+		info("+ Split " + counter.getAndSet(0) + " number constants into arithmetic instructions (minIteration: " + master.minIteration + ", maxIteration: " + master.maxIteration + ")");
 	}
 
 	private InsnList obfuscateNumber(final int originalNum, final int _leeway)
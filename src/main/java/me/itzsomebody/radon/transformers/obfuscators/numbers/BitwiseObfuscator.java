@@ -22,6 +22,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.objectweb.asm.tree.*;
 
+import me.itzsomebody.radon.asm.ClassWrapper;
 import me.itzsomebody.radon.utils.ASMUtils;
 import me.itzsomebody.radon.utils.RandomUtils;
 
@@ -32,19 +33,18 @@ import me.itzsomebody.radon.utils.RandomUtils;
  */
 public class BitwiseObfuscator extends NumberObfuscation
 {
+	private final AtomicInteger counter = new AtomicInteger();
+
 	@Override
-	public void transform()
+	protected void transformClass(final ClassWrapper cw)
 	{
-		final AtomicInteger counter = new AtomicInteger();
-
-		getClassWrappers().stream().filter(this::included).forEach(cw -> cw.methods.stream().filter(methodWrapper -> included(methodWrapper) && methodWrapper.hasInstructions()).forEach(mw ->
+		cw.methods.stream().filter(methodWrapper -> included(methodWrapper) && methodWrapper.hasInstructions()).forEach(mw ->
 		{
-			int leeway = mw.getLeewaySize();
 			final InsnList methodInstructions = mw.getInstructions();
 
 			for (final AbstractInsnNode insn : methodInstructions.toArray())
 			{
-				if (leeway < 10000)
+				if (mw.getLeewaySize() < 10000)
 				{
 					verboseWarn(() -> "Number obfuscation in method '" + cw.getName() + "." + mw.getName() + mw.getDescription() + "' might not be finished due leeway limit (Try to reduce number-obfuscation iteration count in configuration)");
 					break;
@@ -53,24 +53,22 @@ public class BitwiseObfuscator extends NumberObfuscation
 				if (ASMUtils.isIntInsn(insn) && master.integerTamperingEnabled)
 				{
 					final int originalNum = ASMUtils.getIntegerFromInsn(insn);
-					final InsnList insns = obfuscateNumber(originalNum, leeway);
+					final InsnList insns = obfuscateNumber(originalNum, mw.getLeewaySize());
 
 					methodInstructions.insert(insn, insns);
 					methodInstructions.remove(insn);
 
 					counter.incrementAndGet();
-					leeway -= ASMUtils.evaluateMaxSize(insns);
 				}
 				else if (ASMUtils.isLongInsn(insn) && master.longTamperingEnabled)
 				{
 					final long originalNum = ASMUtils.getLongFromInsn(insn);
-					final InsnList insns = obfuscateNumber(originalNum, leeway);
+					final InsnList insns = obfuscateNumber(originalNum, mw.getLeewaySize());
 
 					methodInstructions.insert(insn, insns);
 					methodInstructions.remove(insn);
 
 					counter.incrementAndGet();
-					leeway -= ASMUtils.evaluateMaxSize(insns);
 				}
 				else if (ASMUtils.isFloatInsn(insn) && master.floatTamperingEnabled)
 				{
@@ -78,14 +76,13 @@ public class BitwiseObfuscator extends NumberObfuscation
 					if (Float.isNaN(originalNum))
 						continue;
 
-					final InsnList insns = obfuscateNumber(Float.floatToIntBits(originalNum), leeway);
+					final InsnList insns = obfuscateNumber(Float.floatToIntBits(originalNum), mw.getLeewaySize());
 					insns.add(new MethodInsnNode(INVOKESTATIC, "java/lang/Float", "intBitsToFloat", "(I)F", false));
 
 					methodInstructions.insert(insn, insns);
 					methodInstructions.remove(insn);
 
 					counter.incrementAndGet();
-					leeway -= ASMUtils.evaluateMaxSize(insns);
 				}
 				else if (ASMUtils.isDoubleInsn(insn) && master.doubleTamperingEnabled)
 				{
@@ -93,14 +90,13 @@ public class BitwiseObfuscator extends NumberObfuscation
 					if (Double.isNaN(originalNum))
 						continue;
 
-					final InsnList insns = obfuscateNumber(Double.doubleToLongBits(originalNum), leeway);
+					final InsnList insns = obfuscateNumber(Double.doubleToLongBits(originalNum), mw.getLeewaySize());
 					insns.add(new MethodInsnNode(INVOKESTATIC, "java/lang/Double", "longBitsToDouble", "(J)D", false));
 
 					methodInstructions.insert(insn, insns);
 					methodInstructions.remove(insn);
 
 					counter.incrementAndGet();
-					leeway -= ASMUtils.evaluateMaxSize(insns);
 				}
 				else if (insn.getOpcode() == IINC && master.integerTamperingEnabled)
 				{
@@ -110,19 +106,22 @@ public class BitwiseObfuscator extends NumberObfuscation
 
 					final InsnList insns = new InsnList();
 					insns.add(new VarInsnNode(ILOAD, var));
-					insns.add(obfuscateNumber(originalNum, leeway));
+					insns.add(obfuscateNumber(originalNum, mw.getLeewaySize()));
 					insns.add(new InsnNode(IADD));
 					insns.add(new VarInsnNode(ISTORE, var));
 					methodInstructions.insert(insn, insns);
 					methodInstructions.remove(insn);
 
 					counter.incrementAndGet();
-					leeway -= ASMUtils.evaluateMaxSize(insns);
 				}
 			}
-		}));
+		});
+	}
 
-		info("+ Split " + counter.get() + " number constants into bitwise instructions (minIteration: " + master.minIteration + ", maxIteration: " + master.maxIteration + ")");
+	@Override
+	protected void afterClasses()
+	{
+		info("+ Split " + counter.getAndSet(0) + " number constants into bitwise instructions (minIteration: " + master.minIteration + ", maxIteration: " + master.maxIteration + ")");
 	}
 
 	private InsnList obfuscateNumber(final int originalNum, final int _leeway)
@@ -39,22 +39,27 @@ import me.itzsomebody.radon.utils.RandomUtils;
  */
 public class ContextCheckObfuscator extends NumberObfuscation
 {
+	private final AtomicInteger counter = new AtomicInteger();
+
+	private MemberNames memberNames;
+
 	@Override
-	public void transform()
+	protected void beforeClasses()
 	{
-		final MemberNames memberNames = new MemberNames();
+		memberNames = new MemberNames();
 		verboseInfos(memberNames::toStrings);
+	}
 
-		final AtomicInteger counter = new AtomicInteger();
-
-		getClassWrappers().stream().filter(this::included).forEach(classWrapper -> classWrapper.methods.stream().filter(methodWrapper -> included(methodWrapper) && methodWrapper.hasInstructions()).forEach(methodWrapper ->
+	@Override
+	protected void transformClass(final ClassWrapper classWrapper)
+	{
+		classWrapper.methods.stream().filter(methodWrapper -> included(methodWrapper) && methodWrapper.hasInstructions()).forEach(methodWrapper ->
 		{
-			int leeway = methodWrapper.getLeewaySize();
 			final InsnList methodInstructions = methodWrapper.getInstructions();
 
 			for (final AbstractInsnNode insn : methodInstructions.toArray())
 			{
-				if (leeway < 10000)
+				if (methodWrapper.getLeewaySize() < 10000)
 					break;
 
 				if (ASMUtils.isIntInsn(insn) && master.integerTamperingEnabled)
@@ -72,7 +77,6 @@ public class ContextCheckObfuscator extends NumberObfuscation
 
 					methodInstructions.insertBefore(insn, insns);
 					methodInstructions.remove(insn);
-					leeway -= ASMUtils.evaluateMaxSize(insns);
 					counter.incrementAndGet();
 				}
 				else if (ASMUtils.isLongInsn(insn) && master.longTamperingEnabled)
@@ -90,7 +94,6 @@ public class ContextCheckObfuscator extends NumberObfuscation
 
 					methodInstructions.insertBefore(insn, insns);
 					methodInstructions.remove(insn);
-					leeway -= ASMUtils.evaluateMaxSize(insns);
 					counter.incrementAndGet();
 				}
 				else if (ASMUtils.isFloatInsn(insn) && master.floatTamperingEnabled)
@@ -109,7 +112,6 @@ public class ContextCheckObfuscator extends NumberObfuscation
 					methodInstructions.insertBefore(insn, insns);
 					methodInstructions.remove(insn);
 
-					leeway -= ASMUtils.evaluateMaxSize(insns);
 					counter.incrementAndGet();
 				}
 				else if (ASMUtils.isDoubleInsn(insn) && master.doubleTamperingEnabled)
@@ -127,7 +129,6 @@ public class ContextCheckObfuscator extends NumberObfuscation
 
 					methodInstructions.insertBefore(insn, insns);
 					methodInstructions.remove(insn);
-					leeway -= ASMUtils.evaluateMaxSize(insns);
 					counter.incrementAndGet();
 				}
 				else if (insn.getOpcode() == IINC && master.integerTamperingEnabled)
@@ -150,17 +151,20 @@ public class ContextCheckObfuscator extends NumberObfuscation
 
 					methodInstructions.insertBefore(insn, insns);
 					methodInstructions.remove(insn);
-					leeway -= ASMUtils.evaluateMaxSize(insns);
 					counter.incrementAndGet();
 				}
 			}
-		}));
+		});
+	}
 
+	@Override
+	protected void afterClasses()
+	{
 		final ClassNode decoder = createConstantDecoder(memberNames, false /* TODO */);
 		getClasses().put(decoder.name, new ClassWrapper(decoder, false));
 		verboseInfo(() -> String.format("Number context checker and decoder injected into class '%s'", decoder.name));
 
-		info("+ Enabled " + counter.get() + " number context checks");
+		info("+ Enabled " + counter.getAndSet(0) + " number context checks");
 	}
 
 	private static int encodeInt(final int n, final int hashCode)
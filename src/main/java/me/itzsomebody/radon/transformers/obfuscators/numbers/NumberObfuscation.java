@@ -60,7 +60,7 @@ public class NumberObfuscation extends Transformer
 		{
 			numberObfuscation.init(radon);
 			numberObfuscation.initMaster(this);
-			numberObfuscation.transform();
+			numberObfuscation.transformClasses();
 		});
 	}
 
@@ -21,12 +21,11 @@ package me.itzsomebody.radon.transformers.obfuscators.numbers;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import org.objectweb.asm.tree.*;
 
 import me.itzsomebody.radon.asm.ClassWrapper;
-import me.itzsomebody.radon.asm.MethodWrapper;
+import me.itzsomebody.radon.asm.InsnKind;
 import me.itzsomebody.radon.dictionaries.WrappedDictionary;
 import me.itzsomebody.radon.utils.ASMUtils;
 import me.itzsomebody.radon.utils.Constants;
@@ -34,8 +33,11 @@ import me.itzsomebody.radon.utils.RandomUtils;
 
 public class NumberPooler extends NumberObfuscation
 {
+	/**
+	 * Runs serially, as the global pool collects the numbers of all the classes before any of them is rewritten.
+	 */
 	@Override
-	public final void transform()
+	protected void transformClasses()
 	{
 		final AtomicInteger counter = new AtomicInteger();
 
@@ -53,19 +55,19 @@ public class NumberPooler extends NumberObfuscation
 			final Set<Float> floatsToPoolSet = new HashSet<>();
 			final Set<Double> doublesToPoolSet = new HashSet<>();
 
-			getClassWrappers().stream().filter(this::included).forEach(cw -> cw.methods.stream().filter(mw -> included(mw) && mw.hasInstructions()).map(MethodWrapper::getInstructions).forEach(insnList ->
+			getClassWrappers().stream().filter(this::included).forEach(cw -> cw.methods.stream().filter(mw -> included(mw) && mw.hasInstructions()).forEach(mw ->
 			{
 				if (poolIntegers)
-					Stream.of(insnList.toArray()).filter(ASMUtils::isIntInsn).mapToInt(ASMUtils::getIntegerFromInsn).filter(integer -> !integersToPoolSet.contains(integer)).forEach(integersToPoolSet::add);
+					mw.streamInstructions(InsnKind.INT_CONSTANT).mapToInt(ASMUtils::getIntegerFromInsn).filter(integer -> !integersToPoolSet.contains(integer)).forEach(integersToPoolSet::add);
 
 				if (poolLongs)
-					Stream.of(insnList.toArray()).filter(ASMUtils::isLongInsn).mapToLong(ASMUtils::getLongFromInsn).filter(_long -> !longsToPoolSet.contains(_long)).forEach(longsToPoolSet::add);
+					mw.streamInstructions(InsnKind.LONG_CONSTANT).mapToLong(ASMUtils::getLongFromInsn).filter(_long -> !longsToPoolSet.contains(_long)).forEach(longsToPoolSet::add);
 
 				if (poolFloats)
-					Stream.of(insnList.toArray()).filter(ASMUtils::isFloatInsn).map(ASMUtils::getFloatFromInsn).filter(_float -> !floatsToPoolSet.contains(_float)).forEach(floatsToPoolSet::add);
+					mw.streamInstructions(InsnKind.FLOAT_CONSTANT).map(ASMUtils::getFloatFromInsn).filter(_float -> !floatsToPoolSet.contains(_float)).forEach(floatsToPoolSet::add);
 
 				if (poolDoubles)
-					Stream.of(insnList.toArray()).filter(ASMUtils::isDoubleInsn).mapToDouble(ASMUtils::getDoubleFromInsn).filter(_double -> !doublesToPoolSet.contains(_double)).forEach(doublesToPoolSet::add);
+					mw.streamInstructions(InsnKind.DOUBLE_CONSTANT).mapToDouble(ASMUtils::getDoubleFromInsn).filter(_double -> !doublesToPoolSet.contains(_double)).forEach(doublesToPoolSet::add);
 			}));
 
 			final List<Integer> integersToPool = new ArrayList<>(integersToPoolSet);
@@ -187,10 +189,12 @@ public class NumberPooler extends NumberObfuscation
 			final String floatPoolFieldName = fieldDictionary.nextUniqueString();
 			final String doublePoolFieldName = fieldDictionary.nextUniqueString();
 
-			getClassWrappers().stream().filter(this::included).forEach(cw -> cw.methods.stream().filter(mw -> included(mw) && mw.hasInstructions()).map(MethodWrapper::getInstructions).forEach(insnList ->
+			getClassWrappers().stream().filter(this::included).forEach(cw -> cw.methods.stream().filter(mw -> included(mw) && mw.hasInstructions()).forEach(mw ->
 			{
+				final InsnList insnList = mw.getInstructions();
+
 				if (poolIntegers)
-					Stream.of(insnList.toArray()).filter(ASMUtils::isIntInsn).forEach(insn ->
+					mw.streamInstructions(InsnKind.INT_CONSTANT).forEach(insn ->
 					{
 						final int value = ASMUtils.getIntegerFromInsn(insn);
 
@@ -208,7 +212,7 @@ public class NumberPooler extends NumberObfuscation
 					});
 
 				if (poolLongs)
-					Stream.of(insnList.toArray()).filter(ASMUtils::isLongInsn).forEach(insn ->
+					mw.streamInstructions(InsnKind.LONG_CONSTANT).forEach(insn ->
 					{
 						final long value = ASMUtils.getLongFromInsn(insn);
 
@@ -226,7 +230,7 @@ public class NumberPooler extends NumberObfuscation
 					});
 
 				if (poolFloats)
-					Stream.of(insnList.toArray()).filter(ASMUtils::isFloatInsn).forEach(insn ->
+					mw.streamInstructions(InsnKind.FLOAT_CONSTANT).forEach(insn ->
 					{
 						final float value = ASMUtils.getFloatFromInsn(insn);
 
@@ -244,7 +248,7 @@ public class NumberPooler extends NumberObfuscation
 					});
 
 				if (poolDoubles)
-					Stream.of(insnList.toArray()).filter(ASMUtils::isDoubleInsn).forEach(insn ->
+					mw.streamInstructions(InsnKind.DOUBLE_CONSTANT).forEach(insn ->
 					{
 						final double value = ASMUtils.getDoubleFromInsn(insn);
 
@@ -282,19 +286,19 @@ public class NumberPooler extends NumberObfuscation
 				final List<Float> floatsToPool = new ArrayList<>();
 				final List<Double> doublesToPool = new ArrayList<>();
 
-				cw.methods.stream().filter(mw -> included(mw) && mw.hasInstructions()).map(MethodWrapper::getInstructions).forEach(insnList ->
+				cw.methods.stream().filter(mw -> included(mw) && mw.hasInstructions()).forEach(mw ->
 				{
 					if (poolIntegers)
-						Stream.of(insnList.toArray()).filter(ASMUtils::isIntInsn).mapToInt(ASMUtils::getIntegerFromInsn).filter(integer -> !integersToPool.contains(integer)).forEach(integersToPool::add);
+						mw.streamInstructions(InsnKind.INT_CONSTANT).mapToInt(ASMUtils::getIntegerFromInsn).filter(integer -> !integersToPool.contains(integer)).forEach(integersToPool::add);
 
 					if (poolLongs)
-						Stream.of(insnList.toArray()).filter(ASMUtils::isLongInsn).mapToLong(ASMUtils::getLongFromInsn).filter(_long -> !longsToPool.contains(_long)).forEach(longsToPool::add);
+						mw.streamInstructions(InsnKind.LONG_CONSTANT).mapToLong(ASMUtils::getLongFromInsn).filter(_long -> !longsToPool.contains(_long)).forEach(longsToPool::add);
 
 					if (poolFloats)
-						Stream.of(insnList.toArray()).filter(ASMUtils::isFloatInsn).map(ASMUtils::getFloatFromInsn).filter(_float -> !floatsToPool.contains(_float)).forEach(floatsToPool::add);
+						mw.streamInstructions(InsnKind.FLOAT_CONSTANT).map(ASMUtils::getFloatFromInsn).filter(_float -> !floatsToPool.contains(_float)).forEach(floatsToPool::add);
 
 					if (poolDoubles)
-						Stream.of(insnList.toArray()).filter(ASMUtils::isDoubleInsn).mapToDouble(ASMUtils::getDoubleFromInsn).filter(_double -> !doublesToPool.contains(_double)).forEach(doublesToPool::add);
+						mw.streamInstructions(InsnKind.DOUBLE_CONSTANT).mapToDouble(ASMUtils::getDoubleFromInsn).filter(_double -> !doublesToPool.contains(_double)).forEach(doublesToPool::add);
 				});
 
 				final int integerCountToPool = integersToPool.size();
@@ -395,10 +399,12 @@ public class NumberPooler extends NumberObfuscation
 				final String floatPoolFieldName = fieldDictionary.nextUniqueString();
 				final String doublePoolFieldName = fieldDictionary.nextUniqueString();
 
-				cw.methods.stream().filter(mw -> included(mw) && mw.hasInstructions()).map(MethodWrapper::getInstructions).forEach(insnList ->
+				cw.methods.stream().filter(mw -> included(mw) && mw.hasInstructions()).forEach(mw ->
 				{
+					final InsnList insnList = mw.getInstructions();
+
 					if (poolIntegers)
-						Stream.of(insnList.toArray()).filter(ASMUtils::isIntInsn).forEach(insn ->
+						mw.streamInstructions(InsnKind.INT_CONSTANT).forEach(insn ->
 						{
 							final int value = ASMUtils.getIntegerFromInsn(insn);
 
@@ -416,7 +422,7 @@ public class NumberPooler extends NumberObfuscation
 						});
 
 					if (poolLongs)
-						Stream.of(insnList.toArray()).filter(ASMUtils::isLongInsn).forEach(insn ->
+						mw.streamInstructions(InsnKind.LONG_CONSTANT).forEach(insn ->
 						{
 							final long value = ASMUtils.getLongFromInsn(insn);
 
@@ -434,7 +440,7 @@ public class NumberPooler extends NumberObfuscation
 						});
 
 					if (poolFloats)
-						Stream.of(insnList.toArray()).filter(ASMUtils::isFloatInsn).forEach(insn ->
+						mw.streamInstructions(InsnKind.FLOAT_CONSTANT).forEach(insn ->
 						{
 							final float value = ASMUtils.getFloatFromInsn(insn);
 
@@ -452,7 +458,7 @@ public class NumberPooler extends NumberObfuscation
 						});
 
 					if (poolDoubles)
-						Stream.of(insnList.toArray()).filter(ASMUtils::isDoubleInsn).forEach(insn ->
+						mw.streamInstructions(InsnKind.DOUBLE_CONSTANT).forEach(insn ->
 						{
 							final double value = ASMUtils.getDoubleFromInsn(insn);
 
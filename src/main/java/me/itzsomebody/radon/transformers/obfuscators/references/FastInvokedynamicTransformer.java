@@ -26,7 +26,6 @@ import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 import org.objectweb.asm.Handle;
 import org.objectweb.asm.Label;
@@ -60,11 +59,11 @@ public class FastInvokedynamicTransformer extends ReferenceObfuscation
 		final List<String> cachedNames = new ArrayList<>(10);
 		final Handle bsmHandle = new Handle(H_INVOKESTATIC, memberNames.className, memberNames.bootstrapMethodName, memberNames.bootstrapMethodDesc, false);
 
-		getClassWrappers().stream().filter(cw -> included(cw) && !"java/lang/Enum".equals(cw.getSuperName()) && cw.allowsIndy()).forEach(cw -> cw.methods.stream().filter(mw -> included(mw) && mw.hasInstructions()).forEach(mw ->
+		getClassWrappers().stream().filter(cw -> included(cw) && !"java/lang/Enum".equals(cw.getSuperName()) && cw.allowsIndy()).forEach(cw -> cw.methods.stream().filter(mw -> included(mw) && mw.getOpcodeSummary().containsAny(INVOKEVIRTUAL, INVOKESTATIC)).forEach(mw ->
 		{
 			final InsnList insnList = mw.getInstructions();
 
-			Stream.of(insnList.toArray()).filter(insn -> insn.getOpcode() == INVOKEVIRTUAL || insn.getOpcode() == INVOKESTATIC).map(insn -> (MethodInsnNode) insn).forEach(method ->
+			mw.streamInstructions(INVOKEVIRTUAL, INVOKESTATIC).map(insn -> (MethodInsnNode) insn).forEach(method ->
 			{
 				if (!method.name.isEmpty() && method.name.charAt(0) == '<')
 					return;
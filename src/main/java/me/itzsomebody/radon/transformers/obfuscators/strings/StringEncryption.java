@@ -27,6 +27,7 @@ import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.tree.*;
 
 import me.itzsomebody.radon.asm.ClassWrapper;
+import me.itzsomebody.radon.asm.InsnKind;
 import me.itzsomebody.radon.config.Configuration;
 import me.itzsomebody.radon.dictionaries.WrappedDictionary;
 import me.itzsomebody.radon.exclusions.ExclusionType;
@@ -59,8 +60,12 @@ public class StringEncryption extends Transformer
 	boolean stringPoolerGlobal;
 	boolean stringPoolerInjectGlobalPool;
 
+	private final AtomicInteger counter = new AtomicInteger();
+
+	private MemberNames memberNames;
+
 	@Override
-	public void transform()
+	protected void beforeClasses()
 	{
 		if (stringPoolerEnabled)
 		{
@@ -69,76 +74,73 @@ public class StringEncryption extends Transformer
 			pooler.transform();
 		}
 
-		final MemberNames memberNames = new MemberNames();
+		memberNames = new MemberNames();
 		verboseInfos(memberNames::toStrings);
+	}
 
-		final AtomicInteger counter = new AtomicInteger();
-
-		getClassWrappers().stream().filter(this::included).forEach(classWrapper -> classWrapper.methods.stream().filter(this::included).forEach(methodWrapper ->
+	@Override
+	protected void transformClass(final ClassWrapper classWrapper)
+	{
+		classWrapper.methods.stream().filter(methodWrapper -> included(methodWrapper) && methodWrapper.getOpcodeSummary().contains(InsnKind.STRING_CONSTANT)).forEach(methodWrapper ->
 		{
-			int leeway = methodWrapper.getLeewaySize();
-
-			for (final AbstractInsnNode insn : methodWrapper.methodNode.instructions.toArray())
+			for (final AbstractInsnNode insn : methodWrapper.getInstructions(InsnKind.STRING_CONSTANT))
 			{
+				final int leeway = methodWrapper.getLeewaySize();
 				if (leeway < 10000)
 				{
-					final int finalLeeway = leeway;
-					verboseWarn(() -> "! Skipped method " + methodWrapper.originalName + " because of insufficient leeway (leeway: " + finalLeeway + ")");
+					verboseWarn(() -> "! Skipped method " + methodWrapper.originalName + " because of insufficient leeway (leeway: " + leeway + ")");
 					break;
 				}
 
-				if (insn instanceof LdcInsnNode)
-				{
-					final LdcInsnNode ldc = (LdcInsnNode) insn;
-					if (ldc.cst instanceof String)
-					{
-						final String string = (String) ldc.cst;
-						if (excludedString(string))
-							continue;
+				final LdcInsnNode ldc = (LdcInsnNode) insn;
+				final String string = (String) ldc.cst;
+				if (excludedString(string))
+					continue;
 
-						final int callerClassHC = classWrapper.getName().replace('/', '.').hashCode();
-						final int callerMethodHC = methodWrapper.methodNode.name.replace('/', '.').hashCode();
-						final int decryptorClassHC = memberNames.className.replace('/', '.').hashCode();
-						final int decryptorMethodHC = memberNames.decryptMethodName.replace('/', '.').hashCode();
+				final int callerClassHC = classWrapper.getName().replace('/', '.').hashCode();
+				final int callerMethodHC = methodWrapper.methodNode.name.replace('/', '.').hashCode();
+				final int decryptorClassHC = memberNames.className.replace('/', '.').hashCode();
+				final int decryptorMethodHC = memberNames.decryptMethodName.replace('/', '.').hashCode();
 
-						final int[] randomKeys =
-						{
-								RandomUtils.getRandomInt(), RandomUtils.getRandomInt(), RandomUtils.getRandomInt()
-						};
+				final int[] randomKeys =
+				{
+						RandomUtils.getRandomInt(), RandomUtils.getRandomInt(), RandomUtils.getRandomInt()
+				};
 
-						final int[] keys =
-						{
-								(contextCheckingEnabled ? decryptorClassHC + callerClassHC + callerMethodHC : 0) ^ randomKeys[0] ^ randomKeys[1], // RC2 ^ RC3
-								(contextCheckingEnabled ? callerMethodHC + decryptorMethodHC + callerClassHC : 0) ^ randomKeys[1] ^ randomKeys[2], // RC1 ^ RC2
-								(contextCheckingEnabled ? decryptorClassHC + callerClassHC + callerMethodHC : 0) ^ randomKeys[0] ^ randomKeys[2], // RC1 ^ RC3
-								(contextCheckingEnabled ? decryptorMethodHC + callerClassHC + decryptorClassHC : 0) ^ randomKeys[0] ^ randomKeys[1] ^ randomKeys[2] // RC1 ^ RC2 ^ RC3
-						};
+				final int[] keys =
+				{
+						(contextCheckingEnabled ? decryptorClassHC + callerClassHC + callerMethodHC : 0) ^ randomKeys[0] ^ randomKeys[1], // RC2 ^ RC3
+						(contextCheckingEnabled ? callerMethodHC + decryptorMethodHC + callerClassHC : 0) ^ randomKeys[1] ^ randomKeys[2], // RC1 ^ RC2
+						(contextCheckingEnabled ? decryptorClassHC + callerClassHC + callerMethodHC : 0) ^ randomKeys[0] ^ randomKeys[2], // RC1 ^ RC3
+						(contextCheckingEnabled ? decryptorMethodHC + callerClassHC + decryptorClassHC : 0) ^ randomKeys[0] ^ randomKeys[1] ^ randomKeys[2] // RC1 ^ RC2 ^ RC3
+				};
 
-						for (int i = 0; i < 3; i++)
-							ArrayUtils.swap(randomKeys, i, memberNames.randomKeyOrder[i]);
-						for (int i = 0; i < 4; i++)
-							ArrayUtils.swap(keys, i, memberNames.keyOrder[i]);
+				for (int i = 0; i < 3; i++)
+					ArrayUtils.swap(randomKeys, i, memberNames.randomKeyOrder[i]);
+				for (int i = 0; i < 4; i++)
+					ArrayUtils.swap(keys, i, memberNames.keyOrder[i]);
 
-						ldc.cst = encrypt(string, keys[0], keys[1], keys[2], keys[3]);
+				ldc.cst = encrypt(string, keys[0], keys[1], keys[2], keys[3]);
 
-						final InsnList decryptorCall = new InsnList();
-						decryptorCall.add(ASMUtils.getNumberInsn(randomKeys[0]));
-						decryptorCall.add(ASMUtils.getNumberInsn(randomKeys[1]));
-						decryptorCall.add(ASMUtils.getNumberInsn(randomKeys[2]));
-						decryptorCall.add(new MethodInsnNode(INVOKESTATIC, memberNames.className, memberNames.decryptMethodName, "(Ljava/lang/Object;III)Ljava/lang/String;", false));
-						methodWrapper.getInstructions().insert(ldc, decryptorCall);
+				final InsnList decryptorCall = new InsnList();
+				decryptorCall.add(ASMUtils.getNumberInsn(randomKeys[0]));
+				decryptorCall.add(ASMUtils.getNumberInsn(randomKeys[1]));
+				decryptorCall.add(ASMUtils.getNumberInsn(randomKeys[2]));
+				decryptorCall.add(new MethodInsnNode(INVOKESTATIC, memberNames.className, memberNames.decryptMethodName, "(Ljava/lang/Object;III)Ljava/lang/String;", false));
+				methodWrapper.getInstructions().insert(ldc, decryptorCall);
 
-						leeway -= ASMUtils.evaluateMaxSize(decryptorCall);
-						counter.incrementAndGet();
-					}
-				}
+				counter.incrementAndGet();
 			}
-		}));
+		});
+	}
 
+	@Override
+	protected void afterClasses()
+	{
 		final ClassNode decryptor = createDecryptor(memberNames);
 		getClasses().put(decryptor.name, new ClassWrapper(decryptor, false));
 
-		info("+ Encrypted " + counter.get() + " strings");
+		info("+ Encrypted " + counter.getAndSet(0) + " strings");
 	}
 
 	@Override
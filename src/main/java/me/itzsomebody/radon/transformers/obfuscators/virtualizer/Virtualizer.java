@@ -75,7 +75,7 @@ public class Virtualizer extends Transformer implements VMOpcodes
 
 			final VirtualizerResult result = translate(methodNode, counter.get());
 			stubCreator.addInstructionList(result.getVMInstructions());
-			methodNode.instructions = result.getVMCall();
+			methodWrapper.setInstructions(result.getVMCall());
 			methodNode.localVariables = null;
 			methodNode.tryCatchBlocks = null;
 
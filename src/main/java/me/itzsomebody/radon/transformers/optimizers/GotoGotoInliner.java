@@ -19,43 +19,53 @@
 package me.itzsomebody.radon.transformers.optimizers;
 
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Stream;
 
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.JumpInsnNode;
-import org.objectweb.asm.tree.MethodNode;
+
+import me.itzsomebody.radon.asm.MethodWrapper;
+import me.itzsomebody.radon.transformers.InstructionPass;
+import me.itzsomebody.radon.utils.ASMUtils;
 
 /**
  * Inlines goto-goto sequences by directing the first goto's target to the second goto's target.
  *
  * @author ItzSomebody.
  */
-public class GotoGotoInliner extends Optimizer
+public class GotoGotoInliner extends Optimizer implements InstructionPass
 {
+	private final AtomicInteger count = new AtomicInteger();
+	private long current;
+
 	@Override
-	public void transform()
+	protected void beforeClasses()
 	{
-		final AtomicInteger count = new AtomicInteger();
-		final long current = System.currentTimeMillis();
+		current = System.nanoTime();
+	}
 
-		getClassWrappers().stream().filter(this::included).forEach(classWrapper ->
-				classWrapper.methods.stream().filter(methodWrapper -> included(methodWrapper) && methodWrapper.hasInstructions()).forEach(methodWrapper ->
-				{
-					final MethodNode methodNode = methodWrapper.methodNode;
+	@Override
+	public AbstractInsnNode transformInsn(final MethodWrapper methodWrapper, final AbstractInsnNode insn)
+	{
+		if (insn.getOpcode() == GOTO)
+		{
+			final JumpInsnNode gotoJump = (JumpInsnNode) insn;
+			final AbstractInsnNode insnAfterTarget = ASMUtils.getNextInstruction(gotoJump.label);
+			if (insnAfterTarget != null && insnAfterTarget.getOpcode() == GOTO)
+			{
+				final JumpInsnNode secGoto = (JumpInsnNode) insnAfterTarget;
+				gotoJump.label = secGoto.label;
+				methodWrapper.markModified();
+				count.incrementAndGet();
+			}
+		}
 
-					Stream.of(methodNode.instructions.toArray()).filter(insn -> insn.getOpcode() == GOTO).map(insn -> (JumpInsnNode) insn).forEach(gotoJump ->
-					{
-						final AbstractInsnNode insnAfterTarget = gotoJump.label.getNext();
-						if (insnAfterTarget != null && insnAfterTarget.getOpcode() == GOTO)
-						{
-							final JumpInsnNode secGoto = (JumpInsnNode) insnAfterTarget;
-							gotoJump.label = secGoto.label;
-							count.incrementAndGet();
-						}
-					});
-				}));
+		return insn;
+	}
 
-		info(String.format("- Inlined %d GOTO->GOTO sequences. [%s]", count.get(), tookThisLong(current)));
+	@Override
+	protected void afterClasses()
+	{
+		info(String.format("- Inlined %d GOTO->GOTO sequences. [%s]", count.getAndSet(0), tookThisLong(current)));
 	}
 
 	@Override
@@ -19,13 +19,13 @@
 package me.itzsomebody.radon.transformers.optimizers;
 
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Stream;
 
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.InsnNode;
 import org.objectweb.asm.tree.JumpInsnNode;
-import org.objectweb.asm.tree.MethodNode;
 
+import me.itzsomebody.radon.asm.MethodWrapper;
+import me.itzsomebody.radon.transformers.InstructionPass;
 import me.itzsomebody.radon.utils.ASMUtils;
 
 /**
@@ -33,33 +33,41 @@ import me.itzsomebody.radon.utils.ASMUtils;
  *
  * @author ItzSomebody.
  */
-public class GotoReturnInliner extends Optimizer
+public class GotoReturnInliner extends Optimizer implements InstructionPass
 {
+	private final AtomicInteger count = new AtomicInteger();
+	private long current;
+
 	@Override
-	public void transform()
+	protected void beforeClasses()
 	{
-		final AtomicInteger count = new AtomicInteger();
-		final long current = System.currentTimeMillis();
+		current = System.nanoTime();
+	}
 
-		getClassWrappers().stream().filter(this::included).forEach(classWrapper ->
-				classWrapper.methods.stream().filter(methodWrapper -> included(methodWrapper) && methodWrapper.hasInstructions()).forEach(methodWrapper ->
-				{
-					final MethodNode methodNode = methodWrapper.methodNode;
+	@Override
+	public AbstractInsnNode transformInsn(final MethodWrapper methodWrapper, final AbstractInsnNode insn)
+	{
+		if (insn.getOpcode() == GOTO)
+		{
+			final JumpInsnNode gotoJump = (JumpInsnNode) insn;
+			final AbstractInsnNode insnAfterTarget = ASMUtils.getNextInstruction(gotoJump.label);
 
-					Stream.of(methodNode.instructions.toArray()).filter(insn -> insn.getOpcode() == GOTO).forEach(insn ->
-					{
-						final JumpInsnNode gotoJump = (JumpInsnNode) insn;
-						final AbstractInsnNode insnAfterTarget = gotoJump.label.getNext();
+			if (insnAfterTarget != null && ASMUtils.isReturn(insnAfterTarget.getOpcode()))
+			{
+				final InsnNode returnInsn = new InsnNode(insnAfterTarget.getOpcode());
+				methodWrapper.getInstructions().set(insn, returnInsn);
+				count.incrementAndGet();
+				return returnInsn;
+			}
+		}
 
-						if (insnAfterTarget != null && ASMUtils.isReturn(insnAfterTarget.getOpcode()))
-						{
-							methodNode.instructions.set(insn, new InsnNode(insnAfterTarget.getOpcode()));
-							count.incrementAndGet();
-						}
-					});
-				}));
+		return insn;
+	}
 
-		info(String.format("- Inlined %d GOTO->RETURN sequences. [%s]", count.get(), tookThisLong(current)));
+	@Override
+	protected void afterClasses()
+	{
+		info(String.format("- Inlined %d GOTO->RETURN sequences. [%s]", count.getAndSet(0), tookThisLong(current)));
 	}
 
 	@Override
@@ -19,32 +19,45 @@
 package me.itzsomebody.radon.transformers.optimizers;
 
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Stream;
 
-import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.AbstractInsnNode;
+
+import me.itzsomebody.radon.asm.MethodWrapper;
+import me.itzsomebody.radon.transformers.InstructionPass;
 
 /**
  * Removes all NOPs found. Do note that ASM's MethodWriter will replace unreachable instructions with NOPs so you might find NOPs in your program even after you ran this transformer on it.
  *
  * @author ItzSomebody
  */
-public class NopRemover extends Optimizer
+public class NopRemover extends Optimizer implements InstructionPass
 {
+	private final AtomicInteger count = new AtomicInteger();
+	private long current;
+
 	@Override
-	public void transform()
+	protected void beforeClasses()
 	{
-		final AtomicInteger count = new AtomicInteger();
-		final long current = System.currentTimeMillis();
+		current = System.nanoTime();
+	}
 
-		getClassWrappers().stream().filter(this::included).forEach(classWrapper ->
-				classWrapper.methods.stream().filter(methodWrapper -> included(methodWrapper) && methodWrapper.hasInstructions()).forEach(methodWrapper ->
-				{
-					final MethodNode methodNode = methodWrapper.methodNode;
+	@Override
+	public AbstractInsnNode transformInsn(final MethodWrapper methodWrapper, final AbstractInsnNode insn)
+	{
+		if (insn.getOpcode() == NOP)
+		{
+			methodWrapper.getInstructions().remove(insn);
+			count.incrementAndGet();
+			return null;
+		}
 
-					Stream.of(methodNode.instructions.toArray()).filter(insn -> insn.getOpcode() == NOP).forEach(insn -> methodNode.instructions.remove(insn));
-				}));
+		return insn;
+	}
 
-		info(String.format("- Removed %d NOP instructions. [%s]", count.get(), tookThisLong(current)));
+	@Override
+	protected void afterClasses()
+	{
+		info(String.format("- Removed %d NOP instructions. [%s]", count.getAndSet(0), tookThisLong(current)));
 	}
 
 	@Override
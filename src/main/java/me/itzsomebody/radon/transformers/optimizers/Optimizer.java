@@ -26,6 +26,7 @@ import java.util.stream.Stream;
 
 import me.itzsomebody.radon.config.Configuration;
 import me.itzsomebody.radon.exclusions.ExclusionType;
+import me.itzsomebody.radon.transformers.PassManager;
 import me.itzsomebody.radon.transformers.Transformer;
 
 /**
@@ -40,11 +41,8 @@ public class Optimizer extends Transformer
 	@Override
 	public void transform()
 	{
-		optimizers.forEach(optimizer ->
-		{
-			optimizer.init(radon);
-			optimizer.transform();
-		});
+		optimizers.forEach(optimizer -> optimizer.init(radon));
+		new PassManager(optimizers).run();
 	}
 
 	@Override
@@ -20,6 +20,8 @@ package me.itzsomebody.radon.transformers.shrinkers;
 
 import java.util.concurrent.atomic.AtomicInteger;
 
+import me.itzsomebody.radon.asm.ClassWrapper;
+
 /**
  * Strips out deprecated access flags.
  *
@@ -27,33 +29,34 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class DeprecatedAccessRemover extends Shrinker
 {
+	private final AtomicInteger counter = new AtomicInteger();
+
 	@Override
-	public void transform()
+	protected void transformClass(final ClassWrapper cw)
 	{
-		final AtomicInteger counter = new AtomicInteger();
-
-		getClassWrappers().stream().filter(this::included).forEach(cw ->
+		if (cw.access.isDeprecated())
 		{
-			if (cw.access.isDeprecated())
-			{
-				cw.setAccessFlags(cw.getAccessFlags() & ~ACC_DEPRECATED);
-				counter.incrementAndGet();
-			}
+			cw.setAccessFlags(cw.getAccessFlags() & ~ACC_DEPRECATED);
+			counter.incrementAndGet();
+		}
 
-			cw.methods.stream().filter(mw -> included(mw) && mw.access.isDeprecated()).forEach(mw ->
-			{
-				mw.setAccessFlags(mw.getAccessFlags() & ~ACC_DEPRECATED);
-				counter.incrementAndGet();
-			});
+		cw.methods.stream().filter(mw -> included(mw) && mw.access.isDeprecated()).forEach(mw ->
+		{
+			mw.setAccessFlags(mw.getAccessFlags() & ~ACC_DEPRECATED);
+			counter.incrementAndGet();
+		});
 
-			cw.fields.stream().filter(fw -> included(fw) && fw.access.isDeprecated()).forEach(fw ->
-			{
-				fw.setAccessFlags(fw.getAccessFlags() & ~ACC_DEPRECATED);
-				counter.incrementAndGet();
-			});
+		cw.fields.stream().filter(fw -> included(fw) && fw.access.isDeprecated()).forEach(fw ->
+		{
+			fw.setAccessFlags(fw.getAccessFlags() & ~ACC_DEPRECATED);
+			counter.incrementAndGet();
 		});
+	}
 
-		info(String.format("- Removed %d deprecated access flags.", counter.get()));
+	@Override
+	protected void afterClasses()
+	{
+		info(String.format("- Removed %d deprecated access flags.", counter.getAndSet(0)));
 	}
 
 	@Override
@@ -21,6 +21,8 @@ package me.itzsomebody.radon.transformers.shrinkers;
 import java.util.ArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import me.itzsomebody.radon.asm.ClassWrapper;
+
 /**
  * Strips out innerclass information.
  *
@@ -28,18 +30,22 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class InnerClassesRemover extends Shrinker
 {
+	private final AtomicInteger counter = new AtomicInteger();
+
 	@Override
-	public void transform()
+	protected void transformClass(final ClassWrapper classWrapper)
 	{
-		final AtomicInteger counter = new AtomicInteger();
-
-		getClassWrappers().stream().filter(classWrapper -> included(classWrapper) && classWrapper.classNode.innerClasses != null).forEach(classWrapper ->
+		if (classWrapper.classNode.innerClasses != null)
 		{
 			counter.addAndGet(classWrapper.classNode.innerClasses.size());
 			classWrapper.classNode.innerClasses = new ArrayList<>();
-		});
+		}
+	}
 
-		info(String.format("- Removed %d inner classes.", counter.get()));
+	@Override
+	protected void afterClasses()
+	{
+		info(String.format("- Removed %d inner classes.", counter.getAndSet(0)));
 	}
 
 	@Override
@@ -22,6 +22,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.objectweb.asm.tree.ClassNode;
 
+import me.itzsomebody.radon.asm.ClassWrapper;
+
 /**
  * Removes annotations invisible to the runtime from classes, methods and fields.
  *
@@ -29,35 +31,36 @@ import org.objectweb.asm.tree.ClassNode;
  */
 public class InvisibleAnnotationsRemover extends Shrinker
 {
+	private final AtomicInteger counter = new AtomicInteger();
+
 	@Override
-	public void transform()
+	protected void transformClass(final ClassWrapper classWrapper)
 	{
-		final AtomicInteger counter = new AtomicInteger();
+		final ClassNode classNode = classWrapper.classNode;
 
-		getClassWrappers().stream().filter(this::included).forEach(classWrapper ->
+		if (classNode.invisibleAnnotations != null)
 		{
-			final ClassNode classNode = classWrapper.classNode;
-
-			if (classNode.invisibleAnnotations != null)
-			{
-				counter.addAndGet(classNode.invisibleAnnotations.size());
-				classNode.invisibleAnnotations = null;
-			}
+			counter.addAndGet(classNode.invisibleAnnotations.size());
+			classNode.invisibleAnnotations = null;
+		}
 
-			classWrapper.fields.stream().filter(fieldWrapper -> included(fieldWrapper) && fieldWrapper.fieldNode.invisibleAnnotations != null).forEach(fieldWrapper ->
-			{
-				counter.addAndGet(fieldWrapper.fieldNode.invisibleAnnotations.size());
-				fieldWrapper.fieldNode.invisibleAnnotations = null;
-			});
+		classWrapper.fields.stream().filter(fieldWrapper -> included(fieldWrapper) && fieldWrapper.fieldNode.invisibleAnnotations != null).forEach(fieldWrapper ->
+		{
+			counter.addAndGet(fieldWrapper.fieldNode.invisibleAnnotations.size());
+			fieldWrapper.fieldNode.invisibleAnnotations = null;
+		});
 
-			classWrapper.methods.stream().filter(methodWrapper -> included(methodWrapper) && methodWrapper.methodNode.invisibleAnnotations != null).forEach(methodWrapper ->
-			{
-				counter.addAndGet(methodWrapper.methodNode.invisibleAnnotations.size());
-				methodWrapper.methodNode.invisibleAnnotations = null;
-			});
+		classWrapper.methods.stream().filter(methodWrapper -> included(methodWrapper) && methodWrapper.methodNode.invisibleAnnotations != null).forEach(methodWrapper ->
+		{
+			counter.addAndGet(methodWrapper.methodNode.invisibleAnnotations.size());
+			methodWrapper.methodNode.invisibleAnnotations = null;
 		});
+	}
 
-		info(String.format("- Removed %d invisible annotations.", counter.get()));
+	@Override
+	protected void afterClasses()
+	{
+		info(String.format("- Removed %d invisible annotations.", counter.getAndSet(0)));
 	}
 
 	@Override
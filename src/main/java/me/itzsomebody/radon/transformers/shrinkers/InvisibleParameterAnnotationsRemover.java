@@ -20,6 +20,8 @@ package me.itzsomebody.radon.transformers.shrinkers;
 
 import java.util.concurrent.atomic.AtomicInteger;
 
+import me.itzsomebody.radon.asm.ClassWrapper;
+
 /**
  * Strips out invisible parameter annotations.
  *
@@ -27,20 +29,23 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class InvisibleParameterAnnotationsRemover extends Shrinker
 {
+	private final AtomicInteger counter = new AtomicInteger();
+
 	@Override
-	public void transform()
+	protected void transformClass(final ClassWrapper classWrapper)
 	{
-		final AtomicInteger counter = new AtomicInteger();
-
-		getClassWrappers().stream().filter(this::included).forEach(classWrapper ->
-				classWrapper.methods.stream().filter(methodWrapper -> included(methodWrapper) && methodWrapper.methodNode.invisibleParameterAnnotations != null).forEach(methodWrapper ->
-				{
+		classWrapper.methods.stream().filter(methodWrapper -> included(methodWrapper) && methodWrapper.methodNode.invisibleParameterAnnotations != null).forEach(methodWrapper ->
+		{
 
-					counter.addAndGet(methodWrapper.methodNode.invisibleAnnotableParameterCount);
-					methodWrapper.methodNode.invisibleParameterAnnotations = null;
-				}));
+			counter.addAndGet(methodWrapper.methodNode.invisibleAnnotableParameterCount);
+			methodWrapper.methodNode.invisibleParameterAnnotations = null;
+		});
+	}
 
-		info(String.format("- Removed %d invisible parameter annotations.", counter.get()));
+	@Override
+	protected void afterClasses()
+	{
+		info(String.format("- Removed %d invisible parameter annotations.", counter.getAndSet(0)));
 	}
 
 	@Override
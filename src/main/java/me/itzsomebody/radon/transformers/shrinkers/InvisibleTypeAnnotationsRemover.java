@@ -22,6 +22,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.objectweb.asm.tree.ClassNode;
 
+import me.itzsomebody.radon.asm.ClassWrapper;
+
 /**
  * Strips out invisible type annotations.
  *
@@ -29,35 +31,36 @@ import org.objectweb.asm.tree.ClassNode;
  */
 public class InvisibleTypeAnnotationsRemover extends Shrinker
 {
+	private final AtomicInteger counter = new AtomicInteger();
+
 	@Override
-	public void transform()
+	protected void transformClass(final ClassWrapper classWrapper)
 	{
-		final AtomicInteger counter = new AtomicInteger();
+		final ClassNode classNode = classWrapper.classNode;
 
-		getClassWrappers().stream().filter(this::included).forEach(classWrapper ->
+		if (classNode.invisibleTypeAnnotations != null)
 		{
-			final ClassNode classNode = classWrapper.classNode;
-
-			if (classNode.invisibleTypeAnnotations != null)
-			{
-				counter.addAndGet(classNode.invisibleTypeAnnotations.size());
-				classNode.invisibleTypeAnnotations = null;
-			}
+			counter.addAndGet(classNode.invisibleTypeAnnotations.size());
+			classNode.invisibleTypeAnnotations = null;
+		}
 
-			classWrapper.fields.stream().filter(fieldWrapper -> included(fieldWrapper) && fieldWrapper.fieldNode.invisibleTypeAnnotations != null).forEach(fieldWrapper ->
-			{
-				counter.addAndGet(fieldWrapper.fieldNode.invisibleTypeAnnotations.size());
-				fieldWrapper.fieldNode.invisibleTypeAnnotations = null;
-			});
+		classWrapper.fields.stream().filter(fieldWrapper -> included(fieldWrapper) && fieldWrapper.fieldNode.invisibleTypeAnnotations != null).forEach(fieldWrapper ->
+		{
+			counter.addAndGet(fieldWrapper.fieldNode.invisibleTypeAnnotations.size());
+			fieldWrapper.fieldNode.invisibleTypeAnnotations = null;
+		});
 
-			classWrapper.methods.stream().filter(methodWrapper -> included(methodWrapper) && methodWrapper.methodNode.invisibleTypeAnnotations != null).forEach(methodWrapper ->
-			{
-				counter.addAndGet(methodWrapper.methodNode.invisibleTypeAnnotations.size());
-				methodWrapper.methodNode.invisibleTypeAnnotations = null;
-			});
+		classWrapper.methods.stream().filter(methodWrapper -> included(methodWrapper) && methodWrapper.methodNode.invisibleTypeAnnotations != null).forEach(methodWrapper ->
+		{
+			counter.addAndGet(methodWrapper.methodNode.invisibleTypeAnnotations.size());
+			methodWrapper.methodNode.invisibleTypeAnnotations = null;
 		});
+	}
 
-		info(String.format("- Removed %d invisible type annotations.", counter.get()));
+	@Override
+	protected void afterClasses()
+	{
+		info(String.format("- Removed %d invisible type annotations.", counter.getAndSet(0)));
 	}
 
 	@Override
@@ -19,36 +19,39 @@
 package me.itzsomebody.radon.transformers.shrinkers;
 
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Stream;
 
+import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.LineNumberNode;
-import org.objectweb.asm.tree.MethodNode;
+
+import me.itzsomebody.radon.asm.MethodWrapper;
+import me.itzsomebody.radon.transformers.InstructionPass;
 
 /**
  * Removes line numbers.
  *
  * @author ItzSomebody.
  */
-public class LineNumberRemover extends Shrinker
+public class LineNumberRemover extends Shrinker implements InstructionPass
 {
+	private final AtomicInteger counter = new AtomicInteger();
+
 	@Override
-	public void transform()
+	public AbstractInsnNode transformInsn(final MethodWrapper methodWrapper, final AbstractInsnNode insn)
 	{
-		final AtomicInteger counter = new AtomicInteger();
-
-		getClassWrappers().stream().filter(this::included).forEach(classWrapper ->
-				classWrapper.methods.stream().filter(methodWrapper -> included(methodWrapper) && methodWrapper.hasInstructions()).forEach(methodWrapper ->
-				{
-					final MethodNode methodNode = methodWrapper.methodNode;
-
-					Stream.of(methodNode.instructions.toArray()).filter(insn -> insn instanceof LineNumberNode).forEach(insn ->
-					{
-						methodNode.instructions.remove(insn);
-						counter.incrementAndGet();
-					});
-				}));
+		if (insn instanceof LineNumberNode)
+		{
+			methodWrapper.getInstructions().remove(insn);
+			counter.incrementAndGet();
+			return null;
+		}
+
+		return insn;
+	}
 
-		info(String.format("- Removed %d line numbers.", counter.get()));
+	@Override
+	protected void afterClasses()
+	{
+		info(String.format("- Removed %d line numbers.", counter.getAndSet(0)));
 	}
 
 	@Override
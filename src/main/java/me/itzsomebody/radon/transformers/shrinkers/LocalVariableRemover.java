@@ -22,6 +22,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.objectweb.asm.tree.MethodNode;
 
+import me.itzsomebody.radon.asm.ClassWrapper;
+
 /**
  * Destroys the local variable table.
  *
@@ -29,21 +31,24 @@ import org.objectweb.asm.tree.MethodNode;
  */
 public class LocalVariableRemover extends Shrinker
 {
+	private final AtomicInteger counter = new AtomicInteger();
+
 	@Override
-	public void transform()
+	protected void transformClass(final ClassWrapper classWrapper)
 	{
-		final AtomicInteger counter = new AtomicInteger();
-
-		getClassWrappers().stream().filter(this::included).forEach(classWrapper ->
-				classWrapper.methods.stream().filter(methodWrapper -> included(methodWrapper) && methodWrapper.methodNode.localVariables != null).forEach(methodWrapper ->
-				{
-					final MethodNode methodNode = methodWrapper.methodNode;
+		classWrapper.methods.stream().filter(methodWrapper -> included(methodWrapper) && methodWrapper.methodNode.localVariables != null).forEach(methodWrapper ->
+		{
+			final MethodNode methodNode = methodWrapper.methodNode;
 
-					counter.addAndGet(methodNode.localVariables.size());
-					methodNode.localVariables = null;
-				}));
+			counter.addAndGet(methodNode.localVariables.size());
+			methodNode.localVariables = null;
+		});
+	}
 
-		info(String.format("- Removed %d local variables.", counter.get()));
+	@Override
+	protected void afterClasses()
+	{
+		info(String.format("- Removed %d local variables.", counter.getAndSet(0)));
 	}
 
 	@Override
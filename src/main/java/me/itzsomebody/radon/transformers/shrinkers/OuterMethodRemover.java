@@ -20,6 +20,8 @@ package me.itzsomebody.radon.transformers.shrinkers;
 
 import java.util.concurrent.atomic.AtomicInteger;
 
+import me.itzsomebody.radon.asm.ClassWrapper;
+
 /**
  * Removes outer methods.
  *
@@ -27,21 +29,25 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class OuterMethodRemover extends Shrinker
 {
+	private final AtomicInteger counter = new AtomicInteger();
+
 	@Override
-	public void transform()
+	protected void transformClass(final ClassWrapper classWrapper)
 	{
-		final AtomicInteger counter = new AtomicInteger();
-
-		getClassWrappers().stream().filter(classWrapper -> included(classWrapper) && classWrapper.classNode.outerClass != null).forEach(classWrapper ->
+		if (classWrapper.classNode.outerClass != null)
 		{
 			classWrapper.classNode.outerClass = null;
 			classWrapper.classNode.outerMethod = null;
 			classWrapper.classNode.outerMethodDesc = null;
 
 			counter.incrementAndGet();
-		});
+		}
+	}
 
-		info(String.format("- Removed %d outer methods.", counter.get()));
+	@Override
+	protected void afterClasses()
+	{
+		info(String.format("- Removed %d outer methods.", counter.getAndSet(0)));
 	}
 
 	@Override
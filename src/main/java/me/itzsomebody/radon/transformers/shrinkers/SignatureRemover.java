@@ -22,6 +22,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.objectweb.asm.tree.ClassNode;
 
+import me.itzsomebody.radon.asm.ClassWrapper;
+
 /**
  * Removes class signatures.
  *
@@ -29,35 +31,36 @@ import org.objectweb.asm.tree.ClassNode;
  */
 public class SignatureRemover extends Shrinker
 {
+	private final AtomicInteger counter = new AtomicInteger();
+
 	@Override
-	public void transform()
+	protected void transformClass(final ClassWrapper classWrapper)
 	{
-		final AtomicInteger counter = new AtomicInteger();
+		final ClassNode classNode = classWrapper.classNode;
 
-		getClassWrappers().stream().filter(this::included).forEach(classWrapper ->
+		if (classNode.signature != null)
 		{
-			final ClassNode classNode = classWrapper.classNode;
-
-			if (classNode.signature != null)
-			{
-				classNode.signature = null;
-				counter.incrementAndGet();
-			}
+			classNode.signature = null;
+			counter.incrementAndGet();
+		}
 
-			classWrapper.methods.stream().filter(methodWrapper -> included(methodWrapper) && methodWrapper.methodNode.signature != null).forEach(methodWrapper ->
-			{
-				methodWrapper.methodNode.signature = null;
-				counter.incrementAndGet();
-			});
+		classWrapper.methods.stream().filter(methodWrapper -> included(methodWrapper) && methodWrapper.methodNode.signature != null).forEach(methodWrapper ->
+		{
+			methodWrapper.methodNode.signature = null;
+			counter.incrementAndGet();
+		});
 
-			classWrapper.fields.stream().filter(fieldWrapper -> included(fieldWrapper) && fieldWrapper.fieldNode.signature != null).forEach(fieldWrapper ->
-			{
-				fieldWrapper.fieldNode.signature = null;
-				counter.incrementAndGet();
-			});
+		classWrapper.fields.stream().filter(fieldWrapper -> included(fieldWrapper) && fieldWrapper.fieldNode.signature != null).forEach(fieldWrapper ->
+		{
+			fieldWrapper.fieldNode.signature = null;
+			counter.incrementAndGet();
 		});
+	}
 
-		info(String.format("- Removed %d signatures.", counter.get()));
+	@Override
+	protected void afterClasses()
+	{
+		info(String.format("- Removed %d signatures.", counter.getAndSet(0)));
 	}
 
 	@Override
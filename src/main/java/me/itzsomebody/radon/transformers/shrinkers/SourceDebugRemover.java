@@ -20,6 +20,8 @@ package me.itzsomebody.radon.transformers.shrinkers;
 
 import java.util.concurrent.atomic.AtomicInteger;
 
+import me.itzsomebody.radon.asm.ClassWrapper;
+
 /**
  * Removes the sourcedebugextension attribute.
  *
@@ -27,18 +29,22 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class SourceDebugRemover extends Shrinker
 {
+	private final AtomicInteger counter = new AtomicInteger();
+
 	@Override
-	public void transform()
+	protected void transformClass(final ClassWrapper classWrapper)
 	{
-		final AtomicInteger counter = new AtomicInteger();
-
-		getClassWrappers().stream().filter(classWrapper -> included(classWrapper) && classWrapper.classNode.sourceDebug != null).forEach(classWrapper ->
+		if (classWrapper.classNode.sourceDebug != null)
 		{
 			classWrapper.classNode.sourceDebug = null;
 			counter.incrementAndGet();
-		});
+		}
+	}
 
-		info(String.format("- Remove %d source debug attributes.", counter.get()));
+	@Override
+	protected void afterClasses()
+	{
+		info(String.format("- Remove %d source debug attributes.", counter.getAndSet(0)));
 	}
 
 	@Override
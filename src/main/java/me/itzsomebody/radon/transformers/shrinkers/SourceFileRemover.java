@@ -20,6 +20,8 @@ package me.itzsomebody.radon.transformers.shrinkers;
 
 import java.util.concurrent.atomic.AtomicInteger;
 
+import me.itzsomebody.radon.asm.ClassWrapper;
+
 /**
  * Removes the sourcefile attribute.
  *
@@ -27,18 +29,22 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class SourceFileRemover extends Shrinker
 {
+	private final AtomicInteger counter = new AtomicInteger();
+
 	@Override
-	public void transform()
+	protected void transformClass(final ClassWrapper classWrapper)
 	{
-		final AtomicInteger counter = new AtomicInteger();
-
-		getClassWrappers().stream().filter(classWrapper -> included(classWrapper) && classWrapper.classNode.sourceFile != null).forEach(classWrapper ->
+		if (classWrapper.classNode.sourceFile != null)
 		{
 			classWrapper.classNode.sourceFile = null;
 			counter.incrementAndGet();
-		});
+		}
+	}
 
-		info(String.format("- Removed %d source name attributes.", counter.get()));
+	@Override
+	protected void afterClasses()
+	{
+		info(String.format("- Removed %d source name attributes.", counter.getAndSet(0)));
 	}
 
 	@Override
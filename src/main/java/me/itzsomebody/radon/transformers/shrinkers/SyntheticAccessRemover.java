@@ -20,6 +20,8 @@ package me.itzsomebody.radon.transformers.shrinkers;
 
 import java.util.concurrent.atomic.AtomicInteger;
 
+import me.itzsomebody.radon.asm.ClassWrapper;
+
 /**
  * Strips out synthetic/bridge access flags.
  *
@@ -27,33 +29,34 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class SyntheticAccessRemover extends Shrinker
 {
+	private final AtomicInteger counter = new AtomicInteger();
+
 	@Override
-	public void transform()
+	protected void transformClass(final ClassWrapper cw)
 	{
-		final AtomicInteger counter = new AtomicInteger();
-
-		getClassWrappers().stream().filter(this::included).forEach(cw ->
+		if (cw.access.isSynthetic())
 		{
-			if (cw.access.isSynthetic())
-			{
-				cw.setAccessFlags(cw.getAccessFlags() & ~ACC_SYNTHETIC);
-				counter.incrementAndGet();
-			}
+			cw.setAccessFlags(cw.getAccessFlags() & ~ACC_SYNTHETIC);
+			counter.incrementAndGet();
+		}
 
-			cw.methods.stream().filter(this::included).filter(mw -> mw.access.isSynthetic() || mw.access.isBridge()).forEach(mw ->
-			{
-				mw.setAccessFlags(mw.getAccessFlags() & ~(ACC_SYNTHETIC | ACC_BRIDGE));
-				counter.incrementAndGet();
-			});
+		cw.methods.stream().filter(this::included).filter(mw -> mw.access.isSynthetic() || mw.access.isBridge()).forEach(mw ->
+		{
+			mw.setAccessFlags(mw.getAccessFlags() & ~(ACC_SYNTHETIC | ACC_BRIDGE));
+			counter.incrementAndGet();
+		});
 
-			cw.fields.stream().filter(this::included).filter(fw -> fw.access.isSynthetic()).forEach(fw ->
-			{
-				fw.setAccessFlags(fw.getAccessFlags() & ~ACC_SYNTHETIC);
-				counter.incrementAndGet();
-			});
+		cw.fields.stream().filter(this::included).filter(fw -> fw.access.isSynthetic()).forEach(fw ->
+		{
+			fw.setAccessFlags(fw.getAccessFlags() & ~ACC_SYNTHETIC);
+			counter.incrementAndGet();
 		});
+	}
 
-		info(String.format("- Removed %d synthetic/bridge access flags.", counter.get()));
+	@Override
+	protected void afterClasses()
+	{
+		info(String.format("- Removed %d synthetic/bridge access flags.", counter.getAndSet(0)));
 	}
 
 	@Override
@@ -22,7 +22,9 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import org.objectweb.asm.Attribute;
+import org.objectweb.asm.tree.ClassNode;
 
+import me.itzsomebody.radon.asm.ClassWrapper;
 import me.itzsomebody.radon.utils.Constants;
 
 /**
@@ -32,18 +34,24 @@ import me.itzsomebody.radon.utils.Constants;
  */
 public class UnknownAttributesRemover extends Shrinker
 {
+	private final AtomicInteger counter = new AtomicInteger();
+
 	@Override
-	public void transform()
+	protected void transformClass(final ClassWrapper classWrapper)
 	{
-		final AtomicInteger counter = new AtomicInteger();
-
-		getClassWrappers().stream().filter(classWrapper -> included(classWrapper) && classWrapper.classNode.attrs != null).map(classWrapper1 -> classWrapper1.classNode).forEach(classNode -> Stream.of(classNode.attrs.toArray(Constants.EMPTY_ATTRIBUTE_ARRAY)).filter(Attribute::isUnknown).forEach(attr ->
-		{
-			classNode.attrs.remove(attr);
-			counter.incrementAndGet();
-		}));
+		final ClassNode classNode = classWrapper.classNode;
+		if (classNode.attrs != null)
+			Stream.of(classNode.attrs.toArray(Constants.EMPTY_ATTRIBUTE_ARRAY)).filter(Attribute::isUnknown).forEach(attr ->
+			{
+				classNode.attrs.remove(attr);
+				counter.incrementAndGet();
+			});
+	}
 
-		info(String.format("- Removed %d attributes.", counter.get()));
+	@Override
+	protected void afterClasses()
+	{
+		info(String.format("- Removed %d attributes.", counter.getAndSet(0)));
 	}
 
 	@Override
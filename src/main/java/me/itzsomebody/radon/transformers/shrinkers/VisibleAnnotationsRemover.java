@@ -22,6 +22,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.objectweb.asm.tree.ClassNode;
 
+import me.itzsomebody.radon.asm.ClassWrapper;
+
 /**
  * Removes annotations visible to the runtime.
  *
@@ -29,35 +31,36 @@ import org.objectweb.asm.tree.ClassNode;
  */
 public class VisibleAnnotationsRemover extends Shrinker
 {
+	private final AtomicInteger counter = new AtomicInteger();
+
 	@Override
-	public void transform()
+	protected void transformClass(final ClassWrapper classWrapper)
 	{
-		final AtomicInteger counter = new AtomicInteger();
+		final ClassNode classNode = classWrapper.classNode;
 
-		getClassWrappers().stream().filter(this::included).forEach(classWrapper ->
+		if (classNode.visibleAnnotations != null)
 		{
-			final ClassNode classNode = classWrapper.classNode;
-
-			if (classNode.visibleAnnotations != null)
-			{
-				counter.addAndGet(classNode.visibleAnnotations.size());
-				classNode.visibleAnnotations = null;
-			}
+			counter.addAndGet(classNode.visibleAnnotations.size());
+			classNode.visibleAnnotations = null;
+		}
 
-			classWrapper.fields.stream().filter(fieldWrapper -> included(fieldWrapper) && fieldWrapper.fieldNode.visibleAnnotations != null).forEach(fieldWrapper ->
-			{
-				counter.addAndGet(fieldWrapper.fieldNode.visibleAnnotations.size());
-				fieldWrapper.fieldNode.visibleAnnotations = null;
-			});
+		classWrapper.fields.stream().filter(fieldWrapper -> included(fieldWrapper) && fieldWrapper.fieldNode.visibleAnnotations != null).forEach(fieldWrapper ->
+		{
+			counter.addAndGet(fieldWrapper.fieldNode.visibleAnnotations.size());
+			fieldWrapper.fieldNode.visibleAnnotations = null;
+		});
 
-			classWrapper.methods.stream().filter(methodWrapper -> included(methodWrapper) && methodWrapper.methodNode.visibleAnnotations != null).forEach(methodWrapper ->
-			{
-				counter.addAndGet(methodWrapper.methodNode.visibleAnnotations.size());
-				methodWrapper.methodNode.visibleAnnotations = null;
-			});
+		classWrapper.methods.stream().filter(methodWrapper -> included(methodWrapper) && methodWrapper.methodNode.visibleAnnotations != null).forEach(methodWrapper ->
+		{
+			counter.addAndGet(methodWrapper.methodNode.visibleAnnotations.size());
+			methodWrapper.methodNode.visibleAnnotations = null;
 		});
+	}
 
-		info(String.format("- Removed %d visible annotations.", counter.get()));
+	@Override
+	protected void afterClasses()
+	{
+		info(String.format("- Removed %d visible annotations.", counter.getAndSet(0)));
 	}
 
 	@Override
@@ -20,6 +20,8 @@ package me.itzsomebody.radon.transformers.shrinkers;
 
 import java.util.concurrent.atomic.AtomicInteger;
 
+import me.itzsomebody.radon.asm.ClassWrapper;
+
 /**
  * Strips out visible parameter annotations.
  *
@@ -27,20 +29,23 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class VisibleParameterAnnotationsRemover extends Shrinker
 {
+	private final AtomicInteger counter = new AtomicInteger();
+
 	@Override
-	public void transform()
+	protected void transformClass(final ClassWrapper classWrapper)
 	{
-		final AtomicInteger counter = new AtomicInteger();
-
-		getClassWrappers().stream().filter(this::included).forEach(classWrapper ->
-				classWrapper.methods.stream().filter(methodWrapper -> included(methodWrapper) && methodWrapper.methodNode.visibleParameterAnnotations != null).forEach(methodWrapper ->
-				{
+		classWrapper.methods.stream().filter(methodWrapper -> included(methodWrapper) && methodWrapper.methodNode.visibleParameterAnnotations != null).forEach(methodWrapper ->
+		{
 
-					counter.addAndGet(methodWrapper.methodNode.visibleAnnotableParameterCount);
-					methodWrapper.methodNode.visibleParameterAnnotations = null;
-				}));
+			counter.addAndGet(methodWrapper.methodNode.visibleAnnotableParameterCount);
+			methodWrapper.methodNode.visibleParameterAnnotations = null;
+		});
+	}
 
-		info(String.format("- Removed %d visible parameter annotations.", counter.get()));
+	@Override
+	protected void afterClasses()
+	{
+		info(String.format("- Removed %d visible parameter annotations.", counter.getAndSet(0)));
 	}
 
 	@Override
@@ -22,6 +22,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.objectweb.asm.tree.ClassNode;
 
+import me.itzsomebody.radon.asm.ClassWrapper;
+
 /**
  * Strips out visible parameter annotations.
  *
@@ -29,35 +31,36 @@ import org.objectweb.asm.tree.ClassNode;
  */
 public class VisibleTypeAnnotationsRemover extends Shrinker
 {
+	private final AtomicInteger counter = new AtomicInteger();
+
 	@Override
-	public void transform()
+	protected void transformClass(final ClassWrapper classWrapper)
 	{
-		final AtomicInteger counter = new AtomicInteger();
+		final ClassNode classNode = classWrapper.classNode;
 
-		getClassWrappers().stream().filter(this::included).forEach(classWrapper ->
+		if (classNode.visibleTypeAnnotations != null)
 		{
-			final ClassNode classNode = classWrapper.classNode;
-
-			if (classNode.visibleTypeAnnotations != null)
-			{
-				counter.addAndGet(classNode.visibleTypeAnnotations.size());
-				classNode.visibleTypeAnnotations = null;
-			}
+			counter.addAndGet(classNode.visibleTypeAnnotations.size());
+			classNode.visibleTypeAnnotations = null;
+		}
 
-			classWrapper.fields.stream().filter(fieldWrapper -> included(fieldWrapper) && fieldWrapper.fieldNode.visibleTypeAnnotations != null).forEach(fieldWrapper ->
-			{
-				counter.addAndGet(fieldWrapper.fieldNode.visibleTypeAnnotations.size());
-				fieldWrapper.fieldNode.visibleTypeAnnotations = null;
-			});
+		classWrapper.fields.stream().filter(fieldWrapper -> included(fieldWrapper) && fieldWrapper.fieldNode.visibleTypeAnnotations != null).forEach(fieldWrapper ->
+		{
+			counter.addAndGet(fieldWrapper.fieldNode.visibleTypeAnnotations.size());
+			fieldWrapper.fieldNode.visibleTypeAnnotations = null;
+		});
 
-			classWrapper.methods.stream().filter(methodWrapper -> included(methodWrapper) && methodWrapper.methodNode.visibleTypeAnnotations != null).forEach(methodWrapper ->
-			{
-				counter.addAndGet(methodWrapper.methodNode.visibleTypeAnnotations.size());
-				methodWrapper.methodNode.visibleTypeAnnotations = null;
-			});
+		classWrapper.methods.stream().filter(methodWrapper -> included(methodWrapper) && methodWrapper.methodNode.visibleTypeAnnotations != null).forEach(methodWrapper ->
+		{
+			counter.addAndGet(methodWrapper.methodNode.visibleTypeAnnotations.size());
+			methodWrapper.methodNode.visibleTypeAnnotations = null;
 		});
+	}
 
-		info(String.format("- Removed %d visible type annotations.", counter.get()));
+	@Override
+	protected void afterClasses()
+	{
+		info(String.format("- Removed %d visible type annotations.", counter.getAndSet(0)));
 	}
 
 	@Override
@@ -22,6 +22,10 @@ import java.util.Arrays;
 import java.util.Objects;
 import java.util.Optional;
 
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.Type;
 import org.objectweb.asm.commons.CodeSizeEvaluator;
@@ -42,6 +46,17 @@ public final class ASMUtils implements Opcodes
 		return !(insn instanceof FrameNode) && !(insn instanceof LineNumberNode) && !(insn instanceof LabelNode);
 	}
 
+	/**
+	 * @return the first actual instruction after the given node, skipping labels, line numbers and frames; or null if there is none.
+	 */
+	public static AbstractInsnNode getNextInstruction(final AbstractInsnNode insn)
+	{
+		AbstractInsnNode next = insn.getNext();
+		while (next != null && !isInstruction(next))
+			next = next.getNext();
+		return next;
+	}
+
 	public static boolean isReturn(final int opcode)
 	{
 		return opcode >= IRETURN && opcode <= RETURN;
@@ -520,23 +535,95 @@ public final class ASMUtils implements Opcodes
 
 	public static <T extends Value> Frame<T>[] runAnalyzer(final Analyzer<T> analyzer, final MethodNode mn, final boolean maxValues) throws AnalyzerException
 	{
-		final int maxStack = mn.maxStack;
-		final int maxLocals = mn.maxLocals;
+		return runAnalyzer(analyzer, mn.name, mn, maxValues);
+	}
 
-		if (maxValues)
-			mn.maxStack = mn.maxLocals = 1337;
+	/**
+	 * @param  owner
+	 *                   internal name of the class the method belongs to.
+	 * @param  maxValues
+	 *                   analyze with enough room for any number of locals and stack values, for methods whose maxLocals or maxStack are out of date.
+	 */
+	public static <T extends Value> Frame<T>[] runAnalyzer(final Analyzer<T> analyzer, final String owner, final MethodNode mn, final boolean maxValues) throws AnalyzerException
+	{
+		return maxValues ? runAnalyzer(analyzer, owner, mn, 1337, 1337) : analyzer.analyze(owner, mn);
+	}
+
+	/**
+	 * Analyzes the method as if its maxStack and maxLocals were the given ones.
+	 *
+	 * @param  owner
+	 *               internal name of the class the method belongs to.
+	 */
+	public static <T extends Value> Frame<T>[] runAnalyzer(final Analyzer<T> analyzer, final String owner, final MethodNode mn, final int maxStack, final int maxLocals) throws AnalyzerException
+	{
+		final int oldMaxStack = mn.maxStack;
+		final int oldMaxLocals = mn.maxLocals;
+
+		mn.maxStack = maxStack;
+		mn.maxLocals = maxLocals;
 
 		try
 		{
-			return analyzer.analyze(mn.name, mn);
+			return analyzer.analyze(owner, mn);
 		}
 		finally
 		{
-			mn.maxStack = maxStack;
-			mn.maxLocals = maxLocals;
+			mn.maxStack = oldMaxStack;
+			mn.maxLocals = oldMaxLocals;
 		}
 	}
 
+	/**
+	 * Computes the maxStack and maxLocals the code of the method actually needs, by writing it with a {@link ClassWriter#COMPUTE_MAXS} class writer. The method itself is left unchanged.
+	 *
+	 * @param  owner
+	 *               internal name of the class the method belongs to.
+	 * @return       the maxStack and the maxLocals, in that order; null if the method can't be written, e.g. because its code is too large.
+	 */
+	public static int[] computeMaxs(final String owner, final MethodNode mn)
+	{
+		final byte[] bytes;
+		try
+		{
+			final ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+			cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, owner, null, "java/lang/Object", null);
+			mn.accept(new MethodVisitor(Opcodes.ASM9, cw.visitMethod(mn.access, mn.name, mn.desc, null, null))
+			{
+				@Override
+				public void visitFrame(final int type, final int numLocal, final Object[] local, final int numStack, final Object[] stack)
+				{
+					// The frames may be out of date too, and aren't needed to compute the max values
+				}
+			});
+			cw.visitEnd();
+			bytes = cw.toByteArray();
+		}
+		catch (final RuntimeException e)
+		{
+			return null;
+		}
+
+		final int[] maxs = new int[2];
+		new ClassReader(bytes).accept(new ClassVisitor(Opcodes.ASM9)
+		{
+			@Override
+			public MethodVisitor visitMethod(final int access, final String name, final String descriptor, final String signature, final String[] exceptions)
+			{
+				return new MethodVisitor(Opcodes.ASM9)
+				{
+					@Override
+					public void visitMaxs(final int maxStack, final int maxLocals)
+					{
+						maxs[0] = maxStack;
+						maxs[1] = maxLocals;
+					}
+				};
+			}
+		}, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+		return maxs;
+	}
+
 	private ASMUtils()
 	{
 	}
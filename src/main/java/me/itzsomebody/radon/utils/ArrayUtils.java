@@ -2,12 +2,11 @@ package me.itzsomebody.radon.utils;
 
 import java.lang.reflect.Array;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.IntStream;
 
 public final class ArrayUtils
 {
-	private static Random random;
-
 	public static void swap(final int[] arr, final int index1, final int index2)
 	{
 		if (index1 == index2)
@@ -40,10 +39,7 @@ public final class ArrayUtils
 
 	public static void shuffle(final int[] arr)
 	{
-		Random r = random;
-		if (r == null)
-			random = r = new Random();
-		shuffle(arr, r);
+		shuffle(arr, ThreadLocalRandom.current());
 	}
 
 	public static void shuffle(final int[] arr, final Random random)
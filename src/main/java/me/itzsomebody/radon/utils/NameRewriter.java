@@ -0,0 +1,216 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Replaces many names in a text at once.
+ * <p>
+ * All names are merged into a single Aho-Corasick automaton over their UTF-8 bytes, so a text is rewritten in one pass regardless of how many names there are, and without decoding it. Where names overlap, the leftmost and then the longest one is replaced, and replaced text is never matched again. Immutable after construction, so it can rewrite multiple texts at once.
+ *
+ * @author hsheric0210
+ */
+public final class NameRewriter
+{
+	private final Node root = new Node(0);
+
+	/**
+	 * @param replacements
+	 *                         names to replace, mapped to their replacements.
+	 */
+	public NameRewriter(final Map<String, String> replacements)
+	{
+		replacements.forEach((name, replacement) ->
+		{
+			if (!name.isEmpty())
+				insert(name.getBytes(StandardCharsets.UTF_8), replacement.getBytes(StandardCharsets.UTF_8));
+		});
+		link();
+	}
+
+	private void insert(final byte[] name, final byte[] replacement)
+	{
+		Node node = root;
+		for (final byte b : name)
+		{
+			Node child = node.getChild(b);
+			if (child == null)
+				child = node.addChild(b);
+			node = child;
+		}
+		node.replacement = replacement;
+	}
+
+	/**
+	 * Computes the failure links breadth-first, so the links of shallower nodes are already known.
+	 */
+	private void link()
+	{
+		root.fail = root;
+
+		final Queue<Node> queue = new ArrayDeque<>();
+		for (int i = 0; i < root.childCount; i++)
+		{
+			final Node child = root.children[i];
+			child.fail = root;
+			child.output = child.replacement != null ? child : null;
+			queue.add(child);
+		}
+
+		while (!queue.isEmpty())
+		{
+			final Node node = queue.poll();
+			for (int i = 0; i < node.childCount; i++)
+			{
+				final Node child = node.children[i];
+				child.fail = next(node.fail, node.labels[i]);
+				child.output = child.replacement != null ? child : child.fail.output;
+				queue.add(child);
+			}
+		}
+	}
+
+	private Node next(Node state, final byte b)
+	{
+		Node child;
+		while ((child = state.getChild(b)) == null && state != root)
+			state = state.fail;
+		return child != null ? child : root;
+	}
+
+	/**
+	 * @param  text
+	 *                               UTF-8 text to rewrite.
+	 * @param  afterSeparatorOnly
+	 *                               only replace names which directly follow a ':' or ' ', so that names which are words of e.g. a manifest aren't replaced.
+	 * @return                    the rewritten text, or the given array itself if nothing was replaced.
+	 */
+	public byte[] rewrite(final byte[] text, final boolean afterSeparatorOnly)
+	{
+		ByteArrayOutputStream out = null;
+		int copied = 0;
+
+		// The leftmost (then longest) match found so far, which is replaced once no match starting before or at it is in progress anymore
+		int matchStart = -1;
+		int matchEnd = -1;
+		byte[] matchReplacement = null;
+
+		Node state = root;
+		int index = 0;
+		while (true)
+		{
+			if (index < text.length)
+			{
+				state = next(state, text[index++]);
+
+				// Following the output links yields the matches ending here from the longest to the shortest, thus the first accepted one starts leftmost
+				for (Node match = state.output; match != null; match = match.fail.output)
+				{
+					final int start = index - match.depth;
+					if (afterSeparatorOnly && (start == 0 || text[start - 1] != ':' && text[start - 1] != ' '))
+						continue;
+
+					if (matchStart < 0 || start < matchStart || start == matchStart && index > matchEnd)
+					{
+						matchStart = start;
+						matchEnd = index;
+						matchReplacement = match.replacement;
+					}
+					break;
+				}
+
+				// A match in progress may still start before or at the current one
+				if (matchStart < 0 || index - state.depth <= matchStart)
+					continue;
+			}
+			else if (matchStart < 0)
+				break;
+
+			if (out == null)
+				out = new ByteArrayOutputStream(text.length + 16);
+			out.write(text, copied, matchStart - copied);
+			out.write(matchReplacement, 0, matchReplacement.length);
+			copied = matchEnd;
+
+			// Matches overlapping the replaced one are dropped by scanning again right after it
+			index = matchEnd;
+			state = root;
+			matchStart = -1;
+		}
+
+		if (out == null)
+			return text;
+
+		out.write(text, copied, text.length - copied);
+		return out.toByteArray();
+	}
+
+	private static final class Node
+	{
+		final int depth;
+		byte[] labels = new byte[0];
+		Node[] children = new Node[0];
+		int childCount;
+
+		/**
+		 * The node of the longest proper suffix of this node which is in the automaton.
+		 */
+		Node fail;
+
+		/**
+		 * This node or the first node along the failure links which ends a name, if any.
+		 */
+		Node output;
+		byte[] replacement;
+
+		Node(final int depth)
+		{
+			this.depth = depth;
+		}
+
+		Node getChild(final byte label)
+		{
+			for (int i = 0; i < childCount; i++)
+				if (labels[i] == label)
+					return children[i];
+			return null;
+		}
+
+		Node addChild(final byte label)
+		{
+			if (childCount == labels.length)
+			{
+				final int capacity = Math.max(2, childCount * 2);
+				labels = Arrays.copyOf(labels, capacity);
+				children = Arrays.copyOf(children, capacity);
+			}
+
+			final Node child = new Node(depth + 1);
+			labels[childCount] = label;
+			children[childCount++] = child;
+			return child;
+		}
+	}
+}
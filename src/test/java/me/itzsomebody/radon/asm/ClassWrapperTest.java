@@ -0,0 +1,91 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.asm;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.MethodNode;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ClassWrapperTest
+{
+	private static ClassWrapper load()
+	{
+		final ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES);
+		cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, "Test", null, "java/lang/Object", null);
+		cw.visitAnnotation("LTest$Marker;", false).visitEnd();
+
+		cw.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "value", "I", null, null).visitEnd();
+
+		final MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "test", "()I", null, null);
+		mv.visitCode();
+		mv.visitFieldInsn(Opcodes.GETSTATIC, "Test", "value", "I");
+		mv.visitInsn(Opcodes.IRETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		cw.visitEnd();
+		return new ClassWrapper(new ClassReader(cw.toByteArray()), false);
+	}
+
+	@Test
+	public void testUnmodified()
+	{
+		Assert.assertFalse(load().isModified());
+	}
+
+	@Test
+	public void testHeaderChanges()
+	{
+		final ClassWrapper classWrapper = load();
+		classWrapper.setAccessFlags(classWrapper.getAccessFlags() | Opcodes.ACC_FINAL);
+		Assert.assertTrue(classWrapper.isModified());
+
+		classWrapper.markUnmodified();
+		Assert.assertFalse(classWrapper.isModified());
+
+		classWrapper.classNode.invisibleAnnotations = null;
+		Assert.assertTrue(classWrapper.isModified());
+	}
+
+	@Test
+	public void testMemberChanges()
+	{
+		final ClassWrapper classWrapper = load();
+		classWrapper.fields.get(0).fieldNode.name = "renamed";
+		Assert.assertTrue(classWrapper.isModified());
+
+		final ClassWrapper added = load();
+		added.addMethod(new MethodNode(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "added", "()V", null, null));
+		Assert.assertTrue(added.isModified());
+	}
+
+	@Test
+	public void testCodeChanges()
+	{
+		final ClassWrapper classWrapper = load();
+		classWrapper.methods.get(0).methodNode.instructions.insert(new InsnNode(Opcodes.NOP));
+		Assert.assertTrue(classWrapper.isModified());
+	}
+}
@@ -0,0 +1,108 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.asm;
+
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.InsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.VarInsnNode;
+import org.objectweb.asm.tree.analysis.AnalyzerException;
+import org.objectweb.asm.tree.analysis.BasicValue;
+import org.objectweb.asm.tree.analysis.Frame;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import me.itzsomebody.radon.analysis.constant.values.AbstractValue;
+
+public class MethodAnalysisCacheTest
+{
+	private static MethodWrapper method()
+	{
+		final ClassNode classNode = new ClassNode();
+		classNode.version = Opcodes.V1_8;
+		classNode.access = Opcodes.ACC_PUBLIC;
+		classNode.name = "Test";
+		classNode.superName = "java/lang/Object";
+
+		// static int test(int a) { return a + 1; }
+		final MethodNode methodNode = new MethodNode(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "test", "(I)I", null, null);
+		methodNode.instructions.add(new VarInsnNode(Opcodes.ILOAD, 0));
+		methodNode.instructions.add(new InsnNode(Opcodes.ICONST_1));
+		methodNode.instructions.add(new InsnNode(Opcodes.IADD));
+		methodNode.instructions.add(new InsnNode(Opcodes.IRETURN));
+		methodNode.maxLocals = 1;
+		methodNode.maxStack = 2;
+		classNode.methods.add(methodNode);
+
+		return new ClassWrapper(classNode, false).methods.get(0);
+	}
+
+	@Test
+	public void testFramesSizedToMethod() throws AnalyzerException
+	{
+		final MethodWrapper method = method();
+
+		final Frame<BasicValue> basicFrame = method.getAnalysis().getBasicFrames()[0];
+		Assert.assertEquals(1, basicFrame.getLocals());
+		Assert.assertEquals(2, basicFrame.getMaxStackSize());
+
+		final Frame<AbstractValue> constantFrame = method.getAnalysis().getConstantFrames()[0];
+		Assert.assertEquals(1, constantFrame.getLocals());
+		Assert.assertEquals(2, constantFrame.getMaxStackSize());
+	}
+
+	@Test
+	public void testOutdatedMaxValues() throws AnalyzerException
+	{
+		final MethodWrapper method = method();
+		method.methodNode.maxLocals = 0;
+		method.methodNode.maxStack = 1;
+
+		// Sized to what the code actually needs
+		final Frame<BasicValue>[] frames = method.getAnalysis().getBasicFrames();
+		Assert.assertEquals(4, frames.length);
+		Assert.assertEquals(2, frames[2].getStackSize());
+		Assert.assertEquals(1, frames[0].getLocals());
+		Assert.assertEquals(2, frames[0].getMaxStackSize());
+		Assert.assertArrayEquals(new int[]
+		{
+				1
+		}, method.getAnalysis().getSuccessors()[0]);
+		Assert.assertEquals(2, method.getAnalysis().getConstantFrames()[2].getStackSize());
+
+		// The max values of the method itself are left as they were
+		Assert.assertEquals(0, method.methodNode.maxLocals);
+		Assert.assertEquals(1, method.methodNode.maxStack);
+	}
+
+	@Test
+	public void testInvalidatedOnChange() throws AnalyzerException
+	{
+		final MethodWrapper method = method();
+		final Frame<BasicValue>[] frames = method.getAnalysis().getBasicFrames();
+		Assert.assertSame(frames, method.getAnalysis().getBasicFrames());
+
+		method.methodNode.instructions.insert(new InsnNode(Opcodes.NOP));
+		final Frame<BasicValue>[] changed = method.getAnalysis().getBasicFrames();
+		Assert.assertNotSame(frames, changed);
+		Assert.assertEquals(5, changed.length);
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.classpath;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+
+import org.objectweb.asm.Opcodes;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LibraryCacheTest
+{
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private static List<LibraryClassSummary> summaries()
+	{
+		return Arrays.asList(new LibraryClassSummary("test/Base", "java/lang/Object", new String[0], Opcodes.ACC_PUBLIC, new String[]
+		{
+				"<init>", "()V"
+		}, new int[]
+		{
+				Opcodes.ACC_PUBLIC
+		}, new String[0], new int[0]), new LibraryClassSummary("test/Derived", "test/Base", new String[]
+		{
+				"java/lang/Runnable"
+		}, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL, new String[]
+		{
+				"run", "()V"
+		}, new int[]
+		{
+				Opcodes.ACC_PUBLIC
+		}, new String[]
+		{
+				"value", "I"
+		}, new int[]
+		{
+				Opcodes.ACC_PRIVATE
+		}));
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException
+	{
+		final File file = new File(folder.getRoot(), "library.rlc");
+		LibraryCache.write(file, summaries());
+
+		final LibraryCache.CachedLibrary cached = LibraryCache.load(file);
+		Assert.assertNotNull(cached);
+		Assert.assertEquals(2, cached.size());
+
+		final LibraryClassSummary derived = cached.read("test/Derived");
+		Assert.assertEquals("test/Base", derived.getSuperName());
+		Assert.assertEquals(Arrays.asList("java/lang/Runnable"), derived.getInterfaces());
+		Assert.assertEquals("value", derived.getFieldName(0));
+		Assert.assertNull(cached.read("test/Missing"));
+	}
+
+	@Test
+	public void testTruncated() throws IOException
+	{
+		final File file = new File(folder.getRoot(), "library.rlc");
+		LibraryCache.write(file, summaries());
+		final long length = file.length();
+
+		// Cut inside the records, after the header, and inside the header
+		for (final long truncated : new long[]
+		{
+				length - 1, length / 2, 6
+		})
+		{
+			try (final RandomAccessFile raf = new RandomAccessFile(file, "rw"))
+			{
+				raf.setLength(truncated);
+			}
+			Assert.assertNull(LibraryCache.load(file));
+		}
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.classpath;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.objectweb.asm.ClassReader;
+
+import me.itzsomebody.radon.asm.ClassWrapper;
+import me.itzsomebody.radon.io.MappedZipFile;
+
+/**
+ * Compares the retained heap of library classes loaded as full {@link ClassWrapper}s against {@link LibraryClassSummary}s.
+ * <p>
+ * Usage: {@code java -cp <test classpath> me.itzsomebody.radon.classpath.LibraryClassSummaryBenchmark <jar>...}
+ * </p>
+ *
+ * @author hsheric0210
+ */
+public final class LibraryClassSummaryBenchmark
+{
+	public static void main(final String[] args) throws Exception
+	{
+		if (args.length == 0)
+		{
+			System.err.println("Usage: LibraryClassSummaryBenchmark <jar>...");
+			return;
+		}
+
+		final List<byte[]> classes = new ArrayList<>();
+		for (final String path : args)
+			try (final MappedZipFile zipFile = new MappedZipFile(new File(path)))
+			{
+				for (final MappedZipFile.Entry entry : zipFile.entries())
+					if (!entry.isDirectory() && entry.getName().endsWith(".class"))
+						classes.add(entry.read());
+			}
+
+		System.out.printf("Classes: %d%n", classes.size());
+
+		final long baseline = usedHeap();
+		List<Object> retained = new ArrayList<>(classes.size());
+		long nanoTime = System.nanoTime();
+		for (final byte[] bytes : classes)
+			retained.add(new ClassWrapper(new ClassReader(bytes), true));
+		final long wrapperTime = System.nanoTime() - nanoTime;
+		final long wrapperHeap = usedHeap() - baseline;
+		retained = null;
+
+		final long baseline2 = usedHeap();
+		retained = new ArrayList<>(classes.size());
+		nanoTime = System.nanoTime();
+		for (final byte[] bytes : classes)
+			retained.add(LibraryClassSummary.read(bytes));
+		final long summaryTime = System.nanoTime() - nanoTime;
+		final long summaryHeap = usedHeap() - baseline2;
+
+		System.out.printf("ClassWrapper:        %,d bytes retained, %d ms%n", wrapperHeap, wrapperTime / 1000000);
+		System.out.printf("LibraryClassSummary: %,d bytes retained, %d ms%n", summaryHeap, summaryTime / 1000000);
+		System.out.printf("Reduction:           %.1fx (%d summaries alive)%n", (double) wrapperHeap / Math.max(1, summaryHeap), retained.size());
+	}
+
+	private static long usedHeap() throws InterruptedException
+	{
+		final Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 4; i++)
+		{
+			System.gc();
+			Thread.sleep(50);
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private LibraryClassSummaryBenchmark()
+	{
+	}
+}
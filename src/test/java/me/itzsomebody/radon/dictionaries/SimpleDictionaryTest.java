@@ -0,0 +1,73 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.dictionaries;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SimpleDictionaryTest
+{
+	@Test
+	public void testNextUniqueStringOrder()
+	{
+		final SimpleDictionary dictionary = new AlphaNumDictionary();
+		Assert.assertEquals("a", dictionary.nextUniqueString(0, 0));
+		Assert.assertEquals("b", dictionary.nextUniqueString(1, 0));
+		Assert.assertEquals("0", dictionary.nextUniqueString(61, 0));
+		Assert.assertEquals("aa", dictionary.nextUniqueString(62, 0));
+		Assert.assertEquals("ab", dictionary.nextUniqueString(63, 0));
+		Assert.assertEquals("a0", dictionary.nextUniqueString(123, 0));
+		Assert.assertEquals("ba", dictionary.nextUniqueString(124, 0));
+		Assert.assertEquals("00", dictionary.nextUniqueString(62 + 62 * 62 - 1, 0));
+		Assert.assertEquals("aaa", dictionary.nextUniqueString(62 + 62 * 62, 0));
+	}
+
+	@Test
+	public void testNextUniqueStringSequence()
+	{
+		final SimpleDictionary dictionary = new SimpleDictionary("test", "ab".toCharArray());
+		final String[] expected = {"a", "b", "aa", "ab", "ba", "bb", "aaa"};
+		for (final String name : expected)
+		{
+			Assert.assertEquals(name, dictionary.nextUniqueString(0));
+			Assert.assertEquals(name, dictionary.lastUniqueString());
+		}
+
+		dictionary.reset();
+		Assert.assertNull(dictionary.lastUniqueString());
+		Assert.assertEquals("a", dictionary.nextUniqueString(0));
+	}
+
+	@Test
+	public void testUniqueRandomStringWithDuplicateCharacters()
+	{
+		// Repeated characters are dropped, so "a" and "b" still make up 2^n unique names of length n
+		final SimpleDictionary dictionary = new SimpleDictionary("test", "abab".toCharArray());
+
+		final Set<String> generated = new HashSet<>();
+		for (int i = 0; i < 2 + 4 + 8; i++)
+			Assert.assertTrue(generated.add(dictionary.uniqueRandomString(1)));
+
+		Assert.assertTrue(generated.contains("a") && generated.contains("bb") && generated.contains("bab"));
+		Assert.assertEquals(4, dictionary.uniqueRandomString(1).length());
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.dictionaries;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class UniqueNameSequenceTest
+{
+	private static void assertDrainsLength(final UniqueNameSequence sequence, final int charsetLength, final int length)
+	{
+		int names = 1;
+		for (int i = 0; i < length; i++)
+			names *= charsetLength;
+
+		final Set<List<Integer>> generated = new HashSet<>();
+		for (int i = 0; i < names; i++)
+		{
+			final int[] name = sequence.next(0);
+			Assert.assertEquals(length, name.length);
+			for (final int c : name)
+				Assert.assertTrue(c >= 0 && c < charsetLength);
+
+			Assert.assertTrue("Duplicate name " + Arrays.toString(name), generated.add(toList(name)));
+		}
+	}
+
+	private static List<Integer> toList(final int[] name)
+	{
+		final Integer[] boxed = new Integer[name.length];
+		for (int i = 0; i < name.length; i++)
+			boxed[i] = name[i];
+		return Arrays.asList(boxed);
+	}
+
+	@Test
+	public void testDrainsEveryLength()
+	{
+		for (int charsetLength = 1; charsetLength <= 5; charsetLength++)
+		{
+			final UniqueNameSequence sequence = new UniqueNameSequence(charsetLength);
+
+			// Every name of a length is generated exactly once before the next length is used
+			for (int length = 1; length <= 4; length++)
+				assertDrainsLength(sequence, charsetLength, length);
+
+			Assert.assertEquals(5, sequence.next(0).length);
+		}
+	}
+
+	@Test
+	public void testMinLength()
+	{
+		final UniqueNameSequence sequence = new UniqueNameSequence(3);
+		Assert.assertEquals(1, sequence.next(0).length);
+
+		// Names never get shorter, and the longer length is still drained without duplicates
+		final Set<List<Integer>> generated = new HashSet<>();
+		for (int i = 0; i < 27; i++)
+		{
+			final int[] name = sequence.next(i == 0 ? 3 : 2);
+			Assert.assertEquals(3, name.length);
+			Assert.assertTrue("Duplicate name " + Arrays.toString(name), generated.add(toList(name)));
+		}
+		Assert.assertEquals(4, sequence.next(2).length);
+	}
+
+	@Test
+	public void testReset()
+	{
+		final UniqueNameSequence sequence = new UniqueNameSequence(2);
+		assertDrainsLength(sequence, 2, 1);
+		Assert.assertEquals(2, sequence.next(0).length);
+
+		sequence.reset();
+		assertDrainsLength(sequence, 2, 1);
+	}
+
+	@Test
+	public void testBeyondMaxDomain()
+	{
+		// With two characters only 62 characters are numbered, the characters in front of them are derived from the counter
+		final UniqueNameSequence sequence = new UniqueNameSequence(2);
+
+		final Set<List<Integer>> generated = new HashSet<>();
+		final Set<List<Integer>> prefixes = new HashSet<>();
+		for (int i = 0; i < 100_000; i++)
+		{
+			final int[] name = sequence.next(70);
+			Assert.assertEquals(70, name.length);
+			Assert.assertTrue("Duplicate name " + Arrays.toString(name), generated.add(toList(name)));
+			prefixes.add(toList(Arrays.copyOf(name, 8)));
+		}
+
+		// The derived characters still look random
+		Assert.assertTrue(prefixes.size() > 200);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testEmptyCharset()
+	{
+		new UniqueNameSequence(0);
+	}
+}
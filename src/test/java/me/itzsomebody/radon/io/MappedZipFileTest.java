@@ -0,0 +1,171 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedZipFileTest
+{
+	private static final byte[] STUB = "#!/bin/sh\nexec java -jar \"$0\" \"$@\"\nexit 1\n".getBytes(StandardCharsets.US_ASCII);
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private static byte[] zip() throws IOException
+	{
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final ZipOutputStream zos = new ZipOutputStream(bytes))
+		{
+			zos.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+			zos.write("Manifest-Version: 1.0\r\nMain-Class: test.Main\r\n\r\n".getBytes(StandardCharsets.UTF_8));
+			zos.closeEntry();
+
+			final ZipEntry stored = new ZipEntry("test/Stored.txt");
+			final byte[] storedData = "stored".getBytes(StandardCharsets.UTF_8);
+			stored.setMethod(ZipEntry.STORED);
+			stored.setSize(storedData.length);
+			final CRC32 crc = new CRC32();
+			crc.update(storedData);
+			stored.setCrc(crc.getValue());
+			zos.putNextEntry(stored);
+			zos.write(storedData);
+			zos.closeEntry();
+
+			zos.putNextEntry(new ZipEntry("test/Deflated.txt"));
+			for (int i = 0; i < 1000; i++)
+				zos.write(("line " + i + "\n").getBytes(StandardCharsets.UTF_8));
+			zos.closeEntry();
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Overwrites a 32-bit field of the central directory header of the given entry.
+	 */
+	private static byte[] patchCentralHeader(final byte[] zip, final String name, final int fieldOffset, final int value)
+	{
+		final ByteBuffer buffer = ByteBuffer.wrap(zip).order(ByteOrder.LITTLE_ENDIAN);
+		final byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+		for (int offset = 0; offset + 46 + nameBytes.length <= zip.length; offset++)
+			if (buffer.getInt(offset) == 0x02014B50 && (buffer.getShort(offset + 28) & 0xFFFF) == nameBytes.length && new String(zip, offset + 46, nameBytes.length, StandardCharsets.UTF_8).equals(name))
+			{
+				buffer.putInt(offset + fieldOffset, value);
+				return zip;
+			}
+
+		throw new IllegalArgumentException(name);
+	}
+
+	private static void assertReadFails(final File file, final int index, final String message) throws IOException
+	{
+		try (final MappedZipFile zipFile = new MappedZipFile(file))
+		{
+			zipFile.entries().get(index).read();
+			Assert.fail("Expected a ZipException");
+		}
+		catch (final ZipException e)
+		{
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains(message));
+		}
+	}
+
+	private File write(final String name, final byte[]... parts) throws IOException
+	{
+		final File file = folder.newFile(name);
+		try (final OutputStream out = new FileOutputStream(file))
+		{
+			for (final byte[] part : parts)
+				out.write(part);
+		}
+		return file;
+	}
+
+	private static void assertContents(final File file) throws IOException
+	{
+		try (final MappedZipFile zipFile = new MappedZipFile(file))
+		{
+			Assert.assertEquals(3, zipFile.size());
+			Assert.assertEquals("META-INF/MANIFEST.MF", zipFile.entries().get(0).getName());
+			Assert.assertEquals("stored", new String(zipFile.entries().get(1).read(), StandardCharsets.UTF_8));
+
+			final MappedZipFile.Entry deflated = zipFile.entries().get(2);
+			final byte[] data = deflated.read();
+			Assert.assertTrue(new String(data, StandardCharsets.UTF_8).startsWith("line 0\nline 1\n"));
+			Assert.assertTrue(new String(data, StandardCharsets.UTF_8).endsWith("line 999\n"));
+
+			final ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+			try (final InputStream in = deflated.open())
+			{
+				final byte[] buffer = new byte[1024];
+				int n;
+				while ((n = in.read(buffer)) != -1)
+					streamed.write(buffer, 0, n);
+			}
+			Assert.assertArrayEquals(data, streamed.toByteArray());
+		}
+	}
+
+	@Test
+	public void testRead() throws IOException
+	{
+		assertContents(write("plain.jar", zip()));
+	}
+
+	@Test
+	public void testPrependedData() throws IOException
+	{
+		assertContents(write("stub.jar", STUB, zip()));
+	}
+
+	@Test
+	public void testInvalidCrc() throws IOException
+	{
+		assertReadFails(write("stored-crc.jar", patchCentralHeader(zip(), "test/Stored.txt", 16, 0x12345678)), 1, "invalid CRC-32");
+		assertReadFails(write("deflated-crc.jar", patchCentralHeader(zip(), "test/Deflated.txt", 16, 0x12345678)), 2, "invalid CRC-32");
+	}
+
+	@Test
+	public void testLargerThanDeclared() throws IOException
+	{
+		assertReadFails(write("larger.jar", patchCentralHeader(zip(), "test/Deflated.txt", 24, 100)), 2, "larger than its declared size");
+	}
+
+	@Test
+	public void testSmallerThanDeclared() throws IOException
+	{
+		assertReadFails(write("smaller.jar", patchCentralHeader(zip(), "test/Deflated.txt", 24, 100000)), 2, "truncated");
+	}
+}
@@ -0,0 +1,143 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.io;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Compares {@link ParallelZipWriter} with {@link ZipOutputStream} at every compression level, and checks that the archives written by {@link ParallelZipWriter} read back to the same contents.
+ * <p>
+ * Usage: {@code java -cp <test classpath> me.itzsomebody.radon.io.ParallelZipWriterBenchmark <jar>...}
+ * </p>
+ *
+ * @author hsheric0210
+ */
+public final class ParallelZipWriterBenchmark
+{
+	public static void main(final String[] args) throws Exception
+	{
+		if (args.length == 0)
+		{
+			System.err.println("Usage: ParallelZipWriterBenchmark <jar>...");
+			return;
+		}
+
+		final Map<String, byte[]> entries = new LinkedHashMap<>();
+		long totalSize = 0;
+		for (final String path : args)
+			try (final MappedZipFile zipFile = new MappedZipFile(new File(path)))
+			{
+				for (final MappedZipFile.Entry entry : zipFile.entries())
+					if (!entry.isDirectory() && !entries.containsKey(entry.getName()))
+					{
+						final byte[] bytes = entry.read();
+						entries.put(entry.getName(), bytes);
+						totalSize += bytes.length;
+					}
+			}
+
+		System.out.printf("Entries: %d, %,d bytes uncompressed, %d processors%n", entries.size(), totalSize, Runtime.getRuntime().availableProcessors());
+		System.out.printf("%-5s %12s %14s %12s %14s%n", "Level", "ZOS ms", "ZOS bytes", "Parallel ms", "Parallel bytes");
+
+		final File file = File.createTempFile("radon-zip-benchmark", ".jar");
+		file.deleteOnExit();
+		try
+		{
+			for (int level = 0; level <= 9; level++)
+			{
+				// Warm up both writers once per level
+				writeZipOutputStream(file, entries, level);
+				writeParallel(file, entries, level);
+
+				long nanoTime = System.nanoTime();
+				writeZipOutputStream(file, entries, level);
+				final long zosTime = System.nanoTime() - nanoTime;
+				final long zosSize = file.length();
+
+				nanoTime = System.nanoTime();
+				writeParallel(file, entries, level);
+				final long parallelTime = System.nanoTime() - nanoTime;
+				final long parallelSize = file.length();
+
+				verify(file, entries);
+				System.out.printf("%-5d %12d %,14d %12d %,14d%n", level, zosTime / 1000000, zosSize, parallelTime / 1000000, parallelSize);
+			}
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+
+	private static void writeZipOutputStream(final File file, final Map<String, byte[]> entries, final int level) throws IOException
+	{
+		try (final ZipOutputStream zos = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(file))))
+		{
+			zos.setLevel(level);
+			for (final Map.Entry<String, byte[]> entry : entries.entrySet())
+			{
+				zos.putNextEntry(new ZipEntry(entry.getKey()));
+				zos.write(entry.getValue());
+				zos.closeEntry();
+			}
+		}
+	}
+
+	private static void writeParallel(final File file, final Map<String, byte[]> entries, final int level) throws IOException
+	{
+		try (final ParallelZipWriter zip = new ParallelZipWriter(new FileOutputStream(file), level))
+		{
+			for (final Map.Entry<String, byte[]> entry : entries.entrySet())
+				zip.putEntry(entry.getKey(), entry.getValue(), Throwable::printStackTrace);
+		}
+	}
+
+	private static void verify(final File file, final Map<String, byte[]> entries) throws IOException
+	{
+		try (final ZipFile zipFile = new ZipFile(file))
+		{
+			if (zipFile.size() != entries.size())
+				throw new IllegalStateException(String.format("Expected %d entries, found %d", entries.size(), zipFile.size()));
+
+			for (final Map.Entry<String, byte[]> entry : entries.entrySet())
+			{
+				final ZipEntry zipEntry = zipFile.getEntry(entry.getKey());
+				final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				try (final InputStream in = zipFile.getInputStream(zipEntry))
+				{
+					final byte[] buffer = new byte[8192];
+					int n;
+					while ((n = in.read(buffer)) != -1)
+						bytes.write(buffer, 0, n);
+				}
+
+				if (!Arrays.equals(bytes.toByteArray(), entry.getValue()))
+					throw new IllegalStateException("Content mismatch: " + entry.getKey());
+			}
+		}
+	}
+
+	private ParallelZipWriterBenchmark()
+	{
+	}
+}
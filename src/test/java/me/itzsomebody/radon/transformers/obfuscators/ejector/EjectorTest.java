@@ -0,0 +1,162 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.transformers.obfuscators.ejector;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import me.itzsomebody.radon.Radon;
+import me.itzsomebody.radon.config.Configuration;
+import me.itzsomebody.radon.config.ObfuscationConfiguration;
+
+public class EjectorTest
+{
+	private static final int CLASSES = 32;
+	private static final int METHODS = 16;
+	private static final int STORES = 100;
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Each method stores constants into fields and passes constants to methods, then returns one of the fields. Only the int constants are touched by the number obfuscation.
+	 */
+	private static byte[] generateClass(final int index)
+	{
+		final String name = "test/Class" + index;
+		final ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, name, null, "java/lang/Object", null);
+		cw.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "value", "I", null, null).visitEnd();
+		cw.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "text", "Ljava/lang/String;", null, null).visitEnd();
+
+		final MethodVisitor sink = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "add", "(I)V", null, null);
+		sink.visitCode();
+		sink.visitFieldInsn(Opcodes.GETSTATIC, name, "value", "I");
+		sink.visitVarInsn(Opcodes.ILOAD, 0);
+		sink.visitInsn(Opcodes.IADD);
+		sink.visitFieldInsn(Opcodes.PUTSTATIC, name, "value", "I");
+		sink.visitInsn(Opcodes.RETURN);
+		sink.visitMaxs(0, 0);
+		sink.visitEnd();
+
+		final MethodVisitor append = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "append", "(Ljava/lang/String;)V", null, null);
+		append.visitCode();
+		append.visitFieldInsn(Opcodes.GETSTATIC, name, "text", "Ljava/lang/String;");
+		append.visitVarInsn(Opcodes.ALOAD, 0);
+		append.visitMethodInsn(Opcodes.INVOKEVIRTUAL, "java/lang/String", "concat", "(Ljava/lang/String;)Ljava/lang/String;", false);
+		append.visitFieldInsn(Opcodes.PUTSTATIC, name, "text", "Ljava/lang/String;");
+		append.visitInsn(Opcodes.RETURN);
+		append.visitMaxs(0, 0);
+		append.visitEnd();
+
+		for (int i = 0; i < METHODS; i++)
+		{
+			final MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "method" + i, "()I", null, null);
+			mv.visitCode();
+			for (int j = 0; j < STORES; j++)
+			{
+				mv.visitLdcInsn(constant(index, i, j, 0));
+				mv.visitFieldInsn(Opcodes.PUTSTATIC, name, "value", "I");
+				mv.visitLdcInsn(constant(index, i, j, 1));
+				mv.visitMethodInsn(Opcodes.INVOKESTATIC, name, "add", "(I)V", false);
+				mv.visitLdcInsn("s" + j);
+				mv.visitFieldInsn(Opcodes.PUTSTATIC, name, "text", "Ljava/lang/String;");
+				mv.visitLdcInsn("t" + j);
+				mv.visitMethodInsn(Opcodes.INVOKESTATIC, name, "append", "(Ljava/lang/String;)V", false);
+			}
+			mv.visitFieldInsn(Opcodes.GETSTATIC, name, "value", "I");
+			mv.visitInsn(Opcodes.IRETURN);
+			mv.visitMaxs(0, 0);
+			mv.visitEnd();
+		}
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private static int constant(final int classIndex, final int methodIndex, final int storeIndex, final int operand)
+	{
+		return (classIndex * 31 + methodIndex) * 100003 + storeIndex * 2 + operand;
+	}
+
+	@Test
+	public void testAfterNumberObfuscation() throws Exception
+	{
+		final File input = folder.newFile("input.jar");
+		final File output = new File(folder.getRoot(), "output.jar");
+		try (final ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(input)))
+		{
+			for (int i = 0; i < CLASSES; i++)
+			{
+				zos.putNextEntry(new ZipEntry("test/Class" + i + ".class"));
+				zos.write(generateClass(i));
+				zos.closeEntry();
+			}
+		}
+
+		final String config = "input: \"" + path(input) + "\"\n"
+				+ "output: \"" + path(output) + "\"\n"
+				+ "number_obfuscation:\n"
+				+ "  arithmetic_operations: true\n"
+				+ "  integer_tampering: true\n"
+				+ "ejector:\n"
+				+ "  eject_call: true\n"
+				+ "  eject_field_set: true\n";
+		new Radon(ObfuscationConfiguration.from(new Configuration(new ByteArrayInputStream(config.getBytes(StandardCharsets.UTF_8))))).run();
+
+		try (final URLClassLoader loader = new URLClassLoader(new URL[]
+		{
+				output.toURI().toURL()
+		}, null))
+		{
+			for (int i = 0; i < CLASSES; i++)
+			{
+				final Class<?> clazz = Class.forName("test.Class" + i, true, loader);
+				for (int j = 0; j < METHODS; j++)
+				{
+					final Method method = clazz.getMethod("method" + j);
+					Assert.assertEquals(constant(i, j, STORES - 1, 0) + constant(i, j, STORES - 1, 1), method.invoke(null));
+					Assert.assertEquals("s" + (STORES - 1) + "t" + (STORES - 1), clazz.getField("text").get(null));
+				}
+			}
+		}
+	}
+
+	private static String path(final File file) throws IOException
+	{
+		return file.getCanonicalPath().replace('\\', '/');
+	}
+}
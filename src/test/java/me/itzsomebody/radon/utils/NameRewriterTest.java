@@ -0,0 +1,105 @@
+/*
+ * Radon - An open-source Java obfuscator
+ * Copyright (C) 2019 ItzSomebody
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ */
+
+package me.itzsomebody.radon.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NameRewriterTest
+{
+	private static NameRewriter rewriter(final String... namesAndReplacements)
+	{
+		final Map<String, String> replacements = new HashMap<>();
+		for (int i = 0; i < namesAndReplacements.length; i += 2)
+			replacements.put(namesAndReplacements[i], namesAndReplacements[i + 1]);
+		return new NameRewriter(replacements);
+	}
+
+	private static String rewrite(final NameRewriter rewriter, final String text, final boolean afterSeparatorOnly)
+	{
+		return new String(rewriter.rewrite(text.getBytes(StandardCharsets.UTF_8), afterSeparatorOnly), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testRewriteAll()
+	{
+		final NameRewriter rewriter = rewriter("com.foo.Main", "a.a", "com.foo.Util", "a.b");
+		Assert.assertEquals("a.a a.b,a.aa.b", rewrite(rewriter, "com.foo.Main com.foo.Util,com.foo.Maincom.foo.Util", false));
+	}
+
+	@Test
+	public void testOverlappingNames()
+	{
+		// The leftmost match wins, and the name overlapping it is not matched anymore
+		final NameRewriter rewriter = rewriter("a.b", "X", "b.c", "Y");
+		Assert.assertEquals("X.c", rewrite(rewriter, "a.b.c", false));
+		Assert.assertEquals("aY", rewrite(rewriter, "ab.c", false));
+	}
+
+	@Test
+	public void testNestedNames()
+	{
+		// Of the names starting at the same position the longest wins, a name within another one is only replaced on its own
+		final NameRewriter rewriter = rewriter("foo.Bar", "S", "foo.Bar$Inner", "L", "Bar", "B");
+		Assert.assertEquals("L", rewrite(rewriter, "foo.Bar$Inner", false));
+		Assert.assertEquals("S$Outer", rewrite(rewriter, "foo.Bar$Outer", false));
+		Assert.assertEquals("x.B$Inner", rewrite(rewriter, "x.Bar$Inner", false));
+	}
+
+	@Test
+	public void testAfterSeparatorOnly()
+	{
+		final NameRewriter rewriter = rewriter("com.foo.Main", "a.a");
+		final String manifest = "Main-Class: com.foo.Main\nLauncher:com.foo.Main\ncom.foo.Main xcom.foo.Main";
+
+		Assert.assertEquals("Main-Class: a.a\nLauncher:a.a\ncom.foo.Main xcom.foo.Main", rewrite(rewriter, manifest, true));
+		Assert.assertEquals("Main-Class: a.a\nLauncher:a.a\na.a xa.a", rewrite(rewriter, manifest, false));
+	}
+
+	@Test
+	public void testNoChangeReturnsSameArray()
+	{
+		final NameRewriter rewriter = rewriter("com.foo.Main", "a.a");
+
+		final byte[] text = "com.foo.Util com.foo.Mai".getBytes(StandardCharsets.UTF_8);
+		Assert.assertSame(text, rewriter.rewrite(text, false));
+
+		final byte[] manifest = "Main-Class:xcom.foo.Main".getBytes(StandardCharsets.UTF_8);
+		Assert.assertSame(manifest, rewriter.rewrite(manifest, true));
+
+		final byte[] empty = new byte[0];
+		Assert.assertSame(empty, rewriter.rewrite(empty, false));
+	}
+
+	@Test
+	public void testMultiByteNames()
+	{
+		// '\u00e9' and '\u00e8' share their first UTF-8 byte
+		final NameRewriter rewriter = rewriter("pkg.Caf\u00e9", "a.a", "pkg.Caf\u00e8", "a.b", "\ud55c\uae00.\ud074\ub798\uc2a4", "\u00fc.\u00fc");
+		Assert.assertEquals("a.a a.b", rewrite(rewriter, "pkg.Caf\u00e9 pkg.Caf\u00e8", false));
+		Assert.assertEquals("Main-Class: \u00fc.\u00fc", rewrite(rewriter, "Main-Class: \ud55c\uae00.\ud074\ub798\uc2a4", true));
+
+		// The same name in decomposed form is a different byte sequence
+		Assert.assertEquals("pkg.Cafe\u0301", rewrite(rewriter, "pkg.Cafe\u0301", false));
+	}
+}